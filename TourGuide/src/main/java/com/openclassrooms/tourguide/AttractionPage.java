@@ -0,0 +1,98 @@
+package com.openclassrooms.tourguide;
+
+import java.util.List;
+
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
+
+/**
+ * Page of attractions found around a tourist
+ */
+public class AttractionPage {
+
+    /**
+     * Index of the page, starting at 0
+     */
+    private int page;
+
+    /**
+     * Maximum number of attractions per page
+     */
+    private int size;
+
+    /**
+     * Number of attractions found, over every page
+     */
+    private int totalElements;
+
+    /**
+     * Attractions of the page, closest first
+     */
+    private List<AttractionDistance> attractions;
+
+    /**
+     * Constructor for the attraction page
+     * @param page index of the page
+     * @param size maximum number of attractions per page
+     * @param totalElements number of attractions found
+     * @param attractions attractions of the page
+     */
+    public AttractionPage(int page, int size, int totalElements, List<AttractionDistance> attractions) {
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.attractions = attractions;
+    }
+
+    /**
+     * Cuts a page out of the sorted search results
+     * @param results every attraction found, closest first
+     * @param page index of the page
+     * @param size maximum number of attractions per page
+     * @return requested page, empty if past the last page
+     */
+    public static AttractionPage of(List<AttractionDistance> results, int page, int size) {
+        int from = (int) Math.min((long) page * size, results.size());
+        int to = Math.min(from + size, results.size());
+        return new AttractionPage(page, size, results.size(), results.subList(from, to));
+    }
+
+    /**
+     * Get the index of the page
+     * @return page index
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Get the maximum number of attractions per page
+     * @return page size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of attractions found
+     * @return total number of attractions
+     */
+    public int getTotalElements() {
+        return totalElements;
+    }
+
+    /**
+     * Get the number of pages
+     * @return total number of pages
+     */
+    public int getTotalPages() {
+        return (totalElements + size - 1) / size;
+    }
+
+    /**
+     * Get the attractions of the page
+     * @return attractions, closest first
+     */
+    public List<AttractionDistance> getAttractions() {
+        return attractions;
+    }
+}
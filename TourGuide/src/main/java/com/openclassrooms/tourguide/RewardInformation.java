@@ -0,0 +1,123 @@
+package com.openclassrooms.tourguide;
+
+import java.util.Date;
+import java.util.UUID;
+
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Compact projection of a user reward, without the full visited location and attraction graph
+ */
+public class RewardInformation {
+
+    /**
+     * Id of the rewarded attraction
+     */
+    private UUID attractionId;
+
+    /**
+     * Name of the rewarded attraction
+     */
+    private String attractionName;
+
+    /**
+     * Latitude of the location where the reward was earned
+     */
+    private double latitude;
+
+    /**
+     * Longitude of the location where the reward was earned
+     */
+    private double longitude;
+
+    /**
+     * Time at which the location was visited
+     */
+    private Date timeVisited;
+
+    /**
+     * Rewards points awarded for visiting the attraction
+     */
+    private int rewardPoints;
+
+    /**
+     * Constructor for the reward information object
+     * @param attractionId id of the rewarded attraction
+     * @param attractionName name of the rewarded attraction
+     * @param latitude latitude of the location where the reward was earned
+     * @param longitude longitude of the location where the reward was earned
+     * @param timeVisited time at which the location was visited
+     * @param rewardPoints reward points awarded for visiting the attraction
+     */
+    public RewardInformation(UUID attractionId, String attractionName, double latitude, double longitude, Date timeVisited, int rewardPoints) {
+        this.attractionId = attractionId;
+        this.attractionName = attractionName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timeVisited = timeVisited;
+        this.rewardPoints = rewardPoints;
+    }
+
+    /**
+     * Builds the projection of a user reward
+     * @param userReward reward to project
+     * @return reward information
+     */
+    public static RewardInformation from(UserReward userReward) {
+        return new RewardInformation(
+                userReward.attraction.attractionId,
+                userReward.attraction.attractionName,
+                userReward.visitedLocation.location.latitude,
+                userReward.visitedLocation.location.longitude,
+                userReward.visitedLocation.timeVisited,
+                userReward.getRewardPoints());
+    }
+
+    /**
+     * Get the attraction id
+     * @return attraction id
+     */
+    public UUID getAttractionId() {
+        return attractionId;
+    }
+
+    /**
+     * Get the attraction name
+     * @return attraction name
+     */
+    public String getAttractionName() {
+        return attractionName;
+    }
+
+    /**
+     * Get the latitude of the visit
+     * @return latitude
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Get the longitude of the visit
+     * @return longitude
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Get the time of the visit
+     * @return visit time
+     */
+    public Date getTimeVisited() {
+        return timeVisited;
+    }
+
+    /**
+     * Get the reward points
+     * @return reward points value
+     */
+    public int getRewardPoints() {
+        return rewardPoints;
+    }
+}
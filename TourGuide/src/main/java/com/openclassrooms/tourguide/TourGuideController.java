@@ -1,15 +1,34 @@
 package com.openclassrooms.tourguide;
 
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import com.openclassrooms.tourguide.crowd.CrowdDensity;
+import com.openclassrooms.tourguide.geo.NearbyUser;
+import com.openclassrooms.tourguide.itinerary.Itinerary;
+import com.openclassrooms.tourguide.itinerary.TourPlanner;
+import com.openclassrooms.tourguide.pricing.TripSearchResult;
+import com.openclassrooms.tourguide.pricing.TripSearchService;
+import com.openclassrooms.tourguide.pricing.TripVariation;
+import com.openclassrooms.tourguide.service.EventStreamService;
+import com.openclassrooms.tourguide.service.NdjsonStream;
 import com.openclassrooms.tourguide.service.RewardsService;
 import gpsUtil.location.Location;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
@@ -26,6 +45,16 @@ import tripPricer.Provider;
 @RestController
 public class TourGuideController {
 
+    /**
+     * Maximum number of attractions per page
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Maximum number of users returned by a proximity search
+     */
+    private static final int MAX_NEARBY_USERS = 1000;
+
     /**
      * Tour guide service instance
      */
@@ -38,6 +67,24 @@ public class TourGuideController {
     @Autowired
     RewardsService rewardsService;
 
+    /**
+     * Event stream service instance
+     */
+    @Autowired
+    EventStreamService eventStreamService;
+
+    /**
+     * Itinerary planner instance
+     */
+    @Autowired
+    TourPlanner tourPlanner;
+
+    /**
+     * Trip search service instance
+     */
+    @Autowired
+    TripSearchService tripSearchService;
+
     /**
      * Root controller route
      * @return welcome message
@@ -57,6 +104,35 @@ public class TourGuideController {
     	return tourGuideService.getUserLocation(getUser(userName));
     }
 
+    /**
+     * Gets the locations of the given user within a time range
+     * @param userName username to look up
+     * @param from start of the range, ISO-8601 instant, the beginning of the history if absent
+     * @param to end of the range, ISO-8601 instant, now if absent
+     * @param maxPoints maximum number of locations, longer ranges being down-sampled
+     * @return locations in time order
+     */
+    @RequestMapping("/getLocationHistory")
+    public List<VisitedLocation> getLocationHistory(@RequestParam String userName,
+            @RequestParam(required = false) Instant from, @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "1000") int maxPoints) {
+        return tourGuideService.getLocationHistory(getUser(userName),
+                Date.from(from == null ? Instant.EPOCH : from),
+                Date.from(to == null ? Instant.now() : to),
+                Math.max(1, maxPoints));
+    }
+
+    /**
+     * Gets where the given user was at a given time
+     * @param userName username to look up
+     * @param time ISO-8601 instant to look up
+     * @return latest location visited at or before the time, not found if none
+     */
+    @RequestMapping("/getLocationAt")
+    public ResponseEntity<VisitedLocation> getLocationAt(@RequestParam String userName, @RequestParam Instant time) {
+        return ResponseEntity.ofNullable(tourGuideService.getLocationAt(getUser(userName), Date.from(time)));
+    }
+
     /**
      * Returns the nearby attraction for the given username
      * @param userName username to look up
@@ -88,6 +164,75 @@ public class TourGuideController {
                 }).toList());
     }
 
+    /**
+     * Returns a visiting order of the attractions closest to the given user
+     * @param userName username to look up
+     * @param stops number of attractions to visit, at most 50 by default
+     * @return async itinerary from the user's location
+     */
+    @RequestMapping("/getItinerary")
+    public CompletableFuture<Itinerary> getItinerary(@RequestParam String userName,
+            @RequestParam(defaultValue = "10") int stops) {
+        var user = getUser(userName);
+
+        return tourGuideService.getUserLocation(user).thenApply(userLocation ->
+                tourPlanner.plan(userLocation.location, stops));
+    }
+
+    /**
+     * Returns the attractions within the proximity preferred by the given user, closest first
+     * @param userName username to look up
+     * @param page index of the page, starting at 0
+     * @param size number of attractions per page, between 1 and 100
+     * @return async page of attractions with their distance
+     */
+    @RequestMapping("/getAttractionsInRange")
+    public CompletableFuture<AttractionPage> getAttractionsInRange(@RequestParam String userName,
+            @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+        var user = getUser(userName);
+        int pageIndex = Math.max(0, page);
+        int pageSize = Math.min(MAX_PAGE_SIZE, Math.max(1, size));
+
+        return tourGuideService.getUserLocation(user).thenApply(userLocation -> AttractionPage.of(
+                tourGuideService.getAttractionsWithinProximity(user, userLocation), pageIndex, pageSize));
+    }
+
+    /**
+     * Returns the users whose latest position is within a radius of an attraction or of a coordinate
+     * @param attractionName name of the attraction at the center of the search
+     * @param latitude latitude of the center of the search, when no attraction is given
+     * @param longitude longitude of the center of the search, when no attraction is given
+     * @param radius radius of the search, in miles
+     * @param limit maximum number of users, between 1 and 1000
+     * @return users with their distance, closest first, not found for an unknown attraction
+     */
+    @RequestMapping("/getUsersNearby")
+    public ResponseEntity<List<NearbyUser>> getUsersNearby(@RequestParam(required = false) String attractionName,
+            @RequestParam(required = false) Double latitude, @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "10") double radius, @RequestParam(defaultValue = "100") int limit) {
+        Location center;
+        if (attractionName != null) {
+            center = rewardsService.getAttractionCatalog().getSnapshot().getByName(attractionName);
+            if (center == null) {
+                return ResponseEntity.notFound().build();
+            }
+        } else if (latitude != null && longitude != null) {
+            center = new Location(latitude, longitude);
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tourGuideService.getUsersNear(center, radius, Math.min(MAX_NEARBY_USERS, Math.max(1, limit))));
+    }
+
+    /**
+     * Gets the live crowd around the attractions: users inside each attraction zone and entries over the last hour
+     * @return crowd densities, the most crowded attraction first
+     */
+    @RequestMapping("/getCrowdDensity")
+    public List<CrowdDensity> getCrowdDensity() {
+        return rewardsService.getCrowdDensities();
+    }
+
     /**
      * Gets all the rewards for the given user
      * @param userName username of the user to check
@@ -98,6 +243,29 @@ public class TourGuideController {
     	return tourGuideService.getUserRewards(getUser(userName));
     }
 
+    /**
+     * Gets the time the given user spent around each attraction
+     * @param userName username of the user to check
+     * @return dwell time in milliseconds by attraction name
+     */
+    @RequestMapping("/getDwellTimes")
+    public Map<String, Long> getDwellTimes(@RequestParam String userName) {
+        return tourGuideService.getDwellTimes(getUser(userName));
+    }
+
+    /**
+     * Gets a compact projection of all the rewards for the given user,
+     * as JSON or with the compact binary encoding depending on the Accept header
+     * @param userName username of the user to check
+     * @return list of the user's rewards
+     */
+    @RequestMapping("/getRewardSummaries")
+    public List<RewardInformation> getRewardSummaries(@RequestParam String userName) {
+        return tourGuideService.getUserRewards(getUser(userName)).stream()
+                .map(RewardInformation::from)
+                .toList();
+    }
+
     /**
      * Gets all the trip deals for a given user
      * @param userName username of the user to check
@@ -108,6 +276,90 @@ public class TourGuideController {
     	return tourGuideService.getTripDeals(getUser(userName));
     }
 
+    /**
+     * Prices variations of the given user's trip preferences concurrently
+     * @param userName username to look up
+     * @param nights durations to price, the preferred one and its neighbours if absent
+     * @param adults numbers of adults to price, the preferred one if absent
+     * @param children numbers of children to price, the preferred one if absent
+     * @return async best deals over every variation priced before the search stopped
+     */
+    @RequestMapping("/searchTrips")
+    public CompletableFuture<TripSearchResult> searchTrips(@RequestParam String userName,
+            @RequestParam(required = false) List<Integer> nights, @RequestParam(required = false) List<Integer> adults,
+            @RequestParam(required = false) List<Integer> children) {
+        var user = getUser(userName);
+        return tripSearchService.search(user, tripSearchService.variations(user, nights, adults, children), result -> {});
+    }
+
+    /**
+     * Prices variations of the given user's trip preferences concurrently, streaming the deals of each
+     * variation as newline delimited JSON as soon as they are priced, then the ranked deals
+     * @param userName username to look up
+     * @param nights durations to price, the preferred one and its neighbours if absent
+     * @param adults numbers of adults to price, the preferred one if absent
+     * @param children numbers of children to price, the preferred one if absent
+     * @return emitter pushing the deals
+     */
+    @RequestMapping(value = "/searchTrips", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> searchTripsNdjson(@RequestParam String userName,
+            @RequestParam(required = false) List<Integer> nights, @RequestParam(required = false) List<Integer> adults,
+            @RequestParam(required = false) List<Integer> children) {
+        var user = getUser(userName);
+        List<TripVariation> variations = tripSearchService.variations(user, nights, adults, children);
+        NdjsonStream stream = eventStreamService.openNdjson();
+
+        tripSearchService.search(user, variations, stream::send)
+                .whenComplete((result, throwable) -> {
+                    if (result != null) {
+                        stream.send(result);
+                    }
+                    stream.complete();
+                });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream.getEmitter());
+    }
+
+    /**
+     * Streams the location and reward updates as Server-Sent Events
+     * @param userName username of the user to follow, every user if absent
+     * @return emitter pushing the events
+     */
+    @RequestMapping(value = "/getEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents(@RequestParam(required = false) String userName) {
+        return eventStreamService.streamSse(getFollowedUserId(userName));
+    }
+
+    /**
+     * Streams the location and reward updates as newline delimited JSON
+     * @param userName username of the user to follow, every user if absent
+     * @return emitter pushing the events
+     */
+    @RequestMapping(value = "/getEvents", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> getEventsNdjson(@RequestParam(required = false) String userName) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(eventStreamService.streamNdjson(getFollowedUserId(userName)));
+    }
+
+    /**
+     * Get the id of the user an event stream follows, before the stream is opened
+     * @param userName username to look up, null to follow every user
+     * @return id of the user, null for every user
+     * @throws ResponseStatusException with the 404 status if the user is unknown
+     */
+    private UUID getFollowedUserId(String userName) {
+        if (userName == null) {
+            return null;
+        }
+        User user = getUser(userName);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown user " + userName);
+        }
+        return user.getUserId();
+    }
+
     /**
      * Get a user based on its username
      * @param userName username to look up
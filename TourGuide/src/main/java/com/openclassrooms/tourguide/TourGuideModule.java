@@ -1,27 +1,156 @@
 package com.openclassrooms.tourguide;
 
+import java.time.Clock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import gpsUtil.GpsUtil;
 import rewardCentral.RewardCentral;
+import tripPricer.TripPricer;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.CatalogProperties;
+import com.openclassrooms.tourguide.event.TourGuideEventBus;
+import com.openclassrooms.tourguide.itinerary.ItineraryProperties;
+import com.openclassrooms.tourguide.itinerary.TourPlanner;
+import com.openclassrooms.tourguide.lane.UserLanes;
+import com.openclassrooms.tourguide.ledger.LedgerProperties;
+import com.openclassrooms.tourguide.ledger.RewardLedger;
+import com.openclassrooms.tourguide.metrics.TimedGpsUtil;
+import com.openclassrooms.tourguide.metrics.TimedRewardCentral;
+import com.openclassrooms.tourguide.metrics.TimedTripPricer;
+import com.openclassrooms.tourguide.partition.ClusterMembership;
+import com.openclassrooms.tourguide.prefetch.PrefetchProperties;
+import com.openclassrooms.tourguide.pricing.TripSearchProperties;
+import com.openclassrooms.tourguide.pricing.TripSearchService;
+import com.openclassrooms.tourguide.proximity.ProximityProperties;
+import com.openclassrooms.tourguide.proximity.ProximityReevaluator;
+import com.openclassrooms.tourguide.proximity.ProximitySettings;
+import com.openclassrooms.tourguide.prefetch.RewardPrefetcher;
+import com.openclassrooms.tourguide.partition.ClusterProperties;
+import com.openclassrooms.tourguide.resilience.AdmissionProperties;
+import com.openclassrooms.tourguide.resilience.GpsAdmissionControl;
+import com.openclassrooms.tourguide.resilience.ResiliencePolicy;
+import com.openclassrooms.tourguide.resilience.ResilienceProperties;
+import com.openclassrooms.tourguide.resilience.ResilientGpsUtil;
+import com.openclassrooms.tourguide.resilience.ResilientRewardCentral;
+import com.openclassrooms.tourguide.resilience.ResilientTripPricer;
 import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.startup.StartupProperties;
+import com.openclassrooms.tourguide.service.StreamProperties;
+import com.openclassrooms.tourguide.startup.Warmup;
+import com.openclassrooms.tourguide.tracker.MovementFilter;
+import com.openclassrooms.tourguide.tracker.MovementProperties;
 
 @Configuration
+@EnableConfigurationProperties({ResilienceProperties.class, AdmissionProperties.class, ClusterProperties.class,
+		CatalogProperties.class, StartupProperties.class, MovementProperties.class, LedgerProperties.class,
+		PrefetchProperties.class, ItineraryProperties.class,
+		TripSearchProperties.class, ProximityProperties.class, StreamProperties.class})
 public class TourGuideModule {
+
+	private final ResilienceProperties resilienceProperties;
+
+	private final MeterRegistry meterRegistry;
+
+	public TourGuideModule(ResilienceProperties resilienceProperties, MeterRegistry meterRegistry) {
+		this.resilienceProperties = resilienceProperties;
+		this.meterRegistry = meterRegistry;
+	}
 	
 	@Bean
 	public GpsUtil getGpsUtil() {
-		return new GpsUtil();
+		return new ResilientGpsUtil(new TimedGpsUtil(new GpsUtil(), meterRegistry),
+				new ResiliencePolicy("gpsUtil", resilienceProperties.getGps(), Clock.systemUTC(), meterRegistry));
+	}
+	
+	@Bean(destroyMethod = "close")
+	public AttractionCatalog getAttractionCatalog(CatalogProperties catalogProperties, Warmup warmup) {
+		// in fast-start mode the attractions are loaded by the warm-up
+		AttractionCatalog attractionCatalog = warmup.isFastStart()
+				? AttractionCatalog.deferred(getGpsUtil(), catalogProperties, meterRegistry)
+				: new AttractionCatalog(getGpsUtil(), catalogProperties, meterRegistry);
+		attractionCatalog.startRefreshing(catalogProperties.getRefreshInterval());
+		return attractionCatalog;
 	}
 	
 	@Bean
-	public RewardsService getRewardsService() {
-		return new RewardsService(getGpsUtil(), getRewardCentral());
+	public RewardsService getRewardsService(AttractionCatalog attractionCatalog, RewardLedger rewardLedger,
+			RewardPrefetcher rewardPrefetcher, ProximityProperties proximityProperties) {
+		return new RewardsService(attractionCatalog, getRewardCentral(), getEventBus(), getUserLanes(), rewardLedger,
+				rewardPrefetcher, ProximitySettings.of(proximityProperties.getBufferMiles(),
+						proximityProperties.getAttractionRangeMiles()), meterRegistry);
+	}
+
+	@Bean(destroyMethod = "close")
+	public ProximityReevaluator getProximityReevaluator(RewardsService rewardsService, TourGuideService tourGuideService,
+			ProximityProperties proximityProperties) {
+		return new ProximityReevaluator(rewardsService, tourGuideService::getAllUsers,
+				proximityProperties.getReevaluationConcurrency(), proximityProperties.getMaxBufferMiles());
+	}
+
+	@Bean(destroyMethod = "close")
+	public TripSearchService getTripSearchService(TripSearchProperties tripSearchProperties) {
+		return new TripSearchService(tripSearchProperties, getTripPricer(), meterRegistry);
+	}
+
+	@Bean
+	public TourPlanner getTourPlanner(ItineraryProperties itineraryProperties, AttractionCatalog attractionCatalog) {
+		return new TourPlanner(itineraryProperties, attractionCatalog, meterRegistry);
+	}
+
+	@Bean(destroyMethod = "close")
+	public RewardPrefetcher getRewardPrefetcher(PrefetchProperties prefetchProperties) {
+		return new RewardPrefetcher(prefetchProperties, getRewardCentral(), meterRegistry);
+	}
+
+	@Bean(destroyMethod = "close")
+	public RewardLedger getRewardLedger(LedgerProperties ledgerProperties) {
+		return ledgerProperties.isEnabled() ? new RewardLedger(ledgerProperties, meterRegistry) : RewardLedger.disabled();
+	}
+
+	@Bean(destroyMethod = "close")
+	public UserLanes getUserLanes() {
+		return UserLanes.perCore(meterRegistry);
 	}
 	
 	@Bean
 	public RewardCentral getRewardCentral() {
-		return new RewardCentral();
+		return new ResilientRewardCentral(new TimedRewardCentral(new RewardCentral(), meterRegistry),
+				new ResiliencePolicy("rewardCentral", resilienceProperties.getRewards(), Clock.systemUTC(), meterRegistry));
+	}
+
+	@Bean
+	public TripPricer getTripPricer() {
+		return new ResilientTripPricer(new TimedTripPricer(new TripPricer(), meterRegistry),
+				new ResiliencePolicy("tripPricer", resilienceProperties.getTripPricer(), Clock.systemUTC(), meterRegistry));
+	}
+
+	@Bean
+	public GpsAdmissionControl getGpsAdmissionControl(AdmissionProperties admissionProperties) {
+		return new GpsAdmissionControl(admissionProperties, meterRegistry);
+	}
+
+	@Bean(destroyMethod = "close")
+	public ClusterMembership getClusterMembership(ClusterProperties clusterProperties) {
+		return new ClusterMembership(clusterProperties);
+	}
+
+	@Bean
+	public Warmup getWarmup(StartupProperties startupProperties) {
+		return new Warmup(startupProperties.isFastStart(), meterRegistry);
+	}
+
+	@Bean
+	public MovementFilter getMovementFilter(MovementProperties movementProperties) {
+		return new MovementFilter(movementProperties, meterRegistry);
+	}
+
+	@Bean
+	public TourGuideEventBus getEventBus() {
+		return new TourGuideEventBus();
 	}
 }
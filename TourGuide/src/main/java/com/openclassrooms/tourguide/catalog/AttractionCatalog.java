@@ -0,0 +1,243 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+
+/**
+ * Single source of the attractions used by the services.
+ * The attractions are loaded once from GpsUtil and reloaded in the background; each load builds a new
+ * immutable snapshot which replaces the current one atomically, so readers never wait for GpsUtil
+ * nor see a partially built index. Unchanged attractions keep the same instance, and so the same id,
+ * across reloads. The spatial index of each region is built when a search first reaches it.
+ */
+public class AttractionCatalog implements AutoCloseable {
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(AttractionCatalog.class);
+
+	/**
+	 * GpsUtil library, source of the attractions
+	 */
+	private final GpsUtil gpsUtil;
+
+	/**
+	 * Settings of the catalogue
+	 */
+	private final CatalogProperties properties;
+
+	/**
+	 * Registry of the catalogue meters
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Current version of the catalogue
+	 */
+	private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+	/**
+	 * Thread reloading the attractions, null until the refresh is started
+	 */
+	private ScheduledExecutorService refreshExecutor;
+
+	/**
+	 * Constructor for the catalogue, loading the attractions
+	 * @param gpsUtil gps library
+	 */
+	public AttractionCatalog(GpsUtil gpsUtil) {
+		this(gpsUtil, new CatalogProperties());
+	}
+
+	/**
+	 * Constructor for the catalogue, loading the attractions
+	 * @param gpsUtil gps library
+	 * @param properties settings of the catalogue
+	 */
+	public AttractionCatalog(GpsUtil gpsUtil, CatalogProperties properties) {
+		this(gpsUtil, properties, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the catalogue, loading the attractions
+	 * @param gpsUtil gps library
+	 * @param properties settings of the catalogue
+	 * @param meterRegistry registry of the catalogue meters
+	 */
+	public AttractionCatalog(GpsUtil gpsUtil, CatalogProperties properties, MeterRegistry meterRegistry) {
+		this(gpsUtil, properties, meterRegistry,
+				new CatalogSnapshot(1, gpsUtil.getAttractions(), properties, meterRegistry));
+	}
+
+	/**
+	 * Constructor for the catalogue
+	 * @param gpsUtil gps library
+	 * @param properties settings of the catalogue
+	 * @param meterRegistry registry of the catalogue meters
+	 * @param initial first version of the catalogue
+	 */
+	private AttractionCatalog(GpsUtil gpsUtil, CatalogProperties properties, MeterRegistry meterRegistry,
+			CatalogSnapshot initial) {
+		this.gpsUtil = gpsUtil;
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		snapshot.set(initial);
+
+		Gauge.builder("tourguide.catalog.version", snapshot, s -> s.get().getVersion())
+				.description("Version of the attraction catalogue")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.catalog.attractions", snapshot, s -> s.get().getAttractions().size())
+				.description("Number of attractions in the catalogue")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.catalog.tiles.loaded", snapshot, s -> s.get().getTiles().getLoadedTileCount())
+				.description("Number of attraction tiles whose index is loaded")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Creates a catalogue without attractions, loaded by the first refresh
+	 * @param gpsUtil gps library
+	 * @return empty catalogue, at version 0
+	 */
+	public static AttractionCatalog deferred(GpsUtil gpsUtil) {
+		return deferred(gpsUtil, new CatalogProperties());
+	}
+
+	/**
+	 * Creates a catalogue without attractions, loaded by the first refresh
+	 * @param gpsUtil gps library
+	 * @param properties settings of the catalogue
+	 * @return empty catalogue, at version 0
+	 */
+	public static AttractionCatalog deferred(GpsUtil gpsUtil, CatalogProperties properties) {
+		return deferred(gpsUtil, properties, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Creates a catalogue without attractions, loaded by the first refresh
+	 * @param gpsUtil gps library
+	 * @param properties settings of the catalogue
+	 * @param meterRegistry registry of the catalogue meters
+	 * @return empty catalogue, at version 0
+	 */
+	public static AttractionCatalog deferred(GpsUtil gpsUtil, CatalogProperties properties, MeterRegistry meterRegistry) {
+		return new AttractionCatalog(gpsUtil, properties, meterRegistry,
+				new CatalogSnapshot(0, List.of(), properties, meterRegistry));
+	}
+
+	/**
+	 * Indicates if the attractions were loaded
+	 * @return true once a version was published
+	 */
+	public boolean isLoaded() {
+		return snapshot.get().getVersion() > 0;
+	}
+
+	/**
+	 * Get the current version of the catalogue
+	 * @return immutable snapshot, to be used for the whole operation needing a consistent view
+	 */
+	public CatalogSnapshot getSnapshot() {
+		return snapshot.get();
+	}
+
+	/**
+	 * Starts reloading the attractions periodically, and evicting the tiles left unused
+	 * @param interval interval between two reloads
+	 */
+	public synchronized void startRefreshing(Duration interval) {
+		if (refreshExecutor != null) {
+			return;
+		}
+		refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "attraction-catalog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long millis = interval.toMillis();
+		refreshExecutor.scheduleWithFixedDelay(this::refreshQuietly, millis, millis, TimeUnit.MILLISECONDS);
+		long evictionMillis = Math.max(1000, properties.getTileIdleTimeout().toMillis() / 2);
+		refreshExecutor.scheduleWithFixedDelay(() -> snapshot.get().getTiles().evictIdle(),
+				evictionMillis, evictionMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Reloads the attractions, and publishes a new version if they changed
+	 * @return true if a new version was published
+	 */
+	public synchronized boolean refresh() {
+		CatalogSnapshot current = snapshot.get();
+		List<Attraction> loaded = gpsUtil.getAttractions();
+
+		boolean changed = loaded.size() != current.getAttractions().size();
+		List<Attraction> attractions = new ArrayList<>(loaded.size());
+		for (Attraction attraction : loaded) {
+			Attraction previous = current.getByName(attraction.attractionName);
+			if (previous != null && sameContent(previous, attraction)) {
+				attractions.add(previous);
+			} else {
+				attractions.add(attraction);
+				changed = true;
+			}
+		}
+
+		if (!changed) {
+			return false;
+		}
+		CatalogSnapshot next = new CatalogSnapshot(current.getVersion() + 1, attractions, properties, meterRegistry);
+		snapshot.set(next);
+		logger.info("Attraction catalogue updated to version " + next.getVersion() + " with " + attractions.size() + " attractions");
+		return true;
+	}
+
+	/**
+	 * Reloads the attractions, keeping the current version if GpsUtil fails
+	 */
+	private void refreshQuietly() {
+		try {
+			refresh();
+		} catch (RuntimeException e) {
+			logger.warn("Attraction catalogue refresh failed, keeping version " + snapshot.get().getVersion() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Compares the description of two attractions, ignoring their ids which GpsUtil generates on each call
+	 * @param a first attraction
+	 * @param b second attraction
+	 * @return true if both describe the same attraction at the same place
+	 */
+	private static boolean sameContent(Attraction a, Attraction b) {
+		return a.attractionName.equals(b.attractionName)
+				&& Objects.equals(a.city, b.city)
+				&& Objects.equals(a.state, b.state)
+				&& a.latitude == b.latitude
+				&& a.longitude == b.longitude;
+	}
+
+	/**
+	 * Stops reloading the attractions
+	 */
+	@Override
+	public synchronized void close() {
+		if (refreshExecutor != null) {
+			refreshExecutor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.openclassrooms.tourguide.catalog;
+
+import gpsUtil.location.Attraction;
+
+/**
+ * Attraction found by a radius search, with its distance from the center of the search
+ */
+public class AttractionDistance {
+
+	/**
+	 * Found attraction
+	 */
+	private final Attraction attraction;
+
+	/**
+	 * Distance from the center of the search, in statute miles
+	 */
+	private final double distance;
+
+	/**
+	 * Constructor for the search result
+	 * @param attraction found attraction
+	 * @param distance distance from the center of the search, in statute miles
+	 */
+	public AttractionDistance(Attraction attraction, double distance) {
+		this.attraction = attraction;
+		this.distance = distance;
+	}
+
+	public Attraction getAttraction() {
+		return attraction;
+	}
+
+	public double getDistance() {
+		return distance;
+	}
+}
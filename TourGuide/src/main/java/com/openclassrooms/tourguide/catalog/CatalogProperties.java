@@ -0,0 +1,64 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the attraction catalogue, bound from the tourguide.catalog properties
+ */
+@ConfigurationProperties(prefix = "tourguide.catalog")
+public class CatalogProperties {
+
+	/**
+	 * Interval at which the attractions are reloaded from GpsUtil
+	 */
+	private Duration refreshInterval = Duration.ofMinutes(10);
+
+	/**
+	 * Size of the region tiles partitioning the attractions, in degrees
+	 */
+	private double tileSizeDegrees = 5;
+
+	/**
+	 * Largest number of tiles whose index is loaded at once
+	 */
+	private int maxLoadedTiles = 256;
+
+	/**
+	 * Time after which the index of an unused tile is evicted
+	 */
+	private Duration tileIdleTimeout = Duration.ofMinutes(10);
+
+	public Duration getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	public void setRefreshInterval(Duration refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	public double getTileSizeDegrees() {
+		return tileSizeDegrees;
+	}
+
+	public void setTileSizeDegrees(double tileSizeDegrees) {
+		this.tileSizeDegrees = tileSizeDegrees;
+	}
+
+	public int getMaxLoadedTiles() {
+		return maxLoadedTiles;
+	}
+
+	public void setMaxLoadedTiles(int maxLoadedTiles) {
+		this.maxLoadedTiles = maxLoadedTiles;
+	}
+
+	public Duration getTileIdleTimeout() {
+		return tileIdleTimeout;
+	}
+
+	public void setTileIdleTimeout(Duration tileIdleTimeout) {
+		this.tileIdleTimeout = tileIdleTimeout;
+	}
+}
@@ -0,0 +1,139 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Immutable version of the attraction catalogue, built completely before being published,
+ * with its lookup maps and its attractions partitioned in region tiles
+ */
+public final class CatalogSnapshot {
+
+	/**
+	 * Version of the catalogue, incremented each time its content changes
+	 */
+	private final long version;
+
+	/**
+	 * Time at which the catalogue was loaded
+	 */
+	private final Instant loadedAt;
+
+	/**
+	 * Attractions of the catalogue
+	 */
+	private final List<Attraction> attractions;
+
+	/**
+	 * Attractions by id
+	 */
+	private final Map<UUID, Attraction> byId = new HashMap<>();
+
+	/**
+	 * Attractions by name
+	 */
+	private final Map<String, Attraction> byName = new HashMap<>();
+
+	/**
+	 * Attractions partitioned in region tiles, indexed on demand
+	 */
+	private final RegionTiles tiles;
+
+	/**
+	 * Constructor for the snapshot
+	 * @param version version of the catalogue
+	 * @param attractions attractions of the catalogue
+	 * @param properties settings of the catalogue
+	 * @param meterRegistry registry of the tile counters
+	 */
+	CatalogSnapshot(long version, List<Attraction> attractions, CatalogProperties properties, MeterRegistry meterRegistry) {
+		this.version = version;
+		this.loadedAt = Instant.now();
+		this.attractions = List.copyOf(attractions);
+		this.tiles = new RegionTiles(this.attractions, properties, meterRegistry);
+		for (Attraction attraction : this.attractions) {
+			byId.put(attraction.attractionId, attraction);
+			byName.put(attraction.attractionName, attraction);
+		}
+	}
+
+	/**
+	 * Get the version of the catalogue
+	 * @return version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get the time at which the catalogue was loaded
+	 * @return load time
+	 */
+	public Instant getLoadedAt() {
+		return loadedAt;
+	}
+
+	/**
+	 * Get the attractions of the catalogue
+	 * @return immutable list of attractions
+	 */
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+
+	/**
+	 * Finds an attraction by id
+	 * @param attractionId id of the attraction
+	 * @return attraction, or null if unknown
+	 */
+	public Attraction getById(UUID attractionId) {
+		return byId.get(attractionId);
+	}
+
+	/**
+	 * Finds an attraction by name
+	 * @param attractionName name of the attraction
+	 * @return attraction, or null if unknown
+	 */
+	public Attraction getByName(String attractionName) {
+		return byName.get(attractionName);
+	}
+
+	/**
+	 * Get the region tiles of the attractions
+	 * @return attraction tiles
+	 */
+	public RegionTiles getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * Finds the attractions closest to a location, searching the tiles around the location first
+	 * @param location location to search from
+	 * @param limit maximum number of attractions
+	 * @return closest attractions, closest first
+	 */
+	public List<Attraction> nearest(Location location, int limit) {
+		return tiles.nearest(location, limit).stream()
+				.map(AttractionDistance::getAttraction)
+				.toList();
+	}
+
+	/**
+	 * Finds the attractions within a radius of a location, using the tiles overlapping the radius
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @return attractions within the radius with their distance, closest first
+	 */
+	public List<AttractionDistance> withinRadius(Location location, double radiusMiles) {
+		return tiles.withinRadiusByDistance(location, radiusMiles);
+	}
+}
@@ -0,0 +1,344 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjDoubleConsumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.geo.AttractionGrid;
+import com.openclassrooms.tourguide.geo.AttractionIndex;
+import com.openclassrooms.tourguide.geo.CellGrid;
+import com.openclassrooms.tourguide.geo.GeoMath;
+
+/**
+ * Attractions partitioned in geographic tiles, whose search index is loaded the first time a search reaches them
+ * and evicted when they are no longer used, so that memory follows the regions the users are in.
+ * A search only loads the tiles overlapping its circle: for the usual radiuses the tile of the user
+ * and its neighbours. Tiles holding a few attractions are scanned without an index, and so are the tiles
+ * of the searches too wide to keep all their tiles loaded.
+ */
+public class RegionTiles implements AttractionIndex {
+
+	/**
+	 * Radius of the first nearest attraction search, within the tile of the location and its neighbours
+	 */
+	private static final double FIRST_NEAREST_RADIUS_MILES = 5;
+
+	/**
+	 * Distance beyond which every point of the globe is covered, half of the great circle
+	 */
+	private static final double HALF_GREAT_CIRCLE_MILES = 180 * GeoMath.STATUTE_MILES_PER_DEGREE;
+
+	/**
+	 * Size of the cells of the index of a tile, in degrees
+	 */
+	private static final double TILE_CELL_SIZE = 0.1;
+
+	/**
+	 * Number of attractions from which a tile is worth indexing
+	 */
+	private static final int INDEXED_TILE_MIN_ATTRACTIONS = 64;
+
+	/**
+	 * Division of the globe in tiles
+	 */
+	private final CellGrid tileGrid;
+
+	/**
+	 * Attractions of each non empty tile
+	 */
+	private final Map<Long, List<Attraction>> partitions = new HashMap<>();
+
+	/**
+	 * Index of the loaded tiles
+	 */
+	private final Map<Long, LoadedTile> loaded = new ConcurrentHashMap<>();
+
+	/**
+	 * Largest number of loaded tiles, the least recently used ones being evicted beyond
+	 */
+	private final int maxLoadedTiles;
+
+	/**
+	 * Time after which an unused tile is evicted, in nanoseconds
+	 */
+	private final long idleTimeoutNanos;
+
+	/**
+	 * Counter of the tile loads
+	 */
+	private final Counter loadCounter;
+
+	/**
+	 * Counter of the tile evictions
+	 */
+	private final Counter evictionCounter;
+
+	/**
+	 * Constructor for the tiles
+	 * @param attractions attractions to partition
+	 * @param properties settings of the tiles
+	 */
+	public RegionTiles(List<Attraction> attractions, CatalogProperties properties) {
+		this(attractions, properties, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the tiles
+	 * @param attractions attractions to partition
+	 * @param properties settings of the tiles
+	 * @param meterRegistry registry of the tile counters
+	 */
+	public RegionTiles(List<Attraction> attractions, CatalogProperties properties, MeterRegistry meterRegistry) {
+		this.loadCounter = tileCounter(meterRegistry, "load");
+		this.evictionCounter = tileCounter(meterRegistry, "evict");
+		this.tileGrid = new CellGrid(properties.getTileSizeDegrees());
+		this.maxLoadedTiles = Math.max(1, properties.getMaxLoadedTiles());
+		this.idleTimeoutNanos = properties.getTileIdleTimeout().toNanos();
+		for (Attraction attraction : attractions) {
+			partitions.computeIfAbsent(tileGrid.keyOf(attraction.latitude, attraction.longitude), k -> new ArrayList<>())
+					.add(attraction);
+		}
+	}
+
+	/**
+	 * Finds the attractions within a radius of a location
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @return attractions within the radius, in no particular order
+	 */
+	@Override
+	public List<Attraction> withinRadius(Location location, double radiusMiles) {
+		List<Attraction> result = new ArrayList<>();
+		search(tileKeys(location, radiusMiles), location, radiusMiles, (attraction, distance) -> result.add(attraction));
+		return result;
+	}
+
+	/**
+	 * Finds the attractions within a radius of a location, with their distance
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @return attractions within the radius, closest first
+	 */
+	public List<AttractionDistance> withinRadiusByDistance(Location location, double radiusMiles) {
+		return withinRadiusByDistance(tileKeys(location, radiusMiles), location, radiusMiles);
+	}
+
+	/**
+	 * Finds the attractions of some tiles within a radius of a location, with their distance
+	 * @param keys keys of the tiles overlapping the radius
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @return attractions within the radius, closest first
+	 */
+	private List<AttractionDistance> withinRadiusByDistance(List<Long> keys, Location location, double radiusMiles) {
+		List<AttractionDistance> result = new ArrayList<>();
+		search(keys, location, radiusMiles, (attraction, distance) -> result.add(new AttractionDistance(attraction, distance)));
+		result.sort(Comparator.comparingDouble(AttractionDistance::getDistance));
+		return result;
+	}
+
+	/**
+	 * Finds the attractions closest to a location.
+	 * The search starts with the tiles around the location and widens until its tiles hold enough attractions,
+	 * those beyond its radius being farther than any found.
+	 * @param location location to search from
+	 * @param limit maximum number of attractions
+	 * @return closest attractions, closest first
+	 */
+	public List<AttractionDistance> nearest(Location location, int limit) {
+		double radius = FIRST_NEAREST_RADIUS_MILES;
+		while (true) {
+			List<Long> keys = tileKeys(location, radius);
+			boolean global = radius >= HALF_GREAT_CIRCLE_MILES;
+			if (global || attractionCount(keys) >= limit) {
+				List<AttractionDistance> found = withinRadiusByDistance(keys, location, radius);
+				if (global || found.size() >= limit) {
+					return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+				}
+			}
+			radius *= 2;
+		}
+	}
+
+	/**
+	 * Get the number of non empty tiles
+	 * @return tile count
+	 */
+	public int getTileCount() {
+		return partitions.size();
+	}
+
+	/**
+	 * Get the number of loaded tiles
+	 * @return loaded tile count
+	 */
+	public int getLoadedTileCount() {
+		return loaded.size();
+	}
+
+	/**
+	 * Evicts the tiles not used for longer than the idle timeout
+	 */
+	public void evictIdle() {
+		long now = System.nanoTime();
+		loaded.entrySet().removeIf(entry -> {
+			boolean idle = now - entry.getValue().lastAccess >= idleTimeoutNanos;
+			if (idle) {
+				evictionCounter.increment();
+			}
+			return idle;
+		});
+	}
+
+	/**
+	 * Finds the non empty tiles overlapping the bounding box of a circle
+	 * @param location center of the circle
+	 * @param radiusMiles radius of the circle, in statute miles
+	 * @return tile keys
+	 */
+	private List<Long> tileKeys(Location location, double radiusMiles) {
+		CellGrid.Range range = tileGrid.range(location, radiusMiles);
+		List<Long> keys = new ArrayList<>();
+		if (range.cellCount() > partitions.size()) {
+			for (Long key : partitions.keySet()) {
+				if (range.contains(key)) {
+					keys.add(key);
+				}
+			}
+		} else {
+			range.forEachKey(key -> {
+				if (partitions.containsKey(key)) {
+					keys.add(key);
+				}
+			});
+		}
+		return keys;
+	}
+
+	/**
+	 * Counts the attractions of some tiles
+	 * @param keys keys of the tiles
+	 * @return attraction count
+	 */
+	private int attractionCount(List<Long> keys) {
+		int count = 0;
+		for (Long key : keys) {
+			count += partitions.get(key).size();
+		}
+		return count;
+	}
+
+	/**
+	 * Visits the attractions of some tiles within a radius, using the index of the tiles worth loading
+	 * @param keys keys of the tiles overlapping the radius
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @param action receiver of each attraction within the radius and of its distance
+	 */
+	private void search(List<Long> keys, Location location, double radiusMiles, ObjDoubleConsumer<Attraction> action) {
+		// a search needing more tiles than can stay loaded would evict the tiles of the other users
+		boolean wide = keys.size() > maxLoadedTiles;
+		for (Long key : keys) {
+			List<Attraction> partition = partitions.get(key);
+			if (wide || partition.size() < INDEXED_TILE_MIN_ATTRACTIONS) {
+				filter(partition, location, radiusMiles, action);
+			} else {
+				filter(tile(key).grid.candidates(location, radiusMiles), location, radiusMiles, action);
+			}
+		}
+	}
+
+	/**
+	 * Visits the attractions within a radius among candidates
+	 * @param candidates attractions to check
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @param action receiver of each attraction within the radius and of its distance
+	 */
+	private static void filter(Iterable<Attraction> candidates, Location location, double radiusMiles,
+			ObjDoubleConsumer<Attraction> action) {
+		for (Attraction attraction : candidates) {
+			double distance = GeoMath.distance(attraction, location);
+			if (distance <= radiusMiles) {
+				action.accept(attraction, distance);
+			}
+		}
+	}
+
+	/**
+	 * Gets a tile, loading it if needed and evicting the least recently used tile beyond the limit
+	 * @param key key of a non empty tile
+	 * @return loaded tile
+	 */
+	private LoadedTile tile(long key) {
+		LoadedTile tile = loaded.get(key);
+		if (tile == null) {
+			tile = loaded.computeIfAbsent(key, k -> {
+				loadCounter.increment();
+				return new LoadedTile(partitions.get(k));
+			});
+			if (loaded.size() > maxLoadedTiles) {
+				evictLeastRecentlyUsed(key);
+			}
+		}
+		tile.lastAccess = System.nanoTime();
+		return tile;
+	}
+
+	/**
+	 * Evicts the least recently used tiles until the limit is met
+	 * @param keep key of the tile being used, never evicted
+	 */
+	private void evictLeastRecentlyUsed(long keep) {
+		while (loaded.size() > maxLoadedTiles) {
+			Long oldest = null;
+			long oldestAccess = Long.MAX_VALUE;
+			for (Map.Entry<Long, LoadedTile> entry : loaded.entrySet()) {
+				if (entry.getKey() != keep && entry.getValue().lastAccess - oldestAccess < 0) {
+					oldest = entry.getKey();
+					oldestAccess = entry.getValue().lastAccess;
+				}
+			}
+			if (oldest == null || loaded.remove(oldest) == null) {
+				return;
+			}
+			evictionCounter.increment();
+		}
+	}
+
+	/**
+	 * Creates the counter of a tile event
+	 * @param event counted event
+	 * @return counter tagged with the event
+	 */
+	private static Counter tileCounter(MeterRegistry meterRegistry, String event) {
+		return Counter.builder("tourguide.catalog.tiles")
+				.description("Loads and evictions of the attraction catalogue tiles")
+				.tag("event", event)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Search index of a loaded tile
+	 */
+	private static class LoadedTile {
+
+		private final AttractionGrid grid;
+
+		private volatile long lastAccess = System.nanoTime();
+
+		private LoadedTile(List<Attraction> attractions) {
+			this.grid = new AttractionGrid(attractions, TILE_CELL_SIZE);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.openclassrooms.tourguide.crowd;
+
+/**
+ * Crowd around an attraction
+ */
+public class CrowdDensity {
+
+	/**
+	 * Name of the attraction
+	 */
+	private final String attractionName;
+
+	/**
+	 * Number of users currently inside the attraction zone
+	 */
+	private final long visitors;
+
+	/**
+	 * Number of users who entered the attraction zone during the window
+	 */
+	private final long visits;
+
+	/**
+	 * Entries per hour, averaged over the window
+	 */
+	private final double visitsPerHour;
+
+	/**
+	 * Constructor for the crowd density
+	 * @param attractionName name of the attraction
+	 * @param visitors number of users currently inside the attraction zone
+	 * @param visits number of users who entered the attraction zone during the window
+	 * @param visitsPerHour entries per hour, averaged over the window
+	 */
+	public CrowdDensity(String attractionName, long visitors, long visits, double visitsPerHour) {
+		this.attractionName = attractionName;
+		this.visitors = visitors;
+		this.visits = visits;
+		this.visitsPerHour = visitsPerHour;
+	}
+
+	public String getAttractionName() {
+		return attractionName;
+	}
+
+	public long getVisitors() {
+		return visitors;
+	}
+
+	public long getVisits() {
+		return visits;
+	}
+
+	public double getVisitsPerHour() {
+		return visitsPerHour;
+	}
+}
@@ -0,0 +1,173 @@
+package com.openclassrooms.tourguide.crowd;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.openclassrooms.tourguide.geofence.GeofenceEvent;
+
+/**
+ * Streaming aggregation of the crowd around each attraction, fed by the geofence transitions of the tracked users.
+ * Each attraction keeps the number of users inside its zone and a sliding window of the entries,
+ * so that its memory does not depend on the number of users.
+ */
+public class CrowdDensityAggregator {
+
+	/**
+	 * Milliseconds in an hour, used to express the visit rate
+	 */
+	private static final double MILLIS_PER_HOUR = Duration.ofHours(1).toMillis();
+
+	/**
+	 * Duration of the sliding window
+	 */
+	private final Duration window;
+
+	/**
+	 * Number of buckets of the sliding window
+	 */
+	private final int buckets;
+
+	/**
+	 * Clock used to slide the window
+	 */
+	private final Clock clock;
+
+	/**
+	 * Registry of the gauges of each attraction
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Counters of each attraction, by attraction name
+	 */
+	private final Map<String, AttractionCounters> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor for the aggregator
+	 * @param window duration of the sliding window
+	 * @param buckets number of buckets of the sliding window
+	 * @param meterRegistry registry of the gauges of each attraction
+	 */
+	public CrowdDensityAggregator(Duration window, int buckets, MeterRegistry meterRegistry) {
+		this(window, buckets, Clock.systemUTC(), meterRegistry);
+	}
+
+	/**
+	 * Constructor for the aggregator
+	 * @param window duration of the sliding window
+	 * @param buckets number of buckets of the sliding window
+	 * @param clock clock used to slide the window
+	 */
+	public CrowdDensityAggregator(Duration window, int buckets, Clock clock) {
+		this(window, buckets, clock, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the aggregator
+	 * @param window duration of the sliding window
+	 * @param buckets number of buckets of the sliding window
+	 * @param clock clock used to slide the window
+	 * @param meterRegistry registry of the gauges of each attraction
+	 */
+	public CrowdDensityAggregator(Duration window, int buckets, Clock clock, MeterRegistry meterRegistry) {
+		this.window = window;
+		this.buckets = buckets;
+		this.clock = clock;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Records a geofence transition
+	 * @param event entry in or exit from an attraction zone
+	 */
+	public void record(GeofenceEvent event) {
+		AttractionCounters attractionCounters = counters.computeIfAbsent(event.getAttraction().attractionName, this::createCounters);
+		if (event.getType() == GeofenceEvent.Type.ENTER) {
+			attractionCounters.visitors.incrementAndGet();
+			attractionCounters.visits.add(event.getVisitedLocation().timeVisited.getTime(), clock.millis());
+		} else {
+			attractionCounters.visitors.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Gets the crowd around every attraction visited so far
+	 * @return crowd densities, the most crowded attraction first
+	 */
+	public List<CrowdDensity> getDensities() {
+		return counters.entrySet().stream()
+				.map(entry -> density(entry.getKey(), entry.getValue()))
+				.sorted(Comparator.comparingLong(CrowdDensity::getVisitors).reversed()
+						.thenComparing(Comparator.comparingLong(CrowdDensity::getVisits).reversed()))
+				.toList();
+	}
+
+	/**
+	 * Forgets every transition, used when the geofence state is rebuilt from the histories
+	 */
+	public void reset() {
+		counters.values().forEach(attractionCounters -> {
+			attractionCounters.visitors.set(0);
+			attractionCounters.visits.clear();
+		});
+	}
+
+	/**
+	 * Computes the crowd density of an attraction
+	 * @param attractionName name of the attraction
+	 * @param attractionCounters counters of the attraction
+	 * @return crowd density
+	 */
+	private CrowdDensity density(String attractionName, AttractionCounters attractionCounters) {
+		long visits = attractionCounters.visits.sum(clock.millis());
+		return new CrowdDensity(attractionName, attractionCounters.visitors.get(), visits,
+				visits * MILLIS_PER_HOUR / window.toMillis());
+	}
+
+	/**
+	 * Creates the counters of an attraction and their gauges
+	 * @param attractionName name of the attraction
+	 * @return new counters
+	 */
+	private AttractionCounters createCounters(String attractionName) {
+		AttractionCounters attractionCounters = new AttractionCounters(new SlidingWindowCounter(window.toMillis(), buckets));
+		Gauge.builder("tourguide.crowd.visitors", attractionCounters.visitors, AtomicLong::get)
+				.tag("attraction", attractionName)
+				.description("Number of users inside the attraction zone")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.crowd.visits", attractionCounters.visits, counter -> counter.sum(clock.millis()))
+				.tag("attraction", attractionName)
+				.description("Number of entries in the attraction zone during the sliding window")
+				.register(meterRegistry);
+		return attractionCounters;
+	}
+
+	/**
+	 * Counters of one attraction
+	 */
+	private static class AttractionCounters {
+
+		/**
+		 * Number of users inside the attraction zone
+		 */
+		final AtomicLong visitors = new AtomicLong();
+
+		/**
+		 * Entries in the attraction zone during the window
+		 */
+		final SlidingWindowCounter visits;
+
+		AttractionCounters(SlidingWindowCounter visits) {
+			this.visits = visits;
+		}
+	}
+}
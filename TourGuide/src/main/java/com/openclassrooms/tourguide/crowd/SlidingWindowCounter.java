@@ -0,0 +1,88 @@
+package com.openclassrooms.tourguide.crowd;
+
+import java.util.Arrays;
+
+/**
+ * Counter of the events of a sliding time window, split in fixed buckets held in primitive arrays.
+ * Its memory does not depend on the number of events; buckets are reused as the window slides.
+ */
+public class SlidingWindowCounter {
+
+	/**
+	 * Marker of a bucket never used
+	 */
+	private static final long UNUSED = Long.MIN_VALUE;
+
+	/**
+	 * Duration of a bucket, in milliseconds
+	 */
+	private final long bucketMillis;
+
+	/**
+	 * Event count of each bucket
+	 */
+	private final long[] counts;
+
+	/**
+	 * Index since the epoch of the time slice each bucket currently counts
+	 */
+	private final long[] slices;
+
+	/**
+	 * Constructor for the counter
+	 * @param windowMillis duration of the window, in milliseconds
+	 * @param buckets number of buckets of the window
+	 */
+	public SlidingWindowCounter(long windowMillis, int buckets) {
+		this.bucketMillis = Math.max(1, windowMillis / buckets);
+		this.counts = new long[buckets];
+		this.slices = new long[buckets];
+		Arrays.fill(slices, UNUSED);
+	}
+
+	/**
+	 * Counts an event, ignored if it is outside of the window
+	 * @param eventMillis time of the event
+	 * @param nowMillis current time
+	 */
+	public synchronized void add(long eventMillis, long nowMillis) {
+		long slice = eventMillis / bucketMillis;
+		long current = nowMillis / bucketMillis;
+		if (slice > current || current - slice >= counts.length) {
+			return;
+		}
+		int bucket = (int) Math.floorMod(slice, (long) counts.length);
+		if (slices[bucket] != slice) {
+			if (slices[bucket] > slice) {
+				return;
+			}
+			slices[bucket] = slice;
+			counts[bucket] = 0;
+		}
+		counts[bucket]++;
+	}
+
+	/**
+	 * Sums the events of the window ending now
+	 * @param nowMillis current time
+	 * @return number of events in the window
+	 */
+	public synchronized long sum(long nowMillis) {
+		long current = nowMillis / bucketMillis;
+		long sum = 0;
+		for (int bucket = 0; bucket < counts.length; bucket++) {
+			if (slices[bucket] != UNUSED && slices[bucket] <= current && current - slices[bucket] < counts.length) {
+				sum += counts[bucket];
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Forgets every event
+	 */
+	public synchronized void clear() {
+		Arrays.fill(counts, 0);
+		Arrays.fill(slices, UNUSED);
+	}
+}
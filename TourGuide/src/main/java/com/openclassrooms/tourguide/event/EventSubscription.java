@@ -0,0 +1,109 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscription to the event bus, buffering events in a bounded queue until the subscriber consumes them.
+ * When the buffer is full the oldest events are dropped so that publishers never block.
+ */
+public class EventSubscription implements AutoCloseable {
+
+	/**
+	 * Bus the subscription is registered on
+	 */
+	private final TourGuideEventBus eventBus;
+
+	/**
+	 * Id of the user to filter on, null to receive the events of every user
+	 */
+	private final UUID userId;
+
+	/**
+	 * Bounded buffer of pending events
+	 */
+	private final BlockingQueue<TourGuideEvent> buffer;
+
+	/**
+	 * Number of events dropped because the subscriber was too slow
+	 */
+	private final AtomicLong droppedEvents = new AtomicLong();
+
+	/**
+	 * Set when the subscription has been closed
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * Constructor for the subscription
+	 * @param eventBus bus the subscription is registered on
+	 * @param userId id of the user to filter on, null for every user
+	 * @param capacity maximum number of buffered events
+	 */
+	EventSubscription(TourGuideEventBus eventBus, UUID userId, int capacity) {
+		this.eventBus = eventBus;
+		this.userId = userId;
+		this.buffer = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/**
+	 * Indicates if the event concerns this subscription
+	 * @param event event to check
+	 * @return true if the subscriber wants the event
+	 */
+	boolean accepts(TourGuideEvent event) {
+		return userId == null || userId.equals(event.getUserId());
+	}
+
+	/**
+	 * Buffers an event, dropping the oldest ones if the buffer is full
+	 * @param event event to buffer
+	 */
+	void offer(TourGuideEvent event) {
+		while (!closed && !buffer.offer(event)) {
+			if (buffer.poll() != null) {
+				droppedEvents.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Waits for the next event
+	 * @param timeout maximum time to wait
+	 * @param unit unit of the timeout
+	 * @return next event, or null if none arrived in time
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	public TourGuideEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return buffer.poll(timeout, unit);
+	}
+
+	/**
+	 * Get the number of events dropped because the buffer was full
+	 * @return dropped events count
+	 */
+	public long getDroppedEvents() {
+		return droppedEvents.get();
+	}
+
+	/**
+	 * Indicates if the subscription has been closed
+	 * @return true if closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Unregisters the subscription from the bus
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		eventBus.unsubscribe(this);
+		buffer.clear();
+	}
+}
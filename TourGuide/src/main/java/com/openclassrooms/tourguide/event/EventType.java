@@ -0,0 +1,26 @@
+package com.openclassrooms.tourguide.event;
+
+/**
+ * Kinds of events published on the tour guide event bus
+ */
+public enum EventType {
+	/**
+	 * A new location has been tracked for a user
+	 */
+	LOCATION,
+
+	/**
+	 * A new reward has been granted to a user
+	 */
+	REWARD,
+
+	/**
+	 * A user entered the zone of an attraction
+	 */
+	ATTRACTION_ENTER,
+
+	/**
+	 * A user left the zone of an attraction
+	 */
+	ATTRACTION_EXIT
+}
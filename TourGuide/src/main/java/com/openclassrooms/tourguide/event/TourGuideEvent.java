@@ -0,0 +1,75 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Event published when the state of a user changes
+ */
+public class TourGuideEvent {
+
+	/**
+	 * Kind of event
+	 */
+	private final EventType type;
+
+	/**
+	 * Id of the user concerned by the event
+	 */
+	private final UUID userId;
+
+	/**
+	 * Time at which the event was published
+	 */
+	private final Date timestamp;
+
+	/**
+	 * Content of the event, a visited location or a user reward depending on the type
+	 */
+	private final Object payload;
+
+	/**
+	 * Constructor for the event
+	 * @param type kind of event
+	 * @param userId id of the user concerned by the event
+	 * @param payload content of the event
+	 */
+	public TourGuideEvent(EventType type, UUID userId, Object payload) {
+		this.type = type;
+		this.userId = userId;
+		this.payload = payload;
+		this.timestamp = new Date();
+	}
+
+	/**
+	 * Get the kind of event
+	 * @return event type
+	 */
+	public EventType getType() {
+		return type;
+	}
+
+	/**
+	 * Get the id of the user concerned by the event
+	 * @return user id
+	 */
+	public UUID getUserId() {
+		return userId;
+	}
+
+	/**
+	 * Get the time at which the event was published
+	 * @return publication time
+	 */
+	public Date getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Get the content of the event
+	 * @return event payload
+	 */
+	public Object getPayload() {
+		return payload;
+	}
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process event bus used to push location and reward updates to subscribers.
+ * Publishing never blocks: each subscription has its own bounded buffer.
+ */
+public class TourGuideEventBus {
+
+	/**
+	 * Default size of a subscription buffer
+	 */
+	public static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+	/**
+	 * Registered subscriptions, rarely modified and iterated on every publication
+	 */
+	private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Publishes an event to every interested subscriber
+	 * @param event event to publish
+	 */
+	public void publish(TourGuideEvent event) {
+		for (EventSubscription subscription : subscriptions) {
+			if (subscription.accepts(event)) {
+				subscription.offer(event);
+			}
+		}
+	}
+
+	/**
+	 * Creates a subscription with the default buffer size
+	 * @param userId id of the user to filter on, null for every user
+	 * @return new subscription
+	 */
+	public EventSubscription subscribe(UUID userId) {
+		return subscribe(userId, DEFAULT_BUFFER_CAPACITY);
+	}
+
+	/**
+	 * Creates a subscription
+	 * @param userId id of the user to filter on, null for every user
+	 * @param capacity maximum number of buffered events
+	 * @return new subscription
+	 */
+	public EventSubscription subscribe(UUID userId, int capacity) {
+		EventSubscription subscription = new EventSubscription(this, userId, capacity);
+		subscriptions.add(subscription);
+		return subscription;
+	}
+
+	/**
+	 * Removes a subscription
+	 * @param subscription subscription to remove
+	 */
+	void unsubscribe(EventSubscription subscription) {
+		subscriptions.remove(subscription);
+	}
+
+	/**
+	 * Get the number of active subscriptions
+	 * @return subscriptions count
+	 */
+	public int getSubscriptionCount() {
+		return subscriptions.size();
+	}
+}
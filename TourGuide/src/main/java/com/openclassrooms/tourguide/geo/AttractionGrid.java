@@ -0,0 +1,97 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Spatial index bucketing attractions in latitude / longitude cells, so that a radius search
+ * only checks the attractions of the cells overlapping the circle
+ */
+public class AttractionGrid implements AttractionIndex {
+
+	/**
+	 * Cells of the grid
+	 */
+	private final CellGrid cellGrid;
+
+	/**
+	 * Attractions of each non empty cell
+	 */
+	private final Map<Long, List<Attraction>> cells = new HashMap<>();
+
+	/**
+	 * Every indexed attraction
+	 */
+	private final List<Attraction> attractions;
+
+	/**
+	 * Constructor for the grid
+	 * @param attractions attractions to index
+	 * @param cellSize size of a cell, in degrees
+	 */
+	public AttractionGrid(List<Attraction> attractions, double cellSize) {
+		this.cellGrid = new CellGrid(cellSize);
+		this.attractions = List.copyOf(attractions);
+		for (Attraction attraction : attractions) {
+			cells.computeIfAbsent(cellGrid.keyOf(attraction.latitude, attraction.longitude), k -> new ArrayList<>())
+					.add(attraction);
+		}
+	}
+
+	/**
+	 * Finds the attractions within a radius of a location
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @return attractions within the radius, in no particular order
+	 */
+	@Override
+	public List<Attraction> withinRadius(Location location, double radiusMiles) {
+		List<Attraction> result = new ArrayList<>();
+		for (Attraction attraction : candidates(location, radiusMiles)) {
+			if (GeoMath.distance(attraction, location) <= radiusMiles) {
+				result.add(attraction);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Lists the attractions of the cells overlapping the bounding box of a circle.
+	 * When the box covers more cells than the grid holds, the non empty cells are filtered instead.
+	 * @param location center of the circle
+	 * @param radiusMiles radius of the circle, in statute miles
+	 * @return attractions that may be within the radius
+	 */
+	public List<Attraction> candidates(Location location, double radiusMiles) {
+		CellGrid.Range range = cellGrid.range(location, radiusMiles);
+		List<Attraction> result = new ArrayList<>();
+		if (range.cellCount() > cells.size()) {
+			cells.forEach((key, cell) -> {
+				if (range.contains(key)) {
+					result.addAll(cell);
+				}
+			});
+		} else {
+			range.forEachKey(key -> {
+				List<Attraction> cell = cells.get(key);
+				if (cell != null) {
+					result.addAll(cell);
+				}
+			});
+		}
+		return result;
+	}
+
+	/**
+	 * Get every indexed attraction
+	 * @return indexed attractions
+	 */
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+}
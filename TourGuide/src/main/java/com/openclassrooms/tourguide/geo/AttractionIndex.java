@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.List;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Spatial index answering radius searches over attractions
+ */
+public interface AttractionIndex {
+
+	/**
+	 * Finds the attractions within a radius of a location
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @return attractions within the radius, in no particular order
+	 */
+	List<Attraction> withinRadius(Location location, double radiusMiles);
+}
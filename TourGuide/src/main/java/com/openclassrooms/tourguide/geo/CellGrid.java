@@ -0,0 +1,175 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.function.LongConsumer;
+
+import gpsUtil.location.Location;
+
+/**
+ * Division of the globe in latitude / longitude cells of equal size in degrees, shared by the spatial indexes.
+ * A cell is identified by a key combining its row and its column.
+ */
+public class CellGrid {
+
+	/**
+	 * Number of longitude cells per latitude row, used to build the cell keys
+	 */
+	private static final long ROW_SIZE = 1 << 20;
+
+	/**
+	 * Size of a cell, in degrees
+	 */
+	private final double cellSize;
+
+	/**
+	 * Number of columns around the globe
+	 */
+	private final int columns;
+
+	/**
+	 * Constructor for the grid
+	 * @param cellSize size of a cell, in degrees
+	 */
+	public CellGrid(double cellSize) {
+		this.cellSize = cellSize;
+		this.columns = (int) Math.ceil(360 / cellSize);
+	}
+
+	/**
+	 * Gets the key of the cell containing a point
+	 * @param latitude latitude in degrees
+	 * @param longitude longitude in degrees
+	 * @return cell key
+	 */
+	public long keyOf(double latitude, double longitude) {
+		return key(row(latitude), Math.floorMod(column(longitude), columns));
+	}
+
+	/**
+	 * Snaps a point to the center of its cell
+	 * @param latitude latitude in degrees
+	 * @param longitude longitude in degrees
+	 * @return center of the cell containing the point
+	 */
+	public Location centerOf(double latitude, double longitude) {
+		return new Location((row(latitude) + 0.5) * cellSize - 90, (column(longitude) + 0.5) * cellSize - 180);
+	}
+
+	/**
+	 * Computes the cells overlapping the bounding box of a circle.
+	 * Circles containing a pole cover every column of their rows, and circles crossing the antimeridian wrap around.
+	 * @param location center of the circle
+	 * @param radiusMiles radius of the circle, in statute miles
+	 * @return range of cells
+	 */
+	public Range range(Location location, double radiusMiles) {
+		double latitudeHalfHeight = radiusMiles / GeoMath.STATUTE_MILES_PER_DEGREE;
+		double longitudeHalfWidth = GeoMath.longitudeHalfWidth(location.latitude, radiusMiles);
+
+		int minRow = row(Math.max(-90, location.latitude - latitudeHalfHeight));
+		int maxRow = row(Math.min(90, location.latitude + latitudeHalfHeight));
+		if (Double.isNaN(longitudeHalfWidth) || 2 * longitudeHalfWidth >= 360 - cellSize) {
+			return new Range(minRow, maxRow, 0, columns - 1);
+		}
+		return new Range(minRow, maxRow, column(location.longitude - longitudeHalfWidth),
+				column(location.longitude + longitudeHalfWidth));
+	}
+
+	/**
+	 * Gets the row of a latitude
+	 * @param latitude latitude in degrees
+	 * @return row index
+	 */
+	private int row(double latitude) {
+		return (int) Math.floor((latitude + 90) / cellSize);
+	}
+
+	/**
+	 * Gets the column of a longitude, outside of [0, columns) beyond the antimeridian
+	 * @param longitude longitude in degrees
+	 * @return column index
+	 */
+	private int column(double longitude) {
+		return (int) Math.floor((longitude + 180) / cellSize);
+	}
+
+	/**
+	 * Builds the key of a cell
+	 * @param row row of the cell
+	 * @param column column of the cell, in [0, columns)
+	 * @return cell key
+	 */
+	private static long key(int row, int column) {
+		return row * ROW_SIZE + column;
+	}
+
+	/**
+	 * Rectangle of cells, its columns possibly wrapping around the antimeridian
+	 */
+	public class Range {
+
+		/**
+		 * First row of the range
+		 */
+		private final int minRow;
+
+		/**
+		 * Last row of the range
+		 */
+		private final int maxRow;
+
+		/**
+		 * First column of the range, negative if it wraps
+		 */
+		private final int minColumn;
+
+		/**
+		 * Number of columns of the range, minus one
+		 */
+		private final int columnSpan;
+
+		/**
+		 * Constructor for the range
+		 * @param minRow first row
+		 * @param maxRow last row
+		 * @param minColumn first column
+		 * @param maxColumn last column
+		 */
+		private Range(int minRow, int maxRow, int minColumn, int maxColumn) {
+			this.minRow = minRow;
+			this.maxRow = maxRow;
+			this.minColumn = minColumn;
+			this.columnSpan = maxColumn - minColumn;
+		}
+
+		/**
+		 * Get the number of cells of the range
+		 * @return cell count
+		 */
+		public long cellCount() {
+			return (long) (maxRow - minRow + 1) * (columnSpan + 1);
+		}
+
+		/**
+		 * Indicates if a cell belongs to the range
+		 * @param key key of the cell
+		 * @return true if inside
+		 */
+		public boolean contains(long key) {
+			int row = (int) (key / ROW_SIZE);
+			int column = (int) (key % ROW_SIZE);
+			return row >= minRow && row <= maxRow && Math.floorMod(column - minColumn, columns) <= columnSpan;
+		}
+
+		/**
+		 * Visits the key of every cell of the range
+		 * @param action action receiving the keys
+		 */
+		public void forEachKey(LongConsumer action) {
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int column = minColumn; column <= minColumn + columnSpan; column++) {
+					action.accept(key(row, Math.floorMod(column, columns)));
+				}
+			}
+		}
+	}
+}
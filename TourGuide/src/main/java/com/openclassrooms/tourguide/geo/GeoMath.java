@@ -0,0 +1,69 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.Location;
+
+/**
+ * Distance computations shared by the services and the spatial indexes
+ */
+public final class GeoMath {
+
+	/**
+	 * Const to convert miles
+	 */
+	public static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+
+	/**
+	 * Statute miles covered by one degree of great circle
+	 */
+	public static final double STATUTE_MILES_PER_DEGREE = 60 * STATUTE_MILES_PER_NAUTICAL_MILE;
+
+	private GeoMath() {
+	}
+
+	/**
+	 * Calculate the distance between two locations
+	 * @param loc1 first location to check
+	 * @param loc2 second location to check
+	 * @return distance in statute miles
+	 */
+	public static double distance(Location loc1, Location loc2) {
+		return distance(loc1.latitude, loc1.longitude, loc2.latitude, loc2.longitude);
+	}
+
+	/**
+	 * Calculate the distance between two coordinates
+	 * @param latitude1 latitude of the first point, in degrees
+	 * @param longitude1 longitude of the first point, in degrees
+	 * @param latitude2 latitude of the second point, in degrees
+	 * @param longitude2 longitude of the second point, in degrees
+	 * @return distance in statute miles
+	 */
+	public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+		double lat1 = Math.toRadians(latitude1);
+		double lon1 = Math.toRadians(longitude1);
+		double lat2 = Math.toRadians(latitude2);
+		double lon2 = Math.toRadians(longitude2);
+
+		double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
+				+ Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+
+		double nauticalMiles = 60 * Math.toDegrees(angle);
+
+		return STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+	}
+
+	/**
+	 * Computes the half width in longitude of the circle of the given radius around a latitude
+	 * @param latitude latitude of the center, in degrees
+	 * @param radiusMiles radius of the circle, in statute miles
+	 * @return half width in degrees, or NaN if the circle contains a pole
+	 */
+	public static double longitudeHalfWidth(double latitude, double radiusMiles) {
+		double angularRadius = Math.toRadians(radiusMiles / STATUTE_MILES_PER_DEGREE);
+		double ratio = Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude));
+		if (angularRadius >= Math.PI / 2 || ratio >= 1) {
+			return Double.NaN;
+		}
+		return Math.toDegrees(Math.asin(ratio));
+	}
+}
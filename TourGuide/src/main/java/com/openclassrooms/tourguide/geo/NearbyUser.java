@@ -0,0 +1,73 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.Date;
+import java.util.UUID;
+
+import gpsUtil.location.Location;
+
+/**
+ * Latest known position of a user, with its distance from the center of a search
+ */
+public class NearbyUser {
+
+	/**
+	 * Id of the user
+	 */
+	private final UUID userId;
+
+	/**
+	 * Name of the user
+	 */
+	private final String userName;
+
+	/**
+	 * Latest known location of the user
+	 */
+	private final Location location;
+
+	/**
+	 * Time of the latest known location
+	 */
+	private final Date timeVisited;
+
+	/**
+	 * Distance from the center of the search, in statute miles
+	 */
+	private final double distance;
+
+	/**
+	 * Constructor for the search result
+	 * @param userId id of the user
+	 * @param userName name of the user
+	 * @param location latest known location of the user
+	 * @param timeVisited time of the latest known location
+	 * @param distance distance from the center of the search, in statute miles
+	 */
+	public NearbyUser(UUID userId, String userName, Location location, Date timeVisited, double distance) {
+		this.userId = userId;
+		this.userName = userName;
+		this.location = location;
+		this.timeVisited = timeVisited;
+		this.distance = distance;
+	}
+
+	public UUID getUserId() {
+		return userId;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public Location getLocation() {
+		return location;
+	}
+
+	public Date getTimeVisited() {
+		return timeVisited;
+	}
+
+	public double getDistance() {
+		return distance;
+	}
+}
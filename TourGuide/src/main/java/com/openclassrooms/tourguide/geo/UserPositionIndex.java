@@ -0,0 +1,176 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Spatial index of the latest position of every user, answering which users are near a point.
+ * Users are bucketed in latitude / longitude cells, and moved between cells as their position is updated,
+ * so that a radius search only checks the users of the cells overlapping the circle.
+ */
+public class UserPositionIndex {
+
+	/**
+	 * Cells of the index
+	 */
+	private final CellGrid cellGrid;
+
+	/**
+	 * Ids of the users of each non empty cell
+	 */
+	private final Map<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+	/**
+	 * Latest indexed position of each user
+	 */
+	private final Map<UUID, Position> positions = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor for the index
+	 * @param cellSize size of a cell, in degrees
+	 */
+	public UserPositionIndex(double cellSize) {
+		this.cellGrid = new CellGrid(cellSize);
+	}
+
+	/**
+	 * Records the position of a user, ignored if older than its indexed position
+	 * @param user user who moved
+	 * @param visitedLocation new location of the user
+	 */
+	public void update(User user, VisitedLocation visitedLocation) {
+		Location location = visitedLocation.location;
+		long key = cellGrid.keyOf(location.latitude, location.longitude);
+		positions.compute(user.getUserId(), (userId, current) -> {
+			if (current != null && current.visitedLocation.timeVisited.after(visitedLocation.timeVisited)) {
+				return current;
+			}
+			if (current == null || current.cell != key) {
+				if (current != null) {
+					cells.computeIfPresent(current.cell, (cell, users) -> {
+						users.remove(userId);
+						return users.isEmpty() ? null : users;
+					});
+				}
+				// added inside the map operation, so that the set cannot be removed by another user leaving the cell
+				cells.compute(key, (cell, users) -> {
+					if (users == null) {
+						users = ConcurrentHashMap.newKeySet();
+					}
+					users.add(userId);
+					return users;
+				});
+			}
+			return new Position(user.getUserName(), visitedLocation, key);
+		});
+	}
+
+	/**
+	 * Removes a user from the index
+	 * @param userId id of the user
+	 */
+	public void remove(UUID userId) {
+		positions.computeIfPresent(userId, (id, current) -> {
+			cells.computeIfPresent(current.cell, (cell, users) -> {
+				users.remove(id);
+				return users.isEmpty() ? null : users;
+			});
+			return null;
+		});
+	}
+
+	/**
+	 * Finds the users whose latest position is within a radius of a location
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @param limit maximum number of users
+	 * @return users within the radius with their distance, closest first
+	 */
+	public List<NearbyUser> withinRadius(Location location, double radiusMiles, int limit) {
+		CellGrid.Range range = cellGrid.range(location, radiusMiles);
+		List<NearbyUser> result = new ArrayList<>();
+		if (range.cellCount() > cells.size()) {
+			cells.forEach((key, users) -> {
+				if (range.contains(key)) {
+					collect(key, users, location, radiusMiles, result);
+				}
+			});
+		} else {
+			range.forEachKey(key -> {
+				Set<UUID> users = cells.get(key);
+				if (users != null) {
+					collect(key, users, location, radiusMiles, result);
+				}
+			});
+		}
+		result.sort(Comparator.comparingDouble(NearbyUser::getDistance));
+		return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+	}
+
+	/**
+	 * Get the number of indexed users
+	 * @return user count
+	 */
+	public int size() {
+		return positions.size();
+	}
+
+	/**
+	 * Adds the users of a cell within the radius to the result
+	 * @param key key of the cell
+	 * @param users ids of the users of the cell
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @param result list receiving the users
+	 */
+	private void collect(long key, Set<UUID> users, Location location, double radiusMiles, List<NearbyUser> result) {
+		for (UUID userId : users) {
+			Position position = positions.get(userId);
+			// a user moving while searched may briefly be listed in its old cell
+			if (position == null || position.cell != key) {
+				continue;
+			}
+			double distance = GeoMath.distance(position.visitedLocation.location, location);
+			if (distance <= radiusMiles) {
+				result.add(new NearbyUser(userId, position.userName, position.visitedLocation.location,
+						position.visitedLocation.timeVisited, distance));
+			}
+		}
+	}
+
+	/**
+	 * Indexed position of a user
+	 */
+	private static class Position {
+
+		/**
+		 * Name of the user
+		 */
+		final String userName;
+
+		/**
+		 * Latest location of the user
+		 */
+		final VisitedLocation visitedLocation;
+
+		/**
+		 * Key of the cell containing the location
+		 */
+		final long cell;
+
+		Position(String userName, VisitedLocation visitedLocation, long cell) {
+			this.userName = userName;
+			this.visitedLocation = visitedLocation;
+			this.cell = cell;
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.openclassrooms.tourguide.geofence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.geo.AttractionIndex;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Incremental geofence engine.
+ * It keeps for each user the attraction zones the user is currently inside, and only evaluates
+ * the zones around each new location to emit enter and exit transitions.
+ * The first time a user is seen its whole history is replayed to build its state.
+ */
+public class GeofenceEngine {
+
+	/**
+	 * Spatial index of the attractions
+	 */
+	private final Supplier<? extends AttractionIndex> attractionIndex;
+
+	/**
+	 * Radius of the attraction zones, in miles
+	 */
+	private final DoubleSupplier radius;
+
+	/**
+	 * Zone state of every known user
+	 */
+	private final Map<UUID, UserZones> userZones = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor for the engine
+	 * @param attractionIndex spatial index of the attractions
+	 * @param radius radius of the attraction zones, in miles
+	 */
+	public GeofenceEngine(AttractionIndex attractionIndex, DoubleSupplier radius) {
+		this(() -> attractionIndex, radius);
+	}
+
+	/**
+	 * Constructor for the engine following a changing set of attractions.
+	 * Attractions missing from a new index are left on the next location of the users inside them.
+	 * @param attractionIndex supplier of the current spatial index of the attractions
+	 * @param radius radius of the attraction zones, in miles
+	 */
+	public GeofenceEngine(Supplier<? extends AttractionIndex> attractionIndex, DoubleSupplier radius) {
+		this.attractionIndex = attractionIndex;
+		this.radius = radius;
+	}
+
+	/**
+	 * Evaluates the transitions caused by the latest location of a user
+	 * @param user user who moved
+	 * @param visitedLocation new location of the user, already added to its history
+	 * @return enter and exit transitions, empty if the user stayed in the same zones
+	 */
+	public List<GeofenceEvent> onLocation(User user, VisitedLocation visitedLocation) {
+		List<GeofenceEvent> events = new ArrayList<>();
+		UserZones zones = userZones.computeIfAbsent(user.getUserId(), id -> new UserZones());
+
+		synchronized (zones) {
+			if (zones.initialized) {
+				evaluate(user.getUserId(), zones, visitedLocation, events);
+			} else {
+				// first sight of the user: replay its history, which is in time order, to build its state
+				for (VisitedLocation location : user.getVisitedLocations()) {
+					evaluate(user.getUserId(), zones, location, events);
+				}
+				zones.initialized = true;
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * Compares the zones containing a location with the zones the user is inside
+	 * @param userId id of the user
+	 * @param zones zone state of the user
+	 * @param visitedLocation location to evaluate
+	 * @param events list receiving the transitions
+	 */
+	private void evaluate(UUID userId, UserZones zones, VisitedLocation visitedLocation, List<GeofenceEvent> events) {
+		List<Attraction> containing = attractionIndex.get().withinRadius(visitedLocation.location, radius.getAsDouble());
+		long time = visitedLocation.timeVisited.getTime();
+
+		Set<Attraction> left = new HashSet<>(zones.inside.keySet());
+		for (Attraction attraction : containing) {
+			if (!left.remove(attraction)) {
+				zones.inside.put(attraction, time);
+				events.add(new GeofenceEvent(GeofenceEvent.Type.ENTER, userId, attraction, visitedLocation, 0));
+			}
+		}
+		for (Attraction attraction : left) {
+			long dwellMillis = Math.max(0, time - zones.inside.remove(attraction));
+			zones.dwellMillis.merge(attraction.attractionName, dwellMillis, Long::sum);
+			events.add(new GeofenceEvent(GeofenceEvent.Type.EXIT, userId, attraction, visitedLocation, dwellMillis));
+		}
+		zones.lastTime = Math.max(zones.lastTime, time);
+	}
+
+	/**
+	 * Gets the time a user spent in each attraction zone, including the zones it is currently inside
+	 * @param userId id of the user
+	 * @return dwell time in milliseconds by attraction name
+	 */
+	public Map<String, Long> getDwellTimes(UUID userId) {
+		UserZones zones = userZones.get(userId);
+		if (zones == null) {
+			return Map.of();
+		}
+		synchronized (zones) {
+			Map<String, Long> dwellTimes = new HashMap<>(zones.dwellMillis);
+			zones.inside.forEach((attraction, enteredAt) ->
+					dwellTimes.merge(attraction.attractionName, Math.max(0, zones.lastTime - enteredAt), Long::sum));
+			return dwellTimes;
+		}
+	}
+
+	/**
+	 * Forgets the state of every user, which is rebuilt from their history on their next location.
+	 * Used when the zone radius changes.
+	 */
+	public void reset() {
+		userZones.clear();
+	}
+
+	/**
+	 * Zone state of one user
+	 */
+	private static class UserZones {
+
+		/**
+		 * Set once the history of the user has been replayed
+		 */
+		boolean initialized = false;
+
+		/**
+		 * Attractions the user is inside, with the time it entered them
+		 */
+		final Map<Attraction, Long> inside = new HashMap<>();
+
+		/**
+		 * Time spent in the zones the user already left, by attraction name
+		 */
+		final Map<String, Long> dwellMillis = new HashMap<>();
+
+		/**
+		 * Time of the latest evaluated location
+		 */
+		long lastTime = 0;
+	}
+}
@@ -0,0 +1,80 @@
+package com.openclassrooms.tourguide.geofence;
+
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Transition of a user into or out of the zone of an attraction
+ */
+public class GeofenceEvent {
+
+	/**
+	 * Kinds of transition
+	 */
+	public enum Type {
+		ENTER, EXIT
+	}
+
+	/**
+	 * Kind of transition
+	 */
+	private final Type type;
+
+	/**
+	 * Id of the user
+	 */
+	private final UUID userId;
+
+	/**
+	 * Attraction whose zone was entered or left
+	 */
+	private final Attraction attraction;
+
+	/**
+	 * Location that triggered the transition
+	 */
+	private final VisitedLocation visitedLocation;
+
+	/**
+	 * Time spent in the zone, in milliseconds, for exit events
+	 */
+	private final long dwellMillis;
+
+	/**
+	 * Constructor for the event
+	 * @param type kind of transition
+	 * @param userId id of the user
+	 * @param attraction attraction whose zone was entered or left
+	 * @param visitedLocation location that triggered the transition
+	 * @param dwellMillis time spent in the zone for exit events, 0 for enter events
+	 */
+	public GeofenceEvent(Type type, UUID userId, Attraction attraction, VisitedLocation visitedLocation, long dwellMillis) {
+		this.type = type;
+		this.userId = userId;
+		this.attraction = attraction;
+		this.visitedLocation = visitedLocation;
+		this.dwellMillis = dwellMillis;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public UUID getUserId() {
+		return userId;
+	}
+
+	public Attraction getAttraction() {
+		return attraction;
+	}
+
+	public VisitedLocation getVisitedLocation() {
+		return visitedLocation;
+	}
+
+	public long getDwellMillis() {
+		return dwellMillis;
+	}
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.tourguide.itinerary;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import com.openclassrooms.tourguide.geo.GeoMath;
+
+/**
+ * Distances between every pair of attractions of a catalogue version, computed once.
+ * Catalogues too large for a full matrix only get their distances computed on demand.
+ */
+public final class DistanceMatrix {
+
+	/**
+	 * Largest number of attractions whose distances are precomputed, 16 MB of distances
+	 */
+	static final int MAX_PRECOMPUTED = 2048;
+
+	/**
+	 * Index of each attraction in the matrix
+	 */
+	private final Map<UUID, Integer> indexes = new HashMap<>();
+
+	/**
+	 * Distances in statute miles, row by row, null when computed on demand
+	 */
+	private final float[] distances;
+
+	/**
+	 * Number of attractions of a row
+	 */
+	private final int size;
+
+	/**
+	 * Constructor for the matrix
+	 * @param attractions attractions of the catalogue
+	 */
+	public DistanceMatrix(List<Attraction> attractions) {
+		size = attractions.size();
+		if (size > MAX_PRECOMPUTED) {
+			distances = null;
+			return;
+		}
+		distances = new float[size * size];
+		for (int i = 0; i < size; i++) {
+			Attraction attraction = attractions.get(i);
+			indexes.put(attraction.attractionId, i);
+			for (int j = 0; j < i; j++) {
+				float distance = (float) GeoMath.distance(attraction, attractions.get(j));
+				distances[i * size + j] = distance;
+				distances[j * size + i] = distance;
+			}
+		}
+	}
+
+	/**
+	 * Indicates if the distances were precomputed
+	 * @return true if precomputed
+	 */
+	public boolean isPrecomputed() {
+		return distances != null;
+	}
+
+	/**
+	 * Gets the distance between two attractions of the catalogue
+	 * @param from first attraction
+	 * @param to second attraction
+	 * @return distance in statute miles
+	 */
+	public double distance(Attraction from, Attraction to) {
+		if (distances != null) {
+			Integer i = indexes.get(from.attractionId);
+			Integer j = indexes.get(to.attractionId);
+			if (i != null && j != null) {
+				return distances[i * size + j];
+			}
+		}
+		return GeoMath.distance(from, to);
+	}
+}
@@ -0,0 +1,58 @@
+package com.openclassrooms.tourguide.itinerary;
+
+import java.util.List;
+
+import gpsUtil.location.Location;
+
+/**
+ * Visiting order of the attractions closest to a tourist, distances in statute miles
+ */
+public class Itinerary {
+
+	private Location touristLocation;
+
+	private List<ItineraryStop> stops;
+
+	private double totalDistance;
+
+	private long catalogVersion;
+
+	public Itinerary(Location touristLocation, List<ItineraryStop> stops, double totalDistance, long catalogVersion) {
+		this.touristLocation = touristLocation;
+		this.stops = stops;
+		this.totalDistance = totalDistance;
+		this.catalogVersion = catalogVersion;
+	}
+
+	public Location getTouristLocation() {
+		return touristLocation;
+	}
+
+	public void setTouristLocation(Location touristLocation) {
+		this.touristLocation = touristLocation;
+	}
+
+	public List<ItineraryStop> getStops() {
+		return stops;
+	}
+
+	public void setStops(List<ItineraryStop> stops) {
+		this.stops = stops;
+	}
+
+	public double getTotalDistance() {
+		return totalDistance;
+	}
+
+	public void setTotalDistance(double totalDistance) {
+		this.totalDistance = totalDistance;
+	}
+
+	public long getCatalogVersion() {
+		return catalogVersion;
+	}
+
+	public void setCatalogVersion(long catalogVersion) {
+		this.catalogVersion = catalogVersion;
+	}
+}
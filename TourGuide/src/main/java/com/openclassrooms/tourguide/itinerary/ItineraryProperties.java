@@ -0,0 +1,64 @@
+package com.openclassrooms.tourguide.itinerary;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the itinerary planner, bound from the tourguide.itinerary properties
+ */
+@ConfigurationProperties(prefix = "tourguide.itinerary")
+public class ItineraryProperties {
+
+	/**
+	 * Largest number of stops of an itinerary
+	 */
+	private int maxStops = 50;
+
+	/**
+	 * Size of the cells the tourist locations are snapped to, in degrees
+	 */
+	private double cellSize = 0.01;
+
+	/**
+	 * Number of routes kept in the cache
+	 */
+	private int cacheSize = 10000;
+
+	/**
+	 * Time the route improvement may take, the best route found so far being used beyond
+	 */
+	private Duration optimisationBudget = Duration.ofMillis(20);
+
+	public int getMaxStops() {
+		return maxStops;
+	}
+
+	public void setMaxStops(int maxStops) {
+		this.maxStops = maxStops;
+	}
+
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	public void setCellSize(double cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	public Duration getOptimisationBudget() {
+		return optimisationBudget;
+	}
+
+	public void setOptimisationBudget(Duration optimisationBudget) {
+		this.optimisationBudget = optimisationBudget;
+	}
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.tourguide.itinerary;
+
+import gpsUtil.location.Location;
+
+/**
+ * Attraction of an itinerary, with the distance travelled to reach it
+ */
+public class ItineraryStop {
+
+	private String attractionName;
+
+	private Location attractionLocation;
+
+	private double legDistance;
+
+	private double cumulativeDistance;
+
+	public ItineraryStop(String attractionName, Location attractionLocation, double legDistance, double cumulativeDistance) {
+		this.attractionName = attractionName;
+		this.attractionLocation = attractionLocation;
+		this.legDistance = legDistance;
+		this.cumulativeDistance = cumulativeDistance;
+	}
+
+	public String getAttractionName() {
+		return attractionName;
+	}
+
+	public void setAttractionName(String attractionName) {
+		this.attractionName = attractionName;
+	}
+
+	public Location getAttractionLocation() {
+		return attractionLocation;
+	}
+
+	public void setAttractionLocation(Location attractionLocation) {
+		this.attractionLocation = attractionLocation;
+	}
+
+	public double getLegDistance() {
+		return legDistance;
+	}
+
+	public void setLegDistance(double legDistance) {
+		this.legDistance = legDistance;
+	}
+
+	public double getCumulativeDistance() {
+		return cumulativeDistance;
+	}
+
+	public void setCumulativeDistance(double cumulativeDistance) {
+		this.cumulativeDistance = cumulativeDistance;
+	}
+}
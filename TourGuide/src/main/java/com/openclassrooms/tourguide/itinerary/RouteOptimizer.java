@@ -0,0 +1,98 @@
+package com.openclassrooms.tourguide.itinerary;
+
+/**
+ * Orders the stops of an open route starting from a fixed origin: a nearest neighbour tour,
+ * then improved by 2-opt moves until no move shortens it or the time budget is spent.
+ * Node 0 of the distance table is the origin, the other nodes are the stops.
+ */
+public final class RouteOptimizer {
+
+	private RouteOptimizer() {
+	}
+
+	/**
+	 * Orders the stops of a route
+	 * @param distances symmetric distances between the nodes, node 0 being the origin
+	 * @param deadline System.nanoTime() after which the improvement stops
+	 * @return nodes of the route, starting with the origin
+	 */
+	public static int[] optimise(double[][] distances, long deadline) {
+		int[] route = nearestNeighbour(distances);
+		twoOpt(route, distances, deadline);
+		return route;
+	}
+
+	/**
+	 * Builds a route always going to the closest stop not visited yet
+	 * @param distances distances between the nodes
+	 * @return nodes of the route, starting with the origin
+	 */
+	static int[] nearestNeighbour(double[][] distances) {
+		int count = distances.length;
+		int[] route = new int[count];
+		boolean[] visited = new boolean[count];
+		visited[0] = true;
+		for (int position = 1; position < count; position++) {
+			int current = route[position - 1];
+			int next = -1;
+			for (int node = 1; node < count; node++) {
+				if (!visited[node] && (next < 0 || distances[current][node] < distances[current][next])) {
+					next = node;
+				}
+			}
+			route[position] = next;
+			visited[next] = true;
+		}
+		return route;
+	}
+
+	/**
+	 * Reverses the sections of the route which shorten it, the origin staying first.
+	 * The route is open, so reversing a section up to the last stop only changes its first leg.
+	 * @param route nodes of the route, improved in place
+	 * @param distances distances between the nodes
+	 * @param deadline System.nanoTime() after which the improvement stops
+	 */
+	static void twoOpt(int[] route, double[][] distances, long deadline) {
+		int last = route.length - 1;
+		boolean improved = true;
+		while (improved && deadline - System.nanoTime() > 0) {
+			improved = false;
+			for (int i = 1; i < last; i++) {
+				double before = distances[route[i - 1]][route[i]];
+				for (int j = i + 1; j <= last; j++) {
+					double removed = before + (j < last ? distances[route[j]][route[j + 1]] : 0);
+					double added = distances[route[i - 1]][route[j]] + (j < last ? distances[route[i]][route[j + 1]] : 0);
+					// ignore rounding noise, which could make two equivalent routes swap forever
+					if (added < removed - 1e-9) {
+						reverse(route, i, j);
+						before = distances[route[i - 1]][route[i]];
+						improved = true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the length of a route
+	 * @param route nodes of the route
+	 * @param distances distances between the nodes
+	 * @return sum of the legs
+	 */
+	public static double length(int[] route, double[][] distances) {
+		double length = 0;
+		for (int i = 1; i < route.length; i++) {
+			length += distances[route[i - 1]][route[i]];
+		}
+		return length;
+	}
+
+	private static void reverse(int[] route, int from, int to) {
+		while (from < to) {
+			int node = route[from];
+			route[from++] = route[to];
+			route[to--] = node;
+		}
+	}
+}
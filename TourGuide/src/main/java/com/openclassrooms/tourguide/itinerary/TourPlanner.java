@@ -0,0 +1,229 @@
+package com.openclassrooms.tourguide.itinerary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
+import com.openclassrooms.tourguide.geo.CellGrid;
+import com.openclassrooms.tourguide.geo.GeoMath;
+
+/**
+ * Plans the visit of the attractions closest to a tourist.
+ * Tourist locations are snapped to small cells and the route planned from the center of a cell is cached,
+ * so the tourists of the same area share it and only the leg to the first stop is computed per request.
+ * The cache and the distance matrix belong to a catalogue version, and are dropped with it.
+ */
+public class TourPlanner {
+
+	/**
+	 * Settings of the planner
+	 */
+	private final ItineraryProperties properties;
+
+	/**
+	 * Attraction catalogue
+	 */
+	private final AttractionCatalog attractionCatalog;
+
+	/**
+	 * Cells the tourist locations are snapped to
+	 */
+	private final CellGrid cellGrid;
+
+	/**
+	 * Distance matrix and cached routes of the latest catalogue version used
+	 */
+	private volatile PlannerState state;
+
+	/**
+	 * Timer of the plans answered from the cache
+	 */
+	private final Timer hitTimer;
+
+	/**
+	 * Timer of the plans computed
+	 */
+	private final Timer missTimer;
+
+	/**
+	 * Constructor for the planner
+	 * @param properties settings of the planner
+	 * @param attractionCatalog attraction catalogue
+	 */
+	public TourPlanner(ItineraryProperties properties, AttractionCatalog attractionCatalog) {
+		this(properties, attractionCatalog, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the planner
+	 * @param properties settings of the planner
+	 * @param attractionCatalog attraction catalogue
+	 * @param meterRegistry registry of the planner meters
+	 */
+	public TourPlanner(ItineraryProperties properties, AttractionCatalog attractionCatalog, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.attractionCatalog = attractionCatalog;
+		this.cellGrid = new CellGrid(properties.getCellSize());
+		this.hitTimer = planTimer(meterRegistry, "hit");
+		this.missTimer = planTimer(meterRegistry, "miss");
+
+		Gauge.builder("tourguide.itinerary.cached", this, TourPlanner::getCachedRouteCount)
+				.description("Number of cached itinerary routes")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Plans the visit of the attractions closest to a location
+	 * @param location location of the tourist
+	 * @param stops number of attractions to visit, bounded by the maximum number of stops
+	 * @return itinerary from the location
+	 */
+	public Itinerary plan(Location location, int stops) {
+		long start = System.nanoTime();
+		int count = Math.min(properties.getMaxStops(), Math.max(1, stops));
+		PlannerState current = currentState();
+		// the stop count is below maxStops + 1, and a cell key below 2^42 for any cell size over 1e-4 degree
+		long key = cellGrid.keyOf(location.latitude, location.longitude) * (properties.getMaxStops() + 1) + count;
+
+		List<Attraction> route = current.routes.get(key);
+		Timer timer = hitTimer;
+		if (route == null) {
+			route = route(current, cellGrid.centerOf(location.latitude, location.longitude), count);
+			current.routes.put(key, route);
+			timer = missTimer;
+		}
+		Itinerary itinerary = itinerary(current, location, route);
+		timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return itinerary;
+	}
+
+	/**
+	 * Get the number of routes in the cache
+	 * @return cached route count
+	 */
+	public int getCachedRouteCount() {
+		PlannerState current = state;
+		return current == null ? 0 : current.routes.size();
+	}
+
+	/**
+	 * Gets the state of the current catalogue version, replacing the state of an older version
+	 * @return planner state
+	 */
+	private PlannerState currentState() {
+		CatalogSnapshot snapshot = attractionCatalog.getSnapshot();
+		PlannerState current = state;
+		if (current == null || current.snapshot.getVersion() != snapshot.getVersion()) {
+			synchronized (this) {
+				current = state;
+				if (current == null || current.snapshot.getVersion() != snapshot.getVersion()) {
+					current = new PlannerState(snapshot, properties.getCacheSize());
+					state = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Orders the attractions closest to the origin of a route
+	 * @param current planner state
+	 * @param origin origin of the route
+	 * @param count number of stops
+	 * @return attractions in visiting order
+	 */
+	private List<Attraction> route(PlannerState current, Location origin, int count) {
+		long deadline = System.nanoTime() + properties.getOptimisationBudget().toNanos();
+		List<Attraction> attractions = current.snapshot.nearest(origin, count);
+
+		int size = attractions.size() + 1;
+		double[][] distances = new double[size][size];
+		for (int i = 1; i < size; i++) {
+			Attraction attraction = attractions.get(i - 1);
+			distances[0][i] = GeoMath.distance(origin, attraction);
+			distances[i][0] = distances[0][i];
+			for (int j = 1; j < i; j++) {
+				distances[i][j] = current.distanceMatrix.distance(attraction, attractions.get(j - 1));
+				distances[j][i] = distances[i][j];
+			}
+		}
+
+		int[] order = RouteOptimizer.optimise(distances, deadline);
+		List<Attraction> route = new ArrayList<>(attractions.size());
+		for (int i = 1; i < order.length; i++) {
+			route.add(attractions.get(order[i] - 1));
+		}
+		return Collections.unmodifiableList(route);
+	}
+
+	/**
+	 * Builds the itinerary of a tourist following a route
+	 * @param current planner state
+	 * @param location location of the tourist
+	 * @param route attractions in visiting order
+	 * @return itinerary
+	 */
+	private static Itinerary itinerary(PlannerState current, Location location, List<Attraction> route) {
+		List<ItineraryStop> stops = new ArrayList<>(route.size());
+		double total = 0;
+		Location previous = location;
+		for (Attraction attraction : route) {
+			double leg = previous instanceof Attraction from
+					? current.distanceMatrix.distance(from, attraction)
+					: GeoMath.distance(previous, attraction);
+			total += leg;
+			stops.add(new ItineraryStop(attraction.attractionName, new Location(attraction.latitude, attraction.longitude),
+					leg, total));
+			previous = attraction;
+		}
+		return new Itinerary(location, stops, total, current.snapshot.getVersion());
+	}
+
+	/**
+	 * Creates the timer of the plans with a cache outcome
+	 * @param meterRegistry registry of the timer
+	 * @param cache cache outcome
+	 * @return timer tagged with the outcome
+	 */
+	private static Timer planTimer(MeterRegistry meterRegistry, String cache) {
+		return Timer.builder("tourguide.itinerary.plan")
+				.description("Time to plan an itinerary, by cache outcome")
+				.tag("cache", cache)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Distance matrix and cached routes of a catalogue version
+	 */
+	private static class PlannerState {
+
+		private final CatalogSnapshot snapshot;
+
+		private final DistanceMatrix distanceMatrix;
+
+		private final Map<Long, List<Attraction>> routes;
+
+		private PlannerState(CatalogSnapshot snapshot, int cacheSize) {
+			this.snapshot = snapshot;
+			this.distanceMatrix = new DistanceMatrix(snapshot.getAttractions());
+			this.routes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Long, List<Attraction>> eldest) {
+					return size() > cacheSize;
+				}
+			});
+		}
+	}
+}
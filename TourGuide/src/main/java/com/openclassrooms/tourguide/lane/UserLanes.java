@@ -0,0 +1,125 @@
+package com.openclassrooms.tourguide.lane;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Serial execution lanes for the changes made to the users.
+ * Each user is bound to one of a fixed set of single threaded workers by hashing its id, so that the changes
+ * to a user run one after the other, in submission order, while different users are changed in parallel.
+ * Tasks run on a lane must be short and must never wait for another task of a lane.
+ */
+public class UserLanes implements AutoCloseable {
+
+	/**
+	 * Workers of the lanes
+	 */
+	private final ThreadPoolExecutor[] lanes;
+
+	/**
+	 * Constructor for the lanes
+	 * @param count number of lanes, usually the number of cores
+	 */
+	public UserLanes(int count) {
+		this(count, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the lanes
+	 * @param count number of lanes, usually the number of cores
+	 * @param meterRegistry registry of the lane gauge
+	 */
+	public UserLanes(int count, MeterRegistry meterRegistry) {
+		lanes = new ThreadPoolExecutor[count];
+		for (int i = 0; i < count; i++) {
+			String name = "user-lane-" + i;
+			lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		Gauge.builder("tourguide.lanes.queued", this, UserLanes::getQueuedTasks)
+				.description("Number of user changes waiting in the lanes")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Creates one lane per core
+	 * @return user lanes
+	 */
+	public static UserLanes perCore() {
+		return perCore(new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Creates one lane per core
+	 * @param meterRegistry registry of the lane gauge
+	 * @return user lanes
+	 */
+	public static UserLanes perCore(MeterRegistry meterRegistry) {
+		return new UserLanes(Runtime.getRuntime().availableProcessors(), meterRegistry);
+	}
+
+	/**
+	 * Runs a change on the lane of a user
+	 * @param userId id of the changed user
+	 * @param task change to run
+	 * @return future completed with the result of the change
+	 * @param <T> type of the result
+	 */
+	public <T> CompletableFuture<T> submit(UUID userId, Supplier<T> task) {
+		return CompletableFuture.supplyAsync(task, lanes[laneOf(userId)]);
+	}
+
+	/**
+	 * Runs a change on the lane of a user
+	 * @param userId id of the changed user
+	 * @param task change to run
+	 * @return future completed once the change is done
+	 */
+	public CompletableFuture<Void> execute(UUID userId, Runnable task) {
+		return CompletableFuture.runAsync(task, lanes[laneOf(userId)]);
+	}
+
+	/**
+	 * Finds the lane of a user
+	 * @param userId id of the user
+	 * @return index of the lane
+	 */
+	public int laneOf(UUID userId) {
+		int hash = userId.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+	}
+
+	/**
+	 * Counts the changes waiting in every lane
+	 * @return number of queued changes
+	 */
+	public int getQueuedTasks() {
+		int queued = 0;
+		for (ThreadPoolExecutor lane : lanes) {
+			queued += lane.getQueue().size();
+		}
+		return queued;
+	}
+
+	/**
+	 * Stops the lanes
+	 */
+	@Override
+	public void close() {
+		for (ThreadPoolExecutor lane : lanes) {
+			lane.shutdown();
+		}
+	}
+}
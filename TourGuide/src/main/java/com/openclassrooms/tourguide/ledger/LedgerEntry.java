@@ -0,0 +1,97 @@
+package com.openclassrooms.tourguide.ledger;
+
+import java.util.Date;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Reward read back from the ledger
+ */
+public class LedgerEntry {
+
+	/**
+	 * Id of the rewarded user
+	 */
+	private final UUID userId;
+
+	/**
+	 * Key of the rewarded attraction, derived from its name
+	 */
+	private final UUID attractionKey;
+
+	/**
+	 * Latitude of the location where the reward was earned
+	 */
+	private final double latitude;
+
+	/**
+	 * Longitude of the location where the reward was earned
+	 */
+	private final double longitude;
+
+	/**
+	 * Time of the visit, in milliseconds since the epoch
+	 */
+	private final long timeVisited;
+
+	/**
+	 * Points of the reward
+	 */
+	private final int rewardPoints;
+
+	/**
+	 * Constructor for the entry
+	 * @param userId id of the rewarded user
+	 * @param attractionKey key of the rewarded attraction
+	 * @param latitude latitude of the visit
+	 * @param longitude longitude of the visit
+	 * @param timeVisited time of the visit, in milliseconds since the epoch
+	 * @param rewardPoints points of the reward
+	 */
+	public LedgerEntry(UUID userId, UUID attractionKey, double latitude, double longitude, long timeVisited, int rewardPoints) {
+		this.userId = userId;
+		this.attractionKey = attractionKey;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.timeVisited = timeVisited;
+		this.rewardPoints = rewardPoints;
+	}
+
+	public UUID getUserId() {
+		return userId;
+	}
+
+	public UUID getAttractionKey() {
+		return attractionKey;
+	}
+
+	public double getLatitude() {
+		return latitude;
+	}
+
+	public double getLongitude() {
+		return longitude;
+	}
+
+	public long getTimeVisited() {
+		return timeVisited;
+	}
+
+	public int getRewardPoints() {
+		return rewardPoints;
+	}
+
+	/**
+	 * Rebuilds the reward of the entry
+	 * @param attraction attraction matching the attraction key
+	 * @return restored reward
+	 */
+	public UserReward toUserReward(Attraction attraction) {
+		VisitedLocation visitedLocation = new VisitedLocation(userId, new Location(latitude, longitude), new Date(timeVisited));
+		return new UserReward(visitedLocation, attraction, rewardPoints);
+	}
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.tourguide.ledger;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the reward ledger, bound from the tourguide.rewards.ledger properties
+ */
+@ConfigurationProperties(prefix = "tourguide.rewards.ledger")
+public class LedgerProperties {
+
+	/**
+	 * Persists the granted rewards and restores them at startup
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Directory of the ledger file
+	 */
+	private String directory = "data/ledger";
+
+	/**
+	 * Time during which the appended rewards are gathered before being synced to disk together
+	 */
+	private Duration flushInterval = Duration.ofMillis(10);
+
+	/**
+	 * Maximum number of rewards synced to disk together
+	 */
+	private int maxBatchSize = 4096;
+
+	/**
+	 * Time between two compactions of the ledger
+	 */
+	private Duration compactionInterval = Duration.ofHours(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	public Duration getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(Duration flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public Duration getCompactionInterval() {
+		return compactionInterval;
+	}
+
+	public void setCompactionInterval(Duration compactionInterval) {
+		this.compactionInterval = compactionInterval;
+	}
+}
@@ -0,0 +1,705 @@
+package com.openclassrooms.tourguide.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gpsUtil.location.Attraction;
+import com.openclassrooms.tourguide.user.RewardStore;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Append-only file of the granted rewards, from which the rewards of the users are restored at startup.
+ * Appending only queues the reward: a single writer thread gathers the queued rewards and syncs them to disk
+ * together, so granting a reward never waits for the disk. Every record has a fixed size and a checksum,
+ * and a record torn by a crash is cut off when the ledger is opened.
+ * Attractions are keyed by a UUID derived from their name, as GpsUtil gives them new ids on every load.
+ * A reward may be written twice, for instance by two instances sharing a user; the restore keeps the first one
+ * and the compaction, which periodically rewrites the file, drops the others.
+ */
+public class RewardLedger implements AutoCloseable {
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(RewardLedger.class);
+
+	/**
+	 * Name of the ledger file
+	 */
+	public static final String FILE_NAME = "rewards.ledger";
+
+	/**
+	 * First bytes of a ledger file, "TGRLEDG1"
+	 */
+	private static final long MAGIC = 0x5447524C45444731L;
+
+	/**
+	 * Size of the file header
+	 */
+	private static final int HEADER_SIZE = Long.BYTES;
+
+	/**
+	 * Size of a record, the checksum included
+	 */
+	static final int RECORD_SIZE = 64;
+
+	/**
+	 * Size of the checksummed part of a record
+	 */
+	private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+
+	/**
+	 * Number of records read at once when scanning the file
+	 */
+	private static final int READ_BATCH = 16384;
+
+	/**
+	 * Time the writer waits for new rewards before checking if it must stop or compact
+	 */
+	private static final long POLL_MILLIS = 100;
+
+	/**
+	 * Ledger file, null when the ledger is disabled
+	 */
+	private final Path file;
+
+	/**
+	 * Time during which the appended rewards are gathered before being synced
+	 */
+	private final long flushIntervalNanos;
+
+	/**
+	 * Maximum number of rewards synced together
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * Time between two compactions
+	 */
+	private final long compactionIntervalNanos;
+
+	/**
+	 * Rewards waiting to be written
+	 */
+	private final LinkedBlockingQueue<PendingWrite> pending = new LinkedBlockingQueue<>();
+
+	/**
+	 * Number of records in the file
+	 */
+	private final AtomicLong records = new AtomicLong();
+
+	/**
+	 * Guards the file channel, swapped by the compaction
+	 */
+	private final Object fileLock = new Object();
+
+	/**
+	 * Channel appending to the ledger file
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Thread writing the queued rewards
+	 */
+	private final Thread writer;
+
+	/**
+	 * False once the ledger is closed
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * Records appended since the last compaction, only used by the writer thread
+	 */
+	private long appendedSinceCompaction;
+
+	/**
+	 * Counter of the appended rewards
+	 */
+	private Counter appendCounter;
+
+	/**
+	 * Counter of the records dropped by the compaction
+	 */
+	private Counter duplicateCounter;
+
+	/**
+	 * Duration of the writes and syncs of the batches
+	 */
+	private Timer flushTimer;
+
+	/**
+	 * Number of rewards synced together
+	 */
+	private DistributionSummary batchSummary;
+
+	/**
+	 * Constructor for the ledger, opening the file and cutting off a torn last record
+	 * @param properties settings of the ledger
+	 */
+	public RewardLedger(LedgerProperties properties) {
+		this(properties, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the ledger, opening the file and cutting off a torn last record
+	 * @param properties settings of the ledger
+	 * @param meterRegistry registry of the ledger meters
+	 */
+	public RewardLedger(LedgerProperties properties, MeterRegistry meterRegistry) {
+		this.file = Paths.get(properties.getDirectory(), FILE_NAME);
+		this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+		this.maxBatchSize = properties.getMaxBatchSize();
+		this.compactionIntervalNanos = properties.getCompactionInterval().toNanos();
+
+		try {
+			Files.createDirectories(file.getParent());
+			channel = openChannel(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			records.set(recover(channel));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot open the reward ledger " + file, e);
+		}
+		logger.info("Reward ledger " + file + " opened with " + records.get() + " records");
+
+		appendCounter = Counter.builder("tourguide.ledger.appends")
+				.description("Number of rewards appended to the ledger")
+				.register(meterRegistry);
+		duplicateCounter = Counter.builder("tourguide.ledger.duplicates")
+				.description("Number of duplicate rewards dropped by the compaction")
+				.register(meterRegistry);
+		flushTimer = Timer.builder("tourguide.ledger.flush")
+				.description("Duration of the writes and syncs of the ledger batches")
+				.register(meterRegistry);
+		batchSummary = DistributionSummary.builder("tourguide.ledger.batch")
+				.description("Number of rewards synced together")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.ledger.records", records, AtomicLong::get)
+				.description("Number of records in the ledger file")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.ledger.pending", pending, LinkedBlockingQueue::size)
+				.description("Number of rewards waiting to be written")
+				.register(meterRegistry);
+
+		writer = new Thread(this::writeLoop, "reward-ledger");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Constructor for a disabled ledger
+	 */
+	private RewardLedger() {
+		this.file = null;
+		this.flushIntervalNanos = 0;
+		this.maxBatchSize = 0;
+		this.compactionIntervalNanos = 0;
+		this.writer = null;
+	}
+
+	/**
+	 * Creates a ledger which keeps nothing
+	 * @return disabled ledger
+	 */
+	public static RewardLedger disabled() {
+		return new RewardLedger();
+	}
+
+	/**
+	 * Indicates if the rewards are persisted
+	 * @return true if the ledger has a file
+	 */
+	public boolean isEnabled() {
+		return file != null;
+	}
+
+	/**
+	 * Derives the key of an attraction, stable across the loads of the attractions
+	 * @param attraction attraction to key
+	 * @return UUID derived from the name of the attraction
+	 */
+	public static UUID attractionKey(Attraction attraction) {
+		return RewardStore.attractionKey(attraction);
+	}
+
+	/**
+	 * Queues a granted reward, without waiting for the disk
+	 * @param userId id of the rewarded user
+	 * @param userReward granted reward
+	 * @return future completed once the reward is synced to disk
+	 */
+	public CompletableFuture<Void> append(UUID userId, UserReward userReward) {
+		if (!isEnabled()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		if (!running) {
+			return CompletableFuture.failedFuture(new IllegalStateException("Reward ledger closed"));
+		}
+		PendingWrite write = new PendingWrite(encode(userId, userReward));
+		pending.add(write);
+		// the ledger may have been closed meanwhile: unless the writer already took the reward, it is never written
+		if (!running && pending.remove(write)) {
+			write.done.completeExceptionally(new IllegalStateException("Reward ledger closed"));
+		}
+		return write.done;
+	}
+
+	/**
+	 * Reads back every reward of the ledger, in the order they were written
+	 * @param consumer called with each reward
+	 * @return number of rewards read
+	 */
+	public long replay(Consumer<LedgerEntry> consumer) {
+		if (!isEnabled()) {
+			return 0;
+		}
+		FileChannel readChannel;
+		synchronized (fileLock) {
+			// the opened file stays readable even if a compaction replaces it meanwhile
+			try {
+				readChannel = FileChannel.open(file, StandardOpenOption.READ);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		try (readChannel) {
+			return scan(readChannel, (record, offset) -> consumer.accept(decode(record)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Rewrites the ledger without the duplicate rewards, keeping the first record of each user and attraction
+	 * @return number of dropped records
+	 */
+	public long compact() {
+		if (!isEnabled()) {
+			return 0;
+		}
+		Path compacting = file.resolveSibling(FILE_NAME + ".compacting");
+		synchronized (fileLock) {
+			try {
+				// keys of the kept rewards, user id then attraction key
+				Set<RecordKey> kept = new HashSet<>();
+				long written;
+				try (FileChannel output = FileChannel.open(compacting, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putLong(MAGIC).flip();
+					writeFully(output, header);
+					ByteBuffer out = ByteBuffer.allocateDirect(READ_BATCH * RECORD_SIZE);
+					scan(channel, (record, offset) -> {
+						if (kept.add(new RecordKey(record))) {
+							if (!out.hasRemaining()) {
+								writeFully(output, out.flip());
+								out.clear();
+							}
+							out.put(record.duplicate().limit(record.position() + RECORD_SIZE));
+						}
+					});
+					writeFully(output, out.flip());
+					output.force(true);
+					written = kept.size();
+				}
+
+				// the compacted file is opened before it replaces the live one, so that a failed move or open
+				// leaves the live channel untouched
+				FileChannel compacted = openChannel(compacting, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				try {
+					compacted.position(compacted.size());
+					Files.move(compacting, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException e) {
+					compacted.close();
+					throw e;
+				}
+				FileChannel replaced = channel;
+				channel = compacted;
+				long dropped = records.getAndSet(written) - written;
+				try {
+					replaced.close();
+				} catch (IOException e) {
+					logger.warn("Cannot close the replaced reward ledger: " + e.getMessage());
+				}
+
+				duplicateCounter.increment(dropped);
+				logger.debug("Reward ledger compacted, " + written + " records kept, " + dropped + " dropped");
+				return dropped;
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot compact the reward ledger " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of records in the file
+	 * @return record count, duplicates included
+	 */
+	public long getRecordCount() {
+		return records.get();
+	}
+
+	/**
+	 * Writes the queued rewards and stops the writer, failing the rewards it could not write
+	 */
+	@Override
+	public void close() {
+		if (!isEnabled() || !running) {
+			return;
+		}
+		running = false;
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		List<PendingWrite> leftovers = new ArrayList<>();
+		pending.drainTo(leftovers);
+		if (!leftovers.isEmpty()) {
+			logger.error(leftovers.size() + " rewards not written to the closed ledger");
+			IllegalStateException closed = new IllegalStateException("Reward ledger closed");
+			leftovers.forEach(write -> write.done.completeExceptionally(closed));
+		}
+		synchronized (fileLock) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.warn("Cannot close the reward ledger: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Loop of the writer thread, syncing the queued rewards by batches
+	 */
+	private void writeLoop() {
+		List<PendingWrite> batch = new ArrayList<>();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(maxBatchSize * RECORD_SIZE);
+		long nextCompaction = System.nanoTime() + compactionIntervalNanos;
+
+		while (running || !pending.isEmpty()) {
+			try {
+				PendingWrite first = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					// gathers the rewards granted meanwhile, to sync them all at once
+					if (running && flushIntervalNanos > 0) {
+						TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+					}
+					batch.add(first);
+					pending.drainTo(batch, maxBatchSize - 1);
+					flush(batch, buffer);
+					batch.clear();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			if (running && System.nanoTime() >= nextCompaction) {
+				nextCompaction = System.nanoTime() + compactionIntervalNanos;
+				if (appendedSinceCompaction > 0) {
+					try {
+						compact();
+						appendedSinceCompaction = 0;
+					} catch (UncheckedIOException e) {
+						logger.warn(e.getMessage() + ": " + e.getCause().getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a batch of rewards and syncs it to disk
+	 * @param batch rewards to write
+	 * @param buffer buffer holding the batch
+	 */
+	private void flush(List<PendingWrite> batch, ByteBuffer buffer) {
+		buffer.clear();
+		for (PendingWrite write : batch) {
+			buffer.put(write.record);
+		}
+		buffer.flip();
+
+		long start = System.nanoTime();
+		synchronized (fileLock) {
+			// end of the last valid record, the file holding nothing but whole records
+			long goodEnd = HEADER_SIZE + records.get() * RECORD_SIZE;
+			try {
+				writeFully(channel, buffer);
+				channel.force(false);
+			} catch (IOException e) {
+				logger.error("Cannot write " + batch.size() + " rewards to the ledger: " + e.getMessage());
+				cutTornBatch(goodEnd);
+				batch.forEach(write -> write.done.completeExceptionally(e));
+				return;
+			}
+		}
+		flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		batchSummary.record(batch.size());
+		appendCounter.increment(batch.size());
+		records.addAndGet(batch.size());
+		appendedSinceCompaction += batch.size();
+		batch.forEach(write -> write.done.complete(null));
+	}
+
+	/**
+	 * Cuts off the part of a batch written before a failure, so that the next batches follow the last valid record
+	 * rather than a torn one, which would hide them from the scans
+	 * @param goodEnd end of the last valid record
+	 */
+	private void cutTornBatch(long goodEnd) {
+		try {
+			channel.truncate(goodEnd);
+			channel.position(goodEnd);
+		} catch (IOException e) {
+			logger.error("Cannot cut the torn batch off the reward ledger: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Opens a channel on a ledger file
+	 * @param path file to open
+	 * @param options options of the channel
+	 * @return opened channel
+	 * @throws IOException if the file cannot be opened
+	 */
+	protected FileChannel openChannel(Path path, OpenOption... options) throws IOException {
+		return FileChannel.open(path, options);
+	}
+
+	/**
+	 * Checks the header of the file, writing it if the file is new, and cuts off the records following
+	 * the first invalid one
+	 * @param channel channel of the file
+	 * @return number of valid records
+	 * @throws IOException if the file cannot be read or is not a ledger
+	 */
+	private long recover(FileChannel channel) throws IOException {
+		if (channel.size() == 0) {
+			writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putLong(MAGIC).flip());
+			channel.force(true);
+			return 0;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		channel.read(header, 0);
+		if (header.position() < HEADER_SIZE || header.getLong(0) != MAGIC) {
+			throw new IOException("Not a reward ledger");
+		}
+
+		long count = scan(channel, (record, offset) -> { });
+		long end = HEADER_SIZE + count * RECORD_SIZE;
+		if (channel.size() > end) {
+			logger.warn("Reward ledger cut after " + count + " records, dropping " + (channel.size() - end) + " bytes");
+			channel.truncate(end);
+			channel.force(true);
+		}
+		channel.position(end);
+		return count;
+	}
+
+	/**
+	 * Reads the records of a ledger file up to the end or up to the first invalid record
+	 * @param channel channel of the file
+	 * @param visitor called with a buffer positioned on each valid record
+	 * @return number of valid records
+	 * @throws IOException if the file cannot be read
+	 */
+	private long scan(FileChannel channel, RecordVisitor visitor) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BATCH * RECORD_SIZE);
+		CRC32C crc = new CRC32C();
+		long position = HEADER_SIZE;
+		long count = 0;
+
+		while (true) {
+			buffer.clear();
+			while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+				// keeps reading until the buffer is full or the end of the file
+			}
+			buffer.flip();
+			if (buffer.remaining() < RECORD_SIZE) {
+				return count;
+			}
+			while (buffer.remaining() >= RECORD_SIZE) {
+				int start = buffer.position();
+				crc.reset();
+				crc.update(buffer.duplicate().limit(start + PAYLOAD_SIZE));
+				if ((int) crc.getValue() != buffer.getInt(start + PAYLOAD_SIZE)) {
+					return count;
+				}
+				visitor.visit(buffer, position);
+				buffer.position(start + RECORD_SIZE);
+				position += RECORD_SIZE;
+				count++;
+			}
+			if (buffer.hasRemaining()) {
+				// a partial record at the end of the file
+				return count;
+			}
+		}
+	}
+
+	/**
+	 * Encodes a reward as a record
+	 * @param userId id of the rewarded user
+	 * @param userReward granted reward
+	 * @return record, ready to be written
+	 */
+	private static ByteBuffer encode(UUID userId, UserReward userReward) {
+		UUID attractionKey = attractionKey(userReward.attraction);
+		ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE)
+				.putLong(userId.getMostSignificantBits())
+				.putLong(userId.getLeastSignificantBits())
+				.putLong(attractionKey.getMostSignificantBits())
+				.putLong(attractionKey.getLeastSignificantBits())
+				.putDouble(userReward.visitedLocation.location.latitude)
+				.putDouble(userReward.visitedLocation.location.longitude)
+				.putLong(userReward.visitedLocation.timeVisited.getTime())
+				.putInt(userReward.getRewardPoints());
+		CRC32C crc = new CRC32C();
+		crc.update(record.array(), 0, PAYLOAD_SIZE);
+		return record.putInt((int) crc.getValue()).flip();
+	}
+
+	/**
+	 * Decodes a record
+	 * @param record buffer positioned on the record
+	 * @return reward of the record
+	 */
+	private static LedgerEntry decode(ByteBuffer record) {
+		int start = record.position();
+		return new LedgerEntry(
+				new UUID(record.getLong(start), record.getLong(start + 8)),
+				new UUID(record.getLong(start + 16), record.getLong(start + 24)),
+				record.getDouble(start + 32),
+				record.getDouble(start + 40),
+				record.getLong(start + 48),
+				record.getInt(start + 56));
+	}
+
+	/**
+	 * Writes a whole buffer at the position of a channel
+	 * @param channel channel to write to
+	 * @param buffer data to write
+	 * @throws IOException if the write fails
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Action run on each valid record of a scan
+	 */
+	@FunctionalInterface
+	private interface RecordVisitor {
+		void visit(ByteBuffer record, long offset) throws IOException;
+	}
+
+	/**
+	 * Reward waiting to be written
+	 */
+	private static class PendingWrite {
+
+		/**
+		 * Encoded record of the reward
+		 */
+		private final ByteBuffer record;
+
+		/**
+		 * Completed once the record is synced to disk
+		 */
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+		/**
+		 * Constructor for the pending write
+		 * @param record encoded record of the reward
+		 */
+		private PendingWrite(ByteBuffer record) {
+			this.record = record;
+		}
+	}
+
+	/**
+	 * User and attraction of a record, identifying the reward
+	 */
+	private static class RecordKey {
+
+		/**
+		 * Most significant bits of the user id
+		 */
+		private final long userMost;
+
+		/**
+		 * Least significant bits of the user id
+		 */
+		private final long userLeast;
+
+		/**
+		 * Most significant bits of the attraction key
+		 */
+		private final long attractionMost;
+
+		/**
+		 * Least significant bits of the attraction key
+		 */
+		private final long attractionLeast;
+
+		/**
+		 * Constructor for the key of a record
+		 * @param record buffer positioned on the record
+		 */
+		private RecordKey(ByteBuffer record) {
+			int start = record.position();
+			this.userMost = record.getLong(start);
+			this.userLeast = record.getLong(start + 8);
+			this.attractionMost = record.getLong(start + 16);
+			this.attractionLeast = record.getLong(start + 24);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof RecordKey other)) {
+				return false;
+			}
+			return userMost == other.userMost && userLeast == other.userLeast
+					&& attractionMost == other.attractionMost && attractionLeast == other.attractionLeast;
+		}
+
+		@Override
+		public int hashCode() {
+			long hash = userMost * 31 + userLeast;
+			hash = hash * 31 + attractionMost;
+			hash = hash * 31 + attractionLeast;
+			return Long.hashCode(hash);
+		}
+	}
+}
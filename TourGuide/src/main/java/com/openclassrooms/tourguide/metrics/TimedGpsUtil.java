@@ -0,0 +1,64 @@
+package com.openclassrooms.tourguide.metrics;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.profiling.UpstreamCallEvent;
+
+/**
+ * GpsUtil decorator recording the latency of every call, as a metric and as a flight recorder event
+ */
+public class TimedGpsUtil extends GpsUtil {
+
+	/**
+	 * Decorated library
+	 */
+	private final GpsUtil delegate;
+
+	/**
+	 * Timer of the user location calls
+	 */
+	private final Timer userLocationTimer;
+
+	/**
+	 * Timer of the attraction calls
+	 */
+	private final Timer attractionsTimer;
+
+	/**
+	 * Constructor for the timed library
+	 * @param delegate decorated library
+	 */
+	public TimedGpsUtil(GpsUtil delegate) {
+		this(delegate, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the timed library
+	 * @param delegate decorated library
+	 * @param meterRegistry registry of the timers
+	 */
+	public TimedGpsUtil(GpsUtil delegate, MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.userLocationTimer = UpstreamMetrics.timer(meterRegistry, "gpsUtil", "getUserLocation");
+		this.attractionsTimer = UpstreamMetrics.timer(meterRegistry, "gpsUtil", "getAttractions");
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		return UpstreamCallEvent.record("gpsUtil", "getUserLocation",
+				() -> userLocationTimer.record(() -> delegate.getUserLocation(userId)));
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		return UpstreamCallEvent.record("gpsUtil", "getAttractions", () -> attractionsTimer.record(delegate::getAttractions));
+	}
+}
@@ -0,0 +1,50 @@
+package com.openclassrooms.tourguide.metrics;
+
+import java.util.UUID;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.profiling.UpstreamCallEvent;
+
+/**
+ * RewardCentral decorator recording the latency of every call, as a metric and as a flight recorder event
+ */
+public class TimedRewardCentral extends RewardCentral {
+
+	/**
+	 * Decorated library
+	 */
+	private final RewardCentral delegate;
+
+	/**
+	 * Timer of the reward points calls
+	 */
+	private final Timer rewardPointsTimer;
+
+	/**
+	 * Constructor for the timed library
+	 * @param delegate decorated library
+	 */
+	public TimedRewardCentral(RewardCentral delegate) {
+		this(delegate, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the timed library
+	 * @param delegate decorated library
+	 * @param meterRegistry registry of the timers
+	 */
+	public TimedRewardCentral(RewardCentral delegate, MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.rewardPointsTimer = UpstreamMetrics.timer(meterRegistry, "rewardCentral", "getAttractionRewardPoints");
+	}
+
+	@Override
+	public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+		return UpstreamCallEvent.record("rewardCentral", "getAttractionRewardPoints",
+				() -> rewardPointsTimer.record(() -> delegate.getAttractionRewardPoints(attractionId, userId)));
+	}
+}
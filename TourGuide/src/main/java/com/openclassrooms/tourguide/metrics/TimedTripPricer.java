@@ -0,0 +1,57 @@
+package com.openclassrooms.tourguide.metrics;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+import com.openclassrooms.tourguide.profiling.UpstreamCallEvent;
+
+/**
+ * TripPricer decorator recording the latency of every call, as a metric and as a flight recorder event
+ */
+public class TimedTripPricer extends TripPricer {
+
+	/**
+	 * Decorated library
+	 */
+	private final TripPricer delegate;
+
+	/**
+	 * Timer of the price calls
+	 */
+	private final Timer priceTimer;
+
+	/**
+	 * Constructor for the timed library
+	 * @param delegate decorated library
+	 */
+	public TimedTripPricer(TripPricer delegate) {
+		this(delegate, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the timed library
+	 * @param delegate decorated library
+	 * @param meterRegistry registry of the timers
+	 */
+	public TimedTripPricer(TripPricer delegate, MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.priceTimer = UpstreamMetrics.timer(meterRegistry, "tripPricer", "getPrice");
+	}
+
+	@Override
+	public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay, int rewardsPoints) {
+		return UpstreamCallEvent.record("tripPricer", "getPrice",
+				() -> priceTimer.record(() -> delegate.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints)));
+	}
+
+	@Override
+	public String getProviderName(String apiKey, int adults) {
+		return delegate.getProviderName(apiKey, adults);
+	}
+}
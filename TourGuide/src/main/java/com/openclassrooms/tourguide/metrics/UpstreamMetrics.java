@@ -0,0 +1,33 @@
+package com.openclassrooms.tourguide.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers shared by the instrumented external libraries
+ */
+public final class UpstreamMetrics {
+
+	/**
+	 * Name of the timer measuring the calls made to the external libraries
+	 */
+	public static final String UPSTREAM_CALLS = "tourguide.upstream.calls";
+
+	private UpstreamMetrics() {
+	}
+
+	/**
+	 * Creates the timer of an upstream operation
+	 * @param meterRegistry registry of the timer
+	 * @param dependency name of the external library
+	 * @param operation name of the called method
+	 * @return timer of the operation
+	 */
+	public static Timer timer(MeterRegistry meterRegistry, String dependency, String operation) {
+		return Timer.builder(UPSTREAM_CALLS)
+				.description("Latency of the calls made to the external libraries")
+				.tag("dependency", dependency)
+				.tag("operation", operation)
+				.register(meterRegistry);
+	}
+}
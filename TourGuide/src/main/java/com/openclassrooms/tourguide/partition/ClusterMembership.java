@@ -0,0 +1,152 @@
+package com.openclassrooms.tourguide.partition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Membership of the TourGuide instances sharing the tracking load.
+ * Users are assigned to instances by consistent hashing of their id, and each instance only
+ * tracks its own users. Requests are not forwarded: an instance asked for the location of a user
+ * it does not own locates the user on demand rather than serving its stale copy.
+ * The members come from a static list or from a file watched for changes,
+ * the ring being swapped atomically when the membership changes.
+ */
+public class ClusterMembership implements AutoCloseable {
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+
+	/**
+	 * Settings of the membership
+	 */
+	private final ClusterProperties properties;
+
+	/**
+	 * Current hash ring
+	 */
+	private volatile ConsistentHashRing ring;
+
+	/**
+	 * Last modification time of the members file
+	 */
+	private FileTime membersFileTime;
+
+	/**
+	 * Thread checking the members file, null if the membership is static
+	 */
+	private final ScheduledExecutorService refreshExecutor;
+
+	/**
+	 * Constructor for the membership
+	 * @param properties settings of the membership
+	 */
+	public ClusterMembership(ClusterProperties properties) {
+		this.properties = properties;
+		this.ring = new ConsistentHashRing(staticMembers(), properties.getVirtualNodes());
+
+		if (properties.getMembersFile() != null) {
+			refresh();
+			long interval = properties.getRefreshInterval().toMillis();
+			refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "cluster-membership");
+				thread.setDaemon(true);
+				return thread;
+			});
+			refreshExecutor.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+		} else {
+			refreshExecutor = null;
+		}
+		logger.info("Node " + properties.getNodeId() + " tracking its share of " + ring.getNodes());
+	}
+
+	/**
+	 * Creates the membership of a single instance owning every user
+	 * @return standalone membership
+	 */
+	public static ClusterMembership standalone() {
+		return new ClusterMembership(new ClusterProperties());
+	}
+
+	/**
+	 * Indicates if a user is tracked by this instance
+	 * @param userId id of the user
+	 * @return true if this instance owns the user
+	 */
+	public boolean isLocal(UUID userId) {
+		return properties.getNodeId().equals(ring.ownerOf(userId));
+	}
+
+	/**
+	 * Get the id of this instance
+	 * @return node id
+	 */
+	public String getNodeId() {
+		return properties.getNodeId();
+	}
+
+	/**
+	 * Get the current members
+	 * @return ids of the instances
+	 */
+	public List<String> getMembers() {
+		return ring.getNodes();
+	}
+
+	/**
+	 * Reloads the members file if it changed, keeping the current ring if it cannot be read
+	 */
+	public synchronized void refresh() {
+		Path path = Path.of(properties.getMembersFile());
+		try {
+			FileTime lastModified = Files.getLastModifiedTime(path);
+			if (lastModified.equals(membersFileTime)) {
+				return;
+			}
+			List<String> members = Files.readAllLines(path).stream()
+					.map(String::trim)
+					.filter(line -> !line.isEmpty() && !line.startsWith("#"))
+					.distinct()
+					.toList();
+			membersFileTime = lastModified;
+			if (!members.equals(ring.getNodes())) {
+				ring = new ConsistentHashRing(members, properties.getVirtualNodes());
+				logger.info("Cluster membership changed, members are now " + members);
+				if (!members.contains(properties.getNodeId())) {
+					logger.warn("Node " + properties.getNodeId() + " is not listed in " + path + ", it tracks no user");
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Cannot read cluster members file " + path + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the members of the static configuration
+	 * @return configured members, or this instance alone
+	 */
+	private List<String> staticMembers() {
+		return properties.getMembers().isEmpty() ? List.of(properties.getNodeId()) : properties.getMembers();
+	}
+
+	/**
+	 * Stops watching the members file
+	 */
+	@Override
+	public void close() {
+		if (refreshExecutor != null) {
+			refreshExecutor.shutdownNow();
+		}
+	}
+}
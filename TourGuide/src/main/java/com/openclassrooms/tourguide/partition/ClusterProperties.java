@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide.partition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Membership settings of the TourGuide instances sharing the tracking load, bound from the tourguide.cluster properties
+ */
+@ConfigurationProperties(prefix = "tourguide.cluster")
+public class ClusterProperties {
+
+	/**
+	 * Id of this instance
+	 */
+	private String nodeId = "local";
+
+	/**
+	 * Static list of the instance ids, this instance only if empty
+	 */
+	private List<String> members = new ArrayList<>();
+
+	/**
+	 * File listing the instance ids, one per line, taking precedence over the static list
+	 */
+	private String membersFile;
+
+	/**
+	 * Interval at which the members file is checked for changes
+	 */
+	private Duration refreshInterval = Duration.ofSeconds(10);
+
+	/**
+	 * Number of positions of each instance on the hash ring
+	 */
+	private int virtualNodes = 128;
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(String nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public List<String> getMembers() {
+		return members;
+	}
+
+	public void setMembers(List<String> members) {
+		this.members = members;
+	}
+
+	public String getMembersFile() {
+		return membersFile;
+	}
+
+	public void setMembersFile(String membersFile) {
+		this.membersFile = membersFile;
+	}
+
+	public Duration getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	public void setRefreshInterval(Duration refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	public int getVirtualNodes() {
+		return virtualNodes;
+	}
+
+	public void setVirtualNodes(int virtualNodes) {
+		this.virtualNodes = virtualNodes;
+	}
+}
@@ -0,0 +1,105 @@
+package com.openclassrooms.tourguide.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Immutable consistent hash ring assigning users to nodes.
+ * Each node is placed on the ring many times, so that users are evenly spread
+ * and only the users of the joining or leaving node move when the membership changes.
+ */
+public class ConsistentHashRing {
+
+	/**
+	 * Positions of the nodes on the ring
+	 */
+	private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+	/**
+	 * Nodes of the ring
+	 */
+	private final List<String> nodes;
+
+	/**
+	 * Constructor for the ring
+	 * @param nodes ids of the nodes
+	 * @param virtualNodes number of positions of each node on the ring
+	 */
+	public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+		this.nodes = List.copyOf(nodes);
+		for (String node : this.nodes) {
+			for (int i = 0; i < virtualNodes; i++) {
+				ring.put(hash(node + "#" + i), node);
+			}
+		}
+	}
+
+	/**
+	 * Finds the node owning a user
+	 * @param userId id of the user
+	 * @return id of the owning node, or null if the ring is empty
+	 */
+	public String ownerOf(UUID userId) {
+		if (ring.isEmpty()) {
+			return null;
+		}
+		Map.Entry<Long, String> entry = ring.ceilingEntry(hash(userId));
+		return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+	}
+
+	/**
+	 * Get the nodes of the ring
+	 * @return node ids
+	 */
+	public List<String> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Hashes a user id on the ring
+	 * @param userId id to hash
+	 * @return position on the ring
+	 */
+	static long hash(UUID userId) {
+		return mix(userId.getMostSignificantBits() ^ mix(userId.getLeastSignificantBits()));
+	}
+
+	/**
+	 * Hashes a virtual node name on the ring, the same way on every instance
+	 * @param key name to hash
+	 * @return position on the ring
+	 */
+	static long hash(String key) {
+		try {
+			byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+			long value = 0;
+			for (int i = 0; i < Long.BYTES; i++) {
+				value = (value << 8) | (digest[i] & 0xFF);
+			}
+			return value;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 64 bits finalizer of MurmurHash3, spreading the bits of a value
+	 * @param value value to mix
+	 * @return mixed value
+	 */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+}
@@ -0,0 +1,91 @@
+package com.openclassrooms.tourguide.prefetch;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the reward prefetch, bound from the tourguide.rewards.prefetch properties
+ */
+@ConfigurationProperties(prefix = "tourguide.rewards.prefetch")
+public class PrefetchProperties {
+
+	/**
+	 * Fetches the reward points of the attractions a user approaches before the user reaches them
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Distance from an attraction at which its reward points are prefetched, in statute miles.
+	 * Attractions within the proximity buffer are not prefetched, their rewards are granted right away
+	 */
+	private double approachRadiusMiles = 25;
+
+	/**
+	 * Number of threads fetching the points in the background
+	 */
+	private int threads = 4;
+
+	/**
+	 * Maximum number of prefetches waiting for a thread, further ones are dropped
+	 */
+	private int queueCapacity = 10000;
+
+	/**
+	 * Time after which unused points are discarded
+	 */
+	private Duration timeToLive = Duration.ofHours(1);
+
+	/**
+	 * Interval between two sweeps discarding the expired points, including those of users who stopped reporting
+	 */
+	private Duration sweepInterval = Duration.ofMinutes(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public double getApproachRadiusMiles() {
+		return approachRadiusMiles;
+	}
+
+	public void setApproachRadiusMiles(double approachRadiusMiles) {
+		this.approachRadiusMiles = approachRadiusMiles;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public Duration getTimeToLive() {
+		return timeToLive;
+	}
+
+	public void setTimeToLive(Duration timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	public Duration getSweepInterval() {
+		return sweepInterval;
+	}
+
+	public void setSweepInterval(Duration sweepInterval) {
+		this.sweepInterval = sweepInterval;
+	}
+}
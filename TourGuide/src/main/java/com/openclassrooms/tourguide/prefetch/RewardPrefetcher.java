@@ -0,0 +1,367 @@
+package com.openclassrooms.tourguide.prefetch;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import gpsUtil.location.Attraction;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
+
+/**
+ * Fetches the reward points of the attractions a user approaches, so that the reward is granted without waiting
+ * for RewardCentral when the user arrives.
+ * The points are fetched by a few low priority threads and staged by user and attraction until they are used
+ * by a grant, or discarded when the user moves away from the attraction or when they expire. Expired points are
+ * also swept periodically, so that the users who stop reporting do not keep them forever.
+ * A staged fetch still running is handed over to the grant, so an attraction is never fetched twice.
+ */
+public class RewardPrefetcher implements AutoCloseable {
+
+	/**
+	 * Settings of the prefetch
+	 */
+	private final PrefetchProperties properties;
+
+	/**
+	 * Time after which unused points are discarded
+	 */
+	private final long timeToLiveNanos;
+
+	/**
+	 * RewardCentral library
+	 */
+	private final RewardCentral rewardCentral;
+
+	/**
+	 * Low priority threads fetching the points, null when the prefetch is disabled
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Thread sweeping the expired points, null when the prefetch is disabled
+	 */
+	private final ScheduledExecutorService sweepExecutor;
+
+	/**
+	 * Staged points by user, then by attraction id
+	 */
+	private final Map<UUID, Map<UUID, StagedPoints>> staged = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of staged points
+	 */
+	private final AtomicInteger stagedCount = new AtomicInteger();
+
+	/**
+	 * Counter of the prefetches sent to RewardCentral
+	 */
+	private final Counter requestedCounter;
+
+	/**
+	 * Counter of the staged points used by a grant
+	 */
+	private final Counter usedCounter;
+
+	/**
+	 * Counter of the staged points served to a query without being consumed
+	 */
+	private final Counter servedCounter;
+
+	/**
+	 * Counter of the staged points discarded without being used
+	 */
+	private final Counter wastedCounter;
+
+	/**
+	 * Counter of the grants which found no staged points
+	 */
+	private final Counter missedCounter;
+
+	/**
+	 * Counter of the prefetches dropped because the queue was full
+	 */
+	private final Counter rejectedCounter;
+
+	/**
+	 * Constructor for the prefetcher
+	 * @param properties settings of the prefetch
+	 * @param rewardCentral rewards library
+	 */
+	public RewardPrefetcher(PrefetchProperties properties, RewardCentral rewardCentral) {
+		this(properties, rewardCentral, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the prefetcher
+	 * @param properties settings of the prefetch
+	 * @param rewardCentral rewards library
+	 * @param meterRegistry registry of the prefetch meters
+	 */
+	public RewardPrefetcher(PrefetchProperties properties, RewardCentral rewardCentral, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.rewardCentral = rewardCentral;
+		this.timeToLiveNanos = properties.getTimeToLive().toNanos();
+		this.requestedCounter = outcomeCounter(meterRegistry, "requested");
+		this.usedCounter = outcomeCounter(meterRegistry, "used");
+		this.servedCounter = outcomeCounter(meterRegistry, "served");
+		this.wastedCounter = outcomeCounter(meterRegistry, "wasted");
+		this.missedCounter = outcomeCounter(meterRegistry, "missed");
+		this.rejectedCounter = outcomeCounter(meterRegistry, "rejected");
+		if (properties.isEnabled()) {
+			AtomicInteger threadCount = new AtomicInteger();
+			executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+						Thread thread = new Thread(runnable, "reward-prefetch-" + threadCount.getAndIncrement());
+						thread.setDaemon(true);
+						thread.setPriority(Thread.MIN_PRIORITY);
+						return thread;
+					});
+			long interval = properties.getSweepInterval().toMillis();
+			sweepExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "reward-prefetch-sweep");
+				thread.setDaemon(true);
+				return thread;
+			});
+			sweepExecutor.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+		} else {
+			executor = null;
+			sweepExecutor = null;
+		}
+
+		Gauge.builder("tourguide.rewards.prefetch.staged", stagedCount, AtomicInteger::get)
+				.description("Number of staged reward points")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Creates a prefetcher which never prefetches
+	 * @return disabled prefetcher
+	 */
+	public static RewardPrefetcher disabled() {
+		PrefetchProperties properties = new PrefetchProperties();
+		properties.setEnabled(false);
+		return new RewardPrefetcher(properties, null);
+	}
+
+	/**
+	 * Indicates if the points are prefetched
+	 * @return true if enabled
+	 */
+	public boolean isEnabled() {
+		return executor != null;
+	}
+
+	/**
+	 * Get the distance from an attraction at which its points are prefetched
+	 * @return approach radius, in statute miles
+	 */
+	public double getApproachRadiusMiles() {
+		return properties.getApproachRadiusMiles();
+	}
+
+	/**
+	 * Updates the staged points of a user after it moved: the attractions it approaches are prefetched,
+	 * and the points of the attractions it moved away from are discarded
+	 * @param userId id of the user
+	 * @param approached unrewarded attractions the user now approaches
+	 */
+	public void onApproach(UUID userId, Collection<AttractionDistance> approached) {
+		if (!isEnabled()) {
+			return;
+		}
+		Set<UUID> approachedIds = new HashSet<>();
+		for (AttractionDistance attractionDistance : approached) {
+			approachedIds.add(attractionDistance.getAttraction().attractionId);
+		}
+
+		Map<UUID, StagedPoints> userPoints = staged.get(userId);
+		long now = System.nanoTime();
+		if (userPoints != null) {
+			for (Map.Entry<UUID, StagedPoints> entry : userPoints.entrySet()) {
+				if (!approachedIds.contains(entry.getKey()) || entry.getValue().isExpired(now)) {
+					discard(userPoints, entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		if (approached.isEmpty()) {
+			removeIfEmpty(userId);
+			return;
+		}
+
+		for (AttractionDistance attractionDistance : approached) {
+			Attraction attraction = attractionDistance.getAttraction();
+			userPoints = staged.get(userId);
+			if (userPoints != null && userPoints.containsKey(attraction.attractionId)) {
+				continue;
+			}
+			CompletableFuture<Integer> fetch;
+			try {
+				fetch = CompletableFuture.supplyAsync(
+						() -> rewardCentral.getAttractionRewardPoints(attraction.attractionId, userId), executor);
+			} catch (RejectedExecutionException e) {
+				rejectedCounter.increment();
+				return;
+			}
+			requestedCounter.increment();
+			StagedPoints points = new StagedPoints(fetch, now + timeToLiveNanos);
+			staged.compute(userId, (id, current) -> {
+				Map<UUID, StagedPoints> stagedPoints = current == null ? new ConcurrentHashMap<>() : current;
+				if (stagedPoints.putIfAbsent(attraction.attractionId, points) == null) {
+					stagedCount.incrementAndGet();
+				}
+				return stagedPoints;
+			});
+		}
+	}
+
+	/**
+	 * Takes the staged points of an attraction, for a grant
+	 * @param userId id of the rewarded user
+	 * @param attractionId id of the rewarded attraction
+	 * @return staged points, possibly still being fetched, null if none
+	 */
+	public CompletableFuture<Integer> take(UUID userId, UUID attractionId) {
+		if (!isEnabled()) {
+			return null;
+		}
+		Map<UUID, StagedPoints> userPoints = staged.get(userId);
+		StagedPoints points = userPoints == null ? null : userPoints.remove(attractionId);
+		if (points == null) {
+			missedCounter.increment();
+			return null;
+		}
+		stagedCount.decrementAndGet();
+		if (points.isExpired(System.nanoTime())) {
+			wastedCounter.increment();
+			missedCounter.increment();
+			return null;
+		}
+		usedCounter.increment();
+		return points.fetch;
+	}
+
+	/**
+	 * Reads the staged points of an attraction, leaving them staged
+	 * @param userId id of the user
+	 * @param attractionId id of the attraction
+	 * @return staged points, null if none, expired or if their fetch failed
+	 */
+	public CompletableFuture<Integer> peek(UUID userId, UUID attractionId) {
+		Map<UUID, StagedPoints> userPoints = staged.get(userId);
+		StagedPoints points = userPoints == null ? null : userPoints.get(attractionId);
+		if (points == null || points.fetch.isCompletedExceptionally()) {
+			return null;
+		}
+		if (points.isExpired(System.nanoTime())) {
+			discard(userPoints, attractionId, points);
+			return null;
+		}
+		servedCounter.increment();
+		return points.fetch;
+	}
+
+	/**
+	 * Discards the expired points of every user, including the users who stopped reporting
+	 */
+	public void sweep() {
+		long now = System.nanoTime();
+		for (Map.Entry<UUID, Map<UUID, StagedPoints>> userEntry : staged.entrySet()) {
+			Map<UUID, StagedPoints> userPoints = userEntry.getValue();
+			for (Map.Entry<UUID, StagedPoints> entry : userPoints.entrySet()) {
+				if (entry.getValue().isExpired(now)) {
+					discard(userPoints, entry.getKey(), entry.getValue());
+				}
+			}
+			removeIfEmpty(userEntry.getKey());
+		}
+	}
+
+	/**
+	 * Get the number of staged points
+	 * @return staged count
+	 */
+	public int getStagedCount() {
+		return stagedCount.get();
+	}
+
+	/**
+	 * Stops the prefetch threads
+	 */
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			sweepExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Discards staged points unless a grant or another discard removed them first, so that they are counted once
+	 * @param userPoints staged points of the user
+	 * @param attractionId id of the attraction
+	 * @param points points to discard
+	 */
+	private void discard(Map<UUID, StagedPoints> userPoints, UUID attractionId, StagedPoints points) {
+		if (userPoints.remove(attractionId, points)) {
+			stagedCount.decrementAndGet();
+			wastedCounter.increment();
+		}
+	}
+
+	/**
+	 * Forgets a user without staged points, atomically with the staging of new points
+	 * @param userId id of the user
+	 */
+	private void removeIfEmpty(UUID userId) {
+		staged.computeIfPresent(userId, (id, userPoints) -> userPoints.isEmpty() ? null : userPoints);
+	}
+
+	/**
+	 * Creates the counter of a prefetch outcome
+	 * @param meterRegistry registry of the counter
+	 * @param outcome outcome to count
+	 * @return counter tagged with the outcome
+	 */
+	private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+		return Counter.builder("tourguide.rewards.prefetch")
+				.description("Reward points prefetched for the approached attractions, by outcome")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Points fetched, or being fetched, ahead of a grant
+	 */
+	private static class StagedPoints {
+
+		private final CompletableFuture<Integer> fetch;
+
+		private final long expiresAt;
+
+		private StagedPoints(CompletableFuture<Integer> fetch, long expiresAt) {
+			this.fetch = fetch;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now - expiresAt > 0;
+		}
+	}
+}
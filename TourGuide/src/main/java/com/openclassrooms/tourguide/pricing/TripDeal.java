@@ -0,0 +1,70 @@
+package com.openclassrooms.tourguide.pricing;
+
+import java.util.UUID;
+
+import tripPricer.Provider;
+
+/**
+ * Trip offered by a provider for a variation, ranked by its price per traveller and night
+ */
+public class TripDeal {
+
+	private String providerName;
+
+	private UUID tripId;
+
+	private double price;
+
+	private double pricePerTravellerNight;
+
+	private TripVariation variation;
+
+	public TripDeal(Provider provider, TripVariation variation) {
+		this.providerName = provider.name;
+		this.tripId = provider.tripId;
+		this.price = provider.price;
+		this.variation = variation;
+		int travellerNights = Math.max(1, variation.getAdults() + variation.getChildren()) * Math.max(1, variation.getNights());
+		this.pricePerTravellerNight = provider.price / travellerNights;
+	}
+
+	public String getProviderName() {
+		return providerName;
+	}
+
+	public void setProviderName(String providerName) {
+		this.providerName = providerName;
+	}
+
+	public UUID getTripId() {
+		return tripId;
+	}
+
+	public void setTripId(UUID tripId) {
+		this.tripId = tripId;
+	}
+
+	public double getPrice() {
+		return price;
+	}
+
+	public void setPrice(double price) {
+		this.price = price;
+	}
+
+	public double getPricePerTravellerNight() {
+		return pricePerTravellerNight;
+	}
+
+	public void setPricePerTravellerNight(double pricePerTravellerNight) {
+		this.pricePerTravellerNight = pricePerTravellerNight;
+	}
+
+	public TripVariation getVariation() {
+		return variation;
+	}
+
+	public void setVariation(TripVariation variation) {
+		this.variation = variation;
+	}
+}
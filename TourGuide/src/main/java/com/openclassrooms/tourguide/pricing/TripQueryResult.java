@@ -0,0 +1,34 @@
+package com.openclassrooms.tourguide.pricing;
+
+import java.util.List;
+
+/**
+ * Deals returned by the pricing query of a variation, streamed as soon as the query completes
+ */
+public class TripQueryResult {
+
+	private TripVariation variation;
+
+	private List<TripDeal> deals;
+
+	public TripQueryResult(TripVariation variation, List<TripDeal> deals) {
+		this.variation = variation;
+		this.deals = deals;
+	}
+
+	public TripVariation getVariation() {
+		return variation;
+	}
+
+	public void setVariation(TripVariation variation) {
+		this.variation = variation;
+	}
+
+	public List<TripDeal> getDeals() {
+		return deals;
+	}
+
+	public void setDeals(List<TripDeal> deals) {
+		this.deals = deals;
+	}
+}
@@ -0,0 +1,90 @@
+package com.openclassrooms.tourguide.pricing;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the trip searches, bound from the tourguide.trips.search properties
+ */
+@ConfigurationProperties(prefix = "tourguide.trips.search")
+public class TripSearchProperties {
+
+	/**
+	 * Number of threads sending the pricing queries
+	 */
+	private int threads = 16;
+
+	/**
+	 * Number of pricing queries waiting for a thread, beyond which queries fail
+	 */
+	private int queueCapacity = 1000;
+
+	/**
+	 * Largest number of variations priced by a search
+	 */
+	private int maxVariations = 24;
+
+	/**
+	 * Time after which a search stops and cancels its outstanding queries
+	 */
+	private Duration deadline = Duration.ofSeconds(2);
+
+	/**
+	 * Number of deals after which a search stops and cancels its outstanding queries
+	 */
+	private int enoughDeals = 50;
+
+	/**
+	 * Number of deals kept in the ranking of a search
+	 */
+	private int maxResults = 20;
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getMaxVariations() {
+		return maxVariations;
+	}
+
+	public void setMaxVariations(int maxVariations) {
+		this.maxVariations = maxVariations;
+	}
+
+	public Duration getDeadline() {
+		return deadline;
+	}
+
+	public void setDeadline(Duration deadline) {
+		this.deadline = deadline;
+	}
+
+	public int getEnoughDeals() {
+		return enoughDeals;
+	}
+
+	public void setEnoughDeals(int enoughDeals) {
+		this.enoughDeals = enoughDeals;
+	}
+
+	public int getMaxResults() {
+		return maxResults;
+	}
+
+	public void setMaxResults(int maxResults) {
+		this.maxResults = maxResults;
+	}
+}
@@ -0,0 +1,105 @@
+package com.openclassrooms.tourguide.pricing;
+
+import java.util.List;
+
+/**
+ * Outcome of a trip search: the best deals of every completed query, and why the search stopped
+ */
+public class TripSearchResult {
+
+	/**
+	 * Every query completed
+	 */
+	public static final String COMPLETE = "COMPLETE";
+
+	/**
+	 * Enough deals were received before every query completed
+	 */
+	public static final String ENOUGH_DEALS = "ENOUGH_DEALS";
+
+	/**
+	 * The deadline was reached before every query completed
+	 */
+	public static final String DEADLINE = "DEADLINE";
+
+	private List<TripDeal> deals;
+
+	private int queries;
+
+	private int completed;
+
+	private int failed;
+
+	private int cancelled;
+
+	private String stopReason;
+
+	private long elapsedMillis;
+
+	public TripSearchResult(List<TripDeal> deals, int queries, int completed, int failed, int cancelled,
+			String stopReason, long elapsedMillis) {
+		this.deals = deals;
+		this.queries = queries;
+		this.completed = completed;
+		this.failed = failed;
+		this.cancelled = cancelled;
+		this.stopReason = stopReason;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public List<TripDeal> getDeals() {
+		return deals;
+	}
+
+	public void setDeals(List<TripDeal> deals) {
+		this.deals = deals;
+	}
+
+	public int getQueries() {
+		return queries;
+	}
+
+	public void setQueries(int queries) {
+		this.queries = queries;
+	}
+
+	public int getCompleted() {
+		return completed;
+	}
+
+	public void setCompleted(int completed) {
+		this.completed = completed;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public int getCancelled() {
+		return cancelled;
+	}
+
+	public void setCancelled(int cancelled) {
+		this.cancelled = cancelled;
+	}
+
+	public String getStopReason() {
+		return stopReason;
+	}
+
+	public void setStopReason(String stopReason) {
+		this.stopReason = stopReason;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+}
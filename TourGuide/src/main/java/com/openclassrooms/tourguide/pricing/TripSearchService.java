@@ -0,0 +1,319 @@
+package com.openclassrooms.tourguide.pricing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
+
+/**
+ * Searches trip deals for several variations of the preferences of a user at once.
+ * The pricing queries run concurrently; each completed query is handed to a listener right away, and the
+ * deals of every query are merged and ranked by price per traveller and night. The search stops when every
+ * query completed, when enough deals were received or when its deadline is reached, and the outstanding
+ * queries are then cancelled.
+ */
+public class TripSearchService implements AutoCloseable {
+
+	/**
+	 * API Key used for the tracer library
+	 */
+	private static final String tripPricerApiKey = "test-server-api-key";
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(TripSearchService.class);
+
+	/**
+	 * Settings of the searches
+	 */
+	private final TripSearchProperties properties;
+
+	/**
+	 * TripPricer library
+	 */
+	private final TripPricer tripPricer;
+
+	/**
+	 * Threads sending the pricing queries
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Counter of the queries which returned deals
+	 */
+	private final Counter completedCounter;
+
+	/**
+	 * Counter of the queries which failed
+	 */
+	private final Counter failedCounter;
+
+	/**
+	 * Counter of the queries cancelled because their search stopped
+	 */
+	private final Counter cancelledCounter;
+
+	/**
+	 * Constructor for the search service
+	 * @param properties settings of the searches
+	 * @param tripPricer trip pricer library
+	 */
+	public TripSearchService(TripSearchProperties properties, TripPricer tripPricer) {
+		this(properties, tripPricer, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the search service
+	 * @param properties settings of the searches
+	 * @param tripPricer trip pricer library
+	 * @param meterRegistry registry of the query counters
+	 */
+	public TripSearchService(TripSearchProperties properties, TripPricer tripPricer, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.tripPricer = tripPricer;
+		this.completedCounter = queryCounter(meterRegistry, "completed");
+		this.failedCounter = queryCounter(meterRegistry, "failed");
+		this.cancelledCounter = queryCounter(meterRegistry, "cancelled");
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+					Thread thread = new Thread(runnable, "trip-search-" + threadCount.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Builds the variations of the preferences of a user, every combination of the given values.
+	 * Missing values are taken from the preferences, the durations around the preferred one being tried.
+	 * @param user user searching trips
+	 * @param nights durations to price, null for the preferred one and its neighbours
+	 * @param adults numbers of adults to price, null for the preferred one
+	 * @param children numbers of children to price, null for the preferred one
+	 * @return variations, at most the configured maximum
+	 */
+	public List<TripVariation> variations(User user, List<Integer> nights, List<Integer> adults, List<Integer> children) {
+		UserPreferences preferences = user.getUserPreferences();
+		int maxVariations = properties.getMaxVariations();
+		Set<Integer> nightOptions;
+		if (nights == null || nights.isEmpty()) {
+			int preferred = preferences.getTripDuration();
+			nightOptions = options(List.of(preferred, preferred - 1, preferred + 1, preferred + 2), 1, maxVariations);
+		} else {
+			nightOptions = options(nights, 1, maxVariations);
+		}
+		Set<Integer> adultOptions = options(adults == null || adults.isEmpty()
+				? List.of(preferences.getNumberOfAdults()) : adults, 1, maxVariations);
+		Set<Integer> childOptions = options(children == null || children.isEmpty()
+				? List.of(preferences.getNumberOfChildren()) : children, 0, maxVariations);
+
+		List<TripVariation> variations = new ArrayList<>();
+		for (int adultCount : adultOptions) {
+			for (int childCount : childOptions) {
+				for (int nightCount : nightOptions) {
+					if (variations.size() == maxVariations) {
+						return variations;
+					}
+					variations.add(new TripVariation(adultCount, childCount, nightCount));
+				}
+			}
+		}
+		return variations;
+	}
+
+	/**
+	 * Collects the distinct values of a dimension of the variations, stopping once enough were found
+	 * so that an oversized request is never walked in full
+	 * @param values requested values
+	 * @param minimum lowest valid value, smaller values being raised to it
+	 * @param limit maximum number of values to keep
+	 * @return distinct values in request order
+	 */
+	private static Set<Integer> options(List<Integer> values, int minimum, int limit) {
+		Set<Integer> options = new LinkedHashSet<>();
+		for (Integer value : values) {
+			if (options.size() == limit) {
+				break;
+			}
+			options.add(Math.max(minimum, value));
+		}
+		return options;
+	}
+
+	/**
+	 * Prices the variations of a trip concurrently
+	 * @param user user searching trips, whose reward points lower the prices
+	 * @param variations variations to price
+	 * @param listener receiver of the result of each query as it completes, called by one thread at a time under the search lock, so it must not block
+	 * @return ranked deals, completed when the search stops
+	 */
+	public CompletableFuture<TripSearchResult> search(User user, List<TripVariation> variations,
+			Consumer<TripQueryResult> listener) {
+		Search search = new Search(variations.size(), listener);
+		int rewardPoints = user.getTotalRewardPoints();
+
+		for (TripVariation variation : variations) {
+			synchronized (search) {
+				if (search.finished) {
+					break;
+				}
+				try {
+					search.queries.add(executor.submit(() -> price(search, user, variation, rewardPoints)));
+				} catch (RejectedExecutionException e) {
+					search.onFailure();
+				}
+			}
+		}
+		CompletableFuture.delayedExecutor(properties.getDeadline().toMillis(), TimeUnit.MILLISECONDS)
+				.execute(() -> search.finish(TripSearchResult.DEADLINE));
+		return search.result;
+	}
+
+	/**
+	 * Sends the pricing query of a variation
+	 * @param search search the query belongs to
+	 * @param user user searching trips
+	 * @param variation priced variation
+	 * @param rewardPoints reward points of the user
+	 */
+	private void price(Search search, User user, TripVariation variation, int rewardPoints) {
+		List<Provider> providers;
+		try {
+			providers = tripPricer.getPrice(tripPricerApiKey, user.getUserId(), variation.getAdults(),
+					variation.getChildren(), variation.getNights(), rewardPoints);
+		} catch (RuntimeException e) {
+			logger.debug("Trip pricing failed for " + user.getUserName() + ": " + e.getMessage());
+			search.onFailure();
+			return;
+		}
+		search.onDeals(new TripQueryResult(variation, providers.stream()
+				.map(provider -> new TripDeal(provider, variation))
+				.toList()));
+	}
+
+	/**
+	 * Stops the query threads
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Creates the counter of a query outcome
+	 * @param meterRegistry registry of the counter
+	 * @param outcome outcome to count
+	 * @return counter tagged with the outcome
+	 */
+	private static Counter queryCounter(MeterRegistry meterRegistry, String outcome) {
+		return Counter.builder("tourguide.trips.search.queries")
+				.description("Pricing queries of the trip searches, by outcome")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * State of a running search, its methods called by the query threads
+	 */
+	private class Search {
+
+		private final int queryCount;
+
+		private final Consumer<TripQueryResult> listener;
+
+		private final long start = System.nanoTime();
+
+		private final List<Future<?>> queries = new ArrayList<>();
+
+		private final List<TripDeal> deals = new ArrayList<>();
+
+		private final CompletableFuture<TripSearchResult> result = new CompletableFuture<>();
+
+		private int completed;
+
+		private int failed;
+
+		private boolean finished;
+
+		private Search(int queryCount, Consumer<TripQueryResult> listener) {
+			this.queryCount = queryCount;
+			this.listener = listener;
+			if (queryCount == 0) {
+				finish(TripSearchResult.COMPLETE);
+			}
+		}
+
+		private synchronized void onDeals(TripQueryResult queryResult) {
+			if (finished) {
+				return;
+			}
+			completed++;
+			completedCounter.increment();
+			deals.addAll(queryResult.getDeals());
+			try {
+				listener.accept(queryResult);
+			} catch (RuntimeException e) {
+				logger.debug("Trip search listener failed: " + e.getMessage());
+			}
+			if (deals.size() >= properties.getEnoughDeals()) {
+				finish(TripSearchResult.ENOUGH_DEALS);
+			} else if (completed + failed == queryCount) {
+				finish(TripSearchResult.COMPLETE);
+			}
+		}
+
+		private synchronized void onFailure() {
+			if (finished) {
+				return;
+			}
+			failed++;
+			failedCounter.increment();
+			if (completed + failed == queryCount) {
+				finish(TripSearchResult.COMPLETE);
+			}
+		}
+
+		private synchronized void finish(String reason) {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			for (Future<?> query : queries) {
+				query.cancel(true);
+			}
+			int cancelled = queryCount - completed - failed;
+			cancelledCounter.increment(cancelled);
+
+			List<TripDeal> ranked = deals.stream()
+					.sorted(Comparator.comparingDouble(TripDeal::getPricePerTravellerNight)
+							.thenComparingDouble(TripDeal::getPrice))
+					.limit(properties.getMaxResults())
+					.toList();
+			TripSearchResult searchResult = new TripSearchResult(ranked, queryCount, completed, failed, cancelled, reason,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			// the query finishing the search just interrupted its own thread, so the result is handed over elsewhere
+			result.completeAsync(() -> searchResult);
+		}
+	}
+}
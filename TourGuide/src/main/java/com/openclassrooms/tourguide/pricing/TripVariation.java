@@ -0,0 +1,43 @@
+package com.openclassrooms.tourguide.pricing;
+
+/**
+ * Party and duration of a priced trip
+ */
+public class TripVariation {
+
+	private int adults;
+
+	private int children;
+
+	private int nights;
+
+	public TripVariation(int adults, int children, int nights) {
+		this.adults = adults;
+		this.children = children;
+		this.nights = nights;
+	}
+
+	public int getAdults() {
+		return adults;
+	}
+
+	public void setAdults(int adults) {
+		this.adults = adults;
+	}
+
+	public int getChildren() {
+		return children;
+	}
+
+	public void setChildren(int children) {
+		this.children = children;
+	}
+
+	public int getNights() {
+		return nights;
+	}
+
+	public void setNights(int nights) {
+		this.nights = nights;
+	}
+}
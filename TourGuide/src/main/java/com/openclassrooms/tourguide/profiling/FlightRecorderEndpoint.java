@@ -0,0 +1,198 @@
+package com.openclassrooms.tourguide.profiling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint starting and dumping flight recordings on demand.
+ * POST /actuator/flightrecorder/{name} starts a recording, GET /actuator/flightrecorder/{name} downloads it
+ * as a .jfr file and DELETE /actuator/flightrecorder/{name} stops it.
+ * Recordings are bounded in number, duration and size, and the endpoint is not exposed on the web by default:
+ * expose it only on a management port reachable by the operators.
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+	/**
+	 * JFR settings used when none is given, "default" keeps the overhead below 1%
+	 */
+	private static final String DEFAULT_SETTINGS = "default";
+
+	/**
+	 * Age of the oldest data kept by a recording when none is given
+	 */
+	private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(10);
+
+	/**
+	 * Longest recording, also the duration of the recordings started without one
+	 */
+	private static final Duration MAX_DURATION = Duration.ofMinutes(30);
+
+	/**
+	 * Largest size of the data a recording keeps on disk, in bytes
+	 */
+	private static final long MAX_SIZE = 100L * 1024 * 1024;
+
+	/**
+	 * Largest number of recordings started by the endpoint at once
+	 */
+	private static final int MAX_RECORDINGS = 4;
+
+	/**
+	 * Pattern of the recording names, which are used in file names
+	 */
+	private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+	/**
+	 * Recordings started by the endpoint, by name
+	 */
+	private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+
+	/**
+	 * Lists the recordings started by the endpoint
+	 * @return state of the recordings
+	 */
+	@ReadOperation
+	public List<Map<String, Object>> recordings() {
+		return recordings.values().stream().map(this::describe).toList();
+	}
+
+	/**
+	 * Starts a recording, the tour guide events are recorded whatever the settings
+	 * @param name name of the recording
+	 * @param settings JFR settings, "default" or "profile"
+	 * @param duration duration after which the recording stops, at most 30 minutes which is the default
+	 * @param maxAge age of the oldest data kept by the recording, at most the duration
+	 * @return state of the recording
+	 * @throws IllegalArgumentException if the name, the settings or the durations are invalid,
+	 * or if too many recordings are running
+	 */
+	@WriteOperation
+	public Map<String, Object> start(@Selector String name, @Nullable String settings, @Nullable Duration duration,
+			@Nullable Duration maxAge) {
+		if (!NAME_PATTERN.matcher(name).matches()) {
+			throw new IllegalArgumentException("Recording names are made of at most 64 letters, digits, - and _");
+		}
+		Duration recordingDuration = duration != null ? duration : MAX_DURATION;
+		if (recordingDuration.isNegative() || recordingDuration.isZero() || recordingDuration.compareTo(MAX_DURATION) > 0) {
+			throw new IllegalArgumentException("Recording duration must be positive and at most " + MAX_DURATION);
+		}
+		if (!recordings.containsKey(name) && recordings.size() >= MAX_RECORDINGS) {
+			throw new IllegalArgumentException("At most " + MAX_RECORDINGS + " recordings can run at once");
+		}
+		Duration recordingMaxAge = maxAge != null ? maxAge : DEFAULT_MAX_AGE;
+		if (recordingMaxAge.compareTo(recordingDuration) > 0) {
+			recordingMaxAge = recordingDuration;
+		}
+		Configuration configuration;
+		try {
+			configuration = Configuration.getConfiguration(settings != null ? settings : DEFAULT_SETTINGS);
+		} catch (IOException | ParseException e) {
+			throw new IllegalArgumentException("Unknown JFR settings " + settings, e);
+		}
+
+		Recording recording = new Recording(configuration);
+		recording.setName(name);
+		recording.setToDisk(true);
+		recording.setMaxAge(recordingMaxAge);
+		recording.setMaxSize(MAX_SIZE);
+		recording.setDuration(recordingDuration);
+		recording.enable(TrackerCycleEvent.class);
+		recording.enable(UserTrackingEvent.class);
+		recording.enable(UpstreamCallEvent.class);
+		recording.enable(RewardCalculationEvent.class);
+
+		Recording previous = recordings.put(name, recording);
+		if (previous != null) {
+			previous.close();
+		}
+		recording.start();
+		return describe(recording);
+	}
+
+	/**
+	 * Dumps the data of a recording, which keeps running
+	 * @param name name of the recording
+	 * @return content of the recording as a .jfr file, null if there is no such recording
+	 */
+	@ReadOperation(produces = "application/octet-stream")
+	public Resource dump(@Selector String name) {
+		Recording recording = recordings.get(name);
+		if (recording == null) {
+			return null;
+		}
+
+		try {
+			Path file = Files.createTempFile("tourguide-" + name + "-", ".jfr");
+			try {
+				recording.dump(file);
+				byte[] content = Files.readAllBytes(file);
+				return new ByteArrayResource(content) {
+					@Override
+					public String getFilename() {
+						return name + ".jfr";
+					}
+				};
+			} finally {
+				Files.deleteIfExists(file);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Stops a recording and discards its data
+	 * @param name name of the recording
+	 * @return state of the stopped recording, null if there is no such recording
+	 */
+	@DeleteOperation
+	public Map<String, Object> stop(@Selector String name) {
+		Recording recording = recordings.remove(name);
+		if (recording == null) {
+			return null;
+		}
+		Map<String, Object> description = describe(recording);
+		recording.close();
+		return description;
+	}
+
+	/**
+	 * Describes the state of a recording
+	 * @param recording recording to describe
+	 * @return name, state, start time and size of the recording
+	 */
+	private Map<String, Object> describe(Recording recording) {
+		Map<String, Object> description = new LinkedHashMap<>();
+		description.put("name", recording.getName());
+		description.put("state", recording.getState());
+		description.put("startTime", recording.getStartTime());
+		description.put("duration", recording.getDuration());
+		description.put("maxAge", recording.getMaxAge());
+		description.put("maxSize", recording.getMaxSize());
+		description.put("size", recording.getSize());
+		return description;
+	}
+}
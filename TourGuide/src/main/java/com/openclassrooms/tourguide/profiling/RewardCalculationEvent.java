@@ -0,0 +1,52 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning a reward calculation, until the reward points of every candidate are fetched
+ */
+@Name("tourguide.RewardCalculation")
+@Label("Reward Calculation")
+@Category({"TourGuide", "Rewards"})
+@Description("Evaluation of the rewards earned by a user")
+@StackTrace(false)
+public class RewardCalculationEvent extends jdk.jfr.Event {
+
+	/**
+	 * Mode of a calculation over the whole location history
+	 */
+	public static final String HISTORY = "history";
+
+	/**
+	 * Mode of a calculation over the latest location
+	 */
+	public static final String LOCATION = "location";
+
+	/**
+	 * Id of the rewarded user
+	 */
+	@Label("User Id")
+	public String userId;
+
+	/**
+	 * Locations evaluated by the calculation
+	 */
+	@Label("Mode")
+	public String mode;
+
+	/**
+	 * Number of attractions for which the reward points were fetched
+	 */
+	@Label("Candidates")
+	public int candidates;
+
+	/**
+	 * Number of rewards granted
+	 */
+	@Label("Granted")
+	public int granted;
+}
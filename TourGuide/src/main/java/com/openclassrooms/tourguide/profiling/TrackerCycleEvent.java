@@ -0,0 +1,24 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning a tracker cycle, from the selection of the due users to the end of their tracking
+ */
+@Name("tourguide.TrackerCycle")
+@Label("Tracker Cycle")
+@Category({"TourGuide", "Tracker"})
+@Description("Tracker cycle, from its start to its end")
+@StackTrace(false)
+public class TrackerCycleEvent extends jdk.jfr.Event {
+
+	/**
+	 * Number of users tracked by the cycle
+	 */
+	@Label("Users")
+	public int users;
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.tourguide.profiling;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning a call made to an external library
+ */
+@Name("tourguide.UpstreamCall")
+@Label("Upstream Call")
+@Category({"TourGuide", "Upstream"})
+@Description("Call made to GpsUtil, RewardCentral or TripPricer")
+@StackTrace(false)
+public class UpstreamCallEvent extends jdk.jfr.Event {
+
+	/**
+	 * Name of the external library
+	 */
+	@Label("Dependency")
+	public String dependency;
+
+	/**
+	 * Name of the called method
+	 */
+	@Label("Operation")
+	public String operation;
+
+	/**
+	 * True if the call threw
+	 */
+	@Label("Failed")
+	public boolean failed;
+
+	/**
+	 * Runs a call to an external library inside an event
+	 * @param dependency name of the external library
+	 * @param operation name of the called method
+	 * @param call call to run
+	 * @return result of the call
+	 * @param <T> type of the result
+	 */
+	public static <T> T record(String dependency, String operation, Supplier<T> call) {
+		UpstreamCallEvent event = new UpstreamCallEvent();
+		event.begin();
+		try {
+			return call.get();
+		} catch (RuntimeException e) {
+			event.failed = true;
+			throw e;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.dependency = dependency;
+				event.operation = operation;
+				event.commit();
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the tracking of a user, from the admission of the GPS call to the granted rewards
+ */
+@Name("tourguide.UserTracking")
+@Label("User Tracking")
+@Category({"TourGuide", "Tracker"})
+@Description("Location and rewards of a user")
+@StackTrace(false)
+public class UserTrackingEvent extends jdk.jfr.Event {
+
+	/**
+	 * Outcome of a tracking whose GPS call was shed by the admission control
+	 */
+	public static final String SHED = "shed";
+
+	/**
+	 * Outcome of a tracking reusing the last known location because the GPS was unavailable
+	 */
+	public static final String FALLBACK = "fallback";
+
+	/**
+	 * Outcome of a tracking whose location was merged with the previous one
+	 */
+	public static final String STATIONARY = "stationary";
+
+	/**
+	 * Outcome of a tracking whose location was recorded
+	 */
+	public static final String RECORDED = "recorded";
+
+	/**
+	 * Id of the tracked user
+	 */
+	@Label("User Id")
+	public String userId;
+
+	/**
+	 * Priority of the GPS call
+	 */
+	@Label("Priority")
+	public String priority;
+
+	/**
+	 * Outcome of the tracking
+	 */
+	@Label("Outcome")
+	public String outcome;
+}
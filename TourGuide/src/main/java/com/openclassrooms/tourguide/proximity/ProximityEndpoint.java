@@ -0,0 +1,60 @@
+package com.openclassrooms.tourguide.proximity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint reloading the proximity settings of the rewards at runtime.
+ * GET /actuator/proximity returns the current settings and the progress of the latest re-evaluation,
+ * POST /actuator/proximity with bufferMiles, and optionally attractionRangeMiles, publishes new settings.
+ * Granted rewards are never revoked, so the endpoint is not exposed on the web by default: expose it only
+ * on a management port reachable by the operators.
+ */
+@Component
+@Endpoint(id = "proximity")
+public class ProximityEndpoint {
+
+	/**
+	 * Re-evaluator applying the changes
+	 */
+	private final ProximityReevaluator proximityReevaluator;
+
+	/**
+	 * Constructor for the endpoint
+	 * @param proximityReevaluator re-evaluator applying the changes
+	 */
+	public ProximityEndpoint(ProximityReevaluator proximityReevaluator) {
+		this.proximityReevaluator = proximityReevaluator;
+	}
+
+	/**
+	 * Describes the current settings and the latest re-evaluation
+	 * @return settings and re-evaluation progress
+	 */
+	@ReadOperation
+	public Map<String, Object> proximity() {
+		Map<String, Object> description = new LinkedHashMap<>();
+		description.put("settings", proximityReevaluator.getSettings());
+		description.put("reevaluation", proximityReevaluator.getProgress());
+		return description;
+	}
+
+	/**
+	 * Publishes new settings and starts the re-evaluation of the affected users
+	 * @param bufferMiles distance from an attraction within which a visit is rewarded, in miles
+	 * @param attractionRangeMiles distance from an attraction within which a location is considered close to it,
+	 * the current one if absent
+	 * @return new settings and re-evaluation progress
+	 */
+	@WriteOperation
+	public Map<String, Object> update(int bufferMiles, @Nullable Integer attractionRangeMiles) {
+		proximityReevaluator.apply(bufferMiles, attractionRangeMiles);
+		return proximity();
+	}
+}
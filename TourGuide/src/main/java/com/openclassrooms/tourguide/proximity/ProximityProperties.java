@@ -0,0 +1,63 @@
+package com.openclassrooms.tourguide.proximity;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Initial proximity settings of the rewards, bound from the tourguide.rewards.proximity properties
+ */
+@ConfigurationProperties(prefix = "tourguide.rewards.proximity")
+public class ProximityProperties {
+
+	/**
+	 * Distance from an attraction within which a visit is rewarded, in miles
+	 */
+	private int bufferMiles = ProximitySettings.DEFAULT_BUFFER_MILES;
+
+	/**
+	 * Distance from an attraction within which a location is considered close to it, in miles
+	 */
+	private int attractionRangeMiles = ProximitySettings.DEFAULT_ATTRACTION_RANGE_MILES;
+
+	/**
+	 * Largest reward buffer accepted at runtime, in miles. A granted reward is never revoked,
+	 * so a buffer set by mistake rewards for good every visit within it.
+	 */
+	private int maxBufferMiles = 50;
+
+	/**
+	 * Number of user reward calculations run at once by a re-evaluation
+	 */
+	private int reevaluationConcurrency = 64;
+
+	public int getBufferMiles() {
+		return bufferMiles;
+	}
+
+	public void setBufferMiles(int bufferMiles) {
+		this.bufferMiles = bufferMiles;
+	}
+
+	public int getAttractionRangeMiles() {
+		return attractionRangeMiles;
+	}
+
+	public void setAttractionRangeMiles(int attractionRangeMiles) {
+		this.attractionRangeMiles = attractionRangeMiles;
+	}
+
+	public int getMaxBufferMiles() {
+		return maxBufferMiles;
+	}
+
+	public void setMaxBufferMiles(int maxBufferMiles) {
+		this.maxBufferMiles = maxBufferMiles;
+	}
+
+	public int getReevaluationConcurrency() {
+		return reevaluationConcurrency;
+	}
+
+	public void setReevaluationConcurrency(int reevaluationConcurrency) {
+		this.reevaluationConcurrency = reevaluationConcurrency;
+	}
+}
@@ -0,0 +1,262 @@
+package com.openclassrooms.tourguide.proximity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Applies proximity changes and re-evaluates in the background the rewards they affect.
+ * Widening the reward buffer can reward visits made before the change: only the users with a visited location
+ * between the old and the new buffer of an attraction get their history recalculated. Narrowing it never
+ * revokes a reward, so there is nothing to re-evaluate.
+ * A change made while a re-evaluation runs supersedes it, and the new one starts again from the buffer
+ * up to which every history was last evaluated.
+ */
+public class ProximityReevaluator implements AutoCloseable {
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(ProximityReevaluator.class);
+
+	/**
+	 * Rewards service holding the proximity settings
+	 */
+	private final RewardsService rewardsService;
+
+	/**
+	 * Supplier of the users to re-evaluate
+	 */
+	private final Supplier<List<User>> users;
+
+	/**
+	 * Number of user reward calculations run at once
+	 */
+	private final int concurrency;
+
+	/**
+	 * Largest reward buffer accepted, in miles
+	 */
+	private final int maxBufferMiles;
+
+	/**
+	 * Thread running the re-evaluations, one at a time
+	 */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "proximity-reevaluation");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Reward buffer up to which the history of every user was evaluated, in miles
+	 */
+	private int evaluatedBufferMiles;
+
+	/**
+	 * Latest re-evaluation, null before the first change
+	 */
+	private volatile Reevaluation current;
+
+	/**
+	 * Constructor for the re-evaluator
+	 * @param rewardsService rewards service holding the proximity settings
+	 * @param users supplier of the users to re-evaluate
+	 * @param concurrency number of user reward calculations run at once
+	 * @param maxBufferMiles largest reward buffer accepted, in miles
+	 */
+	public ProximityReevaluator(RewardsService rewardsService, Supplier<List<User>> users, int concurrency,
+			int maxBufferMiles) {
+		this.rewardsService = rewardsService;
+		this.users = users;
+		this.concurrency = Math.max(1, concurrency);
+		this.maxBufferMiles = maxBufferMiles;
+		this.evaluatedBufferMiles = rewardsService.getProximitySettings().getBufferMiles();
+	}
+
+	/**
+	 * Publishes new proximity settings and starts re-evaluating the affected users
+	 * @param bufferMiles new reward buffer, in miles
+	 * @param attractionRangeMiles new attraction range in miles, null to keep the current one
+	 * @return published settings
+	 * @throws IllegalArgumentException if a distance is negative, or if the buffer exceeds the attraction range
+	 * or the largest accepted buffer
+	 */
+	public synchronized ProximitySettings apply(int bufferMiles, Integer attractionRangeMiles) {
+		int rangeMiles = attractionRangeMiles != null
+				? attractionRangeMiles
+				: rewardsService.getProximitySettings().getAttractionRangeMiles();
+		if (bufferMiles < 0 || rangeMiles < 0) {
+			throw new IllegalArgumentException("Proximity distances cannot be negative");
+		}
+		if (bufferMiles > rangeMiles || bufferMiles > maxBufferMiles) {
+			throw new IllegalArgumentException("Reward buffer cannot exceed the attraction range nor "
+					+ maxBufferMiles + " miles");
+		}
+		ProximitySettings settings = rewardsService.updateProximity(bufferMiles, rangeMiles);
+		Reevaluation previous = current;
+		if (previous != null) {
+			previous.superseded = true;
+		}
+		Reevaluation reevaluation = new Reevaluation(settings, evaluatedBufferMiles);
+		current = reevaluation;
+		executor.execute(reevaluation::run);
+		return settings;
+	}
+
+	/**
+	 * Get the current proximity settings
+	 * @return current settings
+	 */
+	public ProximitySettings getSettings() {
+		return rewardsService.getProximitySettings();
+	}
+
+	/**
+	 * Gets the progress of the latest re-evaluation
+	 * @return progress, null if the settings never changed
+	 */
+	public ReevaluationProgress getProgress() {
+		Reevaluation reevaluation = current;
+		return reevaluation == null ? null : reevaluation.progress();
+	}
+
+	/**
+	 * Records that every history was evaluated with the buffer of a re-evaluation, unless a newer one started
+	 * @param reevaluation completed re-evaluation
+	 */
+	private synchronized void completed(Reevaluation reevaluation) {
+		if (current == reevaluation) {
+			evaluatedBufferMiles = reevaluation.settings.getBufferMiles();
+		}
+	}
+
+	/**
+	 * Stops the re-evaluation thread
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Re-evaluation of the users after a change
+	 */
+	private class Reevaluation {
+
+		private final ProximitySettings settings;
+
+		private final int fromBufferMiles;
+
+		private final Instant startedAt = Instant.now();
+
+		private final AtomicInteger scanned = new AtomicInteger();
+
+		private final AtomicInteger affected = new AtomicInteger();
+
+		private final AtomicInteger reevaluated = new AtomicInteger();
+
+		private final AtomicLong granted = new AtomicLong();
+
+		private volatile boolean superseded;
+
+		private volatile boolean failed;
+
+		private volatile int total;
+
+		private volatile String state = ReevaluationProgress.RUNNING;
+
+		private volatile Instant finishedAt;
+
+		private Reevaluation(ProximitySettings settings, int fromBufferMiles) {
+			this.settings = settings;
+			this.fromBufferMiles = fromBufferMiles;
+		}
+
+		private void run() {
+			try {
+				List<User> all = users.get();
+				total = all.size();
+				int from = fromBufferMiles;
+				int to = settings.getBufferMiles();
+				if (to > from) {
+					reevaluate(all, from, to);
+				} else {
+					scanned.set(total);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				superseded = true;
+			} catch (RuntimeException e) {
+				logger.warn("Proximity re-evaluation to version " + settings.getVersion() + " failed: " + e.getMessage());
+				failed = true;
+			}
+			finishedAt = Instant.now();
+			if (failed) {
+				state = ReevaluationProgress.FAILED;
+			} else if (superseded) {
+				state = ReevaluationProgress.SUPERSEDED;
+			} else {
+				state = ReevaluationProgress.DONE;
+				completed(this);
+				logger.info("Proximity re-evaluation to version " + settings.getVersion() + " done: "
+						+ affected.get() + " users affected, " + granted.get() + " rewards granted");
+			}
+		}
+
+		private void reevaluate(List<User> all, int from, int to) throws InterruptedException {
+			CatalogSnapshot snapshot = rewardsService.getAttractionCatalog().getSnapshot();
+			Semaphore permits = new Semaphore(concurrency);
+			for (User user : all) {
+				if (superseded) {
+					break;
+				}
+				scanned.incrementAndGet();
+				if (!visitedWithinDelta(user, snapshot, from, to)) {
+					continue;
+				}
+				affected.incrementAndGet();
+				permits.acquire();
+				int before = user.getUserRewards().size();
+				rewardsService.calculateRewards(user).whenComplete((ignored, throwable) -> {
+					granted.addAndGet(user.getUserRewards().size() - before);
+					reevaluated.incrementAndGet();
+					permits.release();
+				});
+			}
+			// wait for the calculations still running
+			permits.acquire(concurrency);
+			permits.release(concurrency);
+		}
+
+		private boolean visitedWithinDelta(User user, CatalogSnapshot snapshot, int from, int to) {
+			for (VisitedLocation visitedLocation : user.getVisitedLocations()) {
+				for (AttractionDistance attractionDistance : snapshot.withinRadius(visitedLocation.location, to)) {
+					if (attractionDistance.getDistance() > from) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private ReevaluationProgress progress() {
+			return new ReevaluationProgress(settings.getVersion(), fromBufferMiles, settings.getBufferMiles(), state,
+					total, scanned.get(), affected.get(), reevaluated.get(), granted.get(), startedAt, finishedAt);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.openclassrooms.tourguide.proximity;
+
+import java.time.Instant;
+
+/**
+ * Immutable version of the proximity settings of the rewards.
+ * A change publishes a new version, so an operation reading the settings once sees a consistent set of values.
+ */
+public final class ProximitySettings {
+
+	/**
+	 * Reward buffer used when none is configured, in miles
+	 */
+	public static final int DEFAULT_BUFFER_MILES = 10;
+
+	/**
+	 * Attraction range used when none is configured, in miles
+	 */
+	public static final int DEFAULT_ATTRACTION_RANGE_MILES = 200;
+
+	/**
+	 * Version of the settings, incremented on each change
+	 */
+	private final long version;
+
+	/**
+	 * Distance from an attraction within which a visit is rewarded, in miles
+	 */
+	private final int bufferMiles;
+
+	/**
+	 * Distance from an attraction within which a location is considered close to it, in miles
+	 */
+	private final int attractionRangeMiles;
+
+	/**
+	 * Time at which this version was published
+	 */
+	private final Instant appliedAt;
+
+	/**
+	 * Constructor for the settings
+	 * @param version version of the settings
+	 * @param bufferMiles reward buffer, in miles
+	 * @param attractionRangeMiles attraction range, in miles
+	 */
+	private ProximitySettings(long version, int bufferMiles, int attractionRangeMiles) {
+		this.version = version;
+		this.bufferMiles = bufferMiles;
+		this.attractionRangeMiles = attractionRangeMiles;
+		this.appliedAt = Instant.now();
+	}
+
+	/**
+	 * Creates the first version of the settings
+	 * @param bufferMiles reward buffer, in miles
+	 * @param attractionRangeMiles attraction range, in miles
+	 * @return settings at version 1
+	 */
+	public static ProximitySettings of(int bufferMiles, int attractionRangeMiles) {
+		return new ProximitySettings(1, bufferMiles, attractionRangeMiles);
+	}
+
+	/**
+	 * Creates the first version of the default settings
+	 * @return default settings at version 1
+	 */
+	public static ProximitySettings defaults() {
+		return of(DEFAULT_BUFFER_MILES, DEFAULT_ATTRACTION_RANGE_MILES);
+	}
+
+	/**
+	 * Creates the next version of the settings
+	 * @param bufferMiles new reward buffer, in miles
+	 * @param attractionRangeMiles new attraction range, in miles
+	 * @return next version
+	 */
+	public ProximitySettings next(int bufferMiles, int attractionRangeMiles) {
+		return new ProximitySettings(version + 1, bufferMiles, attractionRangeMiles);
+	}
+
+	/**
+	 * Get the version of the settings
+	 * @return version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get the distance from an attraction within which a visit is rewarded
+	 * @return reward buffer, in miles
+	 */
+	public int getBufferMiles() {
+		return bufferMiles;
+	}
+
+	/**
+	 * Get the distance from an attraction within which a location is considered close to it
+	 * @return attraction range, in miles
+	 */
+	public int getAttractionRangeMiles() {
+		return attractionRangeMiles;
+	}
+
+	/**
+	 * Get the time at which this version was published
+	 * @return publication time
+	 */
+	public Instant getAppliedAt() {
+		return appliedAt;
+	}
+}
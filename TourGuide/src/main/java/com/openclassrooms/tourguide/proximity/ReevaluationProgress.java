@@ -0,0 +1,155 @@
+package com.openclassrooms.tourguide.proximity;
+
+import java.time.Instant;
+
+/**
+ * Progress of the re-evaluation of the rewards after a proximity change
+ */
+public class ReevaluationProgress {
+
+	/**
+	 * The users are being re-evaluated
+	 */
+	public static final String RUNNING = "RUNNING";
+
+	/**
+	 * Every user was re-evaluated
+	 */
+	public static final String DONE = "DONE";
+
+	/**
+	 * A newer change stopped the re-evaluation, which the newer one covers
+	 */
+	public static final String SUPERSEDED = "SUPERSEDED";
+
+	/**
+	 * The re-evaluation stopped on an error, the next change starts again from the same buffer
+	 */
+	public static final String FAILED = "FAILED";
+
+	private long settingsVersion;
+
+	private int fromBufferMiles;
+
+	private int toBufferMiles;
+
+	private String state;
+
+	private int totalUsers;
+
+	private int scannedUsers;
+
+	private int affectedUsers;
+
+	private int reevaluatedUsers;
+
+	private long grantedRewards;
+
+	private Instant startedAt;
+
+	private Instant finishedAt;
+
+	public ReevaluationProgress(long settingsVersion, int fromBufferMiles, int toBufferMiles, String state, int totalUsers,
+			int scannedUsers, int affectedUsers, int reevaluatedUsers, long grantedRewards, Instant startedAt,
+			Instant finishedAt) {
+		this.settingsVersion = settingsVersion;
+		this.fromBufferMiles = fromBufferMiles;
+		this.toBufferMiles = toBufferMiles;
+		this.state = state;
+		this.totalUsers = totalUsers;
+		this.scannedUsers = scannedUsers;
+		this.affectedUsers = affectedUsers;
+		this.reevaluatedUsers = reevaluatedUsers;
+		this.grantedRewards = grantedRewards;
+		this.startedAt = startedAt;
+		this.finishedAt = finishedAt;
+	}
+
+	public long getSettingsVersion() {
+		return settingsVersion;
+	}
+
+	public void setSettingsVersion(long settingsVersion) {
+		this.settingsVersion = settingsVersion;
+	}
+
+	public int getFromBufferMiles() {
+		return fromBufferMiles;
+	}
+
+	public void setFromBufferMiles(int fromBufferMiles) {
+		this.fromBufferMiles = fromBufferMiles;
+	}
+
+	public int getToBufferMiles() {
+		return toBufferMiles;
+	}
+
+	public void setToBufferMiles(int toBufferMiles) {
+		this.toBufferMiles = toBufferMiles;
+	}
+
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public int getTotalUsers() {
+		return totalUsers;
+	}
+
+	public void setTotalUsers(int totalUsers) {
+		this.totalUsers = totalUsers;
+	}
+
+	public int getScannedUsers() {
+		return scannedUsers;
+	}
+
+	public void setScannedUsers(int scannedUsers) {
+		this.scannedUsers = scannedUsers;
+	}
+
+	public int getAffectedUsers() {
+		return affectedUsers;
+	}
+
+	public void setAffectedUsers(int affectedUsers) {
+		this.affectedUsers = affectedUsers;
+	}
+
+	public int getReevaluatedUsers() {
+		return reevaluatedUsers;
+	}
+
+	public void setReevaluatedUsers(int reevaluatedUsers) {
+		this.reevaluatedUsers = reevaluatedUsers;
+	}
+
+	public long getGrantedRewards() {
+		return grantedRewards;
+	}
+
+	public void setGrantedRewards(long grantedRewards) {
+		this.grantedRewards = grantedRewards;
+	}
+
+	public Instant getStartedAt() {
+		return startedAt;
+	}
+
+	public void setStartedAt(Instant startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	public void setFinishedAt(Instant finishedAt) {
+		this.finishedAt = finishedAt;
+	}
+}
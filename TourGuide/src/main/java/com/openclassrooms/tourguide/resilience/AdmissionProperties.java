@@ -0,0 +1,90 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Rate limit and admission control settings of the GpsUtil calls, bound from the tourguide.gps.admission properties
+ */
+@ConfigurationProperties(prefix = "tourguide.gps.admission")
+public class AdmissionProperties {
+
+	/**
+	 * Sustained rate of GpsUtil calls
+	 */
+	private double permitsPerSecond = 900;
+
+	/**
+	 * Maximum number of calls made at once after an idle period
+	 */
+	private int burst = 100;
+
+	/**
+	 * Share of the burst kept for interactive calls
+	 */
+	private double interactiveReserve = 0.2;
+
+	/**
+	 * Upstream latency above which background calls are shed
+	 */
+	private Duration latencyBudget = Duration.ofMillis(500);
+
+	/**
+	 * Maximum time a background call waits for a token before being shed
+	 */
+	private Duration maxBackgroundWait = Duration.ofSeconds(1);
+
+	/**
+	 * Interval at which a background call is let through while over budget, to measure the latency again
+	 */
+	private Duration probeInterval = Duration.ofMillis(100);
+
+	public double getPermitsPerSecond() {
+		return permitsPerSecond;
+	}
+
+	public void setPermitsPerSecond(double permitsPerSecond) {
+		this.permitsPerSecond = permitsPerSecond;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	public void setBurst(int burst) {
+		this.burst = burst;
+	}
+
+	public double getInteractiveReserve() {
+		return interactiveReserve;
+	}
+
+	public void setInteractiveReserve(double interactiveReserve) {
+		this.interactiveReserve = interactiveReserve;
+	}
+
+	public Duration getLatencyBudget() {
+		return latencyBudget;
+	}
+
+	public void setLatencyBudget(Duration latencyBudget) {
+		this.latencyBudget = latencyBudget;
+	}
+
+	public Duration getMaxBackgroundWait() {
+		return maxBackgroundWait;
+	}
+
+	public void setMaxBackgroundWait(Duration maxBackgroundWait) {
+		this.maxBackgroundWait = maxBackgroundWait;
+	}
+
+	public Duration getProbeInterval() {
+		return probeInterval;
+	}
+
+	public void setProbeInterval(Duration probeInterval) {
+		this.probeInterval = probeInterval;
+	}
+}
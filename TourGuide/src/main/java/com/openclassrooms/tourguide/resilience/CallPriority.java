@@ -0,0 +1,16 @@
+package com.openclassrooms.tourguide.resilience;
+
+/**
+ * Priority classes of the calls made to an external library
+ */
+public enum CallPriority {
+	/**
+	 * Call made to answer an HTTP request, served first
+	 */
+	INTERACTIVE,
+
+	/**
+	 * Call made by the tracker sweep, may be deferred or shed
+	 */
+	BACKGROUND
+}
@@ -0,0 +1,120 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Clock;
+
+/**
+ * Circuit breaker opening after a number of consecutive failures.
+ * Once the open duration has elapsed a single trial call is let through: its success closes the circuit,
+ * its failure opens it again.
+ */
+public class CircuitBreaker {
+
+	/**
+	 * States of the circuit
+	 */
+	public enum State {
+		CLOSED, HALF_OPEN, OPEN
+	}
+
+	/**
+	 * Number of consecutive failures opening the circuit
+	 */
+	private final int failureThreshold;
+
+	/**
+	 * Time during which the circuit stays open, in milliseconds
+	 */
+	private final long openDurationMillis;
+
+	/**
+	 * Clock used to measure the open duration
+	 */
+	private final Clock clock;
+
+	/**
+	 * Current state
+	 */
+	private State state = State.CLOSED;
+
+	/**
+	 * Number of failures since the last success
+	 */
+	private int consecutiveFailures = 0;
+
+	/**
+	 * Time at which the circuit was opened
+	 */
+	private long openedAt = 0;
+
+	/**
+	 * Set while the trial call of a half open circuit is running
+	 */
+	private boolean trialRunning = false;
+
+	/**
+	 * Constructor for the circuit breaker
+	 * @param failureThreshold number of consecutive failures opening the circuit
+	 * @param openDurationMillis time during which the circuit stays open
+	 * @param clock clock used to measure the open duration
+	 */
+	public CircuitBreaker(int failureThreshold, long openDurationMillis, Clock clock) {
+		this.failureThreshold = failureThreshold;
+		this.openDurationMillis = openDurationMillis;
+		this.clock = clock;
+	}
+
+	/**
+	 * Asks for the permission to make a call
+	 * @return true if the call can be made
+	 */
+	public synchronized boolean tryAcquirePermission() {
+		if (state == State.OPEN && clock.millis() - openedAt >= openDurationMillis) {
+			state = State.HALF_OPEN;
+			trialRunning = false;
+		}
+		if (state == State.HALF_OPEN) {
+			if (trialRunning) {
+				return false;
+			}
+			trialRunning = true;
+			return true;
+		}
+		return state == State.CLOSED;
+	}
+
+	/**
+	 * Gives back a permission for a call that could not be made
+	 */
+	public synchronized void releasePermission() {
+		trialRunning = false;
+	}
+
+	/**
+	 * Records a successful call
+	 */
+	public synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		trialRunning = false;
+		state = State.CLOSED;
+	}
+
+	/**
+	 * Records a failed call
+	 */
+	public synchronized void onFailure() {
+		consecutiveFailures++;
+		trialRunning = false;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			state = State.OPEN;
+			openedAt = clock.millis();
+		}
+	}
+
+	/**
+	 * Get the current state
+	 * @return circuit state
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+}
@@ -0,0 +1,161 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Admission control of the GpsUtil calls.
+ * Every call takes a token from a priority rate limiter, and background calls are shed
+ * while the measured upstream latency is above the budget, so that interactive latency
+ * stays stable during large tracker sweeps.
+ * The admission control is opt-in: the unlimited one, used when none is configured, admits every call.
+ */
+public class GpsAdmissionControl {
+
+	/**
+	 * Weight of the latest sample in the latency average
+	 */
+	private static final double LATENCY_SMOOTHING = 0.1;
+
+	/**
+	 * Rate limiter shared by every call, null when every call is admitted
+	 */
+	private final PriorityRateLimiter rateLimiter;
+
+	/**
+	 * Latency above which background calls are shed, in nanoseconds
+	 */
+	private final long latencyBudgetNanos;
+
+	/**
+	 * Maximum time a background call waits for a token, in nanoseconds
+	 */
+	private final long maxBackgroundWaitNanos;
+
+	/**
+	 * Interval between two background probes while over budget, in nanoseconds
+	 */
+	private final long probeIntervalNanos;
+
+	/**
+	 * Exponentially weighted average of the upstream latency, in nanoseconds
+	 */
+	private volatile double averageLatencyNanos = 0;
+
+	/**
+	 * Last time a background call was let through while over budget
+	 */
+	private final AtomicLong lastProbe = new AtomicLong(System.nanoTime());
+
+	/**
+	 * Number of background calls shed
+	 */
+	private final Counter shedCounter;
+
+	/**
+	 * Constructor for the admission control
+	 * @param properties rate limit and admission settings
+	 */
+	public GpsAdmissionControl(AdmissionProperties properties) {
+		this(properties, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the admission control
+	 * @param properties rate limit and admission settings
+	 * @param meterRegistry registry of the admission meters
+	 */
+	public GpsAdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+		this.rateLimiter = new PriorityRateLimiter(properties.getPermitsPerSecond(), properties.getBurst(),
+				properties.getInteractiveReserve());
+		this.latencyBudgetNanos = properties.getLatencyBudget().toNanos();
+		this.maxBackgroundWaitNanos = properties.getMaxBackgroundWait().toNanos();
+		this.probeIntervalNanos = properties.getProbeInterval().toNanos();
+
+		this.shedCounter = Counter.builder("tourguide.gps.admission.shed")
+				.description("Number of background GpsUtil calls shed by the admission control")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.gps.admission.latency", this, control -> control.averageLatencyNanos / 1_000_000)
+				.description("Average upstream latency seen by the admission control, in milliseconds")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Constructor for an admission control admitting every call
+	 */
+	private GpsAdmissionControl() {
+		this.rateLimiter = null;
+		this.latencyBudgetNanos = Long.MAX_VALUE;
+		this.maxBackgroundWaitNanos = 0;
+		this.probeIntervalNanos = 0;
+		this.shedCounter = new SimpleMeterRegistry().counter("tourguide.gps.admission.shed");
+	}
+
+	/**
+	 * Creates an admission control which neither limits the rate nor sheds calls
+	 * @return unlimited admission control
+	 */
+	public static GpsAdmissionControl unlimited() {
+		return new GpsAdmissionControl();
+	}
+
+	/**
+	 * Asks for the permission to call GpsUtil, waiting for a token if needed
+	 * @param priority priority of the caller
+	 * @return true if the call can be made, false if a background call is shed
+	 */
+	public boolean admit(CallPriority priority) {
+		if (rateLimiter == null) {
+			return true;
+		}
+		try {
+			if (priority == CallPriority.INTERACTIVE) {
+				return rateLimiter.tryAcquire(priority, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			}
+			if (isOverBudget() && !tryProbe()) {
+				shedCounter.increment();
+				return false;
+			}
+			if (!rateLimiter.tryAcquire(priority, maxBackgroundWaitNanos, TimeUnit.NANOSECONDS)) {
+				shedCounter.increment();
+				return false;
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Records the latency of a GpsUtil call
+	 * @param nanos duration of the call
+	 */
+	public synchronized void recordLatency(long nanos) {
+		averageLatencyNanos = averageLatencyNanos == 0 ? nanos
+				: LATENCY_SMOOTHING * nanos + (1 - LATENCY_SMOOTHING) * averageLatencyNanos;
+	}
+
+	/**
+	 * Indicates if the upstream latency is above the budget
+	 * @return true if background calls should be shed
+	 */
+	public boolean isOverBudget() {
+		return averageLatencyNanos > latencyBudgetNanos;
+	}
+
+	/**
+	 * Lets one background call through per probe interval
+	 * @return true if the caller is the probe
+	 */
+	private boolean tryProbe() {
+		long now = System.nanoTime();
+		long last = lastProbe.get();
+		return now - last >= probeIntervalNanos && lastProbe.compareAndSet(last, now);
+	}
+}
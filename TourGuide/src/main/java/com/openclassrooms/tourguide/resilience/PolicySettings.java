@@ -0,0 +1,100 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Duration;
+
+/**
+ * Settings of the resilience policy applied to one external library
+ */
+public class PolicySettings {
+
+	/**
+	 * Maximum duration of one call
+	 */
+	private Duration timeout = Duration.ofSeconds(2);
+
+	/**
+	 * Maximum number of attempts, including the first one
+	 */
+	private int maxAttempts = 3;
+
+	/**
+	 * Base delay between two attempts, doubled on every retry and randomized
+	 */
+	private Duration retryBackoff = Duration.ofMillis(50);
+
+	/**
+	 * Upper bound of the delay between two attempts
+	 */
+	private Duration maxRetryBackoff = Duration.ofSeconds(1);
+
+	/**
+	 * Number of consecutive failures opening the circuit
+	 */
+	private int failureThreshold = 20;
+
+	/**
+	 * Time during which an open circuit rejects calls before letting a trial call through
+	 */
+	private Duration openDuration = Duration.ofSeconds(10);
+
+	/**
+	 * Maximum number of calls running at the same time, additional calls are rejected
+	 */
+	private int maxConcurrentCalls = 128;
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public void setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+
+	public Duration getRetryBackoff() {
+		return retryBackoff;
+	}
+
+	public void setRetryBackoff(Duration retryBackoff) {
+		this.retryBackoff = retryBackoff;
+	}
+
+	public Duration getMaxRetryBackoff() {
+		return maxRetryBackoff;
+	}
+
+	public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+		this.maxRetryBackoff = maxRetryBackoff;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	public Duration getOpenDuration() {
+		return openDuration;
+	}
+
+	public void setOpenDuration(Duration openDuration) {
+		this.openDuration = openDuration;
+	}
+
+	public int getMaxConcurrentCalls() {
+		return maxConcurrentCalls;
+	}
+
+	public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+		this.maxConcurrentCalls = maxConcurrentCalls;
+	}
+}
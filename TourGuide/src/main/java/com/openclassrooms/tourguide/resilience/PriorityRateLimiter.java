@@ -0,0 +1,104 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter with priority classes.
+ * Interactive callers may use every token, background callers leave a reserve of tokens untouched
+ * and never take a token while an interactive caller is waiting.
+ */
+public class PriorityRateLimiter {
+
+	/**
+	 * Number of tokens added per nanosecond
+	 */
+	private final double tokensPerNano;
+
+	/**
+	 * Maximum number of stored tokens
+	 */
+	private final double capacity;
+
+	/**
+	 * Number of tokens background callers cannot use
+	 */
+	private final double interactiveReserve;
+
+	/**
+	 * Currently available tokens
+	 */
+	private double tokens;
+
+	/**
+	 * Last time the bucket was refilled
+	 */
+	private long lastRefill;
+
+	/**
+	 * Number of interactive callers waiting for a token
+	 */
+	private int waitingInteractive = 0;
+
+	/**
+	 * Constructor for the rate limiter
+	 * @param permitsPerSecond sustained rate of calls
+	 * @param burst maximum number of calls made at once after an idle period
+	 * @param interactiveReserve share of the burst kept for interactive callers, between 0 and 1
+	 */
+	public PriorityRateLimiter(double permitsPerSecond, int burst, double interactiveReserve) {
+		this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+		this.capacity = Math.max(1, burst);
+		this.interactiveReserve = Math.floor(capacity * interactiveReserve);
+		this.tokens = capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Takes a token, waiting if none is available
+	 * @param priority priority of the caller
+	 * @param timeout maximum time to wait
+	 * @param unit unit of the timeout
+	 * @return true if a token was taken, false if the timeout elapsed first
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	public synchronized boolean tryAcquire(CallPriority priority, long timeout, TimeUnit unit) throws InterruptedException {
+		boolean interactive = priority == CallPriority.INTERACTIVE;
+		double required = interactive ? 1 : 1 + interactiveReserve;
+		long timeoutNanos = unit.toNanos(timeout);
+		long start = System.nanoTime();
+
+		if (interactive) {
+			waitingInteractive++;
+		}
+		try {
+			while (true) {
+				refill();
+				if (tokens >= required && (interactive || waitingInteractive == 0)) {
+					tokens--;
+					return true;
+				}
+				long remainingNanos = timeoutNanos - (System.nanoTime() - start);
+				if (remainingNanos <= 0) {
+					return false;
+				}
+				long nanosUntilToken = (long) Math.ceil(Math.max(0, required - tokens) / tokensPerNano);
+				long waitNanos = Math.max(TimeUnit.MICROSECONDS.toNanos(100), Math.min(remainingNanos, nanosUntilToken));
+				TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+			}
+		} finally {
+			if (interactive) {
+				waitingInteractive--;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Adds the tokens accumulated since the last refill
+	 */
+	private void refill() {
+		long now = System.nanoTime();
+		tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+		lastRefill = now;
+	}
+}
@@ -0,0 +1,191 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Clock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timeout, retry and circuit breaker policy protecting the calls to one external library.
+ * Calls run on a bounded pool so that they can be abandoned when they time out,
+ * and so that a slow library cannot hold more than a fixed number of threads.
+ */
+public class ResiliencePolicy {
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(ResiliencePolicy.class);
+
+	/**
+	 * Name of the protected library
+	 */
+	private final String name;
+
+	/**
+	 * Settings of the policy
+	 */
+	private final PolicySettings settings;
+
+	/**
+	 * Circuit breaker of the library
+	 */
+	private final CircuitBreaker circuitBreaker;
+
+	/**
+	 * Pool running the calls, rejecting calls above the concurrency limit
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Number of failed attempts, timeouts included
+	 */
+	private final Counter failureCounter;
+
+	/**
+	 * Number of calls rejected by the circuit breaker or the concurrency limit
+	 */
+	private final Counter rejectionCounter;
+
+	/**
+	 * Constructor for the policy
+	 * @param name name of the protected library
+	 * @param settings settings of the policy
+	 */
+	public ResiliencePolicy(String name, PolicySettings settings) {
+		this(name, settings, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor for the policy
+	 * @param name name of the protected library
+	 * @param settings settings of the policy
+	 * @param clock clock used by the circuit breaker
+	 */
+	public ResiliencePolicy(String name, PolicySettings settings, Clock clock) {
+		this(name, settings, clock, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the policy
+	 * @param name name of the protected library
+	 * @param settings settings of the policy
+	 * @param clock clock used by the circuit breaker
+	 * @param meterRegistry registry of the policy meters
+	 */
+	public ResiliencePolicy(String name, PolicySettings settings, Clock clock, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.settings = settings;
+		this.circuitBreaker = new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenDuration().toMillis(), clock);
+		this.executor = new ThreadPoolExecutor(0, settings.getMaxConcurrentCalls(), 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, name + "-call");
+					thread.setDaemon(true);
+					return thread;
+				});
+
+		this.failureCounter = Counter.builder("tourguide.resilience.failures")
+				.tag("dependency", name)
+				.register(meterRegistry);
+		this.rejectionCounter = Counter.builder("tourguide.resilience.rejections")
+				.tag("dependency", name)
+				.register(meterRegistry);
+		Gauge.builder("tourguide.resilience.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+				.description("State of the circuit breaker: 0 closed, 1 half open, 2 open")
+				.tag("dependency", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Runs a call with the policy
+	 * @param call call to the library
+	 * @return result of the call
+	 * @param <T> type of the result
+	 * @throws UpstreamUnavailableException if the library could not answer
+	 */
+	public <T> T execute(Callable<T> call) {
+		Throwable lastError = null;
+
+		for (int attempt = 1; attempt <= settings.getMaxAttempts(); attempt++) {
+			if (attempt > 1) {
+				backOff(attempt);
+			}
+			if (!circuitBreaker.tryAcquirePermission()) {
+				rejectionCounter.increment();
+				throw new UpstreamUnavailableException(name + " circuit is open", lastError);
+			}
+
+			Future<T> future;
+			try {
+				future = executor.submit(call);
+			} catch (RejectedExecutionException e) {
+				circuitBreaker.releasePermission();
+				rejectionCounter.increment();
+				throw new UpstreamUnavailableException(name + " has too many calls in progress", e);
+			}
+
+			try {
+				T result = future.get(settings.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+				circuitBreaker.onSuccess();
+				return result;
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				lastError = e;
+			} catch (ExecutionException e) {
+				lastError = e.getCause();
+			} catch (InterruptedException e) {
+				future.cancel(true);
+				// the caller gave up, which says nothing of the library: give back the permission,
+				// the trial permission of a half open circuit included
+				circuitBreaker.releasePermission();
+				Thread.currentThread().interrupt();
+				throw new UpstreamUnavailableException(name + " call interrupted", e);
+			}
+			circuitBreaker.onFailure();
+			failureCounter.increment();
+			logger.debug(name + " attempt " + attempt + " failed: " + lastError);
+		}
+
+		throw new UpstreamUnavailableException(name + " failed after " + settings.getMaxAttempts() + " attempts", lastError);
+	}
+
+	/**
+	 * Waits before a retry, with an exponential backoff and full jitter so that
+	 * the callers failing together do not retry together
+	 * @param attempt number of the next attempt
+	 */
+	private void backOff(int attempt) {
+		long backoff = Math.min(settings.getMaxRetryBackoff().toMillis(),
+				settings.getRetryBackoff().toMillis() << Math.min(attempt - 2, 20));
+		if (backoff <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UpstreamUnavailableException(name + " retry interrupted", e);
+		}
+	}
+
+	/**
+	 * Get the circuit breaker of the library
+	 * @return circuit breaker
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+}
@@ -0,0 +1,49 @@
+package com.openclassrooms.tourguide.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Resilience settings of the external libraries, bound from the tourguide.resilience properties
+ */
+@ConfigurationProperties(prefix = "tourguide.resilience")
+public class ResilienceProperties {
+
+	/**
+	 * Policy of the GpsUtil calls
+	 */
+	private PolicySettings gps = new PolicySettings();
+
+	/**
+	 * Policy of the RewardCentral calls
+	 */
+	private PolicySettings rewards = new PolicySettings();
+
+	/**
+	 * Policy of the TripPricer calls
+	 */
+	private PolicySettings tripPricer = new PolicySettings();
+
+	public PolicySettings getGps() {
+		return gps;
+	}
+
+	public void setGps(PolicySettings gps) {
+		this.gps = gps;
+	}
+
+	public PolicySettings getRewards() {
+		return rewards;
+	}
+
+	public void setRewards(PolicySettings rewards) {
+		this.rewards = rewards;
+	}
+
+	public PolicySettings getTripPricer() {
+		return tripPricer;
+	}
+
+	public void setTripPricer(PolicySettings tripPricer) {
+		this.tripPricer = tripPricer;
+	}
+}
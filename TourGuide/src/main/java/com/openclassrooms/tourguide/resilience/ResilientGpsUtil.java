@@ -0,0 +1,44 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * GpsUtil decorator applying a resilience policy to every call
+ */
+public class ResilientGpsUtil extends GpsUtil {
+
+	/**
+	 * Decorated library
+	 */
+	private final GpsUtil delegate;
+
+	/**
+	 * Policy applied to the calls
+	 */
+	private final ResiliencePolicy policy;
+
+	/**
+	 * Constructor for the resilient library
+	 * @param delegate decorated library
+	 * @param policy policy applied to the calls
+	 */
+	public ResilientGpsUtil(GpsUtil delegate, ResiliencePolicy policy) {
+		this.delegate = delegate;
+		this.policy = policy;
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		return policy.execute(() -> delegate.getUserLocation(userId));
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		return policy.execute(delegate::getAttractions);
+	}
+}
@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.UUID;
+
+import rewardCentral.RewardCentral;
+
+/**
+ * RewardCentral decorator applying a resilience policy to every call
+ */
+public class ResilientRewardCentral extends RewardCentral {
+
+	/**
+	 * Decorated library
+	 */
+	private final RewardCentral delegate;
+
+	/**
+	 * Policy applied to the calls
+	 */
+	private final ResiliencePolicy policy;
+
+	/**
+	 * Constructor for the resilient library
+	 * @param delegate decorated library
+	 * @param policy policy applied to the calls
+	 */
+	public ResilientRewardCentral(RewardCentral delegate, ResiliencePolicy policy) {
+		this.delegate = delegate;
+		this.policy = policy;
+	}
+
+	@Override
+	public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+		return policy.execute(() -> delegate.getAttractionRewardPoints(attractionId, userId));
+	}
+}
@@ -0,0 +1,43 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.List;
+import java.util.UUID;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+/**
+ * TripPricer decorator applying a resilience policy to every call
+ */
+public class ResilientTripPricer extends TripPricer {
+
+	/**
+	 * Decorated library
+	 */
+	private final TripPricer delegate;
+
+	/**
+	 * Policy applied to the calls
+	 */
+	private final ResiliencePolicy policy;
+
+	/**
+	 * Constructor for the resilient library
+	 * @param delegate decorated library
+	 * @param policy policy applied to the calls
+	 */
+	public ResilientTripPricer(TripPricer delegate, ResiliencePolicy policy) {
+		this.delegate = delegate;
+		this.policy = policy;
+	}
+
+	@Override
+	public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay, int rewardsPoints) {
+		return policy.execute(() -> delegate.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints));
+	}
+
+	@Override
+	public String getProviderName(String apiKey, int adults) {
+		return delegate.getProviderName(apiKey, adults);
+	}
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.tourguide.resilience;
+
+/**
+ * Thrown when an external library could not answer: timed out, failed on every attempt,
+ * or was not called because its circuit breaker is open
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+	/**
+	 * Constructor for the exception
+	 * @param message description of the failure
+	 * @param cause last error raised by the library, may be null
+	 */
+	public UpstreamUnavailableException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
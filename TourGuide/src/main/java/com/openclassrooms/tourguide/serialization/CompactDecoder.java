@@ -0,0 +1,149 @@
+package com.openclassrooms.tourguide.serialization;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.RewardInformation;
+import com.openclassrooms.tourguide.TouristAttractionInformation;
+
+/**
+ * Decoder for the messages written by {@link CompactEncoder}
+ */
+public class CompactDecoder {
+
+	/**
+	 * Stream the message is read from
+	 */
+	private final DataInputStream input;
+
+	/**
+	 * Strings already read in the message
+	 */
+	private final List<String> stringTable = new ArrayList<>();
+
+	/**
+	 * Constructor for the decoder
+	 * @param input stream the message is read from
+	 */
+	public CompactDecoder(InputStream input) {
+		this.input = new DataInputStream(input);
+	}
+
+	/**
+	 * Reads a message
+	 * @return the decoded object, or a list if a collection was written
+	 * @throws IOException if the stream cannot be read or is not a compact message
+	 */
+	public Object read() throws IOException {
+		if (input.readUnsignedByte() != CompactEncoder.MAGIC || input.readUnsignedByte() != CompactEncoder.VERSION) {
+			throw new IOException("Not a compact TourGuide message");
+		}
+		int tag = input.readUnsignedByte();
+		boolean single = input.readBoolean();
+		int count = readVarInt();
+
+		List<Object> values = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			values.add(readRecord(tag));
+		}
+		return single ? values.get(0) : values;
+	}
+
+	/**
+	 * Reads one record
+	 * @param tag tag of the record type
+	 * @return decoded record
+	 * @throws IOException if the stream cannot be read
+	 */
+	private Object readRecord(int tag) throws IOException {
+		switch (tag) {
+			case CompactEncoder.TAG_VISITED_LOCATION:
+				return new VisitedLocation(readUuid(), readLocation(), readDate());
+			case CompactEncoder.TAG_ATTRACTION:
+				// the attraction id is generated by its constructor and cannot be restored
+				readUuid();
+				String name = readString();
+				String city = readString();
+				String state = readString();
+				Location location = readLocation();
+				return new Attraction(name, city, state, location.latitude, location.longitude);
+			case CompactEncoder.TAG_TOURIST_ATTRACTION_INFORMATION:
+				return new TouristAttractionInformation(readString(), readLocation(), readLocation(),
+						input.readDouble(), readVarInt());
+			case CompactEncoder.TAG_REWARD_INFORMATION:
+				return new RewardInformation(readUuid(), readString(), input.readDouble(), input.readDouble(),
+						readDate(), readVarInt());
+			default:
+				throw new IOException("Unknown record tag " + tag);
+		}
+	}
+
+	/**
+	 * Reads the coordinates of a location
+	 * @return decoded location
+	 * @throws IOException if the stream cannot be read
+	 */
+	private Location readLocation() throws IOException {
+		double latitude = input.readDouble();
+		double longitude = input.readDouble();
+		return new Location(latitude, longitude);
+	}
+
+	/**
+	 * Reads a UUID written on 16 bytes
+	 * @return decoded UUID
+	 * @throws IOException if the stream cannot be read
+	 */
+	private UUID readUuid() throws IOException {
+		return new UUID(input.readLong(), input.readLong());
+	}
+
+	/**
+	 * Reads a date written as epoch milliseconds
+	 * @return decoded date
+	 * @throws IOException if the stream cannot be read
+	 */
+	private Date readDate() throws IOException {
+		return new Date(input.readLong());
+	}
+
+	/**
+	 * Reads a string or a reference to the string table
+	 * @return decoded string
+	 * @throws IOException if the stream cannot be read
+	 */
+	private String readString() throws IOException {
+		int reference = readVarInt();
+		if (reference == 0) {
+			String value = input.readUTF();
+			stringTable.add(value);
+			return value;
+		}
+		return stringTable.get(reference - 1);
+	}
+
+	/**
+	 * Reads a positive int written on 1 to 5 bytes
+	 * @return decoded value
+	 * @throws IOException if the stream cannot be read
+	 */
+	private int readVarInt() throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = input.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+}
@@ -0,0 +1,240 @@
+package com.openclassrooms.tourguide.serialization;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.RewardInformation;
+import com.openclassrooms.tourguide.TouristAttractionInformation;
+
+/**
+ * Hand written binary encoder for the high volume API models.
+ * Strings are written once per message and then referenced by index, which removes
+ * the repeated attraction names and cities of long reward lists.
+ */
+public class CompactEncoder {
+
+	/**
+	 * First byte of every message
+	 */
+	static final int MAGIC = 'T';
+
+	/**
+	 * Version of the format
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Record tags
+	 */
+	static final int TAG_VISITED_LOCATION = 1;
+	static final int TAG_ATTRACTION = 2;
+	static final int TAG_TOURIST_ATTRACTION_INFORMATION = 3;
+	static final int TAG_REWARD_INFORMATION = 4;
+
+	/**
+	 * Stream the message is written to
+	 */
+	private final DataOutputStream output;
+
+	/**
+	 * Index of the strings already written in the message
+	 */
+	private final Map<String, Integer> stringTable = new HashMap<>();
+
+	/**
+	 * Constructor for the encoder
+	 * @param output stream the message is written to
+	 */
+	public CompactEncoder(OutputStream output) {
+		this.output = new DataOutputStream(output);
+	}
+
+	/**
+	 * Indicates if a type can be encoded
+	 * @param type type to check
+	 * @return true if the type has a compact encoding
+	 */
+	public static boolean supports(Class<?> type) {
+		return tagOf(type) != 0;
+	}
+
+	/**
+	 * Writes a single object or a collection of objects of the same type
+	 * @param value object or collection to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void write(Object value) throws IOException {
+		boolean single = !(value instanceof Collection<?>);
+		Collection<?> values = single ? List.of(value) : (Collection<?>) value;
+		Class<?> type = values.isEmpty() ? Object.class : values.iterator().next().getClass();
+
+		output.writeByte(MAGIC);
+		output.writeByte(VERSION);
+		output.writeByte(tagOf(type));
+		output.writeBoolean(single);
+		writeVarInt(values.size());
+		for (Object item : values) {
+			writeRecord(item);
+		}
+		output.flush();
+	}
+
+	/**
+	 * Gets the tag of a type
+	 * @param type type to check
+	 * @return tag, or 0 if the type is not supported
+	 */
+	private static int tagOf(Class<?> type) {
+		if (VisitedLocation.class.isAssignableFrom(type)) {
+			return TAG_VISITED_LOCATION;
+		}
+		if (Attraction.class.isAssignableFrom(type)) {
+			return TAG_ATTRACTION;
+		}
+		if (TouristAttractionInformation.class.isAssignableFrom(type)) {
+			return TAG_TOURIST_ATTRACTION_INFORMATION;
+		}
+		if (RewardInformation.class.isAssignableFrom(type)) {
+			return TAG_REWARD_INFORMATION;
+		}
+		return 0;
+	}
+
+	/**
+	 * Writes one record
+	 * @param item record to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeRecord(Object item) throws IOException {
+		if (item instanceof VisitedLocation visitedLocation) {
+			writeVisitedLocation(visitedLocation);
+		} else if (item instanceof Attraction attraction) {
+			writeAttraction(attraction);
+		} else if (item instanceof TouristAttractionInformation information) {
+			writeTouristAttractionInformation(information);
+		} else if (item instanceof RewardInformation information) {
+			writeRewardInformation(information);
+		} else {
+			throw new IllegalArgumentException("No compact encoding for " + item.getClass().getName());
+		}
+	}
+
+	/**
+	 * Writes a visited location
+	 * @param visitedLocation location to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeVisitedLocation(VisitedLocation visitedLocation) throws IOException {
+		writeUuid(visitedLocation.userId);
+		writeLocation(visitedLocation.location);
+		writeDate(visitedLocation.timeVisited);
+	}
+
+	/**
+	 * Writes an attraction
+	 * @param attraction attraction to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeAttraction(Attraction attraction) throws IOException {
+		writeUuid(attraction.attractionId);
+		writeString(attraction.attractionName);
+		writeString(attraction.city);
+		writeString(attraction.state);
+		writeLocation(attraction);
+	}
+
+	/**
+	 * Writes a tourist attraction information
+	 * @param information information to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeTouristAttractionInformation(TouristAttractionInformation information) throws IOException {
+		writeString(information.getAttractionName());
+		writeLocation(information.getAttractionLocation());
+		writeLocation(information.getTouristLocation());
+		output.writeDouble(information.getDistance());
+		writeVarInt(information.getRewardPoints());
+	}
+
+	/**
+	 * Writes a reward information
+	 * @param information information to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeRewardInformation(RewardInformation information) throws IOException {
+		writeUuid(information.getAttractionId());
+		writeString(information.getAttractionName());
+		output.writeDouble(information.getLatitude());
+		output.writeDouble(information.getLongitude());
+		writeDate(information.getTimeVisited());
+		writeVarInt(information.getRewardPoints());
+	}
+
+	/**
+	 * Writes the coordinates of a location
+	 * @param location location to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeLocation(Location location) throws IOException {
+		output.writeDouble(location.latitude);
+		output.writeDouble(location.longitude);
+	}
+
+	/**
+	 * Writes a UUID on 16 bytes
+	 * @param uuid UUID to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeUuid(UUID uuid) throws IOException {
+		output.writeLong(uuid.getMostSignificantBits());
+		output.writeLong(uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Writes a date as epoch milliseconds
+	 * @param date date to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeDate(Date date) throws IOException {
+		output.writeLong(date.getTime());
+	}
+
+	/**
+	 * Writes a string as a reference to the string table, adding it on first use
+	 * @param value string to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeString(String value) throws IOException {
+		Integer index = stringTable.get(value);
+		if (index != null) {
+			writeVarInt(index + 1);
+		} else {
+			stringTable.put(value, stringTable.size());
+			writeVarInt(0);
+			output.writeUTF(value);
+		}
+	}
+
+	/**
+	 * Writes a positive int on 1 to 5 bytes
+	 * @param value value to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			output.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		output.writeByte(value);
+	}
+}
@@ -0,0 +1,68 @@
+package com.openclassrooms.tourguide.serialization;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Message converter writing the API models with the compact binary encoding,
+ * selected when the client sends {@code Accept: application/vnd.tourguide.compact}
+ */
+public class CompactHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	/**
+	 * Media type of the compact encoding
+	 */
+	public static final MediaType COMPACT = MediaType.parseMediaType("application/vnd.tourguide.compact");
+
+	/**
+	 * Constructor for the converter
+	 */
+	public CompactHttpMessageConverter() {
+		super(COMPACT);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return CompactEncoder.supports(clazz) || Collection.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		if (!canWrite(mediaType)) {
+			return false;
+		}
+		ResolvableType resolvableType = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+		if (resolvableType.asCollection() != ResolvableType.NONE) {
+			return CompactEncoder.supports(resolvableType.asCollection().resolveGeneric(0));
+		}
+		return CompactEncoder.supports(resolvableType.toClass());
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+		new CompactEncoder(outputMessage.getBody()).write(value);
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Compact encoding is only used for responses", inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Compact encoding is only used for responses", inputMessage);
+	}
+}
@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.serialization;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.Module;
+
+/**
+ * Registers the hand written serializers and the compact binary encoding
+ */
+@Configuration
+public class SerializationConfig implements WebMvcConfigurer {
+
+	/**
+	 * Jackson module picked up by the auto-configured object mapper
+	 * @return module with the hand written serializers
+	 */
+	@Bean
+	public Module tourGuideJacksonModule() {
+		return new TourGuideJacksonModule();
+	}
+
+	/**
+	 * Adds the compact converter after the default ones, so that JSON stays the default
+	 * and the compact encoding is only used when explicitly accepted
+	 * @param converters configured converters
+	 */
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new CompactHttpMessageConverter());
+	}
+}
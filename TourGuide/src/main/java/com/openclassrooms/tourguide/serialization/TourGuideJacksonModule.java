@@ -0,0 +1,122 @@
+package com.openclassrooms.tourguide.serialization;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.TouristAttractionInformation;
+
+/**
+ * Jackson module registering hand written JSON serializers for the types returned in bulk by the API,
+ * so they are written field by field instead of through bean introspection.
+ * The produced JSON is the same as the reflective one.
+ */
+public class TourGuideJacksonModule extends SimpleModule {
+
+	/**
+	 * Constructor for the module
+	 */
+	public TourGuideJacksonModule() {
+		super("TourGuideJacksonModule");
+		addSerializer(Location.class, new LocationSerializer());
+		addSerializer(Attraction.class, new AttractionSerializer());
+		addSerializer(VisitedLocation.class, new VisitedLocationSerializer());
+		addSerializer(TouristAttractionInformation.class, new TouristAttractionInformationSerializer());
+	}
+
+	/**
+	 * Writes the coordinates of a location inside the current object
+	 * @param location location to write
+	 * @param generator JSON generator
+	 * @throws IOException if the JSON cannot be written
+	 */
+	private static void writeCoordinates(Location location, JsonGenerator generator) throws IOException {
+		generator.writeNumberField("longitude", location.longitude);
+		generator.writeNumberField("latitude", location.latitude);
+	}
+
+	/**
+	 * Serializer for plain locations
+	 */
+	static class LocationSerializer extends StdSerializer<Location> {
+
+		LocationSerializer() {
+			super(Location.class);
+		}
+
+		@Override
+		public void serialize(Location location, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			writeCoordinates(location, generator);
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Serializer for attractions
+	 */
+	static class AttractionSerializer extends StdSerializer<Attraction> {
+
+		AttractionSerializer() {
+			super(Attraction.class);
+		}
+
+		@Override
+		public void serialize(Attraction attraction, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			writeCoordinates(attraction, generator);
+			generator.writeStringField("attractionName", attraction.attractionName);
+			generator.writeStringField("city", attraction.city);
+			generator.writeStringField("state", attraction.state);
+			generator.writeStringField("attractionId", attraction.attractionId.toString());
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Serializer for visited locations
+	 */
+	static class VisitedLocationSerializer extends StdSerializer<VisitedLocation> {
+
+		VisitedLocationSerializer() {
+			super(VisitedLocation.class);
+		}
+
+		@Override
+		public void serialize(VisitedLocation visitedLocation, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			generator.writeStringField("userId", visitedLocation.userId.toString());
+			provider.defaultSerializeField("location", visitedLocation.location, generator);
+			generator.writeFieldName("timeVisited");
+			provider.defaultSerializeDateValue(visitedLocation.timeVisited, generator);
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Serializer for tourist attraction information
+	 */
+	static class TouristAttractionInformationSerializer extends StdSerializer<TouristAttractionInformation> {
+
+		TouristAttractionInformationSerializer() {
+			super(TouristAttractionInformation.class);
+		}
+
+		@Override
+		public void serialize(TouristAttractionInformation information, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			generator.writeStringField("attractionName", information.getAttractionName());
+			provider.defaultSerializeField("attractionLocation", information.getAttractionLocation(), generator);
+			provider.defaultSerializeField("touristLocation", information.getTouristLocation(), generator);
+			generator.writeNumberField("distance", information.getDistance());
+			generator.writeNumberField("rewardPoints", information.getRewardPoints());
+			generator.writeEndObject();
+		}
+	}
+}
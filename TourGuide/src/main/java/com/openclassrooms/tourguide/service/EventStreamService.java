@@ -0,0 +1,195 @@
+package com.openclassrooms.tourguide.service;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.tourguide.event.EventSubscription;
+import com.openclassrooms.tourguide.event.TourGuideEvent;
+import com.openclassrooms.tourguide.event.TourGuideEventBus;
+
+/**
+ * Service streaming event bus updates to HTTP clients, as Server-Sent Events or newline delimited JSON
+ */
+@Service
+public class EventStreamService {
+
+	/**
+	 * Time after which an idle stream receives a keep alive, in seconds
+	 */
+	private static final long KEEP_ALIVE_INTERVAL = 15;
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+	/**
+	 * Event bus to subscribe to
+	 */
+	private final TourGuideEventBus eventBus;
+
+	/**
+	 * Mapper used to write the NDJSON lines
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Threads forwarding the buffered events or lines of each stream to its connection,
+	 * so that a slow client only slows down its own stream, one thread per open stream
+	 */
+	private final ExecutorService executorService;
+
+	/**
+	 * Constructor for the event stream service
+	 * @param eventBus event bus to subscribe to
+	 * @param objectMapper mapper used to write the NDJSON lines
+	 * @param properties settings of the streams
+	 */
+	public EventStreamService(TourGuideEventBus eventBus, ObjectMapper objectMapper, StreamProperties properties) {
+		this.eventBus = eventBus;
+		this.objectMapper = objectMapper;
+		this.executorService = new ThreadPoolExecutor(0, properties.getMaxStreams(), 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "event-stream");
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Opens a Server-Sent Events stream
+	 * @param userId id of the user to follow, null for every user
+	 * @return emitter sending the events
+	 * @throws ResponseStatusException with the 503 status if too many streams are open
+	 */
+	public SseEmitter streamSse(UUID userId) {
+		SseEmitter emitter = new SseEmitter(0L);
+		EventSubscription subscription = register(emitter, userId);
+
+		start(() -> pump(subscription, emitter, true), subscription::close);
+		return emitter;
+	}
+
+	/**
+	 * Opens a newline delimited JSON stream, idle streams receiving an empty line as keep alive
+	 * @param userId id of the user to follow, null for every user
+	 * @return emitter sending the events
+	 * @throws ResponseStatusException with the 503 status if too many streams are open
+	 */
+	public ResponseBodyEmitter streamNdjson(UUID userId) {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+		EventSubscription subscription = register(emitter, userId);
+
+		start(() -> pump(subscription, emitter, false), subscription::close);
+		return emitter;
+	}
+
+	/**
+	 * Opens a newline delimited JSON stream fed by the application rather than by the event bus
+	 * @return stream to feed, whose lines are written by a stream thread
+	 * @throws ResponseStatusException with the 503 status if too many streams are open
+	 */
+	public NdjsonStream openNdjson() {
+		NdjsonStream stream = new NdjsonStream(new ResponseBodyEmitter(0L));
+
+		start(() -> pump(stream), () -> { });
+		return stream;
+	}
+
+	/**
+	 * Starts the thread of a stream, refusing the stream if every thread is taken
+	 * @param pump task forwarding the stream to its connection
+	 * @param release releases the resources of a refused stream
+	 */
+	private void start(Runnable pump, Runnable release) {
+		try {
+			executorService.execute(pump);
+		} catch (RejectedExecutionException e) {
+			release.run();
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open streams");
+		}
+	}
+
+	/**
+	 * Subscribes to the bus and closes the subscription when the connection ends
+	 * @param emitter connection to the client
+	 * @param userId id of the user to follow, null for every user
+	 * @return new subscription
+	 */
+	private EventSubscription register(ResponseBodyEmitter emitter, UUID userId) {
+		EventSubscription subscription = eventBus.subscribe(userId);
+		emitter.onCompletion(subscription::close);
+		emitter.onTimeout(subscription::close);
+		emitter.onError(e -> subscription.close());
+		return subscription;
+	}
+
+	/**
+	 * Forwards buffered events to the client until the subscription is closed
+	 * @param subscription subscription to drain
+	 * @param emitter connection to the client
+	 * @param sse true to use the SSE format, false for NDJSON
+	 */
+	private void pump(EventSubscription subscription, ResponseBodyEmitter emitter, boolean sse) {
+		try {
+			while (!subscription.isClosed()) {
+				TourGuideEvent event = subscription.poll(KEEP_ALIVE_INTERVAL, TimeUnit.SECONDS);
+				if (sse) {
+					SseEmitter sseEmitter = (SseEmitter) emitter;
+					if (event == null) {
+						sseEmitter.send(SseEmitter.event().comment("keep-alive"));
+					} else {
+						sseEmitter.send(SseEmitter.event().name(event.getType().name()).data(event));
+					}
+				} else if (event == null) {
+					// an empty line, which NDJSON readers skip, detects the clients gone from quiet streams
+					emitter.send("\n");
+				} else {
+					emitter.send(objectMapper.writeValueAsString(event) + "\n");
+				}
+			}
+		} catch (IOException | IllegalStateException e) {
+			logger.debug("Event stream closed by client");
+			emitter.completeWithError(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			emitter.complete();
+		} finally {
+			subscription.close();
+		}
+	}
+
+	/**
+	 * Writes the queued lines of a stream to the client until the stream is complete
+	 * @param stream stream to drain
+	 */
+	private void pump(NdjsonStream stream) {
+		ResponseBodyEmitter emitter = stream.getEmitter();
+		try {
+			for (Object line = stream.next(); line != null; line = stream.next()) {
+				emitter.send(objectMapper.writeValueAsString(line) + "\n");
+			}
+			emitter.complete();
+		} catch (IOException | IllegalStateException e) {
+			logger.debug("NDJSON stream closed by client");
+			emitter.completeWithError(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			emitter.complete();
+		}
+	}
+}
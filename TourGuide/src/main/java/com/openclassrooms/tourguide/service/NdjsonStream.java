@@ -0,0 +1,70 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Newline delimited JSON stream fed by the application. The lines are buffered and written to the client
+ * by a stream thread, so that feeding the stream never blocks on the connection.
+ * The buffer is unbounded: the stream is meant for finite feeds such as the results of a search.
+ */
+public class NdjsonStream {
+
+	/**
+	 * Marker queued after the last line
+	 */
+	private static final Object END = new Object();
+
+	/**
+	 * Connection to the client
+	 */
+	private final ResponseBodyEmitter emitter;
+
+	/**
+	 * Lines waiting to be written
+	 */
+	private final BlockingQueue<Object> lines = new LinkedBlockingQueue<>();
+
+	/**
+	 * Constructor for the stream
+	 * @param emitter connection to the client
+	 */
+	NdjsonStream(ResponseBodyEmitter emitter) {
+		this.emitter = emitter;
+	}
+
+	/**
+	 * Gets the connection to the client
+	 * @return emitter to return from the controller
+	 */
+	public ResponseBodyEmitter getEmitter() {
+		return emitter;
+	}
+
+	/**
+	 * Queues an object to write as a line, without waiting for the client
+	 * @param line object to write
+	 */
+	public void send(Object line) {
+		lines.add(line);
+	}
+
+	/**
+	 * Ends the stream once the queued lines have been written
+	 */
+	public void complete() {
+		lines.add(END);
+	}
+
+	/**
+	 * Waits for the next line to write
+	 * @return next line, null once the stream is complete
+	 * @throws InterruptedException if the stream thread is interrupted
+	 */
+	Object next() throws InterruptedException {
+		Object line = lines.take();
+		return line == END ? null : line;
+	}
+}
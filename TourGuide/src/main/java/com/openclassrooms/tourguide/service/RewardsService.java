@@ -1,49 +1,100 @@
 package com.openclassrooms.tourguide.service;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
-import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
+import com.openclassrooms.tourguide.crowd.CrowdDensity;
+import com.openclassrooms.tourguide.crowd.CrowdDensityAggregator;
+import com.openclassrooms.tourguide.event.EventType;
+import com.openclassrooms.tourguide.event.TourGuideEvent;
+import com.openclassrooms.tourguide.event.TourGuideEventBus;
+import com.openclassrooms.tourguide.geo.GeoMath;
+import com.openclassrooms.tourguide.geofence.GeofenceEngine;
+import com.openclassrooms.tourguide.geofence.GeofenceEvent;
+import com.openclassrooms.tourguide.lane.UserLanes;
+import com.openclassrooms.tourguide.ledger.RewardLedger;
+import com.openclassrooms.tourguide.prefetch.RewardPrefetcher;
+import com.openclassrooms.tourguide.proximity.ProximitySettings;
+import com.openclassrooms.tourguide.profiling.RewardCalculationEvent;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 
 /**
  * Service for user rewards
  */
-@Service
 public class RewardsService {
 
 	/**
-	 * Const to convert miles
+	 * Logger for current class
 	 */
-    private static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+	private Logger logger = LoggerFactory.getLogger(RewardsService.class);
 
 	/**
-	 * Proximity in miles
+	 * Sliding window of the crowd visit counts
 	 */
-    private int defaultProximityBuffer = 10;
+	private static final Duration CROWD_WINDOW = Duration.ofHours(1);
 
 	/**
-	 * Proximity buffer
+	 * Number of buckets of the crowd sliding window
 	 */
-	private int proximityBuffer = defaultProximityBuffer;
+	private static final int CROWD_WINDOW_BUCKETS = 60;
 
 	/**
-	 * Range from which we consider the user close enough
+	 * Proximity settings, replaced as a whole on each change so that every thread sees a consistent version
 	 */
-	private int attractionProximityRange = 200;
+	private final AtomicReference<ProximitySettings> proximity;
 
 	/**
-	 * GpsUtil library, used for GPS operations
+	 * Proximity settings the service was created with, restored as the defaults
 	 */
-	private final GpsUtil gpsUtil;
+	private final ProximitySettings initialProximity;
+
+	/**
+	 * Catalogue of the attractions
+	 */
+	private final AttractionCatalog attractionCatalog;
+
+	/**
+	 * Serial lanes through which the users are changed
+	 */
+	private final UserLanes userLanes;
+
+	/**
+	 * Ledger persisting the granted rewards
+	 */
+	private final RewardLedger rewardLedger;
+
+	/**
+	 * Prefetcher of the points of the attractions the users approach
+	 */
+	private final RewardPrefetcher rewardPrefetcher;
 
 	/**
 	 * RewardCentral dependency used to compute rewards
@@ -51,9 +102,19 @@ public class RewardsService {
 	private final RewardCentral rewardsCentral;
 
 	/**
-	 * List of all available attractions
+	 * Geofence engine following the attraction zones each user is inside
+	 */
+	private final GeofenceEngine geofenceEngine;
+
+	/**
+	 * Event bus on which granted rewards are published
 	 */
-	private final List<Attraction> attractions;
+	private final TourGuideEventBus eventBus;
+
+	/**
+	 * Live crowd around each attraction, fed by the geofence transitions
+	 */
+	private final CrowdDensityAggregator crowdDensity;
 
 	/**
 	 * Pool of threads to execute some computation
@@ -61,15 +122,161 @@ public class RewardsService {
 	 */
 	private final ExecutorService executorService = Executors.newFixedThreadPool(64);
 
+	/**
+	 * Number of rewards granted since startup
+	 */
+	private final AtomicLong grantedRewards = new AtomicLong();
+
+	/**
+	 * Users with a deferred reward, whose history is checked again on their next location
+	 * since the geofence already counts them inside the zone of the deferred attraction
+	 */
+	private final Set<UUID> deferredUsers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Registry of the reward meters
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Duration of the reward calculations, until every reward of the user is granted
+	 */
+	private final Timer calculationTimer;
+
+	/**
+	 * Number of rewards deferred to a later calculation because RewardCentral was unavailable
+	 */
+	private final Counter deferredCounter;
+
+	/**
+	 * Number of granted rewards the ledger failed to persist, even after a retry
+	 */
+	private final Counter unpersistedCounter;
+
+	/**
+	 * Number of location and attraction pairs close enough to be rewarded, per calculation
+	 */
+	private final DistributionSummary candidatesSummary;
+
 	/**
 	 * Reward service constructor
 	 * @param gpsUtil gps library
 	 * @param rewardCentral rewards library
 	 */
 	public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral) {
-		this.gpsUtil = gpsUtil;
+		this(new AttractionCatalog(gpsUtil), rewardCentral, new TourGuideEventBus(), UserLanes.perCore(),
+				RewardLedger.disabled(), RewardPrefetcher.disabled(), ProximitySettings.defaults(), new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Reward service constructor
+	 * @param attractionCatalog catalogue of the attractions
+	 * @param rewardCentral rewards library
+	 * @param eventBus event bus on which granted rewards are published
+	 * @param userLanes serial lanes through which the users are changed
+	 * @param rewardLedger ledger persisting the granted rewards
+	 * @param rewardPrefetcher prefetcher of the points of the approached attractions
+	 * @param proximitySettings initial proximity settings
+	 * @param meterRegistry registry of the reward meters
+	 */
+	public RewardsService(AttractionCatalog attractionCatalog, RewardCentral rewardCentral, TourGuideEventBus eventBus,
+			UserLanes userLanes, RewardLedger rewardLedger, RewardPrefetcher rewardPrefetcher,
+			ProximitySettings proximitySettings, MeterRegistry meterRegistry) {
+		this.proximity = new AtomicReference<>(proximitySettings);
+		this.initialProximity = proximitySettings;
+		this.attractionCatalog = attractionCatalog;
+		this.userLanes = userLanes;
+		this.rewardLedger = rewardLedger;
+		this.rewardPrefetcher = rewardPrefetcher;
 		this.rewardsCentral = rewardCentral;
-		this.attractions = this.gpsUtil.getAttractions();
+		this.eventBus = eventBus;
+		this.geofenceEngine = new GeofenceEngine(() -> attractionCatalog.getSnapshot().getTiles(),
+				() -> proximity.get().getBufferMiles());
+
+		this.meterRegistry = meterRegistry;
+		this.crowdDensity = new CrowdDensityAggregator(CROWD_WINDOW, CROWD_WINDOW_BUCKETS, meterRegistry);
+
+		calculationTimer = Timer.builder("tourguide.rewards.calculation")
+				.description("Duration of a user reward calculation")
+				.register(meterRegistry);
+		deferredCounter = Counter.builder("tourguide.rewards.deferred")
+				.description("Number of rewards deferred because RewardCentral was unavailable")
+				.register(meterRegistry);
+		unpersistedCounter = Counter.builder("tourguide.rewards.unpersisted")
+				.description("Number of granted rewards the ledger failed to persist")
+				.register(meterRegistry);
+		candidatesSummary = DistributionSummary.builder("tourguide.rewards.candidates")
+				.description("Number of reward candidates found by a user reward calculation")
+				.register(meterRegistry);
+		new ExecutorServiceMetrics(executorService, "rewards", Tags.empty()).bindTo(meterRegistry);
+		Gauge.builder("tourguide.rewards.granted", grantedRewards, AtomicLong::get)
+				.description("Number of rewards granted since startup")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Creates a builder of reward service, defaulting to a private event bus, one lane per core, no ledger,
+	 * no prefetch, the default proximity settings and a private meter registry
+	 * @param attractionCatalog catalogue of the attractions
+	 * @param rewardCentral rewards library
+	 * @return builder
+	 */
+	public static Builder builder(AttractionCatalog attractionCatalog, RewardCentral rewardCentral) {
+		return new Builder(attractionCatalog, rewardCentral);
+	}
+
+	/**
+	 * Get the serial lanes through which the users are changed
+	 * @return user lanes
+	 */
+	public UserLanes getUserLanes() {
+		return userLanes;
+	}
+
+	/**
+	 * Get the ledger persisting the granted rewards
+	 * @return reward ledger
+	 */
+	public RewardLedger getRewardLedger() {
+		return rewardLedger;
+	}
+
+	/**
+	 * Get the prefetcher of the points of the approached attractions
+	 * @return reward prefetcher
+	 */
+	public RewardPrefetcher getRewardPrefetcher() {
+		return rewardPrefetcher;
+	}
+
+	/**
+	 * Get the catalogue of the attractions
+	 * @return attraction catalogue
+	 */
+	public AttractionCatalog getAttractionCatalog() {
+		return attractionCatalog;
+	}
+
+	/**
+	 * Get the current proximity settings
+	 * @return immutable settings, to be used for the whole operation needing a consistent view
+	 */
+	public ProximitySettings getProximitySettings() {
+		return proximity.get();
+	}
+
+	/**
+	 * Publishes new proximity settings. The attraction zones are rebuilt from the users' next locations,
+	 * the rewards already granted are kept.
+	 * @param bufferMiles distance from an attraction within which a visit is rewarded, in miles
+	 * @param attractionRangeMiles distance from an attraction within which a location is considered close to it
+	 * @return published settings
+	 */
+	public ProximitySettings updateProximity(int bufferMiles, int attractionRangeMiles) {
+		ProximitySettings updated = proximity.updateAndGet(current -> current.next(bufferMiles, attractionRangeMiles));
+		geofenceEngine.reset();
+		crowdDensity.reset();
+		return updated;
 	}
 
 	/**
@@ -77,39 +284,221 @@ public class RewardsService {
 	 * @param proximityBuffer value to set
 	 */
 	public void setProximityBuffer(int proximityBuffer) {
-		this.proximityBuffer = proximityBuffer;
+		updateProximity(proximityBuffer, proximity.get().getAttractionRangeMiles());
 	}
 
 	/**
-	 * Sets the proximity buffer to its default value
+	 * Sets the proximity buffer back to its configured value
 	 */
 	public void setDefaultProximityBuffer() {
-		proximityBuffer = defaultProximityBuffer;
+		setProximityBuffer(initialProximity.getBufferMiles());
 	}
 
 	/**
-	 * Computes the rewards for a user
+	 * Computes the rewards for a user by checking each location of its history against the attractions around it
 	 * @param user user to compute the rewards for
 	 * @return CompletableFuture allowing to wait for asynchronous operation
 	 */
 	public CompletableFuture<Void> calculateRewards(User user) {
-		List<VisitedLocation> userLocations = user.getVisitedLocations();
-		List<CompletableFuture<Object>> result = new ArrayList<>();
-
-		for(VisitedLocation visitedLocation : userLocations) {
-			for(Attraction attraction : attractions) {
-				if(nearAttraction(visitedLocation, attraction)) {
-					var future = getRewardPoints(attraction, user).thenApply(rewardPoints ->
-					{
-						user.addUserReward(new UserReward(visitedLocation, attraction, rewardPoints));
-						return null;
-					});
-					result.add(future);
+		Timer.Sample sample = Timer.start(meterRegistry);
+		RewardCalculationEvent event = beginCalculationEvent(user, RewardCalculationEvent.HISTORY);
+		List<CompletableFuture<Boolean>> result = new ArrayList<>();
+		deferredUsers.remove(user.getUserId());
+		grantHistoryRewards(user, result);
+
+		return completeCalculation(result, sample, event);
+	}
+
+	/**
+	 * Grants the rewards of the attractions near each location of the history of a user
+	 * @param user user to reward
+	 * @param result list receiving the grants
+	 */
+	private void grantHistoryRewards(User user, List<CompletableFuture<Boolean>> result) {
+		Set<UUID> candidates = new HashSet<>();
+		CatalogSnapshot snapshot = attractionCatalog.getSnapshot();
+		int proximityBuffer = proximity.get().getBufferMiles();
+
+		for(VisitedLocation visitedLocation : user.getVisitedLocations()) {
+			for(AttractionDistance nearby : snapshot.withinRadius(visitedLocation.location, proximityBuffer)) {
+				Attraction attraction = nearby.getAttraction();
+				if(!hasReward(user, attraction) && candidates.add(attraction.attractionId)) {
+					result.add(grantReward(user, visitedLocation, attraction));
 				}
 			}
 		}
+	}
+
+	/**
+	 * Computes the rewards earned by the latest location of a user.
+	 * Only the attraction zones around the new location are evaluated, and a reward is granted
+	 * when the user enters the zone of an attraction it was not rewarded for yet.
+	 * After a deferred reward the whole history is checked instead, the user being possibly still inside its zone.
+	 * @param user user who moved
+	 * @param visitedLocation new location of the user, already added to its history
+	 * @return CompletableFuture allowing to wait for asynchronous operation
+	 */
+	public CompletableFuture<Void> trackRewards(User user, VisitedLocation visitedLocation) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		RewardCalculationEvent calculationEvent = beginCalculationEvent(user, RewardCalculationEvent.LOCATION);
+		List<CompletableFuture<Boolean>> result = new ArrayList<>();
+		boolean retryDeferred = deferredUsers.remove(user.getUserId());
+
+		for (GeofenceEvent event : geofenceEngine.onLocation(user, visitedLocation)) {
+			EventType type = event.getType() == GeofenceEvent.Type.ENTER ? EventType.ATTRACTION_ENTER : EventType.ATTRACTION_EXIT;
+			eventBus.publish(new TourGuideEvent(type, user.getUserId(), event));
+			crowdDensity.record(event);
+			if (!retryDeferred && event.getType() == GeofenceEvent.Type.ENTER && !hasReward(user, event.getAttraction())) {
+				result.add(grantReward(user, event.getVisitedLocation(), event.getAttraction()));
+			}
+		}
+		if (retryDeferred) {
+			grantHistoryRewards(user, result);
+		}
+		prefetchApproached(user, visitedLocation);
+
+		return completeCalculation(result, sample, calculationEvent);
+	}
+
+	/**
+	 * Prefetches the points of the unrewarded attractions the user approaches, beyond the proximity buffer
+	 * @param user user who moved
+	 * @param visitedLocation new location of the user
+	 */
+	private void prefetchApproached(User user, VisitedLocation visitedLocation) {
+		if (!rewardPrefetcher.isEnabled()) {
+			return;
+		}
+		int buffer = proximity.get().getBufferMiles();
+		double approachRadius = Math.max(rewardPrefetcher.getApproachRadiusMiles(), buffer);
+		List<AttractionDistance> approached = attractionCatalog.getSnapshot()
+				.withinRadius(visitedLocation.location, approachRadius).stream()
+				.filter(candidate -> candidate.getDistance() > buffer && !hasReward(user, candidate.getAttraction()))
+				.toList();
+		rewardPrefetcher.onApproach(user.getUserId(), approached);
+	}
+
+	/**
+	 * Starts the flight recorder event of a reward calculation
+	 * @param user rewarded user
+	 * @param mode locations evaluated by the calculation
+	 * @return started event
+	 */
+	private RewardCalculationEvent beginCalculationEvent(User user, String mode) {
+		RewardCalculationEvent event = new RewardCalculationEvent();
+		if (event.isEnabled()) {
+			event.userId = user.getUserId().toString();
+			event.mode = mode;
+			event.begin();
+		}
+		return event;
+	}
+
+	/**
+	 * Records the metrics and the flight recorder event of a reward calculation once its grants are done
+	 * @param grants grants of the candidate attractions, each completed with true if the reward was granted
+	 * @param sample timer sample started with the calculation
+	 * @param event flight recorder event started with the calculation
+	 * @return CompletableFuture allowing to wait for asynchronous operation
+	 */
+	private CompletableFuture<Void> completeCalculation(List<CompletableFuture<Boolean>> grants, Timer.Sample sample,
+			RewardCalculationEvent event) {
+		candidatesSummary.record(grants.size());
+		return CompletableFuture.allOf(grants.toArray(new CompletableFuture[0]))
+				.whenComplete((ignored, throwable) -> {
+					sample.stop(calculationTimer);
+					event.end();
+					if (event.shouldCommit()) {
+						event.candidates = grants.size();
+						event.granted = (int) grants.stream().filter(grant -> grant.getNow(false)).count();
+						event.commit();
+					}
+				});
+	}
+
+	/**
+	 * Gets the live crowd around the attractions
+	 * @return crowd densities, the most crowded attraction first
+	 */
+	public List<CrowdDensity> getCrowdDensities() {
+		return crowdDensity.getDensities();
+	}
+
+	/**
+	 * Gets the time a user spent in each attraction zone
+	 * @param user user to check
+	 * @return dwell time in milliseconds by attraction name
+	 */
+	public Map<String, Long> getDwellTimes(User user) {
+		return geofenceEngine.getDwellTimes(user.getUserId());
+	}
+
+	/**
+	 * Indicates if a reward of the user was deferred, to be granted on its next location
+	 * @param user user to check
+	 * @return true if a reward is waiting for a retry
+	 */
+	public boolean hasDeferredRewards(User user) {
+		return deferredUsers.contains(user.getUserId());
+	}
 
-		return CompletableFuture.allOf(result.toArray(new CompletableFuture[0]));
+	/**
+	 * Indicates if a user was already rewarded for an attraction
+	 * @param user user to check
+	 * @param attraction attraction to check
+	 * @return true if the user has a reward for the attraction
+	 */
+	private boolean hasReward(User user, Attraction attraction) {
+		return user.hasUserReward(attraction);
+	}
+
+	/**
+	 * Fetches the reward points of an attraction and grants the reward to the user, on the lane of the user
+	 * @param user user to reward
+	 * @param visitedLocation location where the reward was earned
+	 * @param attraction rewarded attraction
+	 * @return CompletableFuture completed with true once the reward is granted, false if it was already granted or deferred
+	 */
+	private CompletableFuture<Boolean> grantReward(User user, VisitedLocation visitedLocation, Attraction attraction) {
+		// points prefetched while the user approached are used as they are, a failed prefetch is fetched again
+		CompletableFuture<Integer> staged = rewardPrefetcher.take(user.getUserId(), attraction.attractionId);
+		CompletableFuture<Integer> points = staged == null
+				? fetchRewardPoints(attraction, user)
+				: staged.exceptionallyCompose(throwable -> fetchRewardPoints(attraction, user));
+		return points.thenCompose(rewardPoints -> userLanes.submit(user.getUserId(), () ->
+		{
+			UserReward userReward = new UserReward(visitedLocation, attraction, rewardPoints);
+			if (!user.addUserReward(userReward)) {
+				return false;
+			}
+			grantedRewards.incrementAndGet();
+			persistReward(user, userReward);
+			eventBus.publish(new TourGuideEvent(EventType.REWARD, user.getUserId(), userReward));
+			return true;
+		})).exceptionally(throwable -> {
+			// the reward is not granted, the next location of the user checks its history again
+			deferredUsers.add(user.getUserId());
+			deferredCounter.increment();
+			logger.debug("Reward for " + attraction.attractionName + " deferred: " + throwable.getMessage());
+			return false;
+		});
+	}
+
+	/**
+	 * Appends a granted reward to the ledger, retrying once if the write fails
+	 * @param user rewarded user
+	 * @param userReward granted reward
+	 */
+	private void persistReward(User user, UserReward userReward) {
+		rewardLedger.append(user.getUserId(), userReward)
+				.exceptionallyCompose(throwable -> rewardLedger.append(user.getUserId(), userReward))
+				.whenComplete((written, throwable) -> {
+					if (throwable != null) {
+						unpersistedCounter.increment();
+						logger.warn("Reward of " + user.getUserName() + " for " + userReward.attraction.attractionName
+								+ " not persisted: " + throwable.getMessage());
+					}
+				});
 	}
 
 	/**
@@ -119,26 +508,49 @@ public class RewardsService {
 	 * @return bool value, true if close enough
 	 */
 	public boolean isWithinAttractionProximity(Attraction attraction, Location location) {
-		return getDistance(attraction, location) <= attractionProximityRange;
+		return getDistance(attraction, location) <= proximity.get().getAttractionRangeMiles();
 	}
 
 	/**
-	 * Indicates if a visited location is close enough of an attraction
-	 * @param visitedLocation visited location to check
+	 * Indicates if a location is within the proximity preferred by a user
+	 * @param user user whose preference applies
 	 * @param attraction attraction to check
+	 * @param location location to check
 	 * @return bool value, true if close enough
 	 */
-	private boolean nearAttraction(VisitedLocation visitedLocation, Attraction attraction) {
-		return getDistance(attraction, visitedLocation.location) <= proximityBuffer;
+	public boolean isWithinAttractionProximity(User user, Attraction attraction, Location location) {
+		return getDistance(attraction, location) <= user.getUserPreferences().getAttractionProximity();
 	}
 
 	/**
-	 * Gets the rewards points that the user can get by going to a given attraction
+	 * Finds the attractions within the proximity preferred by a user
+	 * @param user user whose preference applies
+	 * @param location location to search from
+	 * @return attractions within the user proximity with their distance, closest first
+	 */
+	public List<AttractionDistance> getAttractionsWithinProximity(User user, Location location) {
+		return attractionCatalog.getSnapshot().withinRadius(location, user.getUserPreferences().getAttractionProximity());
+	}
+
+	/**
+	 * Gets the rewards points that the user can get by going to a given attraction,
+	 * the prefetched ones if the user is approaching the attraction
 	 * @param attraction attraction to check
 	 * @param user user to check
 	 * @return Integer value representing the amount of points that the user can be rewarded with
 	 */
 	public CompletableFuture<Integer> getRewardPoints(Attraction attraction, User user) {
+		CompletableFuture<Integer> staged = rewardPrefetcher.peek(user.getUserId(), attraction.attractionId);
+		return staged != null ? staged : fetchRewardPoints(attraction, user);
+	}
+
+	/**
+	 * Fetches the rewards points of an attraction from RewardCentral
+	 * @param attraction attraction to check
+	 * @param user user to check
+	 * @return Integer value representing the amount of points that the user can be rewarded with
+	 */
+	private CompletableFuture<Integer> fetchRewardPoints(Attraction attraction, User user) {
 		return CompletableFuture.supplyAsync(() -> {
             return rewardsCentral.getAttractionRewardPoints(attraction.attractionId, user.getUserId());
         }, executorService);
@@ -151,17 +563,103 @@ public class RewardsService {
 	 * @return distance
 	 */
 	public double getDistance(Location loc1, Location loc2) {
-        double lat1 = Math.toRadians(loc1.latitude);
-        double lon1 = Math.toRadians(loc1.longitude);
-        double lat2 = Math.toRadians(loc2.latitude);
-        double lon2 = Math.toRadians(loc2.longitude);
+		return GeoMath.distance(loc1, loc2);
+	}
 
-        double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
-                               + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
 
-        double nauticalMiles = 60 * Math.toDegrees(angle);
+	/**
+	 * Collects the optional collaborators of a reward service
+	 */
+	public static class Builder {
 
-        return STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
-	}
+		private final AttractionCatalog attractionCatalog;
+
+		private final RewardCentral rewardCentral;
+
+		private TourGuideEventBus eventBus = new TourGuideEventBus();
 
+		private UserLanes userLanes = UserLanes.perCore();
+
+		private RewardLedger rewardLedger = RewardLedger.disabled();
+
+		private RewardPrefetcher rewardPrefetcher = RewardPrefetcher.disabled();
+
+		private ProximitySettings proximitySettings = ProximitySettings.defaults();
+
+		private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		private Builder(AttractionCatalog attractionCatalog, RewardCentral rewardCentral) {
+			this.attractionCatalog = attractionCatalog;
+			this.rewardCentral = rewardCentral;
+		}
+
+		/**
+		 * Sets the event bus on which granted rewards are published
+		 * @param eventBus event bus
+		 * @return this builder
+		 */
+		public Builder eventBus(TourGuideEventBus eventBus) {
+			this.eventBus = eventBus;
+			return this;
+		}
+
+		/**
+		 * Sets the serial lanes through which the users are changed
+		 * @param userLanes user lanes
+		 * @return this builder
+		 */
+		public Builder userLanes(UserLanes userLanes) {
+			this.userLanes = userLanes;
+			return this;
+		}
+
+		/**
+		 * Sets the ledger persisting the granted rewards
+		 * @param rewardLedger reward ledger
+		 * @return this builder
+		 */
+		public Builder rewardLedger(RewardLedger rewardLedger) {
+			this.rewardLedger = rewardLedger;
+			return this;
+		}
+
+		/**
+		 * Sets the prefetcher of the points of the approached attractions
+		 * @param rewardPrefetcher reward prefetcher
+		 * @return this builder
+		 */
+		public Builder rewardPrefetcher(RewardPrefetcher rewardPrefetcher) {
+			this.rewardPrefetcher = rewardPrefetcher;
+			return this;
+		}
+
+		/**
+		 * Sets the initial proximity settings
+		 * @param proximitySettings proximity settings
+		 * @return this builder
+		 */
+		public Builder proximitySettings(ProximitySettings proximitySettings) {
+			this.proximitySettings = proximitySettings;
+			return this;
+		}
+
+		/**
+		 * Sets the registry of the reward meters
+		 * @param meterRegistry meter registry
+		 * @return this builder
+		 */
+		public Builder meterRegistry(MeterRegistry meterRegistry) {
+			this.meterRegistry = meterRegistry;
+			return this;
+		}
+
+		/**
+		 * Builds the reward service
+		 * @return new reward service
+		 */
+		public RewardsService build() {
+			return new RewardsService(attractionCatalog, rewardCentral, eventBus, userLanes, rewardLedger,
+					rewardPrefetcher, proximitySettings, meterRegistry);
+		}
+	}
 }
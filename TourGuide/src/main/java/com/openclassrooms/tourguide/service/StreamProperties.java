@@ -0,0 +1,23 @@
+package com.openclassrooms.tourguide.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the streams pushed to the HTTP clients, bound from the tourguide.streams properties
+ */
+@ConfigurationProperties(prefix = "tourguide.streams")
+public class StreamProperties {
+
+	/**
+	 * Maximum number of streams open at once, each holding a thread; further streams are refused
+	 */
+	private int maxStreams = 256;
+
+	public int getMaxStreams() {
+		return maxStreams;
+	}
+
+	public void setMaxStreams(int maxStreams) {
+		this.maxStreams = maxStreams;
+	}
+}
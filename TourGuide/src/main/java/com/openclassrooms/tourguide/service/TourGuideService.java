@@ -1,22 +1,49 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.event.EventType;
+import com.openclassrooms.tourguide.event.TourGuideEvent;
+import com.openclassrooms.tourguide.event.TourGuideEventBus;
+import com.openclassrooms.tourguide.geo.NearbyUser;
+import com.openclassrooms.tourguide.geo.UserPositionIndex;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.ledger.RewardLedger;
+import com.openclassrooms.tourguide.partition.ClusterMembership;
+import com.openclassrooms.tourguide.profiling.UserTrackingEvent;
+import com.openclassrooms.tourguide.resilience.CallPriority;
+import com.openclassrooms.tourguide.resilience.GpsAdmissionControl;
+import com.openclassrooms.tourguide.resilience.UpstreamUnavailableException;
+import com.openclassrooms.tourguide.startup.Warmup;
+import com.openclassrooms.tourguide.tracker.DwellRecord;
+import com.openclassrooms.tourguide.tracker.MovementFilter;
+import com.openclassrooms.tourguide.tracker.MovementProperties;
 import com.openclassrooms.tourguide.tracker.Tracker;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import gpsUtil.GpsUtil;
@@ -37,6 +64,11 @@ public class TourGuideService {
 	 */
 	private static final int CLOSEST_ATTRACTIONS_COUNT = 5;
 
+	/**
+	 * Size of the cells of the user position index, in degrees
+	 */
+	private static final double USER_INDEX_CELL_SIZE = 0.5;
+
 	/**
 	 * Logger for current class
 	 */
@@ -52,20 +84,50 @@ public class TourGuideService {
 	 */
 	private final RewardsService rewardsService;
 
+	/**
+	 * Event bus on which tracked locations are published
+	 */
+	private final TourGuideEventBus eventBus;
+
 	/**
 	 * Thread pool used for asynchronous operations
 	 */
 	private final ExecutorService executorService = Executors.newFixedThreadPool(64);
 
+	/**
+	 * Thread pool used to track users for HTTP requests, so they never queue behind a tracker sweep
+	 */
+	private final ExecutorService interactiveExecutorService = Executors.newFixedThreadPool(64);
+
+	/**
+	 * Rate limit and admission control of the GpsUtil calls
+	 */
+	private final GpsAdmissionControl gpsAdmissionControl;
+
 	/**
 	 * TripPricer library
 	 */
-	private final TripPricer tripPricer = new TripPricer();
+	private final TripPricer tripPricer;
+
+	/**
+	 * Membership deciding which users are tracked by this instance
+	 */
+	private final ClusterMembership clusterMembership;
+
+	/**
+	 * Progress of the warm-up
+	 */
+	private final Warmup warmup;
 
 	/**
-	 * List of attractions
+	 * Spatial index of the latest position of the users
 	 */
-	private final List<Attraction> attractions;
+	private final UserPositionIndex userPositionIndex = new UserPositionIndex(USER_INDEX_CELL_SIZE);
+
+	/**
+	 * Filter merging the fixes of stationary users
+	 */
+	private final MovementFilter movementFilter;
 
 	/**
 	 * Object used to track user positions and rewards
@@ -83,23 +145,128 @@ public class TourGuideService {
 	 * @param rewardsService rewards library
 	 */
 	public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService) {
+		this(gpsUtil, rewardsService, new TourGuideEventBus(), new TripPricer(), GpsAdmissionControl.unlimited(),
+				ClusterMembership.standalone(), Warmup.synchronous(), new MovementFilter(new MovementProperties()),
+				new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for tour guide service
+	 * @param gpsUtil gps library
+	 * @param rewardsService rewards library
+	 * @param eventBus event bus on which tracked locations are published
+	 * @param tripPricer trip pricer library
+	 * @param gpsAdmissionControl rate limit and admission control of the GpsUtil calls
+	 * @param clusterMembership membership deciding which users are tracked by this instance
+	 * @param warmup progress of the warm-up, which happens in the background in fast-start mode
+	 * @param movementFilter filter merging the fixes of stationary users
+	 * @param meterRegistry registry of the tour guide meters
+	 */
+	@Autowired
+	public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService, TourGuideEventBus eventBus,
+			TripPricer tripPricer, GpsAdmissionControl gpsAdmissionControl, ClusterMembership clusterMembership,
+			Warmup warmup, MovementFilter movementFilter, MeterRegistry meterRegistry) {
 		this.gpsUtil = gpsUtil;
 		this.rewardsService = rewardsService;
-
-		this.attractions = this.gpsUtil.getAttractions();
+		this.eventBus = eventBus;
+		this.tripPricer = tripPricer;
+		this.clusterMembership = clusterMembership;
+		this.gpsAdmissionControl = gpsAdmissionControl;
 
 		Locale.setDefault(Locale.US);
 
-		if (testMode) {
-			logger.info("TestMode enabled");
-			logger.debug("Initializing users");
-			initializeInternalUsers();
-			logger.debug("Finished initializing users");
+		this.warmup = warmup;
+		this.movementFilter = movementFilter;
+
+		if (warmup.isFastStart()) {
+			logger.info("Fast start enabled, loading in the background");
+			CompletableFuture.allOf(
+					CompletableFuture.runAsync(this::loadAttractionCatalog, executorService),
+					CompletableFuture.runAsync(() -> {
+						if (testMode) {
+							initializeInternalUsers(true);
+						}
+					}, executorService))
+					.thenRun(this::restoreRewards)
+					.whenComplete(warmup::finish);
+		} else {
+			if (testMode) {
+				logger.info("TestMode enabled");
+				logger.debug("Initializing users");
+				initializeInternalUsers(false);
+				logger.debug("Finished initializing users");
+			}
+			restoreRewards();
+			warmup.finish(null, null);
 		}
-		tracker = new Tracker(this);
+		new ExecutorServiceMetrics(executorService, "tourGuide", Tags.empty()).bindTo(meterRegistry);
+		new ExecutorServiceMetrics(interactiveExecutorService, "tourGuideInteractive", Tags.empty()).bindTo(meterRegistry);
+		Gauge.builder("tourguide.users", internalUserMap, Map::size)
+				.description("Number of known users")
+				.register(meterRegistry);
+
+		tracker = new Tracker(this, warmup.getCompletion(), meterRegistry);
 		addShutDownHook();
 	}
 
+	/**
+	 * Creates a builder of tour guide service, defaulting to a private event bus, a real trip pricer,
+	 * no admission control, a standalone member, a synchronous warm-up, the default movement filter
+	 * and a private meter registry
+	 * @param gpsUtil gps library
+	 * @param rewardsService rewards library
+	 * @return builder
+	 */
+	public static Builder builder(GpsUtil gpsUtil, RewardsService rewardsService) {
+		return new Builder(gpsUtil, rewardsService);
+	}
+
+	/**
+	 * Loads the attraction catalogue if it was deferred, retrying until GpsUtil answers
+	 */
+	private void loadAttractionCatalog() {
+		AttractionCatalog attractionCatalog = rewardsService.getAttractionCatalog();
+		while (!attractionCatalog.isLoaded()) {
+			try {
+				attractionCatalog.refresh();
+			} catch (RuntimeException e) {
+				logger.warn("Attraction catalogue not loaded, retrying: " + e.getMessage());
+				try {
+					TimeUnit.SECONDS.sleep(1);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while loading the attraction catalogue", interrupted);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the rewards of the known users from the reward ledger
+	 */
+	private void restoreRewards() {
+		RewardLedger rewardLedger = rewardsService.getRewardLedger();
+		if (!rewardLedger.isEnabled()) {
+			return;
+		}
+		Map<UUID, User> usersById = new HashMap<>();
+		internalUserMap.values().forEach(user -> usersById.put(user.getUserId(), user));
+		Map<UUID, Attraction> attractionsByKey = new HashMap<>();
+		rewardsService.getAttractionCatalog().getSnapshot().getAttractions()
+				.forEach(attraction -> attractionsByKey.put(RewardLedger.attractionKey(attraction), attraction));
+
+		// rewards of unknown users or of removed attractions are skipped, and duplicates are ignored by the users
+		AtomicLong restored = new AtomicLong();
+		long read = rewardLedger.replay(entry -> {
+			User user = usersById.get(entry.getUserId());
+			Attraction attraction = attractionsByKey.get(entry.getAttractionKey());
+			if (user != null && attraction != null && user.addUserReward(entry.toUserReward(attraction))) {
+				restored.incrementAndGet();
+			}
+		});
+		logger.info("Restored " + restored.get() + " rewards from " + read + " ledger records");
+	}
+
 	/**
 	 * Gets all the user rewards for a user
 	 * @param user user to check
@@ -110,12 +277,13 @@ public class TourGuideService {
 	}
 
 	/**
-	 * Get the user's location
+	 * Get the user's location. A user tracked by another cluster member is located on demand, since the tracker
+	 * of this instance does not keep its copy of the user up to date
 	 * @param user user to check
 	 * @return user location
 	 */
 	public CompletableFuture<VisitedLocation> getUserLocation(User user) {
-        if (!user.getVisitedLocations().isEmpty())
+        if (!user.getLocationHistory().isEmpty() && clusterMembership.isLocal(user.getUserId()))
 		{
 			return CompletableFuture.supplyAsync(user::getLastVisitedLocation, executorService);
 		}
@@ -125,6 +293,37 @@ public class TourGuideService {
 		}
 	}
 
+	/**
+	 * Gets the locations of the user within a time range
+	 * @param user user to check
+	 * @param from start of the range, inclusive
+	 * @param to end of the range, inclusive
+	 * @param maxPoints maximum number of locations, the range being down-sampled beyond
+	 * @return locations in time order
+	 */
+	public List<VisitedLocation> getLocationHistory(User user, Date from, Date to, int maxPoints) {
+		return user.getLocationHistory().between(from, to, maxPoints);
+	}
+
+	/**
+	 * Gets where the user was at a given time
+	 * @param user user to check
+	 * @param time time to look up
+	 * @return latest location visited at or before the time, or null if none
+	 */
+	public VisitedLocation getLocationAt(User user, Date time) {
+		return user.getLocationHistory().at(time);
+	}
+
+	/**
+	 * Gets the time the user spent around each attraction
+	 * @param user user to check
+	 * @return dwell time in milliseconds by attraction name
+	 */
+	public Map<String, Long> getDwellTimes(User user) {
+		return rewardsService.getDwellTimes(user);
+	}
+
 	/**
 	 * Get a user from its username
 	 * @param userName username to check
@@ -142,6 +341,34 @@ public class TourGuideService {
 		return internalUserMap.values().stream().collect(Collectors.toList());
 	}
 
+	/**
+	 * Indicates if the tracker must poll a user during the current cycle, stationary users being polled less often
+	 * @param user user to check
+	 * @return true if the user must be polled
+	 */
+	public boolean isDueForTracking(User user) {
+		return movementFilter.isDue(user.getUserId());
+	}
+
+	/**
+	 * Get the current stay of a user who did not move since its last recorded location
+	 * @param user user to check
+	 * @return dwell record, or null if the user is moving
+	 */
+	public DwellRecord getDwellRecord(User user) {
+		return movementFilter.getDwellRecord(user.getUserId());
+	}
+
+	/**
+	 * Get the users tracked by this instance, the other users being tracked by the other cluster members
+	 * @return local users
+	 */
+	public List<User> getLocalUsers() {
+		return internalUserMap.values().stream()
+				.filter(user -> clusterMembership.isLocal(user.getUserId()))
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * Adds a user to the internal user map
 	 * @param user user to add
@@ -160,45 +387,149 @@ public class TourGuideService {
 	 */
 	public List<Provider> getTripDeals(User user) {
 		// Get the current sum of rewards
-		int cumulatativeRewardPoints = user.getUserRewards().stream().mapToInt(i -> i.getRewardPoints()).sum();
-
-		// Get list of deals for the user
-		List<Provider> providers = tripPricer.getPrice(tripPricerApiKey, user.getUserId(),
-				user.getUserPreferences().getNumberOfAdults(), user.getUserPreferences().getNumberOfChildren(),
-				user.getUserPreferences().getTripDuration(), cumulatativeRewardPoints);
+		int cumulatativeRewardPoints = user.getTotalRewardPoints();
+
+		// Get list of deals for the user, keeping the previous deals if the pricer is unavailable
+		List<Provider> providers;
+		try {
+			providers = tripPricer.getPrice(tripPricerApiKey, user.getUserId(),
+					user.getUserPreferences().getNumberOfAdults(), user.getUserPreferences().getNumberOfChildren(),
+					user.getUserPreferences().getTripDuration(), cumulatativeRewardPoints);
+		} catch (UpstreamUnavailableException e) {
+			logger.debug("Trip pricer unavailable, returning previous deals of " + user.getUserName());
+			return user.getTripDeals();
+		}
 
-		user.setTripDeals(providers);
+		rewardsService.getUserLanes().execute(user.getUserId(), () -> user.setTripDeals(providers)).join();
 		return providers;
 	}
 
 	/**
-	 * Gets the user's position
+	 * Gets the user's position for an interactive request
 	 * @param user user to check
 	 * @return Async value for the user's position
 	 */
 	public CompletableFuture<VisitedLocation> trackUserLocation(User user) {
+		return trackUserLocation(user, CallPriority.INTERACTIVE);
+	}
+
+	/**
+	 * Gets the user's position
+	 * @param user user to check
+	 * @param priority priority of the GpsUtil call, background calls may be shed when GpsUtil is overloaded
+	 * @return Async value for the user's position, the last known one if the call was shed or failed
+	 */
+	public CompletableFuture<VisitedLocation> trackUserLocation(User user, CallPriority priority) {
+		ExecutorService executor = priority == CallPriority.INTERACTIVE ? interactiveExecutorService : executorService;
 		return CompletableFuture.supplyAsync(() -> {
-			VisitedLocation visitedLocation = gpsUtil.getUserLocation(user.getUserId());
-			user.addToVisitedLocations(visitedLocation);
-            try {
-                rewardsService.calculateRewards(user).get();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            } catch (ExecutionException e) {
-                throw new RuntimeException(e);
-            }
-            return visitedLocation;
-		}, executorService);
+			UserTrackingEvent event = new UserTrackingEvent();
+			event.begin();
+			try {
+				return locateUser(user, priority, event);
+			} finally {
+				event.end();
+				if (event.shouldCommit()) {
+					event.userId = user.getUserId().toString();
+					event.priority = priority.name();
+					event.commit();
+				}
+			}
+		}, executor);
+	}
+
+	/**
+	 * Locates the user, then records its location and grants the rewards it earns
+	 * @param user user to locate
+	 * @param priority priority of the GpsUtil call
+	 * @param event flight recorder event of the tracking, given its outcome
+	 * @return the user's position, the last known one if the call was shed or failed
+	 */
+	private VisitedLocation locateUser(User user, CallPriority priority, UserTrackingEvent event) {
+		// Shed background work is retried on the next tracker cycle
+		if (!gpsAdmissionControl.admit(priority)) {
+			event.outcome = UserTrackingEvent.SHED;
+			return user.getLastVisitedLocation();
+		}
+
+		VisitedLocation visitedLocation;
+		long start = System.nanoTime();
+		try {
+			visitedLocation = gpsUtil.getUserLocation(user.getUserId());
+		} catch (UpstreamUnavailableException e) {
+			// Without a new position there is nothing new to reward, the last known location is reused
+			if (user.getLocationHistory().isEmpty()) {
+				throw e;
+			}
+			logger.debug("GPS unavailable, reusing last known location of " + user.getUserName());
+			event.outcome = UserTrackingEvent.FALLBACK;
+			return user.getLastVisitedLocation();
+		} finally {
+			gpsAdmissionControl.recordLatency(System.nanoTime() - start);
+		}
+		// The user is changed on its lane, never at the same time by the tracker, a request or a reward grant
+		CompletableFuture<Void> rewards = rewardsService.getUserLanes()
+				.submit(user.getUserId(), () -> recordLocation(user, visitedLocation, event))
+				.join();
+		try {
+			rewards.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+		return visitedLocation;
+	}
+
+	/**
+	 * Records a new location of the user and evaluates the rewards it earns, to be run on the lane of the user
+	 * @param user user who was located
+	 * @param visitedLocation new location of the user
+	 * @param event flight recorder event of the tracking, given its outcome
+	 * @return future completed once the earned rewards are granted
+	 */
+	private CompletableFuture<Void> recordLocation(User user, VisitedLocation visitedLocation, UserTrackingEvent event) {
+		// A stationary user has nothing new to record nor to reward, unless a reward it earned was deferred
+		if (!movementFilter.onFix(user, visitedLocation)) {
+			event.outcome = UserTrackingEvent.STATIONARY;
+			if (rewardsService.hasDeferredRewards(user)) {
+				return rewardsService.trackRewards(user, user.getLastVisitedLocation());
+			}
+			return CompletableFuture.completedFuture(null);
+		}
+		event.outcome = UserTrackingEvent.RECORDED;
+		user.addToVisitedLocations(visitedLocation);
+		userPositionIndex.update(user, visitedLocation);
+		eventBus.publish(new TourGuideEvent(EventType.LOCATION, user.getUserId(), visitedLocation));
+		return rewardsService.trackRewards(user, visitedLocation);
 	}
 
 	/**
      * Returns the five closest attractions from the given location
      */
 	public List<Attraction> getNearByAttractions(VisitedLocation visitedLocation) {
-		return gpsUtil.getAttractions().stream()
-				.sorted(Comparator.comparingDouble(a -> rewardsService.getDistance(a, visitedLocation.location)))
-				.limit(CLOSEST_ATTRACTIONS_COUNT)
-				.toList();
+		return rewardsService.getAttractionCatalog().getSnapshot()
+				.nearest(visitedLocation.location, CLOSEST_ATTRACTIONS_COUNT);
+	}
+
+	/**
+	 * Returns the users whose latest position is within a radius of a location
+	 * @param location center of the search
+	 * @param radiusMiles radius of the search, in statute miles
+	 * @param limit maximum number of users
+	 * @return users with their distance, closest first
+	 */
+	public List<NearbyUser> getUsersNear(Location location, double radiusMiles, int limit) {
+		return userPositionIndex.withinRadius(location, radiusMiles, limit);
+	}
+
+	/**
+	 * Returns the attractions within the proximity preferred by the user
+	 * @param user user whose preference applies
+	 * @param visitedLocation location to search from
+	 * @return attractions with their distance, closest first
+	 */
+	public List<AttractionDistance> getAttractionsWithinProximity(User user, VisitedLocation visitedLocation) {
+		return rewardsService.getAttractionsWithinProximity(user, visitedLocation.location);
 	}
 
 	/**
@@ -227,20 +558,26 @@ public class TourGuideService {
 	 * Database connection will be used for external users, but for testing purposes
 	 * internal users are provided and stored in memory
 	 */
-	private final Map<String, User> internalUserMap = new HashMap<>();
+	private final Map<String, User> internalUserMap = new ConcurrentHashMap<>();
 
 	/**
 	 * Initializes the internal users
+	 * @param parallel true to generate the users on several threads
 	 */
-	private void initializeInternalUsers() {
-		IntStream.range(0, InternalTestHelper.getInternalUserNumber()).forEach(i -> {
+	private void initializeInternalUsers(boolean parallel) {
+		warmup.startUsers(InternalTestHelper.getInternalUserNumber());
+		IntStream userIndexes = IntStream.range(0, InternalTestHelper.getInternalUserNumber());
+		(parallel ? userIndexes.parallel() : userIndexes).forEach(i -> {
 			String userName = "internalUser" + i;
 			String phone = "000";
 			String email = userName + "@tourGuide.com";
-			User user = new User(UUID.randomUUID(), userName, phone, email);
+			// Derived from the name so that every instance of a cluster shares the same users
+			User user = new User(UUID.nameUUIDFromBytes(userName.getBytes(StandardCharsets.UTF_8)), userName, phone, email);
 			generateUserLocationHistory(user);
 
 			internalUserMap.put(userName, user);
+			userPositionIndex.update(user, user.getLastVisitedLocation());
+			warmup.userLoaded();
 		});
 		logger.debug("Created " + InternalTestHelper.getInternalUserNumber() + " internal test users.");
 	}
@@ -284,4 +621,112 @@ public class TourGuideService {
 		LocalDateTime localDateTime = LocalDateTime.now().minusDays(new Random().nextInt(30));
 		return Date.from(localDateTime.toInstant(ZoneOffset.UTC));
 	}
+
+	/**
+	 * Collects the optional collaborators of a tour guide service
+	 */
+	public static class Builder {
+
+		private final GpsUtil gpsUtil;
+
+		private final RewardsService rewardsService;
+
+		private TourGuideEventBus eventBus = new TourGuideEventBus();
+
+		private TripPricer tripPricer = new TripPricer();
+
+		private GpsAdmissionControl gpsAdmissionControl = GpsAdmissionControl.unlimited();
+
+		private ClusterMembership clusterMembership = ClusterMembership.standalone();
+
+		private Warmup warmup = Warmup.synchronous();
+
+		private MovementFilter movementFilter = new MovementFilter(new MovementProperties());
+
+		private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		private Builder(GpsUtil gpsUtil, RewardsService rewardsService) {
+			this.gpsUtil = gpsUtil;
+			this.rewardsService = rewardsService;
+		}
+
+		/**
+		 * Sets the event bus on which tracked locations are published
+		 * @param eventBus event bus
+		 * @return this builder
+		 */
+		public Builder eventBus(TourGuideEventBus eventBus) {
+			this.eventBus = eventBus;
+			return this;
+		}
+
+		/**
+		 * Sets the trip pricer library
+		 * @param tripPricer trip pricer
+		 * @return this builder
+		 */
+		public Builder tripPricer(TripPricer tripPricer) {
+			this.tripPricer = tripPricer;
+			return this;
+		}
+
+		/**
+		 * Sets the rate limit and admission control of the GpsUtil calls
+		 * @param gpsAdmissionControl admission control
+		 * @return this builder
+		 */
+		public Builder gpsAdmissionControl(GpsAdmissionControl gpsAdmissionControl) {
+			this.gpsAdmissionControl = gpsAdmissionControl;
+			return this;
+		}
+
+		/**
+		 * Sets the membership deciding which users are tracked by this instance
+		 * @param clusterMembership cluster membership
+		 * @return this builder
+		 */
+		public Builder clusterMembership(ClusterMembership clusterMembership) {
+			this.clusterMembership = clusterMembership;
+			return this;
+		}
+
+		/**
+		 * Sets the progress of the warm-up
+		 * @param warmup warm-up
+		 * @return this builder
+		 */
+		public Builder warmup(Warmup warmup) {
+			this.warmup = warmup;
+			return this;
+		}
+
+		/**
+		 * Sets the filter merging the fixes of stationary users
+		 * @param movementFilter movement filter
+		 * @return this builder
+		 */
+		public Builder movementFilter(MovementFilter movementFilter) {
+			this.movementFilter = movementFilter;
+			return this;
+		}
+
+		/**
+		 * Sets the registry of the tour guide meters
+		 * @param meterRegistry meter registry
+		 * @return this builder
+		 */
+		public Builder meterRegistry(MeterRegistry meterRegistry) {
+			this.meterRegistry = meterRegistry;
+			return this;
+		}
+
+		/**
+		 * Builds the tour guide service, which starts its tracker
+		 * @return new tour guide service
+		 */
+		public TourGuideService build() {
+			return new TourGuideService(gpsUtil, rewardsService, eventBus, tripPricer, gpsAdmissionControl,
+					clusterMembership, warmup, movementFilter, meterRegistry);
+		}
+	}
 }
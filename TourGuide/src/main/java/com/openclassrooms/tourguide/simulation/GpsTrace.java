@@ -0,0 +1,352 @@
+package com.openclassrooms.tourguide.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import gpsUtil.location.Location;
+
+/**
+ * Time ordered GPS fixes of a set of users, replayed by the simulations.
+ * Coordinates are kept in micro degrees, about 11 cm, and times in milliseconds.
+ * The file format stores for each user its id, its first fix and then the differences between consecutive fixes
+ * as zig-zag variable length integers, which takes 4 to 6 bytes per fix for moving users.
+ */
+public class GpsTrace {
+
+	/**
+	 * First bytes of a trace file, "TGTR"
+	 */
+	private static final int MAGIC = 0x54475452;
+
+	/**
+	 * Version of the file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Micro degrees per degree
+	 */
+	private static final double MICRO_DEGREES = 1_000_000d;
+
+	/**
+	 * Fixes of each user, in the order the users were added
+	 */
+	private final List<UserTrack> tracks;
+
+	/**
+	 * Index of each user in the tracks
+	 */
+	private final Map<UUID, Integer> indexes = new HashMap<>();
+
+	/**
+	 * Time of the first fix, in epoch milliseconds
+	 */
+	private final long start;
+
+	/**
+	 * Time of the last fix, in epoch milliseconds
+	 */
+	private final long end;
+
+	/**
+	 * Constructor for a trace
+	 * @param tracks fixes of each user
+	 */
+	private GpsTrace(List<UserTrack> tracks) {
+		this.tracks = Collections.unmodifiableList(tracks);
+		long first = Long.MAX_VALUE;
+		long last = Long.MIN_VALUE;
+		for (UserTrack track : tracks) {
+			indexes.put(track.userId, indexes.size());
+			first = Math.min(first, track.times[0]);
+			last = Math.max(last, track.times[track.times.length - 1]);
+		}
+		this.start = tracks.isEmpty() ? 0 : first;
+		this.end = tracks.isEmpty() ? 0 : last;
+	}
+
+	/**
+	 * Creates a builder of trace
+	 * @return empty builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Get the ids of the users of the trace
+	 * @return user ids, in the order they were added
+	 */
+	public List<UUID> getUserIds() {
+		return tracks.stream().map(track -> track.userId).toList();
+	}
+
+	/**
+	 * Finds the index of a user
+	 * @param userId id of the user
+	 * @return index of the user, -1 if the user is not in the trace
+	 */
+	public int indexOf(UUID userId) {
+		return indexes.getOrDefault(userId, -1);
+	}
+
+	/**
+	 * Get the time of the first fix
+	 * @return epoch milliseconds
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * Get the time of the last fix
+	 * @return epoch milliseconds
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Get the number of fixes of every user
+	 * @return fix count
+	 */
+	public long getFixCount() {
+		long count = 0;
+		for (UserTrack track : tracks) {
+			count += track.times.length;
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the position of a user at a time, interpolated between the surrounding fixes.
+	 * Before its first fix a user is at its first position, after its last one at its last position.
+	 * @param userIndex index of the user, in the order of {@link #getUserIds()}
+	 * @param time epoch milliseconds
+	 * @return position of the user
+	 */
+	public Location positionAt(int userIndex, long time) {
+		UserTrack track = tracks.get(userIndex);
+		int index = Arrays.binarySearch(track.times, time);
+		if (index >= 0) {
+			return track.location(index);
+		}
+		int next = -index - 1;
+		if (next == 0) {
+			return track.location(0);
+		}
+		if (next == track.times.length) {
+			return track.location(next - 1);
+		}
+		int previous = next - 1;
+		double ratio = (double) (time - track.times[previous]) / (track.times[next] - track.times[previous]);
+		double latitude = track.latitudes[previous] + (track.latitudes[next] - track.latitudes[previous]) * ratio;
+		double longitude = track.longitudes[previous] + (track.longitudes[next] - track.longitudes[previous]) * ratio;
+		return new Location(latitude / MICRO_DEGREES, longitude / MICRO_DEGREES);
+	}
+
+	/**
+	 * Writes the trace to a file
+	 * @param file file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(Path file) throws IOException {
+		try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file))) {
+			write(output);
+		}
+	}
+
+	/**
+	 * Writes the trace to a stream
+	 * @param stream stream to write to, left open
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void write(OutputStream stream) throws IOException {
+		DataOutputStream output = new DataOutputStream(stream);
+		output.writeInt(MAGIC);
+		output.writeByte(VERSION);
+		writeVarLong(output, tracks.size());
+		for (UserTrack track : tracks) {
+			output.writeLong(track.userId.getMostSignificantBits());
+			output.writeLong(track.userId.getLeastSignificantBits());
+			writeVarLong(output, track.times.length);
+			output.writeLong(track.times[0]);
+			output.writeInt(track.latitudes[0]);
+			output.writeInt(track.longitudes[0]);
+			for (int i = 1; i < track.times.length; i++) {
+				writeVarLong(output, track.times[i] - track.times[i - 1]);
+				writeVarLong(output, zigZag(track.latitudes[i] - track.latitudes[i - 1]));
+				writeVarLong(output, zigZag(track.longitudes[i] - track.longitudes[i - 1]));
+			}
+		}
+		output.flush();
+	}
+
+	/**
+	 * Reads a trace from a file
+	 * @param file file to read
+	 * @return read trace
+	 * @throws IOException if the file cannot be read or is not a trace
+	 */
+	public static GpsTrace read(Path file) throws IOException {
+		try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+			return read(input);
+		}
+	}
+
+	/**
+	 * Reads a trace from a stream
+	 * @param stream stream to read from, left open
+	 * @return read trace
+	 * @throws IOException if the stream cannot be read or is not a trace
+	 */
+	public static GpsTrace read(InputStream stream) throws IOException {
+		DataInputStream input = new DataInputStream(stream);
+		if (input.readInt() != MAGIC) {
+			throw new IOException("Not a GPS trace");
+		}
+		int version = input.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported GPS trace version " + version);
+		}
+
+		int userCount = (int) readVarLong(input);
+		List<UserTrack> tracks = new ArrayList<>(userCount);
+		for (int u = 0; u < userCount; u++) {
+			UUID userId = new UUID(input.readLong(), input.readLong());
+			int count = (int) readVarLong(input);
+			long[] times = new long[count];
+			int[] latitudes = new int[count];
+			int[] longitudes = new int[count];
+			times[0] = input.readLong();
+			latitudes[0] = input.readInt();
+			longitudes[0] = input.readInt();
+			for (int i = 1; i < count; i++) {
+				times[i] = times[i - 1] + readVarLong(input);
+				latitudes[i] = latitudes[i - 1] + (int) unZigZag(readVarLong(input));
+				longitudes[i] = longitudes[i - 1] + (int) unZigZag(readVarLong(input));
+			}
+			tracks.add(new UserTrack(userId, times, latitudes, longitudes));
+		}
+		return new GpsTrace(tracks);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInputStream input) throws IOException {
+		long value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Fixes of a user, as parallel arrays sorted by time
+	 */
+	private static class UserTrack {
+
+		private final UUID userId;
+		private final long[] times;
+		private final int[] latitudes;
+		private final int[] longitudes;
+
+		private UserTrack(UUID userId, long[] times, int[] latitudes, int[] longitudes) {
+			this.userId = userId;
+			this.times = times;
+			this.latitudes = latitudes;
+			this.longitudes = longitudes;
+		}
+
+		private Location location(int index) {
+			return new Location(latitudes[index] / MICRO_DEGREES, longitudes[index] / MICRO_DEGREES);
+		}
+	}
+
+	/**
+	 * Collects the fixes of a trace, in any order
+	 */
+	public static class Builder {
+
+		private final Map<UUID, List<long[]>> fixes = new LinkedHashMap<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Adds a fix
+		 * @param userId id of the located user
+		 * @param time time of the fix, in epoch milliseconds
+		 * @param location position of the user
+		 * @return this builder
+		 */
+		public synchronized Builder add(UUID userId, long time, Location location) {
+			long latitude = Math.round(location.latitude * MICRO_DEGREES);
+			long longitude = Math.round(location.longitude * MICRO_DEGREES);
+			fixes.computeIfAbsent(userId, id -> new ArrayList<>()).add(new long[] {time, latitude, longitude});
+			return this;
+		}
+
+		/**
+		 * Builds the trace, keeping the last of the fixes of a user at the same time
+		 * @return new trace
+		 */
+		public synchronized GpsTrace build() {
+			List<UserTrack> tracks = new ArrayList<>(fixes.size());
+			fixes.forEach((userId, userFixes) -> {
+				userFixes.sort((a, b) -> Long.compare(a[0], b[0]));
+				List<long[]> distinct = new ArrayList<>(userFixes.size());
+				for (long[] fix : userFixes) {
+					if (!distinct.isEmpty() && distinct.get(distinct.size() - 1)[0] == fix[0]) {
+						distinct.set(distinct.size() - 1, fix);
+					} else {
+						distinct.add(fix);
+					}
+				}
+				long[] times = new long[distinct.size()];
+				int[] latitudes = new int[distinct.size()];
+				int[] longitudes = new int[distinct.size()];
+				for (int i = 0; i < distinct.size(); i++) {
+					times[i] = distinct.get(i)[0];
+					latitudes[i] = (int) distinct.get(i)[1];
+					longitudes[i] = (int) distinct.get(i)[2];
+				}
+				tracks.add(new UserTrack(userId, times, latitudes, longitudes));
+			});
+			return new GpsTrace(tracks);
+		}
+	}
+}
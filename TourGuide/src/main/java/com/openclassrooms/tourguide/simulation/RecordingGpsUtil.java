@@ -0,0 +1,52 @@
+package com.openclassrooms.tourguide.simulation;
+
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * GpsUtil decorator recording every located user into a trace, to replay real movements later
+ */
+public class RecordingGpsUtil extends GpsUtil {
+
+	/**
+	 * Decorated library
+	 */
+	private final GpsUtil delegate;
+
+	/**
+	 * Fixes recorded so far
+	 */
+	private final GpsTrace.Builder trace = GpsTrace.builder();
+
+	/**
+	 * Constructor for the recording library
+	 * @param delegate decorated library
+	 */
+	public RecordingGpsUtil(GpsUtil delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		VisitedLocation visitedLocation = delegate.getUserLocation(userId);
+		trace.add(userId, visitedLocation.timeVisited.getTime(), visitedLocation.location);
+		return visitedLocation;
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		return delegate.getAttractions();
+	}
+
+	/**
+	 * Builds the trace of the fixes recorded so far
+	 * @return recorded trace
+	 */
+	public GpsTrace getTrace() {
+		return trace.build();
+	}
+}
@@ -0,0 +1,58 @@
+package com.openclassrooms.tourguide.simulation;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * GpsUtil stand-in locating the users where a trace puts them at the time of a simulation clock.
+ * It answers immediately, so a replay measures the tour guide and not the GPS library.
+ */
+public class ReplayGpsUtil extends GpsUtil {
+
+	/**
+	 * Replayed trace
+	 */
+	private final GpsTrace trace;
+
+	/**
+	 * Clock of the simulation
+	 */
+	private final SimulationClock clock;
+
+	/**
+	 * Attractions, with the same ids on every call
+	 */
+	private final List<Attraction> attractions;
+
+	/**
+	 * Constructor for the replaying library
+	 * @param trace replayed trace
+	 * @param clock clock of the simulation
+	 * @param attractions attractions returned by every call
+	 */
+	public ReplayGpsUtil(GpsTrace trace, SimulationClock clock, List<Attraction> attractions) {
+		this.trace = trace;
+		this.clock = clock;
+		this.attractions = List.copyOf(attractions);
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		int index = trace.indexOf(userId);
+		if (index < 0) {
+			throw new IllegalArgumentException("User " + userId + " is not in the trace");
+		}
+		long now = clock.millis();
+		return new VisitedLocation(userId, trace.positionAt(index, now), new Date(now));
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+}
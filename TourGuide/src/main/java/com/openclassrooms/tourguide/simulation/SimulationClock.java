@@ -0,0 +1,94 @@
+package com.openclassrooms.tourguide.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock of a simulation, running a given number of times faster than the real time from a simulated start.
+ * The clock stays at the simulated start until it is started.
+ */
+public class SimulationClock extends Clock {
+
+	/**
+	 * Simulated time at which the clock was started, in epoch milliseconds
+	 */
+	private final long simulatedStart;
+
+	/**
+	 * Real time at which the clock was started, in nanoseconds
+	 */
+	private volatile long realStart;
+
+	/**
+	 * True once the clock is started
+	 */
+	private volatile boolean started;
+
+	/**
+	 * Number of simulated milliseconds per real millisecond
+	 */
+	private final double speed;
+
+	/**
+	 * Constructor for a stopped clock
+	 * @param simulatedStart simulated time of the start, in epoch milliseconds
+	 * @param speed number of simulated milliseconds per real millisecond
+	 */
+	public SimulationClock(long simulatedStart, double speed) {
+		this.simulatedStart = simulatedStart;
+		this.speed = speed;
+	}
+
+	/**
+	 * Starts the clock from its simulated start
+	 */
+	public void start() {
+		realStart = System.nanoTime();
+		started = true;
+	}
+
+	/**
+	 * Get the speed of the clock
+	 * @return simulated milliseconds per real millisecond
+	 */
+	public double getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Converts a simulated duration to a real one
+	 * @param simulatedMillis simulated duration, in milliseconds
+	 * @return real duration, in nanoseconds
+	 */
+	public long toRealNanos(long simulatedMillis) {
+		return (long) (simulatedMillis * 1_000_000d / speed);
+	}
+
+	@Override
+	public long millis() {
+		if (!started) {
+			return simulatedStart;
+		}
+		return simulatedStart + (long) ((System.nanoTime() - realStart) * speed / 1_000_000d);
+	}
+
+	@Override
+	public Instant instant() {
+		return Instant.ofEpochMilli(millis());
+	}
+
+	@Override
+	public ZoneId getZone() {
+		return ZoneOffset.UTC;
+	}
+
+	@Override
+	public Clock withZone(ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) {
+			return this;
+		}
+		throw new UnsupportedOperationException("A simulation clock is in UTC");
+	}
+}
@@ -0,0 +1,209 @@
+package com.openclassrooms.tourguide.simulation;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a trace replay
+ */
+public class SimulationReport {
+
+	/**
+	 * Number of replayed users
+	 */
+	private final int users;
+
+	/**
+	 * Number of fixes in the trace
+	 */
+	private final long fixes;
+
+	/**
+	 * Simulated duration of the replay
+	 */
+	private final Duration simulatedDuration;
+
+	/**
+	 * Real duration of the replay
+	 */
+	private final Duration wallDuration;
+
+	/**
+	 * Number of simulated milliseconds per real millisecond
+	 */
+	private final double speed;
+
+	/**
+	 * Number of tracking cycles
+	 */
+	private final int cycles;
+
+	/**
+	 * Number of tracked locations
+	 */
+	private final long tracks;
+
+	/**
+	 * Sum of the lags of the cycles behind the simulation clock, in simulated milliseconds
+	 */
+	private final long totalLagMillis;
+
+	/**
+	 * Largest lag of a cycle behind the simulation clock, in simulated milliseconds
+	 */
+	private final long maxLagMillis;
+
+	/**
+	 * Number of cycles which did not complete before the next one was due
+	 */
+	private final int overrunCycles;
+
+	/**
+	 * Number of rewards granted while tracking
+	 */
+	private final long trackedRewards;
+
+	/**
+	 * Number of rewards granted by the final history sweep, missed while tracking
+	 */
+	private final long sweptRewards;
+
+	/**
+	 * Number of requests sent to the controller
+	 */
+	private final long queries;
+
+	/**
+	 * Sum of the real latencies of the requests, in nanoseconds
+	 */
+	private final long totalQueryNanos;
+
+	/**
+	 * Constructor for a report
+	 * @param users number of replayed users
+	 * @param fixes number of fixes in the trace
+	 * @param simulatedDuration simulated duration of the replay
+	 * @param wallDuration real duration of the replay
+	 * @param speed number of simulated milliseconds per real millisecond
+	 * @param cycles number of tracking cycles
+	 * @param tracks number of tracked locations
+	 * @param totalLagMillis sum of the lags of the cycles, in simulated milliseconds
+	 * @param maxLagMillis largest lag of a cycle, in simulated milliseconds
+	 * @param overrunCycles number of cycles which did not complete before the next one was due
+	 * @param trackedRewards number of rewards granted while tracking
+	 * @param sweptRewards number of rewards granted by the final history sweep
+	 * @param queries number of requests sent to the controller
+	 * @param totalQueryNanos sum of the latencies of the requests, in nanoseconds
+	 */
+	public SimulationReport(int users, long fixes, Duration simulatedDuration, Duration wallDuration, double speed,
+			int cycles, long tracks, long totalLagMillis, long maxLagMillis, int overrunCycles, long trackedRewards,
+			long sweptRewards, long queries, long totalQueryNanos) {
+		this.users = users;
+		this.fixes = fixes;
+		this.simulatedDuration = simulatedDuration;
+		this.wallDuration = wallDuration;
+		this.speed = speed;
+		this.cycles = cycles;
+		this.tracks = tracks;
+		this.totalLagMillis = totalLagMillis;
+		this.maxLagMillis = maxLagMillis;
+		this.overrunCycles = overrunCycles;
+		this.trackedRewards = trackedRewards;
+		this.sweptRewards = sweptRewards;
+		this.queries = queries;
+		this.totalQueryNanos = totalQueryNanos;
+	}
+
+	public int getUsers() {
+		return users;
+	}
+
+	public long getFixes() {
+		return fixes;
+	}
+
+	public Duration getSimulatedDuration() {
+		return simulatedDuration;
+	}
+
+	public Duration getWallDuration() {
+		return wallDuration;
+	}
+
+	public double getSpeed() {
+		return speed;
+	}
+
+	public int getCycles() {
+		return cycles;
+	}
+
+	public long getTracks() {
+		return tracks;
+	}
+
+	public int getOverrunCycles() {
+		return overrunCycles;
+	}
+
+	public long getTrackedRewards() {
+		return trackedRewards;
+	}
+
+	public long getSweptRewards() {
+		return sweptRewards;
+	}
+
+	public long getQueries() {
+		return queries;
+	}
+
+	/**
+	 * Get the number of locations tracked per real second
+	 * @return tracking throughput
+	 */
+	public double getTracksPerSecond() {
+		return wallDuration.isZero() ? 0 : tracks * 1000d / wallDuration.toMillis();
+	}
+
+	/**
+	 * Get the mean lag of the tracking cycles behind the simulation clock
+	 * @return mean lag, in simulated time
+	 */
+	public Duration getMeanLag() {
+		return Duration.ofMillis(cycles == 0 ? 0 : totalLagMillis / cycles);
+	}
+
+	/**
+	 * Get the largest lag of a tracking cycle behind the simulation clock
+	 * @return largest lag, in simulated time
+	 */
+	public Duration getMaxLag() {
+		return Duration.ofMillis(maxLagMillis);
+	}
+
+	/**
+	 * Get the number of rewards granted while tracking per simulated hour
+	 * @return reward grant rate
+	 */
+	public double getRewardsPerSimulatedHour() {
+		return simulatedDuration.isZero() ? 0 : trackedRewards * 3_600_000d / simulatedDuration.toMillis();
+	}
+
+	/**
+	 * Get the mean latency of the requests sent to the controller
+	 * @return mean real latency
+	 */
+	public Duration getMeanQueryLatency() {
+		return Duration.ofNanos(queries == 0 ? 0 : totalQueryNanos / queries);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d users, %d fixes, %s simulated in %s (x%.0f): %d cycles, %d tracks (%.0f/s), "
+				+ "lag mean %s max %s, %d overrun cycles, %d rewards tracked (%.1f/simulated hour), %d swept, "
+				+ "%d queries (mean %s)",
+				users, fixes, simulatedDuration, wallDuration, speed, cycles, tracks, getTracksPerSecond(),
+				getMeanLag(), getMaxLag(), overrunCycles, trackedRewards, getRewardsPerSimulatedHour(), sweptRewards,
+				queries, getMeanQueryLatency());
+	}
+}
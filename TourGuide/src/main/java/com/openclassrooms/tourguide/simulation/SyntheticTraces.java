@@ -0,0 +1,136 @@
+package com.openclassrooms.tourguide.simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.geo.GeoMath;
+
+/**
+ * Generator of realistic traces: each tourist starts a few miles from an attraction, travels to one of the
+ * attractions closest to it at a walking to driving speed, stays there a while, and moves on.
+ * The same seed always gives the same trace.
+ */
+public final class SyntheticTraces {
+
+	/**
+	 * Number of closest attractions among which the next destination is picked
+	 */
+	private static final int NEXT_DESTINATION_CHOICES = 3;
+
+	/**
+	 * Maximum distance of the starting point from the first attraction, in miles
+	 */
+	private static final double START_RADIUS_MILES = 20;
+
+	/**
+	 * Slowest travel speed, in miles per hour
+	 */
+	private static final double MIN_SPEED_MPH = 3;
+
+	/**
+	 * Fastest travel speed, in miles per hour
+	 */
+	private static final double MAX_SPEED_MPH = 40;
+
+	/**
+	 * Shortest stay at an attraction, in minutes
+	 */
+	private static final int MIN_STAY_MINUTES = 15;
+
+	/**
+	 * Longest stay at an attraction, in minutes
+	 */
+	private static final int MAX_STAY_MINUTES = 90;
+
+	/**
+	 * Miles per degree of latitude
+	 */
+	private static final double MILES_PER_DEGREE = 69.0;
+
+	private SyntheticTraces() {
+	}
+
+	/**
+	 * Generates a trace
+	 * @param attractions attractions the tourists travel between
+	 * @param userCount number of tourists
+	 * @param start time of the first fix, in epoch milliseconds
+	 * @param duration duration of the trace
+	 * @param sampleInterval time between two fixes of a tourist
+	 * @param seed seed of the random choices
+	 * @return generated trace
+	 */
+	public static GpsTrace generate(List<Attraction> attractions, int userCount, long start, Duration duration,
+			Duration sampleInterval, long seed) {
+		Random random = new Random(seed);
+		GpsTrace.Builder trace = GpsTrace.builder();
+		long end = start + duration.toMillis();
+		long step = sampleInterval.toMillis();
+
+		for (int u = 0; u < userCount; u++) {
+			UUID userId = new UUID(random.nextLong(), random.nextLong());
+			Attraction destination = attractions.get(random.nextInt(attractions.size()));
+			Location position = offset(destination, random.nextDouble() * START_RADIUS_MILES, random.nextDouble() * 2 * Math.PI);
+			double speed = MIN_SPEED_MPH + random.nextDouble() * (MAX_SPEED_MPH - MIN_SPEED_MPH);
+			long stayUntil = start;
+
+			for (long time = start; time <= end; time += step) {
+				trace.add(userId, time, position);
+				if (time < stayUntil) {
+					continue;
+				}
+				double remaining = GeoMath.distance(position, destination);
+				double travelled = speed * step / 3_600_000d;
+				if (travelled >= remaining) {
+					// arrived, the tourist visits the attraction then picks the next one nearby
+					position = new Location(destination.latitude, destination.longitude);
+					stayUntil = time + Duration.ofMinutes(MIN_STAY_MINUTES
+							+ random.nextInt(MAX_STAY_MINUTES - MIN_STAY_MINUTES + 1)).toMillis();
+					destination = nextDestination(attractions, destination, random);
+				} else {
+					double ratio = travelled / remaining;
+					position = new Location(position.latitude + (destination.latitude - position.latitude) * ratio,
+							position.longitude + (destination.longitude - position.longitude) * ratio);
+				}
+			}
+		}
+		return trace.build();
+	}
+
+	/**
+	 * Picks one of the attractions closest to the current one
+	 * @param attractions every attraction
+	 * @param current attraction the tourist leaves
+	 * @param random source of the choice
+	 * @return next destination
+	 */
+	private static Attraction nextDestination(List<Attraction> attractions, Attraction current, Random random) {
+		List<Attraction> closest = new ArrayList<>(attractions);
+		closest.remove(current);
+		if (closest.isEmpty()) {
+			return current;
+		}
+		closest.sort(Comparator.comparingDouble(attraction -> GeoMath.distance(attraction, current)));
+		return closest.get(random.nextInt(Math.min(NEXT_DESTINATION_CHOICES, closest.size())));
+	}
+
+	/**
+	 * Moves a location by a distance in a direction
+	 * @param origin location to move
+	 * @param miles distance, in miles
+	 * @param bearing direction, in radians from the north
+	 * @return moved location
+	 */
+	private static Location offset(Location origin, double miles, double bearing) {
+		double latitude = origin.latitude + miles * Math.cos(bearing) / MILES_PER_DEGREE;
+		double longitude = origin.longitude
+				+ miles * Math.sin(bearing) / (MILES_PER_DEGREE * Math.cos(Math.toRadians(origin.latitude)));
+		return new Location(latitude, longitude);
+	}
+}
@@ -0,0 +1,161 @@
+package com.openclassrooms.tourguide.simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import com.openclassrooms.tourguide.resilience.CallPriority;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Replays a GPS trace through the tour guide, the way the tracker and the clients would drive it, at a multiple
+ * of the real time.
+ * The services must locate the users with a {@link ReplayGpsUtil} on the same trace and clock, and their tracker
+ * must be stopped: the replay runs the tracking cycles itself, at the simulated times they are due, and measures
+ * how far behind the simulation clock each cycle completes.
+ */
+public class TraceReplay {
+
+	/**
+	 * Tour guide receiving the replay
+	 */
+	private final TourGuideService tourGuideService;
+
+	/**
+	 * Rewards service of the tour guide
+	 */
+	private final RewardsService rewardsService;
+
+	/**
+	 * Replayed trace
+	 */
+	private final GpsTrace trace;
+
+	/**
+	 * Clock of the simulation, started by the replay
+	 */
+	private final SimulationClock clock;
+
+	/**
+	 * Constructor for a replay
+	 * @param tourGuideService tour guide receiving the replay, with its tracker stopped
+	 * @param rewardsService rewards service of the tour guide
+	 * @param trace replayed trace
+	 * @param clock clock of the simulation, not started yet
+	 */
+	public TraceReplay(TourGuideService tourGuideService, RewardsService rewardsService, GpsTrace trace,
+			SimulationClock clock) {
+		this.tourGuideService = tourGuideService;
+		this.rewardsService = rewardsService;
+		this.trace = trace;
+		this.clock = clock;
+	}
+
+	/**
+	 * Runs the replay without client requests
+	 * @param trackingInterval simulated time between two tracking cycles
+	 * @return outcome of the replay
+	 */
+	public SimulationReport run(Duration trackingInterval) {
+		return run(trackingInterval, null, 0);
+	}
+
+	/**
+	 * Runs the replay: the trace users are added to the tour guide, tracked every interval until the end of the trace,
+	 * and their histories are finally swept for the rewards the tracking missed
+	 * @param trackingInterval simulated time between two tracking cycles
+	 * @param request client request sent for a user, typically a controller call, null for none
+	 * @param requestsPerCycle number of requests sent during each cycle, to random users
+	 * @return outcome of the replay
+	 */
+	public SimulationReport run(Duration trackingInterval, Function<User, CompletableFuture<?>> request,
+			int requestsPerCycle) {
+		List<User> users = new ArrayList<>();
+		int number = 0;
+		for (UUID userId : trace.getUserIds()) {
+			User user = new User(userId, "simUser" + number, "000", "simUser" + number + "@tourGuide.com");
+			tourGuideService.addUser(user);
+			users.add(user);
+			number++;
+		}
+
+		Random random = new Random(trace.getStart());
+		long interval = trackingInterval.toMillis();
+		int cycles = 0;
+		int overrunCycles = 0;
+		long tracks = 0;
+		long totalLag = 0;
+		long maxLag = 0;
+		long queries = 0;
+		AtomicLong totalQueryNanos = new AtomicLong();
+
+		clock.start();
+		long wallStart = System.nanoTime();
+		for (long due = trace.getStart(); due <= trace.getEnd(); due += interval) {
+			long ahead = due - clock.millis();
+			if (ahead > 0) {
+				LockSupport.parkNanos(clock.toRealNanos(ahead));
+			}
+
+			List<CompletableFuture<?>> cycle = new ArrayList<>();
+			for (User user : users) {
+				if (tourGuideService.isDueForTracking(user)) {
+					cycle.add(tourGuideService.trackUserLocation(user, CallPriority.BACKGROUND));
+				}
+			}
+			tracks += cycle.size();
+			if (request != null) {
+				for (int i = 0; i < requestsPerCycle && !users.isEmpty(); i++) {
+					long sent = System.nanoTime();
+					cycle.add(request.apply(users.get(random.nextInt(users.size())))
+							.whenComplete((result, e) -> totalQueryNanos.addAndGet(System.nanoTime() - sent)));
+				}
+				queries += requestsPerCycle;
+			}
+			CompletableFuture.allOf(cycle.toArray(new CompletableFuture[0])).join();
+
+			long lag = Math.max(0, clock.millis() - due);
+			cycles++;
+			totalLag += lag;
+			maxLag = Math.max(maxLag, lag);
+			if (lag > interval) {
+				overrunCycles++;
+			}
+		}
+		long wallNanos = System.nanoTime() - wallStart;
+		Duration simulated = Duration.ofMillis(clock.millis() - trace.getStart());
+
+		long trackedRewards = countRewards(users);
+		CompletableFuture.allOf(users.stream()
+				.map(rewardsService::calculateRewards)
+				.toArray(CompletableFuture[]::new)).join();
+		long sweptRewards = countRewards(users) - trackedRewards;
+
+		return new SimulationReport(users.size(), trace.getFixCount(), simulated,
+				Duration.ofMillis(TimeUnit.NANOSECONDS.toMillis(wallNanos)), clock.getSpeed(),
+				cycles, tracks, totalLag, maxLag, overrunCycles, trackedRewards, sweptRewards, queries,
+				totalQueryNanos.get());
+	}
+
+	/**
+	 * Counts the rewards of the replayed users
+	 * @param users replayed users
+	 * @return number of rewards
+	 */
+	private static long countRewards(List<User> users) {
+		long count = 0;
+		for (User user : users) {
+			count += user.getUserRewards().size();
+		}
+		return count;
+	}
+}
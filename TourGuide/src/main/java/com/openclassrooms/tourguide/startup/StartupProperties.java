@@ -0,0 +1,23 @@
+package com.openclassrooms.tourguide.startup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Startup settings, bound from the tourguide.startup properties
+ */
+@ConfigurationProperties(prefix = "tourguide.startup")
+public class StartupProperties {
+
+	/**
+	 * Brings the web layer up immediately and loads the users and the attractions in the background
+	 */
+	private boolean fastStart = false;
+
+	public boolean isFastStart() {
+		return fastStart;
+	}
+
+	public void setFastStart(boolean fastStart) {
+		this.fastStart = fastStart;
+	}
+}
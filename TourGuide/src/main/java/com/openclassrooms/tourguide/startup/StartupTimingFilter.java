@@ -0,0 +1,56 @@
+package com.openclassrooms.tourguide.startup;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records the startup milestones seen by the web layer: the application ready to serve,
+ * and the first request served, ignoring the actuator probes
+ */
+@Component
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+	/**
+	 * Progress of the warm-up
+	 */
+	private final Warmup warmup;
+
+	/**
+	 * Constructor for the filter
+	 * @param warmup progress of the warm-up
+	 */
+	public StartupTimingFilter(Warmup warmup) {
+		this.warmup = warmup;
+	}
+
+	/**
+	 * Records the web layer ready to serve
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		warmup.markWebReady();
+	}
+
+	/**
+	 * Records the first request served
+	 */
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (!request.getRequestURI().startsWith("/actuator")) {
+				warmup.markFirstRequest();
+			}
+		}
+	}
+}
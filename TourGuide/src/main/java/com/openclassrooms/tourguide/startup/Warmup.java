@@ -0,0 +1,211 @@
+package com.openclassrooms.tourguide.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Progress of the application warm-up.
+ * In fast-start mode the users and the attractions are loaded in the background while the context starts;
+ * otherwise they are loaded by the constructors and the warm-up is complete before the first request.
+ * The startup milestones are measured from the JVM start.
+ */
+public class Warmup {
+
+	/**
+	 * Logger for current class
+	 */
+	private Logger logger = LoggerFactory.getLogger(Warmup.class);
+
+	/**
+	 * Value of the milestones not reached yet
+	 */
+	private static final long NOT_REACHED = -1;
+
+	/**
+	 * Indicates if the loading happens in the background
+	 */
+	private final boolean fastStart;
+
+	/**
+	 * Completed once every user and the attraction catalogue are loaded
+	 */
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+	/**
+	 * Number of users to load
+	 */
+	private volatile int usersTotal;
+
+	/**
+	 * Number of users loaded
+	 */
+	private final AtomicInteger usersLoaded = new AtomicInteger();
+
+	/**
+	 * Time from the JVM start to the web layer accepting requests, in milliseconds
+	 */
+	private volatile long timeToWebReady = NOT_REACHED;
+
+	/**
+	 * Time from the JVM start to the first request served, in milliseconds
+	 */
+	private final AtomicLong timeToFirstRequest = new AtomicLong(NOT_REACHED);
+
+	/**
+	 * Time from the JVM start to the end of the warm-up, in milliseconds
+	 */
+	private volatile long timeToWarm = NOT_REACHED;
+
+	/**
+	 * Constructor for the warm-up
+	 * @param fastStart true to load the users and the attractions in the background
+	 */
+	public Warmup(boolean fastStart) {
+		this(fastStart, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the warm-up, publishing the startup milestones as gauges
+	 * @param fastStart true to load the users and the attractions in the background
+	 * @param meterRegistry registry of the milestone gauges
+	 */
+	public Warmup(boolean fastStart, MeterRegistry meterRegistry) {
+		this.fastStart = fastStart;
+		registerGauge(meterRegistry, "web-ready", () -> timeToWebReady);
+		registerGauge(meterRegistry, "first-request", timeToFirstRequest::get);
+		registerGauge(meterRegistry, "warm", () -> timeToWarm);
+	}
+
+	/**
+	 * Creates the warm-up of an application loading everything in its constructors
+	 * @return synchronous warm-up
+	 */
+	public static Warmup synchronous() {
+		return new Warmup(false);
+	}
+
+	/**
+	 * Indicates if the loading happens in the background
+	 * @return true in fast-start mode
+	 */
+	public boolean isFastStart() {
+		return fastStart;
+	}
+
+	/**
+	 * Get the completion of the warm-up
+	 * @return future completed once the warm-up is over, exceptionally if it failed
+	 */
+	public CompletableFuture<Void> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * Indicates if the warm-up is over
+	 * @return true once every user and the attraction catalogue are loaded
+	 */
+	public boolean isComplete() {
+		return completion.isDone() && !completion.isCompletedExceptionally();
+	}
+
+	/**
+	 * Records the number of users to load
+	 * @param usersTotal number of users
+	 */
+	public void startUsers(int usersTotal) {
+		this.usersTotal = usersTotal;
+	}
+
+	/**
+	 * Records the loading of a user
+	 */
+	public void userLoaded() {
+		usersLoaded.incrementAndGet();
+	}
+
+	/**
+	 * Ends the warm-up
+	 * @param ignored result of the loading tasks
+	 * @param throwable failure of the loading tasks, null on success
+	 */
+	public void finish(Object ignored, Throwable throwable) {
+		if (throwable != null) {
+			logger.error("Warm-up failed", throwable);
+			completion.completeExceptionally(throwable);
+			return;
+		}
+		timeToWarm = sinceJvmStart();
+		logger.info("Warm-up complete " + timeToWarm + " ms after JVM start");
+		completion.complete(null);
+	}
+
+	/**
+	 * Records the web layer accepting requests
+	 */
+	public void markWebReady() {
+		timeToWebReady = sinceJvmStart();
+		logger.info("Web layer ready " + timeToWebReady + " ms after JVM start");
+	}
+
+	/**
+	 * Records the first request served, later calls are ignored
+	 */
+	public void markFirstRequest() {
+		if (timeToFirstRequest.get() == NOT_REACHED && timeToFirstRequest.compareAndSet(NOT_REACHED, sinceJvmStart())) {
+			logger.info("First request served " + timeToFirstRequest.get() + " ms after JVM start");
+		}
+	}
+
+	public int getUsersTotal() {
+		return usersTotal;
+	}
+
+	public int getUsersLoaded() {
+		return usersLoaded.get();
+	}
+
+	public long getTimeToWebReady() {
+		return timeToWebReady;
+	}
+
+	public long getTimeToFirstRequest() {
+		return timeToFirstRequest.get();
+	}
+
+	public long getTimeToWarm() {
+		return timeToWarm;
+	}
+
+	/**
+	 * Registers the gauge of a startup milestone, NaN until it is reached.
+	 * The gauge observes the warm-up itself, since the registry only keeps a weak reference to it
+	 * @param meterRegistry registry of the gauge
+	 * @param phase name of the milestone
+	 * @param millis supplier of the milestone time
+	 */
+	private void registerGauge(MeterRegistry meterRegistry, String phase, LongSupplier millis) {
+		TimeGauge.builder("tourguide.startup.time", this, TimeUnit.MILLISECONDS,
+						warmup -> millis.getAsLong() == NOT_REACHED ? Double.NaN : millis.getAsLong())
+				.tag("phase", phase)
+				.description("Time from the JVM start to a startup milestone")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Computes the time elapsed since the JVM start
+	 * @return elapsed milliseconds
+	 */
+	private static long sinceJvmStart() {
+		return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+	}
+}
@@ -0,0 +1,60 @@
+package com.openclassrooms.tourguide.startup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+
+/**
+ * Health of the warm-up, OUT_OF_SERVICE until the users and the attractions are loaded.
+ * Part of the readiness group, so that a fast-started instance only receives traffic once warm.
+ */
+@Component
+public class WarmupHealthIndicator implements HealthIndicator {
+
+	/**
+	 * Progress of the warm-up
+	 */
+	private final Warmup warmup;
+
+	/**
+	 * Catalogue of the attractions
+	 */
+	private final AttractionCatalog attractionCatalog;
+
+	/**
+	 * Constructor for the health indicator
+	 * @param warmup progress of the warm-up
+	 * @param attractionCatalog catalogue of the attractions
+	 */
+	public WarmupHealthIndicator(Warmup warmup, AttractionCatalog attractionCatalog) {
+		this.warmup = warmup;
+		this.attractionCatalog = attractionCatalog;
+	}
+
+	/**
+	 * Reports the progress of the warm-up
+	 * @return health with the loading progress and the startup milestones
+	 */
+	@Override
+	public Health health() {
+		Health.Builder builder;
+		if (warmup.isComplete()) {
+			builder = Health.up();
+		} else if (warmup.getCompletion().isCompletedExceptionally()) {
+			builder = Health.down();
+		} else {
+			builder = Health.outOfService();
+		}
+		return builder
+				.withDetail("fastStart", warmup.isFastStart())
+				.withDetail("usersLoaded", warmup.getUsersLoaded())
+				.withDetail("usersTotal", warmup.getUsersTotal())
+				.withDetail("catalogVersion", attractionCatalog.getSnapshot().getVersion())
+				.withDetail("timeToWebReadyMs", warmup.getTimeToWebReady())
+				.withDetail("timeToFirstRequestMs", warmup.getTimeToFirstRequest())
+				.withDetail("timeToWarmMs", warmup.getTimeToWarm())
+				.build();
+	}
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.util.Date;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Stay of a user at its last recorded location, summarising the stationary fixes received since
+ */
+public class DwellRecord {
+
+	/**
+	 * Last recorded location of the user
+	 */
+	private final VisitedLocation location;
+
+	/**
+	 * Time of the last stationary fix
+	 */
+	private final Date lastSeen;
+
+	/**
+	 * Number of stationary fixes merged
+	 */
+	private final int fixes;
+
+	/**
+	 * Constructor for the dwell record
+	 * @param location last recorded location of the user
+	 * @param lastSeen time of the last stationary fix
+	 * @param fixes number of stationary fixes merged
+	 */
+	public DwellRecord(VisitedLocation location, Date lastSeen, int fixes) {
+		this.location = location;
+		this.lastSeen = lastSeen;
+		this.fixes = fixes;
+	}
+
+	/**
+	 * Merges a new stationary fix
+	 * @param fix stationary fix
+	 * @return extended dwell record
+	 */
+	public DwellRecord extend(VisitedLocation fix) {
+		return new DwellRecord(location, fix.timeVisited, fixes + 1);
+	}
+
+	public VisitedLocation getLocation() {
+		return location;
+	}
+
+	public Date getLastSeen() {
+		return lastSeen;
+	}
+
+	public int getFixes() {
+		return fixes;
+	}
+
+	/**
+	 * Get the duration of the stay
+	 * @return milliseconds between the recorded location and the last stationary fix
+	 */
+	public long getDurationMillis() {
+		return Math.max(0, lastSeen.getTime() - location.timeVisited.getTime());
+	}
+}
@@ -0,0 +1,134 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.geo.GeoMath;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Separates the fixes of moving users from those of stationary users.
+ * A fix closer than the distance threshold to the last recorded location, and received before the time threshold,
+ * is merged into the dwell record of the user instead of being recorded and evaluated for rewards.
+ * Stationary users can also be polled less often, doubling the number of skipped tracker cycles up to a maximum.
+ */
+public class MovementFilter {
+
+	/**
+	 * Settings of the filter
+	 */
+	private final MovementProperties properties;
+
+	/**
+	 * Current stay of the stationary users
+	 */
+	private final Map<UUID, DwellRecord> dwellRecords = new ConcurrentHashMap<>();
+
+	/**
+	 * Tracker cycles left to skip for each stationary user
+	 */
+	private final Map<UUID, Integer> skippedCycles = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of fixes recorded
+	 */
+	private final Counter movedCounter;
+
+	/**
+	 * Number of fixes merged into a dwell record
+	 */
+	private final Counter stationaryCounter;
+
+	/**
+	 * Constructor for the filter
+	 * @param properties settings of the filter
+	 */
+	public MovementFilter(MovementProperties properties) {
+		this(properties, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for the filter
+	 * @param properties settings of the filter
+	 * @param meterRegistry registry of the fix counters
+	 */
+	public MovementFilter(MovementProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.movedCounter = Counter.builder("tourguide.tracking.fixes")
+				.tag("outcome", "moved")
+				.description("Number of location fixes, by outcome of the movement filter")
+				.register(meterRegistry);
+		this.stationaryCounter = Counter.builder("tourguide.tracking.fixes")
+				.tag("outcome", "stationary")
+				.description("Number of location fixes, by outcome of the movement filter")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Compares a fix with the last recorded location of the user, merging it into the dwell record if the user did not move
+	 * @param user user who was located
+	 * @param fix new fix of the user, not recorded yet
+	 * @return true if the fix must be recorded, false if it was merged
+	 */
+	public boolean onFix(User user, VisitedLocation fix) {
+		UUID userId = user.getUserId();
+		VisitedLocation last = user.getLastVisitedLocation();
+		if (!properties.isEnabled() || last == null) {
+			movedCounter.increment();
+			return true;
+		}
+
+		boolean moved = GeoMath.distance(last.location, fix.location) >= properties.getMinDistanceMiles()
+				|| fix.timeVisited.getTime() - last.timeVisited.getTime() >= properties.getMaxStationaryInterval().toMillis();
+		if (moved) {
+			dwellRecords.remove(userId);
+			skippedCycles.remove(userId);
+			movedCounter.increment();
+			return true;
+		}
+
+		DwellRecord dwellRecord = dwellRecords.compute(userId,
+				(id, current) -> current == null || current.getLocation() != last ? new DwellRecord(last, fix.timeVisited, 1) : current.extend(fix));
+		if (properties.isBackoffEnabled()) {
+			int backoff = Math.min(properties.getMaxBackoffCycles(), 1 << Math.min(30, dwellRecord.getFixes() - 1));
+			skippedCycles.put(userId, backoff - 1);
+		}
+		stationaryCounter.increment();
+		return false;
+	}
+
+	/**
+	 * Indicates if a user must be polled during the current tracker cycle, counting down its skipped cycles otherwise
+	 * @param userId id of the user
+	 * @return true if the user must be polled
+	 */
+	public boolean isDue(UUID userId) {
+		if (!properties.isBackoffEnabled()) {
+			return true;
+		}
+		boolean[] due = { true };
+		skippedCycles.computeIfPresent(userId, (id, cycles) -> {
+			if (cycles == 0) {
+				return null;
+			}
+			due[0] = false;
+			return cycles - 1;
+		});
+		return due[0];
+	}
+
+	/**
+	 * Get the current stay of a user
+	 * @param userId id of the user
+	 * @return dwell record, or null if the user moved on its last fix
+	 */
+	public DwellRecord getDwellRecord(UUID userId) {
+		return dwellRecords.get(userId);
+	}
+}
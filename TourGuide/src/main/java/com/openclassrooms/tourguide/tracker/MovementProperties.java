@@ -0,0 +1,77 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the movement filter, bound from the tourguide.tracking.movement properties
+ */
+@ConfigurationProperties(prefix = "tourguide.tracking.movement")
+public class MovementProperties {
+
+	/**
+	 * Merges the fixes of stationary users instead of recording and rewarding them
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Distance from the last recorded location under which a user is stationary, in statute miles
+	 */
+	private double minDistanceMiles = 0.05;
+
+	/**
+	 * Time after which a fix is recorded even if the user did not move
+	 */
+	private Duration maxStationaryInterval = Duration.ofMinutes(30);
+
+	/**
+	 * Polls stationary users less often
+	 */
+	private boolean backoffEnabled = false;
+
+	/**
+	 * Maximum number of tracker cycles between two polls of a stationary user
+	 */
+	private int maxBackoffCycles = 8;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public double getMinDistanceMiles() {
+		return minDistanceMiles;
+	}
+
+	public void setMinDistanceMiles(double minDistanceMiles) {
+		this.minDistanceMiles = minDistanceMiles;
+	}
+
+	public Duration getMaxStationaryInterval() {
+		return maxStationaryInterval;
+	}
+
+	public void setMaxStationaryInterval(Duration maxStationaryInterval) {
+		this.maxStationaryInterval = maxStationaryInterval;
+	}
+
+	public boolean isBackoffEnabled() {
+		return backoffEnabled;
+	}
+
+	public void setBackoffEnabled(boolean backoffEnabled) {
+		this.backoffEnabled = backoffEnabled;
+	}
+
+	public int getMaxBackoffCycles() {
+		return maxBackoffCycles;
+	}
+
+	public void setMaxBackoffCycles(int maxBackoffCycles) {
+		this.maxBackoffCycles = maxBackoffCycles;
+	}
+}
@@ -1,14 +1,22 @@
 package com.openclassrooms.tourguide.tracker;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.openclassrooms.tourguide.profiling.TrackerCycleEvent;
+import com.openclassrooms.tourguide.resilience.CallPriority;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
 
@@ -36,17 +44,41 @@ public class Tracker extends Thread {
 	 */
 	private final TourGuideService tourGuideService;
 
+	/**
+	 * Duration of the tracking cycles
+	 */
+	private final Timer cycleTimer;
+
 	/**
 	 * Boolean used to interrupt the tracker loop
 	 */
 	private boolean stop = false;
 
+	/**
+	 * Completed once the users to track are loaded
+	 */
+	private final Future<?> startSignal;
+
 	/**
 	 * Constructor for the tracker
 	 * @param tourGuideService tour guide service
 	 */
 	public Tracker(TourGuideService tourGuideService) {
+		this(tourGuideService, CompletableFuture.completedFuture(null), new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor for a tracker waiting for the users to be loaded
+	 * @param tourGuideService tour guide service
+	 * @param startSignal completed once the users to track are loaded
+	 * @param meterRegistry registry of the cycle timer
+	 */
+	public Tracker(TourGuideService tourGuideService, Future<?> startSignal, MeterRegistry meterRegistry) {
 		this.tourGuideService = tourGuideService;
+		this.startSignal = startSignal;
+		this.cycleTimer = Timer.builder("tourguide.tracker.cycle")
+				.description("Duration of a tracker cycle")
+				.register(meterRegistry);
 
 		executorService.submit(this);
 	}
@@ -67,6 +99,15 @@ public class Tracker extends Thread {
 		// Stopwatch is used to monitor performance
 		StopWatch stopWatch = new StopWatch();
 
+		try {
+			startSignal.get();
+		} catch (InterruptedException e) {
+			logger.debug("Tracker stopping");
+			return;
+		} catch (ExecutionException e) {
+			logger.warn("Users not loaded, tracking the available ones: " + e.getCause());
+		}
+
 		// Infinite loop
 		while (true) {
 			// Stop condition
@@ -75,11 +116,30 @@ public class Tracker extends Thread {
 				break;
 			}
 
-			List<User> users = tourGuideService.getAllUsers();
+			List<User> users = tourGuideService.getLocalUsers().stream()
+					.filter(tourGuideService::isDueForTracking)
+					.toList();
 			logger.debug("Begin Tracker. Tracking " + users.size() + " users.");
+			TrackerCycleEvent cycleEvent = new TrackerCycleEvent();
+			cycleEvent.begin();
 			stopWatch.start();
-			users.forEach(u -> tourGuideService.trackUserLocation(u));
+			CompletableFuture<?>[] trackings = users.stream()
+					.map(u -> tourGuideService.trackUserLocation(u, CallPriority.BACKGROUND))
+					.toArray(CompletableFuture[]::new);
+			// the cycle ends once every user is tracked, not once the trackings are dispatched
+			try {
+				CompletableFuture.allOf(trackings).get();
+			} catch (InterruptedException e) {
+				logger.debug("Tracker stopping");
+				break;
+			} catch (ExecutionException e) {
+				logger.warn("Tracker cycle completed with failures: " + e.getCause());
+			}
 			stopWatch.stop();
+			cycleEvent.end();
+			cycleEvent.users = users.size();
+			cycleEvent.commit();
+			cycleTimer.record(stopWatch.getTime(), TimeUnit.MILLISECONDS);
 			logger.debug("Tracker Time Elapsed: " + TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.");
 			stopWatch.reset();
 			try {
@@ -0,0 +1,71 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.Date;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Reward as kept in memory, about half the size of a {@link UserReward} and its location graph.
+ * The place and time of the visit are stored as primitives, the user id is not repeated
+ * and the attraction is the instance shared by the catalogue.
+ */
+final class CompactReward {
+
+	/**
+	 * Rewarded attraction, shared with the catalogue
+	 */
+	final Attraction attraction;
+
+	/**
+	 * Latitude of the visit
+	 */
+	private final double latitude;
+
+	/**
+	 * Longitude of the visit
+	 */
+	private final double longitude;
+
+	/**
+	 * Time of the visit, in epoch milliseconds
+	 */
+	private final long timeVisited;
+
+	/**
+	 * Points of the reward
+	 */
+	private final int rewardPoints;
+
+	/**
+	 * Constructor for a compact reward
+	 * @param userReward reward to compact
+	 */
+	CompactReward(UserReward userReward) {
+		this.attraction = userReward.attraction;
+		this.latitude = userReward.visitedLocation.location.latitude;
+		this.longitude = userReward.visitedLocation.location.longitude;
+		this.timeVisited = userReward.visitedLocation.timeVisited.getTime();
+		this.rewardPoints = userReward.getRewardPoints();
+	}
+
+	/**
+	 * Get the points of the reward
+	 * @return reward points
+	 */
+	int getRewardPoints() {
+		return rewardPoints;
+	}
+
+	/**
+	 * Builds the full reward, for the callers outside of the store
+	 * @param userId id of the rewarded user
+	 * @return new reward equal to the compacted one
+	 */
+	UserReward toUserReward(UUID userId) {
+		VisitedLocation visitedLocation = new VisitedLocation(userId, new Location(latitude, longitude), new Date(timeVisited));
+		return new UserReward(visitedLocation, attraction, rewardPoints);
+	}
+}
@@ -0,0 +1,227 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Locations of a user ordered by time.
+ * The visit times are kept in a primitive array beside the locations, so that point and range queries
+ * are binary searches; fixes arriving in time order are appended without moving the existing ones.
+ */
+public class LocationHistory {
+
+	/**
+	 * Initial capacity of the arrays
+	 */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/**
+	 * Guards the arrays, many queries can run while no location is added
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Visit times in milliseconds, in ascending order
+	 */
+	private long[] times = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Locations, in the order of their visit times
+	 */
+	private VisitedLocation[] locations = new VisitedLocation[INITIAL_CAPACITY];
+
+	/**
+	 * Number of locations
+	 */
+	private int size = 0;
+
+	/**
+	 * Adds a location, after the locations visited at the same time
+	 * @param visitedLocation location to add
+	 */
+	public void add(VisitedLocation visitedLocation) {
+		long time = visitedLocation.timeVisited.getTime();
+		lock.writeLock().lock();
+		try {
+			if (size == times.length) {
+				times = Arrays.copyOf(times, size * 2);
+				locations = Arrays.copyOf(locations, size * 2);
+			}
+			int index = size == 0 || times[size - 1] <= time ? size : upperBound(time);
+			System.arraycopy(times, index, times, index + 1, size - index);
+			System.arraycopy(locations, index, locations, index + 1, size - index);
+			times[index] = time;
+			locations[index] = visitedLocation;
+			size++;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of locations
+	 * @return location count
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Indicates if no location was recorded
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Get the most recent location
+	 * @return latest location, or null if empty
+	 */
+	public VisitedLocation latest() {
+		lock.readLock().lock();
+		try {
+			return size == 0 ? null : locations[size - 1];
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds where the user was at a given time
+	 * @param time time to look up
+	 * @return latest location visited at or before the time, or null if none
+	 */
+	public VisitedLocation at(Date time) {
+		lock.readLock().lock();
+		try {
+			int index = upperBound(time.getTime()) - 1;
+			return index < 0 ? null : locations[index];
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Lists the locations visited within a time range
+	 * @param from start of the range, inclusive
+	 * @param to end of the range, inclusive
+	 * @return locations in time order
+	 */
+	public List<VisitedLocation> between(Date from, Date to) {
+		return between(from, to, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Lists the locations visited within a time range, down-sampled if there are too many.
+	 * The range is split into equal time buckets and the last location of each non empty bucket is kept.
+	 * @param from start of the range, inclusive
+	 * @param to end of the range, inclusive
+	 * @param maxPoints maximum number of locations returned
+	 * @return locations in time order
+	 */
+	public List<VisitedLocation> between(Date from, Date to, int maxPoints) {
+		long start = from.getTime();
+		long end = to.getTime();
+		lock.readLock().lock();
+		try {
+			int first = lowerBound(start);
+			int last = upperBound(end);
+			if (first >= last) {
+				return List.of();
+			}
+			if (last - first <= maxPoints) {
+				return List.of(Arrays.copyOfRange(locations, first, last));
+			}
+
+			List<VisitedLocation> sampled = new ArrayList<>(maxPoints);
+			double bucketMillis = (double) (end - start + 1) / maxPoints;
+			for (int bucket = 0; bucket < maxPoints; bucket++) {
+				long bucketEnd = start + (long) Math.ceil((bucket + 1) * bucketMillis) - 1;
+				int index = Math.min(upperBound(bucketEnd), last) - 1;
+				if (index >= first && (sampled.isEmpty() || sampled.get(sampled.size() - 1) != locations[index])) {
+					sampled.add(locations[index]);
+				}
+			}
+			return sampled;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Lists every location
+	 * @return immutable copy of the locations, in time order
+	 */
+	public List<VisitedLocation> toList() {
+		lock.readLock().lock();
+		try {
+			return List.of(Arrays.copyOf(locations, size));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes every location
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			times = new long[INITIAL_CAPACITY];
+			locations = new VisitedLocation[INITIAL_CAPACITY];
+			size = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the first location visited at or after a time, the lock being held
+	 * @param time time to look up
+	 * @return index of the location, size if none
+	 */
+	private int lowerBound(long time) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] < time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the first location visited after a time, the lock being held
+	 * @param time time to look up
+	 * @return index of the location, size if none
+	 */
+	private int upperBound(long time) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] <= time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,96 @@
+package com.openclassrooms.tourguide.user;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import gpsUtil.location.Attraction;
+
+/**
+ * Rewards of a user, keyed by a UUID derived from the attraction name, since a reloaded attraction gets a new id.
+ * Adding is an atomic put-if-absent, so concurrent calculations never grant the same attraction twice,
+ * and neither membership checks nor adds copy or scan the existing rewards.
+ * The rewards are kept compacted and only built back into {@link UserReward} objects when read,
+ * in the order they were granted.
+ */
+public class RewardStore {
+
+	/**
+	 * Keys of the attractions by name, shared by every store so that the keys are derived once
+	 */
+	private static final ConcurrentHashMap<String, UUID> ATTRACTION_KEYS = new ConcurrentHashMap<>();
+
+	/**
+	 * Rewards by attraction key
+	 */
+	private final ConcurrentHashMap<UUID, CompactReward> rewards = new ConcurrentHashMap<>();
+
+	/**
+	 * Rewards in grant order, as the map does not keep any order
+	 */
+	private final ConcurrentLinkedQueue<CompactReward> grantOrder = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Adds a reward, unless the user already has one for the same attraction
+	 * @param userReward reward to add
+	 * @return true if the reward was added
+	 */
+	public boolean add(UserReward userReward) {
+		CompactReward reward = new CompactReward(userReward);
+		if (rewards.putIfAbsent(attractionKey(userReward.attraction), reward) != null) {
+			return false;
+		}
+		grantOrder.add(reward);
+		return true;
+	}
+
+	/**
+	 * Indicates if the user has a reward for an attraction
+	 * @param attraction attraction to check
+	 * @return true if rewarded
+	 */
+	public boolean contains(Attraction attraction) {
+		return rewards.containsKey(attractionKey(attraction));
+	}
+
+	/**
+	 * Get the number of rewards
+	 * @return reward count
+	 */
+	public int size() {
+		return rewards.size();
+	}
+
+	/**
+	 * Get the sum of the reward points, without building the rewards
+	 * @return total reward points
+	 */
+	public int getTotalPoints() {
+		int total = 0;
+		for (CompactReward reward : rewards.values()) {
+			total += reward.getRewardPoints();
+		}
+		return total;
+	}
+
+	/**
+	 * Derives the key of an attraction, stable across the loads of the attractions
+	 * @param attraction attraction to key
+	 * @return UUID derived from the name of the attraction
+	 */
+	public static UUID attractionKey(Attraction attraction) {
+		return ATTRACTION_KEYS.computeIfAbsent(attraction.attractionName,
+				name -> UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Get the rewards, in grant order
+	 * @param userId id of the rewarded user, shared by the built visited locations
+	 * @return immutable list of new rewards, consistent with the adds completed before the call
+	 */
+	public List<UserReward> getRewards(UUID userId) {
+		return grantOrder.stream().map(reward -> reward.toUserReward(userId)).toList();
+	}
+}
@@ -4,8 +4,8 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
 
+import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
 import tripPricer.Provider;
 
@@ -15,8 +15,8 @@ public class User {
 	private String phoneNumber;
 	private String emailAddress;
 	private Date latestLocationTimestamp;
-	private CopyOnWriteArrayList<VisitedLocation> visitedLocations = new CopyOnWriteArrayList<>();
-	private CopyOnWriteArrayList<UserReward> userRewards = new CopyOnWriteArrayList<>();
+	private final LocationHistory visitedLocations = new LocationHistory();
+	private final RewardStore userRewards = new RewardStore();
 	private UserPreferences userPreferences = new UserPreferences();
 	private List<Provider> tripDeals = new ArrayList<>();
 	public User(UUID userId, String userName, String phoneNumber, String emailAddress) {
@@ -63,6 +63,10 @@ public class User {
 	}
 	
 	public List<VisitedLocation> getVisitedLocations() {
+		return visitedLocations.toList();
+	}
+	
+	public LocationHistory getLocationHistory() {
 		return visitedLocations;
 	}
 	
@@ -70,14 +74,20 @@ public class User {
 		visitedLocations.clear();
 	}
 	
-	public void addUserReward(UserReward userReward) {
-		if(userRewards.stream().noneMatch(r -> userReward.attraction.attractionName.equals(r.attraction.attractionName))) {
-			userRewards.add(userReward);
-		}
+	public boolean addUserReward(UserReward userReward) {
+		return userRewards.add(userReward);
+	}
+	
+	public boolean hasUserReward(Attraction attraction) {
+		return userRewards.contains(attraction);
 	}
 	
 	public List<UserReward> getUserRewards() {
-		return userRewards;
+		return userRewards.getRewards(userId);
+	}
+	
+	public int getTotalRewardPoints() {
+		return userRewards.getTotalPoints();
 	}
 	
 	public UserPreferences getUserPreferences() {
@@ -89,7 +99,7 @@ public class User {
 	}
 
 	public VisitedLocation getLastVisitedLocation() {
-		return visitedLocations.get(visitedLocations.size() - 1);
+		return visitedLocations.latest();
 	}
 	
 	public void setTripDeals(List<Provider> tripDeals) {
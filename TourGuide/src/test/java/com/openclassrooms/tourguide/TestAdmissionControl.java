@@ -0,0 +1,80 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.resilience.AdmissionProperties;
+import com.openclassrooms.tourguide.resilience.CallPriority;
+import com.openclassrooms.tourguide.resilience.GpsAdmissionControl;
+import com.openclassrooms.tourguide.resilience.PriorityRateLimiter;
+
+public class TestAdmissionControl {
+
+	@Test
+	public void backgroundCallsLeaveTheReserveToInteractiveCalls() throws InterruptedException {
+		PriorityRateLimiter rateLimiter = new PriorityRateLimiter(1, 10, 0.5);
+
+		int backgroundAcquired = 0;
+		while (rateLimiter.tryAcquire(CallPriority.BACKGROUND, 0, TimeUnit.MILLISECONDS)) {
+			backgroundAcquired++;
+		}
+
+		assertTrue(backgroundAcquired <= 5);
+		assertTrue(rateLimiter.tryAcquire(CallPriority.INTERACTIVE, 0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void interactiveCallsAreServedBeforeWaitingBackgroundCalls() throws Exception {
+		PriorityRateLimiter rateLimiter = new PriorityRateLimiter(20, 1, 0);
+		rateLimiter.tryAcquire(CallPriority.INTERACTIVE, 0, TimeUnit.MILLISECONDS);
+
+		CompletableFuture<Long> background = CompletableFuture.supplyAsync(() -> {
+			try {
+				rateLimiter.tryAcquire(CallPriority.BACKGROUND, 1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return System.nanoTime();
+		});
+		TimeUnit.MILLISECONDS.sleep(5);
+
+		assertTrue(rateLimiter.tryAcquire(CallPriority.INTERACTIVE, 1, TimeUnit.SECONDS));
+		long interactiveDone = System.nanoTime();
+
+		assertTrue(interactiveDone < background.get());
+	}
+
+	@Test
+	public void backgroundCallsAreShedWhenOverLatencyBudget() {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setLatencyBudget(Duration.ofMillis(100));
+		properties.setProbeInterval(Duration.ofHours(1));
+		GpsAdmissionControl admissionControl = new GpsAdmissionControl(properties);
+
+		assertTrue(admissionControl.admit(CallPriority.BACKGROUND));
+
+		admissionControl.recordLatency(TimeUnit.SECONDS.toNanos(2));
+
+		assertTrue(admissionControl.isOverBudget());
+		assertFalse(admissionControl.admit(CallPriority.BACKGROUND));
+		assertTrue(admissionControl.admit(CallPriority.INTERACTIVE));
+	}
+
+	@Test
+	public void unlimitedControlAdmitsEveryCall() {
+		GpsAdmissionControl admissionControl = GpsAdmissionControl.unlimited();
+
+		admissionControl.recordLatency(TimeUnit.SECONDS.toNanos(2));
+
+		assertFalse(admissionControl.isOverBudget());
+		for (int i = 0; i < 100000; i++) {
+			assertTrue(admissionControl.admit(CallPriority.BACKGROUND));
+		}
+	}
+}
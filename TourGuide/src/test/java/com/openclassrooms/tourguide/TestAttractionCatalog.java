@@ -0,0 +1,101 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
+import com.openclassrooms.tourguide.geo.GeoMath;
+
+public class TestAttractionCatalog {
+
+	/**
+	 * GpsUtil stand-in whose attractions can be changed between calls
+	 */
+	private static class ChangingGpsUtil extends GpsUtil {
+
+		private final List<Attraction> extraAttractions = new ArrayList<>();
+
+		@Override
+		public List<Attraction> getAttractions() {
+			List<Attraction> attractions = new ArrayList<>(super.getAttractions());
+			attractions.addAll(extraAttractions);
+			return attractions;
+		}
+	}
+
+	@Test
+	public void unchangedAttractionsKeepTheirInstance() {
+		AttractionCatalog catalog = new AttractionCatalog(new GpsUtil());
+		CatalogSnapshot snapshot = catalog.getSnapshot();
+
+		// GpsUtil generates new ids on every call, which must not be seen as a change
+		assertFalse(catalog.refresh());
+		assertSame(snapshot, catalog.getSnapshot());
+		assertEquals(1, snapshot.getVersion());
+	}
+
+	@Test
+	public void changesPublishANewVersion() {
+		ChangingGpsUtil gpsUtil = new ChangingGpsUtil();
+		AttractionCatalog catalog = new AttractionCatalog(gpsUtil);
+		CatalogSnapshot before = catalog.getSnapshot();
+
+		gpsUtil.extraAttractions.add(new Attraction("Tour Eiffel", "Paris", "France", 48.8584, 2.2945));
+		assertTrue(catalog.refresh());
+
+		CatalogSnapshot after = catalog.getSnapshot();
+		assertEquals(2, after.getVersion());
+		assertEquals(before.getAttractions().size() + 1, after.getAttractions().size());
+		assertEquals(1, before.getVersion());
+		for (Attraction attraction : before.getAttractions()) {
+			assertSame(attraction, after.getByName(attraction.attractionName));
+			assertSame(attraction, after.getById(attraction.attractionId));
+		}
+		assertEquals("Paris", after.getByName("Tour Eiffel").city);
+	}
+
+	@Test
+	public void nearestMatchesFullSort() {
+		CatalogSnapshot snapshot = new AttractionCatalog(new GpsUtil()).getSnapshot();
+		Random random = new Random(7);
+
+		for (int i = 0; i < 100; i++) {
+			Location location = new Location(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+			List<Attraction> expected = snapshot.getAttractions().stream()
+					.sorted(Comparator.comparingDouble(a -> GeoMath.distance(a, location)))
+					.limit(5)
+					.toList();
+			assertEquals(expected, snapshot.nearest(location, 5));
+		}
+	}
+
+	@Test
+	public void pagesSplitSortedResults() {
+		CatalogSnapshot snapshot = new AttractionCatalog(new GpsUtil()).getSnapshot();
+		List<AttractionDistance> results = snapshot.withinRadius(new Location(33.8, -117.9), Integer.MAX_VALUE);
+
+		AttractionPage first = AttractionPage.of(results, 0, 10);
+		AttractionPage last = AttractionPage.of(results, 2, 10);
+		AttractionPage past = AttractionPage.of(results, 5, 10);
+
+		assertEquals(26, first.getTotalElements());
+		assertEquals(3, first.getTotalPages());
+		assertEquals(results.subList(0, 10), first.getAttractions());
+		assertEquals(results.subList(20, 26), last.getAttractions());
+		assertTrue(past.getAttractions().isEmpty());
+	}
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.partition.ClusterMembership;
+import com.openclassrooms.tourguide.partition.ClusterProperties;
+import com.openclassrooms.tourguide.partition.ConsistentHashRing;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestClusterMembership {
+
+	private final List<UUID> userIds = IntStream.range(0, 30000)
+			.mapToObj(i -> UUID.nameUUIDFromBytes(("internalUser" + i).getBytes()))
+			.toList();
+
+	@Test
+	public void ringSpreadsUsersEvenly() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+
+		Map<String, Integer> counts = new HashMap<>();
+		userIds.forEach(userId -> counts.merge(ring.ownerOf(userId), 1, Integer::sum));
+
+		assertEquals(3, counts.size());
+		counts.values().forEach(count -> assertTrue(Math.abs(count - 10000) < 2000, "Unbalanced ring " + counts));
+	}
+
+	@Test
+	public void joiningNodeOnlyTakesItsShare() {
+		ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+		ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+
+		long moved = 0;
+		for (UUID userId : userIds) {
+			String owner = after.ownerOf(userId);
+			if (!owner.equals(before.ownerOf(userId))) {
+				assertEquals("d", owner);
+				moved++;
+			}
+		}
+
+		assertTrue(moved > 5000 && moved < 10000, moved + " users moved");
+	}
+
+	@Test
+	public void membersFileIsReloaded(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("members");
+		Files.writeString(file, "a\n");
+		ClusterProperties properties = new ClusterProperties();
+		properties.setNodeId("a");
+		properties.setMembersFile(file.toString());
+
+		try (ClusterMembership membership = new ClusterMembership(properties)) {
+			assertTrue(userIds.stream().allMatch(membership::isLocal));
+
+			Files.writeString(file, "a\n# second instance\nb\n");
+			Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(1)));
+			membership.refresh();
+
+			assertEquals(List.of("a", "b"), membership.getMembers());
+			long local = userIds.stream().filter(membership::isLocal).count();
+			assertTrue(local > 10000 && local < 20000, local + " local users");
+		}
+	}
+
+	@Test
+	public void usersOfOtherMembersAreLocatedOnDemand() throws Exception {
+		ClusterProperties properties = new ClusterProperties();
+		properties.setNodeId("a");
+		properties.setMembers(List.of("a", "b"));
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		InternalTestHelper.setInternalUserNumber(0);
+
+		try (ClusterMembership membership = new ClusterMembership(properties)) {
+			TourGuideService tourGuideService = TourGuideService.builder(gpsUtil, rewardsService)
+					.clusterMembership(membership)
+					.build();
+			tourGuideService.tracker.stopTracking();
+			UUID localId = userIds.stream().filter(membership::isLocal).findFirst().orElseThrow();
+			UUID remoteId = userIds.stream().filter(userId -> !membership.isLocal(userId)).findFirst().orElseThrow();
+			User localUser = new User(localId, "local", "000", "local@tourGuide.com");
+			User remoteUser = new User(remoteId, "remote", "000", "remote@tourGuide.com");
+			VisitedLocation stale = new VisitedLocation(localId, new Location(0, 0), new Date(0));
+			localUser.addToVisitedLocations(stale);
+			remoteUser.addToVisitedLocations(new VisitedLocation(remoteId, new Location(0, 0), new Date(0)));
+
+			// the tracker of this instance keeps the local user up to date, the other member tracks the remote one
+			assertSame(stale, tourGuideService.getUserLocation(localUser).get());
+			VisitedLocation remoteLocation = tourGuideService.getUserLocation(remoteUser).get();
+			assertTrue(remoteLocation.timeVisited.getTime() > 0);
+			assertEquals(2, remoteUser.getVisitedLocations().size());
+		}
+	}
+}
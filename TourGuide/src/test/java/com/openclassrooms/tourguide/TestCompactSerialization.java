@@ -0,0 +1,127 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.serialization.CompactDecoder;
+import com.openclassrooms.tourguide.serialization.CompactEncoder;
+import com.openclassrooms.tourguide.serialization.TourGuideJacksonModule;
+import com.openclassrooms.tourguide.user.UserReward;
+
+public class TestCompactSerialization {
+
+	private final List<Attraction> attractions = new GpsUtil().getAttractions();
+
+	private List<UserReward> generateRewards(int count) {
+		UUID userId = UUID.randomUUID();
+		List<UserReward> rewards = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Attraction attraction = attractions.get(i % attractions.size());
+			rewards.add(new UserReward(new VisitedLocation(userId, attraction, new Date()), attraction, i));
+		}
+		return rewards;
+	}
+
+	private byte[] encode(Object value) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new CompactEncoder(output).write(value);
+		return output.toByteArray();
+	}
+
+	@Test
+	public void rewardInformationRoundTrip() throws IOException {
+		List<RewardInformation> rewards = generateRewards(50).stream().map(RewardInformation::from).toList();
+
+		List<?> decoded = (List<?>) new CompactDecoder(new ByteArrayInputStream(encode(rewards))).read();
+
+		assertEquals(rewards.size(), decoded.size());
+		RewardInformation first = (RewardInformation) decoded.get(0);
+		assertEquals(rewards.get(0).getAttractionId(), first.getAttractionId());
+		assertEquals(rewards.get(0).getAttractionName(), first.getAttractionName());
+		assertEquals(rewards.get(0).getTimeVisited(), first.getTimeVisited());
+		assertEquals(rewards.get(49).getRewardPoints(), ((RewardInformation) decoded.get(49)).getRewardPoints());
+	}
+
+	@Test
+	public void visitedLocationRoundTrip() throws IOException {
+		VisitedLocation visitedLocation = new VisitedLocation(UUID.randomUUID(), new Location(12.5, -42.25), new Date());
+
+		VisitedLocation decoded = (VisitedLocation) new CompactDecoder(new ByteArrayInputStream(encode(visitedLocation))).read();
+
+		assertEquals(visitedLocation.userId, decoded.userId);
+		assertEquals(visitedLocation.location.latitude, decoded.location.latitude);
+		assertEquals(visitedLocation.location.longitude, decoded.location.longitude);
+		assertEquals(visitedLocation.timeVisited, decoded.timeVisited);
+	}
+
+	@Test
+	public void handWrittenSerializersProduceSameJson() throws IOException {
+		ObjectMapper reflective = new ObjectMapper();
+		ObjectMapper handWritten = new ObjectMapper().registerModule(new TourGuideJacksonModule());
+		List<UserReward> rewards = generateRewards(5);
+		TouristAttractionInformation information = new TouristAttractionInformation("name",
+				new Location(1, 2), new Location(3, 4), 5.5, 6);
+
+		assertEquals(reflective.readTree(reflective.writeValueAsString(rewards)),
+				handWritten.readTree(handWritten.writeValueAsString(rewards)));
+		assertEquals(reflective.readTree(reflective.writeValueAsString(information)),
+				handWritten.readTree(handWritten.writeValueAsString(information)));
+	}
+
+	@Test
+	public void compactEncodingIsSmallerThanJson() throws IOException {
+		List<UserReward> rewards = generateRewards(1000);
+		int jsonSize = new ObjectMapper().writeValueAsBytes(rewards).length;
+		int compactSize = encode(rewards.stream().map(RewardInformation::from).toList()).length;
+
+		System.out.println("Rewards JSON: " + jsonSize + " bytes, compact: " + compactSize + " bytes.");
+		assertTrue(compactSize * 3 < jsonSize);
+	}
+
+	@Disabled
+	@Test
+	public void compareSerializationThroughput() throws IOException {
+		List<UserReward> rewards = generateRewards(1000);
+		ObjectMapper objectMapper = new ObjectMapper();
+		int iterations = 2000;
+
+		StopWatch stopWatch = new StopWatch();
+		stopWatch.start();
+		for (int i = 0; i < iterations; i++) {
+			objectMapper.writeValueAsBytes(rewards);
+		}
+		stopWatch.stop();
+		long jsonTime = stopWatch.getTime();
+
+		stopWatch.reset();
+		stopWatch.start();
+		for (int i = 0; i < iterations; i++) {
+			encode(rewards.stream().map(RewardInformation::from).toList());
+		}
+		stopWatch.stop();
+		long compactTime = stopWatch.getTime();
+
+		System.out.println("compareSerializationThroughput: JSON " + jsonTime + " ms, compact " + compactTime + " ms for "
+				+ iterations + " lists of " + rewards.size() + " rewards.");
+		assertTrue(TimeUnit.MILLISECONDS.toNanos(compactTime) < TimeUnit.MILLISECONDS.toNanos(jsonTime));
+	}
+}
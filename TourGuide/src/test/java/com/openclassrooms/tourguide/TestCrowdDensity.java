@@ -0,0 +1,77 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.crowd.CrowdDensity;
+import com.openclassrooms.tourguide.crowd.CrowdDensityAggregator;
+import com.openclassrooms.tourguide.crowd.SlidingWindowCounter;
+import com.openclassrooms.tourguide.geofence.GeofenceEvent;
+
+public class TestCrowdDensity {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+	private final List<Attraction> attractions = new GpsUtil().getAttractions();
+
+	private GeofenceEvent event(GeofenceEvent.Type type, Attraction attraction, long millis) {
+		UUID userId = UUID.randomUUID();
+		return new GeofenceEvent(type, userId, attraction, new VisitedLocation(userId, attraction, new Date(millis)), 0);
+	}
+
+	@Test
+	public void windowSlides() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(TimeUnit.HOURS.toMillis(1), 60);
+		long now = 1000 * MINUTE;
+
+		counter.add(now - 90 * MINUTE, now);
+		counter.add(now - 30 * MINUTE, now);
+		counter.add(now - 30 * MINUTE, now);
+		counter.add(now, now);
+
+		assertEquals(3, counter.sum(now));
+		assertEquals(1, counter.sum(now + 31 * MINUTE));
+		assertEquals(0, counter.sum(now + 61 * MINUTE));
+
+		// the bucket of a slice left the window is reused
+		counter.add(now + 30 * MINUTE, now + 30 * MINUTE);
+		assertEquals(2, counter.sum(now + 30 * MINUTE));
+	}
+
+	@Test
+	public void countsVisitorsAndVisits() {
+		TestResilience.ManualClock clock = new TestResilience.ManualClock();
+		clock.millis = 1000 * MINUTE;
+		CrowdDensityAggregator aggregator = new CrowdDensityAggregator(Duration.ofHours(1), 60, clock);
+		Attraction busy = attractions.get(0);
+		Attraction quiet = attractions.get(1);
+
+		for (int i = 0; i < 10; i++) {
+			aggregator.record(event(GeofenceEvent.Type.ENTER, busy, clock.millis - i * MINUTE));
+		}
+		aggregator.record(event(GeofenceEvent.Type.EXIT, busy, clock.millis));
+		// entered long ago, still inside but no longer a recent visit
+		aggregator.record(event(GeofenceEvent.Type.ENTER, quiet, clock.millis - 3 * 60 * MINUTE));
+
+		List<CrowdDensity> densities = aggregator.getDensities();
+		assertEquals(busy.attractionName, densities.get(0).getAttractionName());
+		assertEquals(9, densities.get(0).getVisitors());
+		assertEquals(10, densities.get(0).getVisits());
+		assertEquals(10, densities.get(0).getVisitsPerHour(), 0.001);
+		assertEquals(1, densities.get(1).getVisitors());
+		assertEquals(0, densities.get(1).getVisits());
+
+		clock.millis += 2 * 60 * MINUTE;
+		assertEquals(0, aggregator.getDensities().get(0).getVisits());
+	}
+}
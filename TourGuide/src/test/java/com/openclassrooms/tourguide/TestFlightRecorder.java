@@ -0,0 +1,145 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.metrics.TimedGpsUtil;
+import com.openclassrooms.tourguide.metrics.TimedRewardCentral;
+import com.openclassrooms.tourguide.profiling.FlightRecorderEndpoint;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestFlightRecorder {
+
+	@Test
+	public void trackingAndRewardsAreRecorded() throws Exception {
+		FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+		endpoint.start("test", null, null, null);
+
+		GpsUtil gpsUtil = new TimedGpsUtil(new GpsUtil());
+		RewardsService rewardsService = new RewardsService(gpsUtil, new TimedRewardCentral(new RewardCentral()));
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		tourGuideService.tracker.stopTracking();
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		tourGuideService.trackUserLocation(user).join();
+		Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		rewardsService.calculateRewards(user).join();
+
+		Resource dump = endpoint.dump("test");
+		endpoint.stop("test");
+		Path file = Files.createTempFile("test", ".jfr");
+		try {
+			Files.write(file, dump.getContentAsByteArray());
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().startsWith("tourguide."))
+					.toList();
+			Set<String> names = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+
+			assertTrue(names.containsAll(Set.of("tourguide.UserTracking", "tourguide.UpstreamCall", "tourguide.RewardCalculation")));
+			RecordedEvent calculation = events.stream()
+					.filter(event -> event.getEventType().getName().equals("tourguide.RewardCalculation")
+							&& event.getString("mode").equals("history"))
+					.findFirst().orElseThrow();
+			assertEquals(user.getUserId().toString(), calculation.getString("userId"));
+			assertEquals(1, calculation.getInt("candidates"));
+			assertEquals(1, calculation.getInt("granted"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void trackerCycleSpansTheTracking() throws Exception {
+		FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+		endpoint.start("cycle", null, null, null);
+		GpsUtil slowGpsUtil = new GpsUtil() {
+			@Override
+			public VisitedLocation getUserLocation(UUID userId) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.getUserLocation(userId);
+			}
+		};
+		InternalTestHelper.setInternalUserNumber(1);
+		TourGuideService tourGuideService = new TourGuideService(slowGpsUtil, new RewardsService(slowGpsUtil, new RewardCentral()));
+
+		Path file = Files.createTempFile("test", ".jfr");
+		try {
+			RecordedEvent cycle = null;
+			for (int i = 0; i < 50 && cycle == null; i++) {
+				Thread.sleep(100);
+				Files.write(file, endpoint.dump("cycle").getContentAsByteArray());
+				cycle = RecordingFile.readAllEvents(file).stream()
+						.filter(event -> event.getEventType().getName().equals("tourguide.TrackerCycle"))
+						.findFirst().orElse(null);
+			}
+
+			assertEquals(1, cycle.getInt("users"));
+			assertTrue(cycle.getDuration().toMillis() >= 300);
+		} finally {
+			tourGuideService.tracker.stopTracking();
+			endpoint.stop("cycle");
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void recordingsAreBounded() {
+		FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+		try {
+			Map<String, Object> started = endpoint.start("bounded", null, null, Duration.ofHours(1));
+			assertEquals(Duration.ofMinutes(30), started.get("duration"));
+			assertEquals(Duration.ofMinutes(30), started.get("maxAge"));
+			assertTrue((Long) started.get("maxSize") > 0);
+
+			assertThrows(IllegalArgumentException.class, () -> endpoint.start("long", null, Duration.ofHours(2), null));
+			assertThrows(IllegalArgumentException.class, () -> endpoint.start("../escape", null, null, null));
+			for (int i = 1; i < 4; i++) {
+				endpoint.start("bounded" + i, null, Duration.ofMinutes(1), null);
+			}
+			assertThrows(IllegalArgumentException.class, () -> endpoint.start("fifth", null, Duration.ofMinutes(1), null));
+		} finally {
+			for (Map<String, Object> recording : endpoint.recordings()) {
+				endpoint.stop((String) recording.get("name"));
+			}
+		}
+	}
+
+	@Test
+	public void unknownRecording() {
+		FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+
+		assertNull(endpoint.dump("missing"));
+		assertNull(endpoint.stop("missing"));
+	}
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.geo.AttractionGrid;
+import com.openclassrooms.tourguide.geo.GeoMath;
+import com.openclassrooms.tourguide.geofence.GeofenceEngine;
+import com.openclassrooms.tourguide.geofence.GeofenceEvent;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestGeofenceEngine {
+
+	private final List<Attraction> attractions = new GpsUtil().getAttractions();
+
+	private VisitedLocation visit(User user, Location location, long minutes) {
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), location,
+				new Date(TimeUnit.MINUTES.toMillis(minutes)));
+		user.addToVisitedLocations(visitedLocation);
+		return visitedLocation;
+	}
+
+	@Test
+	public void gridFindsSameAttractionsAsFullScan() {
+		AttractionGrid grid = new AttractionGrid(attractions, 1);
+		Random random = new Random(42);
+
+		for (int i = 0; i < 2000; i++) {
+			Location location = new Location(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+			// half of the searches are wide enough to contain a pole or cross the antimeridian
+			double radius = i % 2 == 0 ? random.nextInt(1000) : random.nextInt(13000);
+			long expected = attractions.stream().filter(a -> GeoMath.distance(a, location) <= radius).count();
+			assertEquals(expected, grid.withinRadius(location, radius).size());
+		}
+	}
+
+	@Test
+	public void emitsEnterAndExitTransitions() {
+		GeofenceEngine engine = new GeofenceEngine(new AttractionGrid(attractions, 1), () -> 10);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = attractions.get(0);
+		Location farAway = new Location(0, 0);
+
+		// first location bootstraps the state from the history
+		assertTrue(engine.onLocation(user, visit(user, farAway, 0)).isEmpty());
+
+		List<GeofenceEvent> enter = engine.onLocation(user, visit(user, attraction, 10));
+		assertEquals(1, enter.size());
+		assertEquals(GeofenceEvent.Type.ENTER, enter.get(0).getType());
+		assertEquals(attraction, enter.get(0).getAttraction());
+
+		// staying inside does not emit anything
+		assertTrue(engine.onLocation(user, visit(user, attraction, 20)).isEmpty());
+
+		List<GeofenceEvent> exit = engine.onLocation(user, visit(user, farAway, 40));
+		assertEquals(1, exit.size());
+		assertEquals(GeofenceEvent.Type.EXIT, exit.get(0).getType());
+		assertEquals(TimeUnit.MINUTES.toMillis(30), exit.get(0).getDwellMillis());
+		assertEquals(TimeUnit.MINUTES.toMillis(30), engine.getDwellTimes(user.getUserId()).get(attraction.attractionName));
+	}
+
+	@Test
+	public void bootstrapsFromHistoryInTimeOrder() {
+		GeofenceEngine engine = new GeofenceEngine(new AttractionGrid(attractions, 1), () -> 10);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction first = attractions.get(0);
+		Attraction second = attractions.stream()
+				.max(Comparator.comparingDouble(a -> GeoMath.distance(a, first)))
+				.orElseThrow();
+
+		visit(user, second, 30);
+		visit(user, first, 0);
+		List<GeofenceEvent> events = engine.onLocation(user, visit(user, second, 60));
+
+		assertEquals(3, events.size());
+		assertEquals(first, events.get(0).getAttraction());
+		Map<String, Long> dwellTimes = engine.getDwellTimes(user.getUserId());
+		assertEquals(TimeUnit.MINUTES.toMillis(30), dwellTimes.get(first.attractionName));
+		assertEquals(TimeUnit.MINUTES.toMillis(30), dwellTimes.get(second.attractionName));
+	}
+}
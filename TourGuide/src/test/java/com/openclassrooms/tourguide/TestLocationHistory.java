@@ -0,0 +1,86 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.LocationHistory;
+
+public class TestLocationHistory {
+
+	private final UUID userId = UUID.randomUUID();
+
+	private VisitedLocation fix(long minutes) {
+		return new VisitedLocation(userId, new Location(0, 0), new Date(TimeUnit.MINUTES.toMillis(minutes)));
+	}
+
+	private Date minutes(long minutes) {
+		return new Date(TimeUnit.MINUTES.toMillis(minutes));
+	}
+
+	@Test
+	public void keepsLocationsInTimeOrder() {
+		LocationHistory history = new LocationHistory();
+		List<VisitedLocation> fixes = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			fixes.add(fix(i * 5));
+		}
+		List<VisitedLocation> shuffled = new ArrayList<>(fixes);
+		Collections.shuffle(shuffled, new Random(3));
+		shuffled.forEach(history::add);
+
+		assertEquals(fixes, history.toList());
+		assertSame(fixes.get(99), history.latest());
+	}
+
+	@Test
+	public void findsLocationsByTime() {
+		LocationHistory history = new LocationHistory();
+		for (int i = 0; i < 100; i++) {
+			history.add(fix(i * 5));
+		}
+
+		assertNull(history.at(new Date(-1)));
+		assertEquals(minutes(0), history.at(minutes(4)).timeVisited);
+		assertEquals(minutes(10), history.at(minutes(10)).timeVisited);
+		assertEquals(minutes(495), history.at(minutes(10000)).timeVisited);
+
+		List<VisitedLocation> range = history.between(minutes(10), minutes(30));
+		assertEquals(5, range.size());
+		assertEquals(minutes(10), range.get(0).timeVisited);
+		assertEquals(minutes(30), range.get(4).timeVisited);
+		assertTrue(history.between(minutes(11), minutes(14)).isEmpty());
+	}
+
+	@Test
+	public void downSamplesLongRanges() {
+		// six months of five minute fixes
+		LocationHistory history = new LocationHistory();
+		int fixes = 6 * 30 * 24 * 12;
+		for (int i = 0; i < fixes; i++) {
+			history.add(fix(i * 5L));
+		}
+
+		List<VisitedLocation> sampled = history.between(minutes(0), minutes(fixes * 5L), 180);
+
+		assertEquals(180, sampled.size());
+		for (int i = 1; i < sampled.size(); i++) {
+			long gap = sampled.get(i).timeVisited.getTime() - sampled.get(i - 1).timeVisited.getTime();
+			assertTrue(gap > 0 && gap <= TimeUnit.DAYS.toMillis(1) + TimeUnit.MINUTES.toMillis(5));
+		}
+		assertEquals(minutes((fixes - 1) * 5L), sampled.get(179).timeVisited);
+	}
+}
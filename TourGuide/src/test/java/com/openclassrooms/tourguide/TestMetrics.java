@@ -0,0 +1,109 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.metrics.TimedGpsUtil;
+import com.openclassrooms.tourguide.metrics.TimedRewardCentral;
+import com.openclassrooms.tourguide.metrics.UpstreamMetrics;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestMetrics {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void upstreamCallsAreTimed() {
+		GpsUtil gpsUtil = new TimedGpsUtil(new GpsUtil(), meterRegistry);
+
+		gpsUtil.getUserLocation(UUID.randomUUID());
+
+		assertEquals(1, meterRegistry.get(UpstreamMetrics.UPSTREAM_CALLS)
+				.tag("operation", "getUserLocation").timer().count());
+	}
+
+	@Test
+	public void rewardCalculationIsMeasured() {
+		GpsUtil gpsUtil = new TimedGpsUtil(new GpsUtil(), meterRegistry);
+		RewardsService rewardsService = RewardsService.builder(new AttractionCatalog(gpsUtil),
+						new TimedRewardCentral(new RewardCentral(), meterRegistry))
+				.meterRegistry(meterRegistry)
+				.build();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = gpsUtil.getAttractions().get(0);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+
+		rewardsService.calculateRewards(user).join();
+
+		assertTrue(meterRegistry.get("tourguide.rewards.calculation").timer().count() >= 1);
+		assertTrue(meterRegistry.get("tourguide.rewards.candidates").summary().totalAmount() >= 1);
+		assertTrue(meterRegistry.get(UpstreamMetrics.UPSTREAM_CALLS)
+				.tag("operation", "getAttractionRewardPoints").timer().count() >= 1);
+	}
+
+	@Test
+	public void eachServiceRecordsInItsOwnRegistry() {
+		GpsUtil gpsUtil = new GpsUtil();
+		AttractionCatalog attractionCatalog = new AttractionCatalog(gpsUtil);
+		SimpleMeterRegistry otherRegistry = new SimpleMeterRegistry();
+		RewardsService.builder(attractionCatalog, new RewardCentral()).meterRegistry(meterRegistry).build();
+		RewardsService rewardsService = RewardsService.builder(attractionCatalog, new RewardCentral())
+				.meterRegistry(otherRegistry)
+				.build();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = attractionCatalog.getSnapshot().getAttractions().get(0);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+
+		rewardsService.calculateRewards(user).join();
+
+		assertEquals(0, meterRegistry.get("tourguide.rewards.calculation").timer().count());
+		assertEquals(1, otherRegistry.get("tourguide.rewards.calculation").timer().count());
+	}
+
+	@Test
+	public void trackerCycleIncludesTheTracking() throws InterruptedException {
+		GpsUtil slowGpsUtil = new GpsUtil() {
+			@Override
+			public VisitedLocation getUserLocation(UUID userId) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.getUserLocation(userId);
+			}
+		};
+		InternalTestHelper.setInternalUserNumber(1);
+		TourGuideService tourGuideService = TourGuideService.builder(slowGpsUtil, new RewardsService(slowGpsUtil, new RewardCentral()))
+				.meterRegistry(meterRegistry)
+				.build();
+		try {
+			Timer cycleTimer = meterRegistry.get("tourguide.tracker.cycle").timer();
+			for (int i = 0; i < 500 && cycleTimer.count() == 0; i++) {
+				Thread.sleep(10);
+			}
+
+			assertEquals(1, cycleTimer.count());
+			assertTrue(cycleTimer.max(TimeUnit.MILLISECONDS) >= 300);
+		} finally {
+			tourGuideService.tracker.stopTracking();
+		}
+	}
+}
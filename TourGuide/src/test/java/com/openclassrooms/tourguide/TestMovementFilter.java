@@ -0,0 +1,121 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.event.TourGuideEventBus;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.resilience.AdmissionProperties;
+import com.openclassrooms.tourguide.resilience.GpsAdmissionControl;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.DwellRecord;
+import com.openclassrooms.tourguide.tracker.MovementFilter;
+import com.openclassrooms.tourguide.tracker.MovementProperties;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestMovementFilter {
+
+	/**
+	 * GpsUtil stand-in locating every user at the same place
+	 */
+	private static class StationaryGpsUtil extends GpsUtil {
+
+		private volatile Location location = new Location(48.8584, 2.2945);
+
+		@Override
+		public VisitedLocation getUserLocation(UUID userId) {
+			return new VisitedLocation(userId, location, new Date());
+		}
+	}
+
+	private VisitedLocation fix(User user, double latitude, long minutes) {
+		return new VisitedLocation(user.getUserId(), new Location(latitude, 2.2945), new Date(TimeUnit.MINUTES.toMillis(minutes)));
+	}
+
+	@Test
+	public void stationaryFixesAreMerged() {
+		MovementFilter movementFilter = new MovementFilter(new MovementProperties());
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation first = fix(user, 48.8584, 0);
+		user.addToVisitedLocations(first);
+
+		// about 35 feet away, then 5 minutes later at the same place
+		assertFalse(movementFilter.onFix(user, fix(user, 48.8585, 5)));
+		assertFalse(movementFilter.onFix(user, fix(user, 48.8584, 10)));
+
+		DwellRecord dwellRecord = movementFilter.getDwellRecord(user.getUserId());
+		assertEquals(first, dwellRecord.getLocation());
+		assertEquals(2, dwellRecord.getFixes());
+		assertEquals(TimeUnit.MINUTES.toMillis(10), dwellRecord.getDurationMillis());
+
+		// moving about 7 miles, then staying beyond the time threshold
+		assertTrue(movementFilter.onFix(user, fix(user, 48.96, 15)));
+		assertNull(movementFilter.getDwellRecord(user.getUserId()));
+		user.addToVisitedLocations(fix(user, 48.96, 15));
+		assertTrue(movementFilter.onFix(user, fix(user, 48.96, 50)));
+	}
+
+	@Test
+	public void stationaryUsersArePolledLessOften() {
+		MovementProperties properties = new MovementProperties();
+		properties.setBackoffEnabled(true);
+		properties.setMaxBackoffCycles(4);
+		MovementFilter movementFilter = new MovementFilter(properties);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(fix(user, 48.8584, 0));
+
+		List<Boolean> polls = new ArrayList<>();
+		for (int cycle = 1; cycle <= 16; cycle++) {
+			boolean due = movementFilter.isDue(user.getUserId());
+			polls.add(due);
+			if (due) {
+				movementFilter.onFix(user, fix(user, 48.8584, cycle));
+			}
+		}
+
+		// polled on cycles 1, 2, 4, 8, 12 and 16 as the interval doubles up to 4 cycles
+		assertEquals(List.of(true, true, false, true, false, false, false, true,
+				false, false, false, true, false, false, false, true), polls);
+	}
+
+	@Test
+	public void trackingStationaryUserRecordsNothing() throws Exception {
+		StationaryGpsUtil gpsUtil = new StationaryGpsUtil();
+		TourGuideEventBus eventBus = new TourGuideEventBus();
+		RewardsService rewardsService = RewardsService.builder(new AttractionCatalog(new GpsUtil()), new RewardCentral())
+				.eventBus(eventBus)
+				.build();
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = TourGuideService.builder(gpsUtil, rewardsService)
+				.eventBus(eventBus)
+				.gpsAdmissionControl(new GpsAdmissionControl(new AdmissionProperties()))
+				.build();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		for (int i = 0; i < 5; i++) {
+			tourGuideService.trackUserLocation(user).get();
+		}
+		gpsUtil.location = new Location(49.5, 2.2945);
+		tourGuideService.trackUserLocation(user).get();
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(2, user.getVisitedLocations().size());
+		assertNull(tourGuideService.getDwellRecord(user));
+	}
+}
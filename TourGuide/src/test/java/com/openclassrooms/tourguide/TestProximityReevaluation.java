@@ -0,0 +1,171 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.proximity.ProximityReevaluator;
+import com.openclassrooms.tourguide.proximity.ProximitySettings;
+import com.openclassrooms.tourguide.proximity.ReevaluationProgress;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestProximityReevaluation {
+
+	/**
+	 * GpsUtil stand-in with two attractions far from each other
+	 */
+	private static class TwoAttractionsGpsUtil extends GpsUtil {
+
+		private final List<Attraction> attractions = List.of(
+				new Attraction("North", "Lincoln", "NE", 40, -100),
+				new Attraction("South", "Hattiesburg", "MS", 30, -90));
+
+		@Override
+		public List<Attraction> getAttractions() {
+			return attractions;
+		}
+	}
+
+	/**
+	 * RewardCentral stand-in answering immediately
+	 */
+	private static class InstantRewardCentral extends RewardCentral {
+
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			return 100;
+		}
+	}
+
+	private final RewardsService rewardsService = new RewardsService(new TwoAttractionsGpsUtil(), new InstantRewardCentral());
+
+	// visited 15 miles north of the North attraction
+	private final User approaching = user("approaching", 40 + 15 / 69.0, -100);
+
+	private final User visitor = user("visitor", 30, -90);
+
+	private final User faraway = user("faraway", 0, 0);
+
+	private final ProximityReevaluator proximityReevaluator = new ProximityReevaluator(rewardsService,
+			() -> List.of(approaching, visitor, faraway), 4, 50);
+
+	@Test
+	public void changesArePublishedAsNewVersions() throws Exception {
+		ProximitySettings initial = rewardsService.getProximitySettings();
+
+		ProximitySettings updated = proximityReevaluator.apply(20, null);
+
+		assertEquals(initial.getVersion() + 1, updated.getVersion());
+		assertEquals(20, updated.getBufferMiles());
+		assertEquals(initial.getAttractionRangeMiles(), updated.getAttractionRangeMiles());
+		assertEquals(20, CompletableFuture.supplyAsync(() -> rewardsService.getProximitySettings().getBufferMiles()).get());
+		assertThrows(IllegalArgumentException.class, () -> proximityReevaluator.apply(-1, null));
+		// a huge buffer would reward every attraction to every user for good
+		assertThrows(IllegalArgumentException.class, () -> proximityReevaluator.apply(51, null));
+		assertThrows(IllegalArgumentException.class, () -> proximityReevaluator.apply(30, 20));
+		assertEquals(updated, rewardsService.getProximitySettings());
+	}
+
+	@Test
+	public void wideningRewardsOnlyTheUsersInTheDelta() throws InterruptedException {
+		calculateRewards();
+		assertEquals(0, approaching.getUserRewards().size());
+		assertEquals(1, visitor.getUserRewards().size());
+
+		proximityReevaluator.apply(20, null);
+		ReevaluationProgress progress = awaitDone();
+
+		assertEquals(3, progress.getScannedUsers());
+		assertEquals(1, progress.getAffectedUsers());
+		assertEquals(1, progress.getReevaluatedUsers());
+		assertEquals(1, progress.getGrantedRewards());
+		assertEquals("North", approaching.getUserRewards().get(0).attraction.attractionName);
+		assertEquals(0, faraway.getUserRewards().size());
+	}
+
+	@Test
+	public void narrowingKeepsTheGrantedRewards() throws InterruptedException {
+		calculateRewards();
+
+		proximityReevaluator.apply(1, null);
+		ReevaluationProgress progress = awaitDone();
+
+		assertEquals(0, progress.getAffectedUsers());
+		assertEquals(1, visitor.getUserRewards().size());
+
+		// locations tracked with the narrow buffer were only evaluated up to 1 mile, so widening starts from there
+		proximityReevaluator.apply(20, null);
+		progress = awaitDone();
+		assertEquals(1, progress.getFromBufferMiles());
+		assertEquals(1, progress.getGrantedRewards());
+	}
+
+	@Test
+	public void failureIsReportedAsFailed() throws InterruptedException {
+		ProximityReevaluator failing = new ProximityReevaluator(rewardsService, () -> {
+			throw new IllegalStateException("injected failure");
+		}, 4, 50);
+
+		failing.apply(20, null);
+		ReevaluationProgress progress = failing.getProgress();
+		for (int i = 0; i < 500 && ReevaluationProgress.RUNNING.equals(progress.getState()); i++) {
+			Thread.sleep(10);
+			progress = failing.getProgress();
+		}
+
+		assertEquals(ReevaluationProgress.FAILED, progress.getState());
+		// the failed run did not evaluate the histories, so the next change starts again from the same buffer
+		failing.apply(30, null);
+		assertEquals(10, failing.getProgress().getFromBufferMiles());
+		failing.close();
+	}
+
+	@Test
+	public void defaultBufferIsTheConfiguredOne() {
+		RewardsService configured = RewardsService.builder(new AttractionCatalog(new TwoAttractionsGpsUtil()),
+				new InstantRewardCentral()).proximitySettings(ProximitySettings.of(5, 200)).build();
+
+		configured.setProximityBuffer(20);
+		configured.setDefaultProximityBuffer();
+
+		assertEquals(5, configured.getProximitySettings().getBufferMiles());
+	}
+
+	private void calculateRewards() {
+		CompletableFuture.allOf(rewardsService.calculateRewards(approaching), rewardsService.calculateRewards(visitor),
+				rewardsService.calculateRewards(faraway)).join();
+	}
+
+	private ReevaluationProgress awaitDone() throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			ReevaluationProgress progress = proximityReevaluator.getProgress();
+			if (!ReevaluationProgress.RUNNING.equals(progress.getState())) {
+				assertEquals(ReevaluationProgress.DONE, progress.getState());
+				return progress;
+			}
+			Thread.sleep(10);
+		}
+		assertTrue(false, "re-evaluation still running");
+		return null;
+	}
+
+	private static User user(String name, double latitude, double longitude) {
+		User user = new User(UUID.randomUUID(), name, "000", name + "@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date()));
+		return user;
+	}
+}
@@ -0,0 +1,163 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
+import com.openclassrooms.tourguide.catalog.CatalogProperties;
+import com.openclassrooms.tourguide.catalog.RegionTiles;
+import com.openclassrooms.tourguide.geo.GeoMath;
+
+public class TestRegionTiles {
+
+	private final Random random = new Random(5);
+
+	private Location randomLocation() {
+		return new Location(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+	}
+
+	private List<Attraction> randomAttractions(int count) {
+		List<Attraction> attractions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Location location = randomLocation();
+			attractions.add(new Attraction("Attraction " + i, "City " + i, "State", location.latitude, location.longitude));
+		}
+		return attractions;
+	}
+
+	@Test
+	public void findsSameAttractionsAsFullScan() {
+		List<Attraction> attractions = randomAttractions(5000);
+		RegionTiles tiles = new RegionTiles(attractions, new CatalogProperties());
+
+		for (int i = 0; i < 200; i++) {
+			Location location = randomLocation();
+			double radius = random.nextInt(3) == 0 ? 2000 : 200;
+			List<Attraction> expected = attractions.stream()
+					.filter(a -> GeoMath.distance(a, location) <= radius)
+					.sorted(Comparator.comparingDouble(a -> GeoMath.distance(a, location)))
+					.toList();
+			assertEquals(expected, tiles.withinRadiusByDistance(location, radius).stream()
+					.map(AttractionDistance::getAttraction)
+					.toList());
+
+			List<Attraction> nearest = attractions.stream()
+					.sorted(Comparator.comparingDouble(a -> GeoMath.distance(a, location)))
+					.limit(5)
+					.toList();
+			assertEquals(nearest, tiles.nearest(location, 5).stream()
+					.map(AttractionDistance::getAttraction)
+					.toList());
+		}
+	}
+
+	@Test
+	public void loadsOnlyTheTilesAroundTheSearch() {
+		// tiles large enough to hold more attractions than are scanned without an index
+		CatalogProperties properties = new CatalogProperties();
+		properties.setTileSizeDegrees(20);
+		RegionTiles tiles = new RegionTiles(randomAttractions(20000), properties);
+		assertEquals(0, tiles.getLoadedTileCount());
+
+		tiles.withinRadius(new Location(33.8, -117.9), 10);
+		assertTrue(tiles.getLoadedTileCount() <= 4);
+
+		tiles.nearest(new Location(48.8, 2.3), 5);
+		assertTrue(tiles.getLoadedTileCount() <= 4 + 9);
+		assertTrue(tiles.getLoadedTileCount() < tiles.getTileCount());
+	}
+
+	@Test
+	public void evictsTheTilesBeyondTheLimitAndTheIdleOnes() {
+		CatalogProperties properties = new CatalogProperties();
+		properties.setTileSizeDegrees(20);
+		properties.setMaxLoadedTiles(10);
+		properties.setTileIdleTimeout(Duration.ZERO);
+		List<Attraction> attractions = randomAttractions(20000);
+		RegionTiles tiles = new RegionTiles(attractions, properties);
+
+		for (int i = 0; i < 100; i++) {
+			Location location = randomLocation();
+			tiles.withinRadius(location, 10);
+			assertTrue(tiles.getLoadedTileCount() <= 10);
+		}
+		// an evicted tile is loaded again by the next search
+		Attraction attraction = attractions.get(0);
+		assertTrue(tiles.withinRadius(attraction, 1).contains(attraction));
+
+		tiles.evictIdle();
+		assertEquals(0, tiles.getLoadedTileCount());
+	}
+
+	@Disabled
+	@Test
+	public void memoryAndLatencyByCatalogueSize() {
+		// attractions gathered around cities, and users around a few of them
+		List<Location> cities = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			cities.add(randomLocation());
+		}
+		for (int count : new int[] {1000, 10000, 100000}) {
+			List<Attraction> attractions = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				Location city = cities.get(i % cities.size());
+				attractions.add(new Attraction("Attraction " + i, "City", "State",
+						city.latitude + random.nextGaussian(), city.longitude + random.nextGaussian()));
+			}
+			List<Location> users = new ArrayList<>();
+			for (int i = 0; i < 10000; i++) {
+				Location city = cities.get(i % 10);
+				users.add(new Location(city.latitude + random.nextGaussian(), city.longitude + random.nextGaussian()));
+			}
+
+			long heapBefore = usedHeap();
+			RegionTiles tiles = new RegionTiles(attractions, new CatalogProperties());
+			long heapPartitions = usedHeap() - heapBefore;
+			long start = System.nanoTime();
+			long found = 0;
+			for (Location user : users) {
+				found += tiles.nearest(user, 5).size();
+				found += tiles.withinRadius(user, 10).size();
+			}
+			long tileNanos = (System.nanoTime() - start) / users.size();
+			long heapLoaded = usedHeap() - heapBefore - heapPartitions;
+
+			start = System.nanoTime();
+			for (Location user : users.subList(0, 100)) {
+				found += attractions.stream()
+						.map(a -> new AttractionDistance(a, GeoMath.distance(a, user)))
+						.sorted(Comparator.comparingDouble(AttractionDistance::getDistance))
+						.limit(5)
+						.toList()
+						.size();
+			}
+			long scanNanos = (System.nanoTime() - start) / 100;
+
+			System.out.println("memoryAndLatencyByCatalogueSize: " + count + " attractions, " + tiles.getLoadedTileCount()
+					+ "/" + tiles.getTileCount() + " tiles loaded, partitions " + heapPartitions / 1024 + " KB, loaded tiles "
+					+ heapLoaded / 1024 + " KB, tiles " + tileNanos
+					+ " ns per user, full scan " + scanNanos + " ns per user (" + found + " found)");
+			// a full scan stays competitive on small catalogues
+			assertTrue(count < 10000 || tileNanos < scanNanos);
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,212 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.resilience.CircuitBreaker;
+import com.openclassrooms.tourguide.resilience.PolicySettings;
+import com.openclassrooms.tourguide.resilience.ResiliencePolicy;
+import com.openclassrooms.tourguide.resilience.ResilientGpsUtil;
+import com.openclassrooms.tourguide.resilience.ResilientRewardCentral;
+import com.openclassrooms.tourguide.resilience.UpstreamUnavailableException;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestResilience {
+
+	/**
+	 * GpsUtil stand-in failing a given number of times before answering
+	 */
+	static class FlakyGpsUtil extends GpsUtil {
+		final AtomicInteger calls = new AtomicInteger();
+		final int failures;
+
+		FlakyGpsUtil(int failures) {
+			this.failures = failures;
+		}
+
+		@Override
+		public VisitedLocation getUserLocation(UUID userId) {
+			if (calls.incrementAndGet() <= failures) {
+				throw new IllegalStateException("injected failure");
+			}
+			return new VisitedLocation(userId, new Location(1, 2), new Date());
+		}
+	}
+
+	/**
+	 * RewardCentral stand-in that never answers in time
+	 */
+	static class HangingRewardCentral extends RewardCentral {
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			try {
+				TimeUnit.SECONDS.sleep(30);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 1;
+		}
+	}
+
+	/**
+	 * Clock moved by hand
+	 */
+	static class ManualClock extends Clock {
+		long millis = 0;
+
+		@Override
+		public ZoneOffset getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(java.time.ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+	}
+
+	private PolicySettings settings(int maxAttempts, int failureThreshold) {
+		PolicySettings settings = new PolicySettings();
+		settings.setTimeout(Duration.ofMillis(200));
+		settings.setMaxAttempts(maxAttempts);
+		settings.setRetryBackoff(Duration.ofMillis(1));
+		settings.setFailureThreshold(failureThreshold);
+		settings.setOpenDuration(Duration.ofSeconds(10));
+		return settings;
+	}
+
+	@Test
+	public void retriesTransientFailures() {
+		FlakyGpsUtil flakyGpsUtil = new FlakyGpsUtil(2);
+		GpsUtil gpsUtil = new ResilientGpsUtil(flakyGpsUtil, new ResiliencePolicy("gps", settings(3, 10)));
+
+		VisitedLocation visitedLocation = gpsUtil.getUserLocation(UUID.randomUUID());
+
+		assertEquals(1, visitedLocation.location.latitude);
+		assertEquals(3, flakyGpsUtil.calls.get());
+	}
+
+	@Test
+	public void timesOutSlowCalls() {
+		RewardCentral rewardCentral = new ResilientRewardCentral(new HangingRewardCentral(),
+				new ResiliencePolicy("rewards", settings(1, 10)));
+
+		long start = System.currentTimeMillis();
+		assertThrows(UpstreamUnavailableException.class,
+				() -> rewardCentral.getAttractionRewardPoints(UUID.randomUUID(), UUID.randomUUID()));
+		assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(5));
+	}
+
+	@Test
+	public void circuitOpensAndRecovers() {
+		ManualClock clock = new ManualClock();
+		FlakyGpsUtil flakyGpsUtil = new FlakyGpsUtil(3);
+		ResiliencePolicy policy = new ResiliencePolicy("gps", settings(1, 3), clock);
+		GpsUtil gpsUtil = new ResilientGpsUtil(flakyGpsUtil, policy);
+
+		for (int i = 0; i < 3; i++) {
+			assertThrows(UpstreamUnavailableException.class, () -> gpsUtil.getUserLocation(UUID.randomUUID()));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, policy.getCircuitBreaker().getState());
+
+		// open circuit: the library is not called
+		assertThrows(UpstreamUnavailableException.class, () -> gpsUtil.getUserLocation(UUID.randomUUID()));
+		assertEquals(3, flakyGpsUtil.calls.get());
+
+		// after the open duration a trial call closes the circuit
+		clock.millis += TimeUnit.SECONDS.toMillis(10);
+		gpsUtil.getUserLocation(UUID.randomUUID());
+		assertEquals(CircuitBreaker.State.CLOSED, policy.getCircuitBreaker().getState());
+	}
+
+	@Test
+	public void interruptedTrialCallReleasesThePermission() throws Exception {
+		ManualClock clock = new ManualClock();
+		PolicySettings settings = settings(1, 1);
+		settings.setTimeout(Duration.ofSeconds(30));
+		ResiliencePolicy policy = new ResiliencePolicy("gps", settings, clock);
+		assertThrows(UpstreamUnavailableException.class, () -> policy.execute(() -> {
+			throw new IllegalStateException("injected failure");
+		}));
+		clock.millis += TimeUnit.SECONDS.toMillis(10);
+
+		// the trial call is interrupted while waiting for the library, as a cancelled trip search does
+		CountDownLatch started = new CountDownLatch(1);
+		Thread caller = new Thread(() -> assertThrows(UpstreamUnavailableException.class, () -> policy.execute(() -> {
+			started.countDown();
+			TimeUnit.SECONDS.sleep(30);
+			return 0;
+		})));
+		caller.start();
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertEquals(CircuitBreaker.State.HALF_OPEN, policy.getCircuitBreaker().getState());
+		caller.interrupt();
+		caller.join(TimeUnit.SECONDS.toMillis(5));
+
+		// a new trial call is let through and closes the circuit
+		assertEquals(1, policy.execute(() -> 1));
+		assertEquals(CircuitBreaker.State.CLOSED, policy.getCircuitBreaker().getState());
+	}
+
+	@Test
+	public void trackUserLocationReusesLastKnownLocation() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		GpsUtil failingGpsUtil = new ResilientGpsUtil(new FlakyGpsUtil(Integer.MAX_VALUE),
+				new ResiliencePolicy("gps", settings(1, 100)));
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(failingGpsUtil, rewardsService);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation lastLocation = new VisitedLocation(user.getUserId(), new Location(3, 4), new Date());
+		user.addToVisitedLocations(lastLocation);
+
+		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).get();
+		tourGuideService.tracker.stopTracking();
+
+		assertSame(lastLocation, visitedLocation);
+		assertEquals(1, user.getVisitedLocations().size());
+	}
+
+	@Test
+	public void rewardsAreDeferredWhenRewardCentralIsUnavailable() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new ResilientRewardCentral(new HangingRewardCentral(),
+				new ResiliencePolicy("rewards", settings(1, 100))));
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		List<Attraction> attractions = gpsUtil.getAttractions();
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(0), new Date()));
+
+		rewardsService.calculateRewards(user).join();
+
+		assertTrue(user.getUserRewards().isEmpty());
+	}
+}
@@ -0,0 +1,341 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.ledger.LedgerEntry;
+import com.openclassrooms.tourguide.ledger.LedgerProperties;
+import com.openclassrooms.tourguide.ledger.RewardLedger;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+public class TestRewardLedger {
+
+	/**
+	 * Channel writing only part of the next write then failing, like a disk running full
+	 */
+	private static class TearingChannel extends FileChannel {
+
+		private final FileChannel delegate;
+
+		private volatile boolean tearNextWrite;
+
+		private TearingChannel(FileChannel delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (tearNextWrite) {
+				tearNextWrite = false;
+				ByteBuffer half = src.duplicate().limit(src.position() + src.remaining() / 2);
+				delegate.write(half);
+				throw new IOException("No space left on device");
+			}
+			return delegate.write(src);
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			return delegate.read(dst);
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return delegate.read(dsts, offset, length);
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			return delegate.write(srcs, offset, length);
+		}
+
+		@Override
+		public long position() throws IOException {
+			return delegate.position();
+		}
+
+		@Override
+		public FileChannel position(long newPosition) throws IOException {
+			delegate.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			return delegate.size();
+		}
+
+		@Override
+		public FileChannel truncate(long size) throws IOException {
+			delegate.truncate(size);
+			return this;
+		}
+
+		@Override
+		public void force(boolean metaData) throws IOException {
+			delegate.force(metaData);
+		}
+
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return delegate.transferTo(position, count, target);
+		}
+
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			return delegate.transferFrom(src, position, count);
+		}
+
+		@Override
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return delegate.read(dst, position);
+		}
+
+		@Override
+		public int write(ByteBuffer src, long position) throws IOException {
+			return delegate.write(src, position);
+		}
+
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return delegate.map(mode, position, size);
+		}
+
+		@Override
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return delegate.lock(position, size, shared);
+		}
+
+		@Override
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return delegate.tryLock(position, size, shared);
+		}
+
+		@Override
+		protected void implCloseChannel() throws IOException {
+			delegate.close();
+		}
+	}
+
+	/**
+	 * Ledger writing through a tearing channel
+	 */
+	private static class TearingLedger extends RewardLedger {
+
+		private TearingChannel channel;
+
+		private TearingLedger(LedgerProperties properties) {
+			super(properties);
+		}
+
+		@Override
+		protected FileChannel openChannel(Path path, OpenOption... options) throws IOException {
+			channel = new TearingChannel(super.openChannel(path, options));
+			return channel;
+		}
+	}
+
+	@TempDir
+	Path directory;
+
+	private LedgerProperties properties() {
+		LedgerProperties properties = new LedgerProperties();
+		properties.setEnabled(true);
+		properties.setDirectory(directory.toString());
+		return properties;
+	}
+
+	private UserReward reward(UUID userId, Attraction attraction, int points) {
+		return new UserReward(new VisitedLocation(userId, new Location(attraction.latitude, attraction.longitude),
+				new Date(1700000000000L + points)), attraction, points);
+	}
+
+	private List<LedgerEntry> entries(RewardLedger ledger) {
+		List<LedgerEntry> entries = new ArrayList<>();
+		ledger.replay(entries::add);
+		return entries;
+	}
+
+	@Test
+	public void rewardsAreReadBackAfterReopening() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		UUID userId = UUID.randomUUID();
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			List<CompletableFuture<Void>> writes = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				writes.add(ledger.append(userId, reward(userId, attractions.get(i), i)));
+			}
+			CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+		}
+
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			List<LedgerEntry> entries = entries(ledger);
+
+			assertEquals(10, entries.size());
+			LedgerEntry entry = entries.get(3);
+			assertEquals(userId, entry.getUserId());
+			assertEquals(RewardLedger.attractionKey(attractions.get(3)), entry.getAttractionKey());
+			assertEquals(attractions.get(3).latitude, entry.getLatitude());
+			assertEquals(1700000000003L, entry.getTimeVisited());
+			assertEquals(3, entry.getRewardPoints());
+		}
+	}
+
+	@Test
+	public void appendsRacingTheCloseAreAllSettled() throws Exception {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		UUID userId = UUID.randomUUID();
+		List<CompletableFuture<Void>> writes = new CopyOnWriteArrayList<>();
+		RewardLedger ledger = new RewardLedger(properties());
+		Thread appender = new Thread(() -> {
+			for (int i = 0; i < 20000; i++) {
+				writes.add(ledger.append(userId, reward(userId, attractions.get(i % attractions.size()), i)));
+			}
+		});
+
+		appender.start();
+		ledger.close();
+		appender.join();
+
+		for (CompletableFuture<Void> write : writes) {
+			// written or failed, but never left pending
+			assertTrue(write.isDone());
+		}
+	}
+
+	@Test
+	public void rewardsWrittenAfterAFailedWriteAreKept() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		UUID userId = UUID.randomUUID();
+		try (TearingLedger ledger = new TearingLedger(properties())) {
+			ledger.append(userId, reward(userId, attractions.get(0), 0)).join();
+			ledger.channel.tearNextWrite = true;
+			CompletableFuture<Void> failed = ledger.append(userId, reward(userId, attractions.get(1), 1));
+			assertThrows(CompletionException.class, failed::join);
+			ledger.append(userId, reward(userId, attractions.get(2), 2)).join();
+
+			assertEquals(2, ledger.getRecordCount());
+			ledger.compact();
+			assertEquals(2, entries(ledger).size());
+		}
+
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			List<LedgerEntry> entries = entries(ledger);
+
+			assertEquals(2, entries.size());
+			assertEquals(RewardLedger.attractionKey(attractions.get(2)), entries.get(1).getAttractionKey());
+		}
+	}
+
+	@Test
+	public void tornRecordIsCutOff() throws IOException {
+		Attraction attraction = new GpsUtil().getAttractions().get(0);
+		UUID userId = UUID.randomUUID();
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			ledger.append(userId, reward(userId, attraction, 1)).join();
+			ledger.append(userId, reward(userId, attraction, 2)).join();
+		}
+		// a crash in the middle of the second record
+		Path file = directory.resolve(RewardLedger.FILE_NAME);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(Files.size(file) - 20);
+		}
+
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			assertEquals(1, ledger.getRecordCount());
+			ledger.append(userId, reward(userId, attraction, 3)).join();
+			List<LedgerEntry> entries = entries(ledger);
+
+			assertEquals(2, entries.size());
+			assertEquals(1, entries.get(0).getRewardPoints());
+			assertEquals(3, entries.get(1).getRewardPoints());
+		}
+	}
+
+	@Test
+	public void compactionKeepsTheFirstRewardOfEachAttraction() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		UUID userId = UUID.randomUUID();
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			for (int round = 0; round < 3; round++) {
+				for (int i = 0; i < 5; i++) {
+					ledger.append(userId, reward(userId, attractions.get(i), round)).join();
+				}
+			}
+
+			assertEquals(10, ledger.compact());
+			ledger.append(userId, reward(userId, attractions.get(5), 9)).join();
+			List<LedgerEntry> entries = entries(ledger);
+
+			assertEquals(6, entries.size());
+			assertTrue(entries.subList(0, 5).stream().allMatch(entry -> entry.getRewardPoints() == 0));
+			assertEquals(9, entries.get(5).getRewardPoints());
+		}
+	}
+
+	@Test
+	public void grantedRewardsAreRestoredAtStartup() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		InternalTestHelper.setInternalUserNumber(10);
+		User rewarded;
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			RewardsService rewardsService = RewardsService.builder(new AttractionCatalog(gpsUtil), new RewardCentral())
+					.rewardLedger(ledger)
+					.build();
+			TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+			tourGuideService.tracker.stopTracking();
+			rewarded = tourGuideService.getAllUsers().get(0);
+			Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+			rewarded.addToVisitedLocations(new VisitedLocation(rewarded.getUserId(), attraction, new Date()));
+			rewardsService.calculateRewards(rewarded).get();
+		}
+
+		// a new instance loads the attractions with new ids and the same users
+		try (RewardLedger ledger = new RewardLedger(properties())) {
+			RewardsService rewardsService = RewardsService.builder(new AttractionCatalog(gpsUtil), new RewardCentral())
+					.rewardLedger(ledger)
+					.build();
+			TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+			tourGuideService.tracker.stopTracking();
+			User restored = tourGuideService.getUser(rewarded.getUserName());
+
+			assertEquals(rewarded.getUserId(), restored.getUserId());
+			assertEquals(rewarded.getTotalRewardPoints(), restored.getTotalRewardPoints());
+			assertEquals(rewarded.getUserRewards().get(0).attraction.attractionName,
+					restored.getUserRewards().get(0).attraction.attractionName);
+		}
+	}
+}
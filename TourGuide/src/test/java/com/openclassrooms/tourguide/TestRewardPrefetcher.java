@@ -0,0 +1,121 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.prefetch.PrefetchProperties;
+import com.openclassrooms.tourguide.prefetch.RewardPrefetcher;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestRewardPrefetcher {
+
+	/**
+	 * RewardCentral stand-in counting the calls for each attraction
+	 */
+	private static class CountingRewardCentral extends RewardCentral {
+
+		private final Map<UUID, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			return 100 + calls.computeIfAbsent(attractionId, id -> new AtomicInteger()).incrementAndGet();
+		}
+
+		private int calls(Attraction attraction) {
+			AtomicInteger count = calls.get(attraction.attractionId);
+			return count == null ? 0 : count.get();
+		}
+	}
+
+	private final CountingRewardCentral rewardCentral = new CountingRewardCentral();
+
+	private RewardsService rewardsService() {
+		return rewardsService(new PrefetchProperties());
+	}
+
+	private RewardsService rewardsService(PrefetchProperties properties) {
+		RewardPrefetcher rewardPrefetcher = new RewardPrefetcher(properties, rewardCentral);
+		return RewardsService.builder(new AttractionCatalog(new GpsUtil()), rewardCentral)
+				.rewardPrefetcher(rewardPrefetcher)
+				.build();
+	}
+
+	private void moveTo(RewardsService rewardsService, User user, double latitude, double longitude) {
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date());
+		user.addToVisitedLocations(visitedLocation);
+		rewardsService.trackRewards(user, visitedLocation).join();
+	}
+
+	@Test
+	public void approachedAttractionIsRewardedWithThePrefetchedPoints() throws Exception {
+		RewardsService rewardsService = rewardsService();
+		Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		// about 15 miles north, within the approach radius but outside the proximity buffer
+		moveTo(rewardsService, user, attraction.latitude + 0.22, attraction.longitude);
+		int prefetched = rewardsService.getRewardPoints(attraction, user).get();
+		moveTo(rewardsService, user, attraction.latitude, attraction.longitude);
+
+		assertEquals(1, rewardCentral.calls(attraction));
+		assertEquals(101, prefetched);
+		assertEquals(101, user.getUserRewards().stream()
+				.filter(reward -> reward.attraction == attraction).findFirst().orElseThrow().getRewardPoints());
+		assertEquals(0, rewardsService.getRewardPrefetcher().getStagedCount());
+	}
+
+	@Test
+	public void pointsAreDiscardedWhenTheUserMovesAway() throws Exception {
+		RewardsService rewardsService = rewardsService();
+		Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		moveTo(rewardsService, user, attraction.latitude + 0.22, attraction.longitude);
+		assertEquals(101, (int) rewardsService.getRewardPoints(attraction, user).get());
+		assertEquals(1, rewardCentral.calls(attraction));
+
+		// far away from every attraction
+		moveTo(rewardsService, user, -80, 0);
+		assertEquals(0, rewardsService.getRewardPrefetcher().getStagedCount());
+
+		moveTo(rewardsService, user, attraction.latitude, attraction.longitude);
+		assertEquals(2, rewardCentral.calls(attraction));
+		assertEquals(1, user.getUserRewards().stream().filter(reward -> reward.attraction == attraction).count());
+	}
+
+	@Test
+	public void expiredPointsAreSweptForUsersWhoStoppedReporting() throws Exception {
+		PrefetchProperties properties = new PrefetchProperties();
+		properties.setTimeToLive(Duration.ofMillis(1));
+		RewardsService rewardsService = rewardsService(properties);
+		RewardPrefetcher rewardPrefetcher = rewardsService.getRewardPrefetcher();
+		Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		moveTo(rewardsService, user, attraction.latitude + 0.22, attraction.longitude);
+		assertEquals(1, rewardPrefetcher.getStagedCount());
+		Thread.sleep(10);
+
+		assertNull(rewardPrefetcher.peek(user.getUserId(), attraction.attractionId));
+		rewardPrefetcher.sweep();
+		assertEquals(0, rewardPrefetcher.getStagedCount());
+		assertNull(rewardPrefetcher.take(user.getUserId(), attraction.attractionId));
+		assertEquals(0, rewardPrefetcher.getStagedCount());
+	}
+}
@@ -0,0 +1,219 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.RewardStore;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+public class TestRewardStore {
+
+	/**
+	 * RewardCentral stand-in answering immediately, so that the grants race each other
+	 */
+	private static class InstantRewardCentral extends RewardCentral {
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			return 1;
+		}
+	}
+
+	@Test
+	public void reloadedAttractionIsNotRewardedTwice() {
+		Attraction attraction = new GpsUtil().getAttractions().get(0);
+		// a reload gives the attraction a new id, here with a moved location
+		Attraction reloaded = new Attraction(attraction.attractionName, attraction.city, attraction.state,
+				attraction.latitude + 0.001, attraction.longitude);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), new Location(attraction.latitude, attraction.longitude), new Date());
+
+		assertTrue(user.addUserReward(new UserReward(visitedLocation, attraction, 1)));
+
+		assertTrue(user.hasUserReward(reloaded));
+		assertFalse(user.addUserReward(new UserReward(visitedLocation, reloaded, 1)));
+		assertEquals(1, user.getUserRewards().size());
+	}
+
+	@Test
+	public void rewardsAreReadInGrantOrder() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		UUID userId = UUID.randomUUID();
+		RewardStore rewardStore = new RewardStore();
+		List<Attraction> granted = new ArrayList<>(attractions);
+		Collections.reverse(granted);
+
+		for (Attraction attraction : granted) {
+			VisitedLocation visitedLocation = new VisitedLocation(userId, new Location(attraction.latitude, attraction.longitude), new Date());
+			rewardStore.add(new UserReward(visitedLocation, attraction, 1));
+		}
+
+		assertEquals(granted.stream().map(attraction -> attraction.attractionName).toList(),
+				rewardStore.getRewards(userId).stream().map(reward -> reward.attraction.attractionName).toList());
+	}
+
+	@Test
+	public void concurrentAddsKeepOneRewardPerAttraction() throws Exception {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		ExecutorService executor = Executors.newFixedThreadPool(64);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger added = new AtomicInteger();
+		AtomicBoolean reading = new AtomicBoolean(true);
+
+		// a reader iterates the rewards while they are added
+		Future<?> reader = executor.submit(() -> {
+			while (reading.get()) {
+				List<UserReward> rewards = user.getUserRewards();
+				Set<UUID> ids = rewards.stream().map(r -> r.attraction.attractionId).collect(Collectors.toSet());
+				assertEquals(rewards.size(), ids.size());
+			}
+		});
+
+		List<Future<?>> writers = new ArrayList<>();
+		for (int i = 0; i < 63; i++) {
+			writers.add(executor.submit(() -> {
+				start.await();
+				for (Attraction attraction : attractions) {
+					VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), attraction, new Date());
+					if (user.addUserReward(new UserReward(visitedLocation, attraction, 1))) {
+						added.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> writer : writers) {
+			writer.get(10, TimeUnit.SECONDS);
+		}
+		reading.set(false);
+		reader.get(10, TimeUnit.SECONDS);
+		executor.shutdown();
+
+		assertEquals(attractions.size(), added.get());
+		assertEquals(attractions.size(), user.getUserRewards().size());
+		attractions.forEach(attraction -> assertTrue(user.hasUserReward(attraction)));
+	}
+
+	@Test
+	public void concurrentCalculationsGrantEachAttractionOnce() throws Exception {
+		RewardsService rewardsService = new RewardsService(new GpsUtil(), new InstantRewardCentral());
+		rewardsService.setProximityBuffer(Integer.MAX_VALUE);
+		List<Attraction> attractions = rewardsService.getAttractionCatalog().getSnapshot().getAttractions();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		attractions.forEach(attraction -> user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date())));
+
+		List<CompletableFuture<Void>> calculations = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			calculations.add(rewardsService.calculateRewards(user));
+		}
+		CompletableFuture.allOf(calculations.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+		assertEquals(attractions.size(), user.getUserRewards().size());
+	}
+
+	@Test
+	public void rewardsAreBuiltBackFromTheirCompactForm() {
+		Attraction attraction = new GpsUtil().getAttractions().get(0);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Date timeVisited = new Date(1700000000123L);
+		user.addUserReward(new UserReward(new VisitedLocation(user.getUserId(), new Location(48.8584, 2.2945), timeVisited), attraction, 250));
+
+		UserReward reward = user.getUserRewards().get(0);
+
+		assertSame(attraction, reward.attraction);
+		assertEquals(user.getUserId(), reward.visitedLocation.userId);
+		assertEquals(48.8584, reward.visitedLocation.location.latitude);
+		assertEquals(2.2945, reward.visitedLocation.location.longitude);
+		assertEquals(timeVisited, reward.visitedLocation.timeVisited);
+		assertEquals(250, reward.getRewardPoints());
+		assertEquals(250, user.getTotalRewardPoints());
+	}
+
+	/**
+	 * Compares the heap taken by the rewards of 100k users, kept compact or as full objects
+	 */
+	@Disabled
+	@Test
+	public void rewardHeapFootprint() {
+		int userCount = 100000;
+		int rewardsPerUser = 10;
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		List<UUID> userIds = new ArrayList<>();
+		for (int i = 0; i < userCount; i++) {
+			userIds.add(UUID.randomUUID());
+		}
+
+		long before = usedHeap();
+		List<Map<UUID, UserReward>> fullRewards = new ArrayList<>(userCount);
+		for (UUID userId : userIds) {
+			Map<UUID, UserReward> rewards = new ConcurrentHashMap<>();
+			for (int j = 0; j < rewardsPerUser; j++) {
+				UserReward reward = reward(userId, attractions.get(j));
+				rewards.put(reward.attraction.attractionId, reward);
+			}
+			fullRewards.add(rewards);
+		}
+		long fullBytes = usedHeap() - before;
+		fullRewards.clear();
+
+		before = usedHeap();
+		List<RewardStore> compactRewards = new ArrayList<>(userCount);
+		for (UUID userId : userIds) {
+			RewardStore rewards = new RewardStore();
+			for (int j = 0; j < rewardsPerUser; j++) {
+				rewards.add(reward(userId, attractions.get(j)));
+			}
+			compactRewards.add(rewards);
+		}
+		long compactBytes = usedHeap() - before;
+
+		System.out.println("Rewards of " + userCount + " users: full " + fullBytes / (1024 * 1024) + " MB, compact "
+				+ compactBytes / (1024 * 1024) + " MB");
+		assertEquals(userCount, compactRewards.size());
+		assertTrue(compactBytes < fullBytes);
+	}
+
+	private UserReward reward(UUID userId, Attraction attraction) {
+		Location location = new Location(attraction.latitude + Math.random() / 1000, attraction.longitude);
+		return new UserReward(new VisitedLocation(userId, location, new Date()), attraction, 100);
+	}
+
+	private long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+}
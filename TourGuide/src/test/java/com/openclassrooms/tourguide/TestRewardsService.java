@@ -1,6 +1,7 @@
 package com.openclassrooms.tourguide;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Date;
@@ -14,8 +15,10 @@ import org.junit.jupiter.api.Test;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionDistance;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
@@ -24,6 +27,33 @@ import com.openclassrooms.tourguide.user.UserReward;
 
 public class TestRewardsService {
 
+	/**
+	 * RewardCentral stand-in failing until it is switched on
+	 */
+	static class SwitchableRewardCentral extends RewardCentral {
+		volatile boolean available = false;
+
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			if (!available) {
+				throw new IllegalStateException("injected failure");
+			}
+			return 10;
+		}
+	}
+
+	/**
+	 * GpsUtil stand-in locating every user at the same place
+	 */
+	static class StationaryGpsUtil extends GpsUtil {
+		volatile Location location;
+
+		@Override
+		public VisitedLocation getUserLocation(UUID userId) {
+			return new VisitedLocation(userId, location, new Date());
+		}
+	}
+
 	@Test
 	public void userGetRewards() throws ExecutionException, InterruptedException {
 		GpsUtil gpsUtil = new GpsUtil();
@@ -49,6 +79,26 @@ public class TestRewardsService {
 		assertTrue(rewardsService.isWithinAttractionProximity(attraction, attraction));
 	}
 
+	@Test
+	public void attractionsWithinUserProximity() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+
+		// default preference covers every attraction
+		assertEquals(gpsUtil.getAttractions().size(), rewardsService.getAttractionsWithinProximity(user, attraction).size());
+
+		user.getUserPreferences().setAttractionProximity(500);
+		List<AttractionDistance> inRange = rewardsService.getAttractionsWithinProximity(user, attraction);
+		assertSame(attraction, inRange.get(0).getAttraction());
+		for (int i = 0; i < inRange.size(); i++) {
+			assertTrue(inRange.get(i).getDistance() <= 500);
+			assertTrue(i == 0 || inRange.get(i - 1).getDistance() <= inRange.get(i).getDistance());
+			assertTrue(rewardsService.isWithinAttractionProximity(user, inRange.get(i).getAttraction(), attraction));
+		}
+	}
+
 	@Test
 	public void nearAllAttractions() throws ExecutionException, InterruptedException {
 		GpsUtil gpsUtil = new GpsUtil();
@@ -65,4 +115,50 @@ public class TestRewardsService {
 		assertEquals(gpsUtil.getAttractions().size(), userRewards.size());
 	}
 
+	@Test
+	public void deferredRewardIsGrantedWhileStillInsideTheZone() {
+		GpsUtil gpsUtil = new GpsUtil();
+		SwitchableRewardCentral rewardCentral = new SwitchableRewardCentral();
+		RewardsService rewardsService = new RewardsService(gpsUtil, rewardCentral);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+
+		VisitedLocation entered = new VisitedLocation(user.getUserId(), attraction, new Date(1000));
+		user.addToVisitedLocations(entered);
+		rewardsService.trackRewards(user, entered).join();
+		assertTrue(user.getUserRewards().isEmpty());
+
+		// the user stays in the zone, so no new enter transition is emitted
+		rewardCentral.available = true;
+		VisitedLocation stayed = new VisitedLocation(user.getUserId(), attraction, new Date(2000));
+		user.addToVisitedLocations(stayed);
+		rewardsService.trackRewards(user, stayed).join();
+
+		assertEquals(1, user.getUserRewards().size());
+		assertEquals(attraction.attractionName, user.getUserRewards().get(0).attraction.attractionName);
+	}
+
+	@Test
+	public void deferredRewardIsGrantedToAStationaryUser() throws Exception {
+		StationaryGpsUtil gpsUtil = new StationaryGpsUtil();
+		SwitchableRewardCentral rewardCentral = new SwitchableRewardCentral();
+		RewardsService rewardsService = new RewardsService(gpsUtil, rewardCentral);
+		Attraction attraction = rewardsService.getAttractionCatalog().getSnapshot().getAttractions().get(0);
+		gpsUtil.location = new Location(attraction.latitude, attraction.longitude);
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		tourGuideService.tracker.stopTracking();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		tourGuideService.trackUserLocation(user).get();
+		assertTrue(user.getUserRewards().isEmpty());
+
+		// the next fix is merged by the movement filter, the user never left the attraction
+		rewardCentral.available = true;
+		tourGuideService.trackUserLocation(user).get();
+
+		assertEquals(1, user.getVisitedLocations().size());
+		assertEquals(1, user.getUserRewards().size());
+		assertEquals(attraction.attractionName, user.getUserRewards().get(0).attraction.attractionName);
+	}
 }
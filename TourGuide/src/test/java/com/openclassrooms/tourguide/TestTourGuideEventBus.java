@@ -0,0 +1,118 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.event.EventSubscription;
+import com.openclassrooms.tourguide.event.EventType;
+import com.openclassrooms.tourguide.event.TourGuideEvent;
+import com.openclassrooms.tourguide.event.TourGuideEventBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.EventStreamService;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.StreamProperties;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestTourGuideEventBus {
+
+	@Test
+	public void subscriptionFiltersOnUser() throws InterruptedException {
+		TourGuideEventBus eventBus = new TourGuideEventBus();
+		UUID userId = UUID.randomUUID();
+		EventSubscription userSubscription = eventBus.subscribe(userId);
+		EventSubscription globalSubscription = eventBus.subscribe(null);
+
+		eventBus.publish(new TourGuideEvent(EventType.LOCATION, UUID.randomUUID(), null));
+		eventBus.publish(new TourGuideEvent(EventType.LOCATION, userId, null));
+
+		assertEquals(userId, userSubscription.poll(1, TimeUnit.SECONDS).getUserId());
+		assertNull(userSubscription.poll(10, TimeUnit.MILLISECONDS));
+		assertTrue(globalSubscription.poll(1, TimeUnit.SECONDS) != null);
+		assertTrue(globalSubscription.poll(1, TimeUnit.SECONDS) != null);
+	}
+
+	@Test
+	public void slowSubscriberDropsOldestEvents() throws InterruptedException {
+		TourGuideEventBus eventBus = new TourGuideEventBus();
+		EventSubscription subscription = eventBus.subscribe(null, 2);
+		UUID lastUserId = null;
+
+		for (int i = 0; i < 10; i++) {
+			lastUserId = UUID.randomUUID();
+			eventBus.publish(new TourGuideEvent(EventType.LOCATION, lastUserId, null));
+		}
+
+		assertEquals(8, subscription.getDroppedEvents());
+		subscription.poll(1, TimeUnit.SECONDS);
+		assertEquals(lastUserId, subscription.poll(1, TimeUnit.SECONDS).getUserId());
+
+		subscription.close();
+		assertEquals(0, eventBus.getSubscriptionCount());
+	}
+
+	@Test
+	public void streamsBeyondTheLimitAreRefused() {
+		TourGuideEventBus eventBus = new TourGuideEventBus();
+		StreamProperties properties = new StreamProperties();
+		properties.setMaxStreams(1);
+		EventStreamService eventStreamService = new EventStreamService(eventBus, new ObjectMapper(), properties);
+
+		ResponseBodyEmitter emitter = eventStreamService.streamNdjson(UUID.randomUUID());
+		ResponseStatusException refused = assertThrows(ResponseStatusException.class,
+				() -> eventStreamService.streamNdjson(UUID.randomUUID()));
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, refused.getStatusCode());
+		assertEquals(1, eventBus.getSubscriptionCount());
+		emitter.complete();
+	}
+
+	@Test
+	public void trackUserLocationPublishesLocationAndRewards() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		TourGuideEventBus eventBus = new TourGuideEventBus();
+		RewardsService rewardsService = RewardsService.builder(new AttractionCatalog(gpsUtil), new RewardCentral())
+				.eventBus(eventBus)
+				.build();
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = TourGuideService.builder(gpsUtil, rewardsService)
+				.eventBus(eventBus)
+				.build();
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Location attraction = gpsUtil.getAttractions().get(0);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		EventSubscription subscription = eventBus.subscribe(user.getUserId());
+
+		tourGuideService.trackUserLocation(user).get();
+		tourGuideService.tracker.stopTracking();
+
+		List<EventType> types = new ArrayList<>();
+		TourGuideEvent event;
+		while ((event = subscription.poll(100, TimeUnit.MILLISECONDS)) != null) {
+			types.add(event.getType());
+		}
+		assertEquals(EventType.LOCATION, types.get(0));
+		assertTrue(types.contains(EventType.ATTRACTION_ENTER));
+		assertTrue(types.contains(EventType.REWARD));
+	}
+}
@@ -0,0 +1,128 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.geo.GeoMath;
+import com.openclassrooms.tourguide.itinerary.Itinerary;
+import com.openclassrooms.tourguide.itinerary.ItineraryProperties;
+import com.openclassrooms.tourguide.itinerary.ItineraryStop;
+import com.openclassrooms.tourguide.itinerary.RouteOptimizer;
+import com.openclassrooms.tourguide.itinerary.TourPlanner;
+
+public class TestTourPlanner {
+
+	/**
+	 * GpsUtil stand-in with many attractions around Los Angeles, the same on every call
+	 */
+	private static class DenseGpsUtil extends GpsUtil {
+
+		private final List<Attraction> attractions = new ArrayList<>();
+
+		private DenseGpsUtil(int count) {
+			Random random = new Random(1);
+			for (int i = 0; i < count; i++) {
+				attractions.add(new Attraction("Attraction " + i, "Los Angeles", "CA",
+						34 + random.nextDouble() * 2, -119 + random.nextDouble() * 2));
+			}
+		}
+
+		@Override
+		public List<Attraction> getAttractions() {
+			return attractions;
+		}
+	}
+
+	@Test
+	public void twoOptRemovesTheNearestNeighbourDetour() {
+		// stops on a line at 1, -2 and 4 from the origin: nearest neighbour goes 1, -2, 4 for 10 miles
+		double[] positions = {0, 1, -2, 4};
+		double[][] distances = new double[4][4];
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 4; j++) {
+				distances[i][j] = Math.abs(positions[i] - positions[j]);
+			}
+		}
+
+		int[] route = RouteOptimizer.optimise(distances, System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+
+		assertArrayEquals(new int[] {0, 2, 1, 3}, route);
+		assertEquals(8, RouteOptimizer.length(route, distances), 1e-9);
+	}
+
+	@Test
+	public void itineraryVisitsTheClosestAttractionsOnce() {
+		AttractionCatalog attractionCatalog = new AttractionCatalog(new GpsUtil());
+		TourPlanner tourPlanner = new TourPlanner(new ItineraryProperties(), attractionCatalog);
+		Location location = new Location(33.817595, -117.922008);
+
+		Itinerary itinerary = tourPlanner.plan(location, 10);
+
+		List<Attraction> closest = attractionCatalog.getSnapshot().nearest(location, 10);
+		assertEquals(10, itinerary.getStops().size());
+		assertEquals(closest.stream().map(a -> a.attractionName).collect(Collectors.toSet()),
+				new HashSet<>(itinerary.getStops().stream().map(ItineraryStop::getAttractionName).toList()));
+		ItineraryStop last = itinerary.getStops().get(9);
+		assertEquals(itinerary.getTotalDistance(), last.getCumulativeDistance(), 1e-9);
+		assertTrue(itinerary.getTotalDistance() <= nearestFirstLength(location, closest) + 1e-6);
+	}
+
+	@Test
+	public void toursFromTheSameCellShareTheirRoute() {
+		TourPlanner tourPlanner = new TourPlanner(new ItineraryProperties(), new AttractionCatalog(new GpsUtil()));
+
+		Itinerary first = tourPlanner.plan(new Location(33.8171, -117.9221), 5);
+		Itinerary second = tourPlanner.plan(new Location(33.8179, -117.9229), 5);
+		tourPlanner.plan(new Location(40.7128, -74.0060), 5);
+
+		assertEquals(2, tourPlanner.getCachedRouteCount());
+		assertEquals(first.getStops().stream().map(ItineraryStop::getAttractionName).toList(),
+				second.getStops().stream().map(ItineraryStop::getAttractionName).toList());
+		assertEquals(new Location(33.8179, -117.9229).latitude, second.getTouristLocation().latitude);
+	}
+
+	@Test
+	public void fiftyStopsArePlannedWithinBudget() {
+		ItineraryProperties properties = new ItineraryProperties();
+		TourPlanner tourPlanner = new TourPlanner(properties, new AttractionCatalog(new DenseGpsUtil(1000)));
+		tourPlanner.plan(new Location(35, -118), 50);
+
+		long start = System.nanoTime();
+		Itinerary itinerary = tourPlanner.plan(new Location(35.5, -118.5), 50);
+		long computed = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int i = 0; i < 1000; i++) {
+			tourPlanner.plan(new Location(35.5, -118.5), 50);
+		}
+		long cached = (System.nanoTime() - start) / 1000;
+
+		assertEquals(50, itinerary.getStops().size());
+		// the optimisation budget plus the nearest search and some scheduling slack
+		assertTrue(computed < properties.getOptimisationBudget().toNanos() + TimeUnit.MILLISECONDS.toNanos(100), computed + " ns");
+		assertTrue(cached < TimeUnit.MILLISECONDS.toNanos(1), cached + " ns");
+	}
+
+	private static double nearestFirstLength(Location location, List<Attraction> closest) {
+		double length = 0;
+		Location previous = location;
+		for (Attraction attraction : closest) {
+			length += GeoMath.distance(previous, attraction);
+			previous = attraction;
+		}
+		return length;
+	}
+}
@@ -0,0 +1,123 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.simulation.GpsTrace;
+import com.openclassrooms.tourguide.simulation.ReplayGpsUtil;
+import com.openclassrooms.tourguide.simulation.SimulationClock;
+import com.openclassrooms.tourguide.simulation.SimulationReport;
+import com.openclassrooms.tourguide.simulation.SyntheticTraces;
+import com.openclassrooms.tourguide.simulation.TraceReplay;
+
+public class TestTraceReplay {
+
+	private static final long START = 1_700_000_000_000L;
+
+	/**
+	 * RewardCentral stand-in answering immediately
+	 */
+	private static class InstantRewardCentral extends RewardCentral {
+
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			return 100;
+		}
+	}
+
+	private final List<Attraction> attractions = new GpsUtil().getAttractions();
+
+	@Test
+	public void traceSurvivesItsCompactForm() throws IOException {
+		GpsTrace trace = SyntheticTraces.generate(attractions, 20, START, Duration.ofHours(2), Duration.ofMinutes(1), 42);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		trace.write(bytes);
+		GpsTrace read = GpsTrace.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+		assertEquals(trace.getUserIds(), read.getUserIds());
+		assertEquals(trace.getFixCount(), read.getFixCount());
+		assertEquals(20 * 121, read.getFixCount());
+		for (int user = 0; user < 20; user++) {
+			for (long time = START; time <= trace.getEnd(); time += Duration.ofMinutes(7).toMillis()) {
+				Location expected = trace.positionAt(user, time);
+				Location actual = read.positionAt(user, time);
+				assertEquals(expected.latitude, actual.latitude, 1e-9);
+				assertEquals(expected.longitude, actual.longitude, 1e-9);
+			}
+		}
+		assertTrue(bytes.size() < read.getFixCount() * 8, bytes.size() + " bytes");
+	}
+
+	@Test
+	public void positionIsInterpolatedBetweenFixes() {
+		UUID userId = UUID.randomUUID();
+		GpsTrace trace = GpsTrace.builder()
+				.add(userId, START + 60_000, new Location(34, -118))
+				.add(userId, START, new Location(33, -117))
+				.build();
+
+		Location middle = trace.positionAt(trace.indexOf(userId), START + 15_000);
+		Location after = trace.positionAt(trace.indexOf(userId), START + 120_000);
+
+		assertEquals(33.25, middle.latitude, 1e-6);
+		assertEquals(-117.25, middle.longitude, 1e-6);
+		assertEquals(34, after.latitude, 1e-6);
+		assertEquals(-1, trace.indexOf(UUID.randomUUID()));
+	}
+
+	@Test
+	public void replayTracksEveryUserOnEachCycle() {
+		GpsTrace trace = SyntheticTraces.generate(attractions, 20, START, Duration.ofHours(2), Duration.ofMinutes(1), 7);
+		SimulationReport report = replay(trace, 3600);
+
+		assertEquals(20, report.getUsers());
+		assertEquals(25, report.getCycles());
+		assertEquals(20 * 25, report.getTracks());
+		assertEquals(25 * 2, report.getQueries());
+		assertTrue(report.getTrackedRewards() > 0);
+		assertTrue(report.getSimulatedDuration().compareTo(Duration.ofHours(2)) >= 0);
+	}
+
+	@Disabled
+	@Test
+	public void replayCapacity() {
+		GpsTrace trace = SyntheticTraces.generate(attractions, 10000, START, Duration.ofHours(6), Duration.ofMinutes(1), 7);
+		SimulationReport report = replay(trace, 600);
+
+		System.out.println("replayCapacity: " + report);
+		assertEquals(0, report.getOverrunCycles());
+	}
+
+	private SimulationReport replay(GpsTrace trace, double speed) {
+		InternalTestHelper.setInternalUserNumber(0);
+		SimulationClock clock = new SimulationClock(trace.getStart(), speed);
+		ReplayGpsUtil gpsUtil = new ReplayGpsUtil(trace, clock, attractions);
+		RewardsService rewardsService = new RewardsService(gpsUtil, new InstantRewardCentral());
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		tourGuideService.tracker.stopTracking();
+
+		TourGuideController controller = new TourGuideController();
+		controller.tourGuideService = tourGuideService;
+		controller.rewardsService = rewardsService;
+
+		return new TraceReplay(tourGuideService, rewardsService, trace, clock)
+				.run(Duration.ofMinutes(5), user -> controller.getNearbyAttractions(user.getUserName()), 2);
+	}
+}
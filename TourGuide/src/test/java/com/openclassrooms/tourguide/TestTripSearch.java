@@ -0,0 +1,117 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+import com.openclassrooms.tourguide.pricing.TripQueryResult;
+import com.openclassrooms.tourguide.pricing.TripSearchProperties;
+import com.openclassrooms.tourguide.pricing.TripSearchResult;
+import com.openclassrooms.tourguide.pricing.TripSearchService;
+import com.openclassrooms.tourguide.pricing.TripVariation;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestTripSearch {
+
+	/**
+	 * TripPricer stand-in pricing five providers at 100 per night, and never answering for ten nights
+	 */
+	private static class StubTripPricer extends TripPricer {
+
+		@Override
+		public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay, int rewardsPoints) {
+			if (nightsStay == 10) {
+				try {
+					TimeUnit.SECONDS.sleep(30);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			List<Provider> providers = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				providers.add(new Provider(UUID.randomUUID(), "Provider " + i, 100 * nightsStay + i));
+			}
+			return providers;
+		}
+	}
+
+	private final User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+	@Test
+	public void everyVariationIsMergedAndRanked() {
+		TripSearchService tripSearchService = new TripSearchService(new TripSearchProperties(), new StubTripPricer());
+		List<TripQueryResult> streamed = new CopyOnWriteArrayList<>();
+		List<TripVariation> variations = tripSearchService.variations(user, List.of(1, 2, 3), List.of(1, 2), null);
+
+		TripSearchResult result = tripSearchService.search(user, variations, streamed::add).join();
+
+		assertEquals(6, variations.size());
+		assertEquals(TripSearchResult.COMPLETE, result.getStopReason());
+		assertEquals(6, result.getCompleted());
+		assertEquals(6, streamed.size());
+		assertEquals(20, result.getDeals().size());
+		for (int i = 1; i < result.getDeals().size(); i++) {
+			assertTrue(result.getDeals().get(i - 1).getPricePerTravellerNight() <= result.getDeals().get(i).getPricePerTravellerNight());
+		}
+		assertEquals(2, result.getDeals().get(0).getVariation().getAdults());
+		tripSearchService.close();
+	}
+
+	@Test
+	public void oversizedRequestsAreCappedToTheMaximumVariations() {
+		TripSearchService tripSearchService = new TripSearchService(new TripSearchProperties(), new StubTripPricer());
+		List<Integer> values = IntStream.rangeClosed(1, 100_000).boxed().toList();
+
+		List<TripVariation> variations = tripSearchService.variations(user, values, values, values);
+
+		assertEquals(new TripSearchProperties().getMaxVariations(), variations.size());
+		assertEquals(1, variations.get(0).getAdults());
+		assertEquals(1, variations.get(0).getChildren());
+		assertEquals(1, variations.get(0).getNights());
+		tripSearchService.close();
+	}
+
+	@Test
+	public void deadlineCancelsOutstandingQueries() {
+		TripSearchProperties properties = new TripSearchProperties();
+		properties.setDeadline(Duration.ofMillis(200));
+		TripSearchService tripSearchService = new TripSearchService(properties, new StubTripPricer());
+
+		TripSearchResult result = tripSearchService.search(user,
+				tripSearchService.variations(user, List.of(3, 10), null, null), queryResult -> {}).join();
+
+		assertEquals(TripSearchResult.DEADLINE, result.getStopReason());
+		assertEquals(1, result.getCompleted());
+		assertEquals(1, result.getCancelled());
+		assertEquals(5, result.getDeals().size());
+		assertTrue(result.getElapsedMillis() < 5000);
+		tripSearchService.close();
+	}
+
+	@Test
+	public void enoughDealsStopTheSearch() {
+		TripSearchProperties properties = new TripSearchProperties();
+		properties.setThreads(1);
+		properties.setEnoughDeals(5);
+		TripSearchService tripSearchService = new TripSearchService(properties, new StubTripPricer());
+
+		TripSearchResult result = tripSearchService.search(user,
+				tripSearchService.variations(user, List.of(1, 2, 3, 4), null, null), queryResult -> {}).join();
+
+		assertEquals(TripSearchResult.ENOUGH_DEALS, result.getStopReason());
+		assertEquals(1, result.getCompleted());
+		assertEquals(3, result.getCancelled());
+		tripSearchService.close();
+	}
+}
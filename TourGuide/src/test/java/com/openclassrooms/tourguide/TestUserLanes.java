@@ -0,0 +1,94 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.lane.UserLanes;
+import com.openclassrooms.tourguide.resilience.CallPriority;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestUserLanes {
+
+	private static class Counter {
+		private int value;
+	}
+
+	@Test
+	public void changesOfAUserAreSerial() {
+		try (UserLanes userLanes = new UserLanes(4)) {
+			UUID userId = UUID.randomUUID();
+			Counter counter = new Counter();
+			Set<String> threads = ConcurrentHashMap.newKeySet();
+
+			// Many submitters racing on an unsynchronized counter, which only stays exact if the changes never overlap
+			List<CompletableFuture<Void>> submitters = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				submitters.add(CompletableFuture.runAsync(() -> {
+					for (int j = 0; j < 10000; j++) {
+						userLanes.execute(userId, () -> {
+							threads.add(Thread.currentThread().getName());
+							counter.value++;
+						});
+					}
+				}));
+			}
+			submitters.forEach(CompletableFuture::join);
+
+			assertEquals(80000, (int) userLanes.submit(userId, () -> counter.value).join());
+			assertEquals(1, threads.size());
+		}
+	}
+
+	@Test
+	public void usersAreSpreadOverTheLanes() {
+		try (UserLanes userLanes = new UserLanes(4)) {
+			Set<Integer> lanes = new HashSet<>();
+			Set<String> threads = ConcurrentHashMap.newKeySet();
+			List<CompletableFuture<Void>> changes = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				UUID userId = UUID.randomUUID();
+				lanes.add(userLanes.laneOf(userId));
+				changes.add(userLanes.execute(userId, () -> threads.add(Thread.currentThread().getName())));
+			}
+			changes.forEach(CompletableFuture::join);
+
+			assertEquals(4, lanes.size());
+			assertEquals(4, threads.size());
+			assertTrue(threads.stream().allMatch(name -> name.startsWith("user-lane-")));
+		}
+	}
+
+	@Test
+	public void concurrentTrackingOfAUserKeepsEveryLocation() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		tourGuideService.tracker.stopTracking();
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		List<CompletableFuture<VisitedLocation>> tracks = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			tracks.add(tourGuideService.trackUserLocation(user, i % 2 == 0 ? CallPriority.BACKGROUND : CallPriority.INTERACTIVE));
+		}
+		tracks.forEach(CompletableFuture::join);
+
+		assertEquals(20, user.getVisitedLocations().size());
+	}
+}
@@ -0,0 +1,157 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.geo.GeoMath;
+import com.openclassrooms.tourguide.geo.NearbyUser;
+import com.openclassrooms.tourguide.geo.UserPositionIndex;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestUserPositionIndex {
+
+	private final Random random = new Random(11);
+
+	private Location randomLocation() {
+		return new Location(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+	}
+
+	private List<User> indexUsers(UserPositionIndex index, List<VisitedLocation> positions, int count) {
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+			VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), randomLocation(), new Date(i));
+			index.update(user, visitedLocation);
+			users.add(user);
+			positions.add(visitedLocation);
+		}
+		return users;
+	}
+
+	@Test
+	public void findsSameUsersAsFullScan() {
+		UserPositionIndex index = new UserPositionIndex(0.5);
+		List<VisitedLocation> positions = new ArrayList<>();
+		indexUsers(index, positions, 20000);
+
+		for (int i = 0; i < 200; i++) {
+			Location center = randomLocation();
+			double radius = i % 2 == 0 ? random.nextInt(200) : random.nextInt(5000);
+			Set<UUID> expected = positions.stream()
+					.filter(position -> GeoMath.distance(position.location, center) <= radius)
+					.map(position -> position.userId)
+					.collect(Collectors.toSet());
+
+			List<NearbyUser> found = index.withinRadius(center, radius, Integer.MAX_VALUE);
+
+			assertEquals(expected, found.stream().map(NearbyUser::getUserId).collect(Collectors.toSet()));
+			assertEquals(expected.size(), found.size());
+			for (int j = 1; j < found.size(); j++) {
+				assertTrue(found.get(j - 1).getDistance() <= found.get(j).getDistance());
+			}
+		}
+	}
+
+	@Test
+	public void followsMovingUsers() {
+		UserPositionIndex index = new UserPositionIndex(0.5);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Location paris = new Location(48.8584, 2.2945);
+		Location london = new Location(51.5007, -0.1246);
+
+		index.update(user, new VisitedLocation(user.getUserId(), paris, new Date(1000)));
+		index.update(user, new VisitedLocation(user.getUserId(), london, new Date(2000)));
+		// a late fix must not move the user back
+		index.update(user, new VisitedLocation(user.getUserId(), paris, new Date(1500)));
+
+		assertTrue(index.withinRadius(paris, 10, 10).isEmpty());
+		assertEquals("jon", index.withinRadius(london, 10, 10).get(0).getUserName());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	public void concurrentMovesKeepEveryUser() throws Exception {
+		UserPositionIndex index = new UserPositionIndex(0.5);
+		Location paris = new Location(48.8584, 2.2945);
+		Location london = new Location(51.5007, -0.1246);
+		int userCount = 8;
+		int moves = 20000;
+
+		// users leaving and entering the same two cells, emptying them constantly
+		List<Thread> threads = new ArrayList<>();
+		for (int u = 0; u < userCount; u++) {
+			User user = new User(UUID.randomUUID(), "user" + u, "000", "user" + u + "@tourGuide.com");
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < moves; i++) {
+					Location location = i % 2 == 0 ? paris : london;
+					index.update(user, new VisitedLocation(user.getUserId(), location, new Date(i)));
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// every user ended in London
+		assertEquals(userCount, index.withinRadius(london, 10, Integer.MAX_VALUE).size());
+		assertTrue(index.withinRadius(paris, 10, Integer.MAX_VALUE).isEmpty());
+	}
+
+	@Test
+	public void trackedUsersAreIndexed() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).get();
+		tourGuideService.tracker.stopTracking();
+
+		List<NearbyUser> nearby = tourGuideService.getUsersNear(visitedLocation.location, 1, 10);
+		assertEquals(1, nearby.size());
+		assertEquals(user.getUserId(), nearby.get(0).getUserId());
+	}
+
+	@Disabled
+	@Test
+	public void highVolumeQueries() {
+		UserPositionIndex index = new UserPositionIndex(0.5);
+		indexUsers(index, new ArrayList<>(), 100000);
+		List<Location> centers = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			centers.add(randomLocation());
+		}
+
+		long start = System.nanoTime();
+		long found = 0;
+		for (Location center : centers) {
+			found += index.withinRadius(center, 50, 100).size();
+		}
+		long averageNanos = (System.nanoTime() - start) / centers.size();
+
+		System.out.println("highVolumeQueries: average query " + averageNanos + " ns, " + found + " users found");
+		assertTrue(averageNanos < TimeUnit.MILLISECONDS.toNanos(1));
+	}
+}
@@ -0,0 +1,92 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.event.TourGuideEventBus;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.resilience.AdmissionProperties;
+import com.openclassrooms.tourguide.resilience.GpsAdmissionControl;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.startup.Warmup;
+import com.openclassrooms.tourguide.startup.WarmupHealthIndicator;
+
+public class TestWarmup {
+
+	/**
+	 * GpsUtil stand-in holding the attractions until released
+	 */
+	private static class SlowGpsUtil extends GpsUtil {
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public List<Attraction> getAttractions() {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return super.getAttractions();
+		}
+	}
+
+	@Test
+	public void fastStartLoadsInTheBackground() throws Exception {
+		SlowGpsUtil gpsUtil = new SlowGpsUtil();
+		AttractionCatalog attractionCatalog = AttractionCatalog.deferred(gpsUtil);
+		TourGuideEventBus eventBus = new TourGuideEventBus();
+		RewardsService rewardsService = RewardsService.builder(attractionCatalog, new RewardCentral())
+				.eventBus(eventBus)
+				.build();
+		Warmup warmup = new Warmup(true);
+		WarmupHealthIndicator healthIndicator = new WarmupHealthIndicator(warmup, attractionCatalog);
+
+		InternalTestHelper.setInternalUserNumber(10000);
+		TourGuideService tourGuideService = TourGuideService.builder(gpsUtil, rewardsService)
+				.eventBus(eventBus)
+				.gpsAdmissionControl(new GpsAdmissionControl(new AdmissionProperties()))
+				.warmup(warmup)
+				.build();
+		boolean completeAfterConstructor = warmup.isComplete();
+		Status statusAfterConstructor = healthIndicator.health().getStatus();
+
+		gpsUtil.release.countDown();
+		warmup.getCompletion().get(30, TimeUnit.SECONDS);
+		tourGuideService.tracker.stopTracking();
+
+		assertFalse(completeAfterConstructor);
+		assertEquals(Status.OUT_OF_SERVICE, statusAfterConstructor);
+		assertEquals(Status.UP, healthIndicator.health().getStatus());
+		assertEquals(10000, tourGuideService.getAllUsers().size());
+		assertEquals(10000, warmup.getUsersLoaded());
+		assertTrue(attractionCatalog.isLoaded());
+		assertTrue(warmup.getTimeToWarm() > 0);
+	}
+
+	@Test
+	public void defaultStartIsWarmOnceConstructed() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+
+		InternalTestHelper.setInternalUserNumber(10);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(10, tourGuideService.getAllUsers().size());
+		assertTrue(rewardsService.getAttractionCatalog().isLoaded());
+	}
+}